@@ -1,12 +1,36 @@
 package com.emergencias;
 
 import com.emergencias.alert.AlertSender;
+import com.emergencias.alert.BackpressurePolicy;
+import com.emergencias.alert.CallAlert;
+import com.emergencias.alert.CoalescingAlert;
+import com.emergencias.alert.CompletionPolicy;
+import com.emergencias.alert.CompositeAlert;
+import com.emergencias.alert.DispatchCenterStub;
 import com.emergencias.alert.EmergencyLogger;
+import com.emergencias.alert.NetworkAlert;
+import com.emergencias.alert.RateLimitedAlert;
+import com.emergencias.alert.ResilientAlert;
+import com.emergencias.alert.TokenBucket;
+import com.emergencias.controller.BulkIngestor;
+import com.emergencias.controller.EmergencyHttpServer;
+import com.emergencias.controller.EmergencyPipeline;
 import com.emergencias.controller.EmergencyManager;
+import com.emergencias.controller.SessionEngine;
 import com.emergencias.detector.EmergencyDetector;
+import com.emergencias.model.CentroSaludRepository;
 import com.emergencias.model.UserData;
 import com.emergencias.services.IAlert;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * <h1>Clase Principal del Sistema de Emergencias</h1>
@@ -33,6 +57,31 @@ import java.util.Scanner;
  * @since 2023-10-27
  */
 public class Main {
+    // --- OPCIONES DE LÍNEA DE COMANDOS ---
+    private static final String MULTICHANNEL_OPTION = "--multicanal";
+    private static final String NETWORK_OPTION = "--red";
+    private static final String INGEST_OPTION = "--ingest";
+    private static final int INGEST_MAX_IN_FLIGHT = 64;
+    private static final String SESSIONS_OPTION = "--sesiones";
+    private static final Duration SESSIONS_TIMEOUT = Duration.ofHours(1);
+    private static final String HTTP_OPTION = "--http";
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final String HEALTH_CENTERS_OPTION = "--centros";
+    // En modo servidor caben muchas más emergencias en curso que en la consola.
+    private static final EmergencyPipeline.StageSize HTTP_REGISTRATION = EmergencyPipeline.StageSize.of(4, 4096);
+    private static final EmergencyPipeline.StageSize HTTP_DELIVERY = EmergencyPipeline.StageSize.of(512, 4096);
+    private static final EmergencyPipeline.StageSize HTTP_FEEDBACK = EmergencyPipeline.StageSize.of(1, 1024);
+    private static final Duration SIMULATED_112_LATENCY = Duration.ofMillis(50);
+    private static final Duration CHANNEL_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration COALESCING_WINDOW = Duration.ofMinutes(2);
+    // Capacidad de cada canal: envíos por segundo (0: sin límite) y ráfaga máxima.
+    private static final String RATE_OPTION = "--ritmo";
+    private static final String BURST_OPTION = "--rafaga";
+    private static final double INTERACTIVE_CHANNEL_RATE = 5.0;
+    private static final int DEFAULT_CHANNEL_BURST = 20;
+    private static final Duration MAX_QUEUE_WAIT = Duration.ofSeconds(10);
+    // En modo multicanal la espera debe caber en el plazo de cada canal.
+    private static final Duration MULTICHANNEL_QUEUE_WAIT = Duration.ofSeconds(2);
     
     /**
      * Punto de entrada principal de la aplicación.
@@ -41,29 +90,71 @@ public class Main {
      * críticas que puedan ocurrir durante el arranque o la ejecución.
      * </p>
      *
-     * @param args Argumentos de la línea de comandos (no se utilizan en esta aplicación).
+     * @param args Argumentos de la línea de comandos. Con {@code --multicanal}, las
+     *             alertas se envían a la vez por todos los canales disponibles; con
+     *             {@code --red}, el aviso al 112 va por red a un centro simulado en local;
+     *             con {@code --ingest <archivo|->}, las emergencias se leen en formato
+     *             JSON Lines de un archivo o de la entrada estándar, sin interacción;
+     *             con {@code --sesiones <directorio>}, cada archivo del directorio es la
+     *             entrada de una persona distinta y todas se atienden a la vez; con
+     *             {@code --http [puerto]}, las emergencias se reciben por una API HTTP.
+     *             Con {@code --centros <archivo>}, los centros de salud de Murcia se
+     *             leen de ese archivo JSON y se recargan cuando cambia. Con
+     *             {@code --ritmo <envíos/s>} y {@code --rafaga <envíos>} se ajusta el
+     *             límite de ritmo de cada canal ({@code --ritmo 0}: sin límite).
      */
     public static void main(String[] args) {
         // Se crea un único objeto Scanner para toda la aplicación.
         // Esto evita problemas de cierre del flujo de entrada estándar (System.in).
         Scanner scanner = new Scanner(System.in);
+        EmergencyLogger logger = null;
         
         try {
             // --- PASO 1: Creación de los objetos de datos ---
             // Se instancia un objeto UserData con información de ejemplo.
             // Esta información será posteriormente actualizada por el usuario.
-            UserData userData = new UserData(
-                "Juan Pérez",
-                "+34 600 123 456",
-                "Alergias: Ninguna\nTipo de sangre: A+",
-                "María García (Madre): +34 600 654 321"
-            );
+            UserData userData = sampleUserData();
             
             // --- PASO 2: Creación de las dependencias (servicios) ---
             // Se instancian los componentes que realizarán las tareas principales.
             EmergencyDetector detector = new EmergencyDetector(userData, scanner);
-            IAlert alertSender = new AlertSender(); // Usamos la interfaz para desacoplar
-            EmergencyLogger logger = new EmergencyLogger();
+            IAlert alertSender = createAlert(args); // Usamos la interfaz para desacoplar
+            logger = new EmergencyLogger();
+
+            // Centros de salud de un archivo externo, que se recarga al cambiar.
+            String healthCentersFile = optionValue(args, HEALTH_CENTERS_OPTION);
+            if (healthCentersFile != null && !healthCentersFile.equals(BulkIngestor.STDIN)) {
+                System.out.println("Centros de salud: " + CentroSaludRepository.usarArchivoMurcia(Path.of(healthCentersFile)));
+            }
+            
+            // Modo sin interacción: las emergencias llegan de un archivo o de la entrada estándar.
+            String ingestSource = optionValue(args, INGEST_OPTION);
+            if (ingestSource != null) {
+                EmergencyPipeline pipeline = new EmergencyPipeline(alertSender, logger).start();
+                BulkIngestor ingestor = new BulkIngestor(userData, pipeline, INGEST_MAX_IN_FLIGHT);
+                try {
+                    ingestor.ingest(ingestSource);
+                } finally {
+                    pipeline.close();
+                }
+                System.out.println("\n" + ingestor.report());
+                System.out.println(pipeline.report());
+                return;
+            }
+
+            // Modo servidor: las emergencias llegan por HTTP hasta que se detiene el proceso.
+            String httpPort = optionValue(args, HTTP_OPTION);
+            if (httpPort != null) {
+                serveHttp(httpPort, userData, alertSender, logger);
+                return;
+            }
+
+            // Modo multisesión: muchas personas a la vez, cada una con su propia entrada.
+            String sessionsDirectory = optionValue(args, SESSIONS_OPTION);
+            if (sessionsDirectory != null) {
+                runSessions(Path.of(sessionsDirectory), alertSender, logger);
+                return;
+            }
             
             // --- PASO 3: Inyección de Dependencias ---
             // Se crea el gestor principal y se le "inyectan" todas las dependencias
@@ -95,6 +186,208 @@ public class Main {
             if (scanner != null) {
                 scanner.close();
             }
+            // Se cierran los diarios de registro para liberar sus canales de archivo.
+            if (logger != null) {
+                logger.close();
+            }
+        }
+    }
+
+    /**
+     * Elige el sistema de alertas según los argumentos: por defecto el
+     * {@link AlertSender}; con {@code --multicanal}, un {@link CompositeAlert}
+     * que envía por {@link AlertSender} y {@link CallAlert} a la vez y se da
+     * por enviado con la primera confirmación. Cada canal se envuelve en un
+     * {@link ResilientAlert} (reintentos y cortocircuito) y, si tiene límite
+     * de ritmo, en un {@link RateLimitedAlert}: los envíos sobrantes esperan
+     * su turno y, si no les llega a tiempo, se desvían al otro canal, de modo
+     * que ninguna emergencia se queda sin alerta. Los reportes repetidos de un
+     * mismo incidente se agrupan con un {@link CoalescingAlert}. Con
+     * {@code --red}, el canal principal es un {@link NetworkAlert} en lugar
+     * del {@link AlertSender}.
+     * <p>
+     * En la consola y en las sesiones, cada canal admite por defecto
+     * {@value #INTERACTIVE_CHANNEL_RATE} envíos por segundo; con
+     * {@code --ingest} y {@code --http}, donde llegan muchas emergencias
+     * reales seguidas, no hay límite salvo que se indique {@code --ritmo}.
+     * </p>
+     *
+     * @param args Argumentos de la línea de comandos.
+     * @return El sistema de alertas a utilizar.
+     */
+    private static IAlert createAlert(String[] args) {
+        boolean unattended = optionValue(args, INGEST_OPTION) != null || optionValue(args, HTTP_OPTION) != null;
+        double rate = numberOption(args, RATE_OPTION, unattended ? 0 : INTERACTIVE_CHANNEL_RATE);
+        int burst = (int) numberOption(args, BURST_OPTION, DEFAULT_CHANNEL_BURST);
+
+        IAlert primary = new ResilientAlert(
+            Arrays.asList(args).contains(NETWORK_OPTION) ? createNetworkAlert() : new AlertSender());
+        IAlert call = new ResilientAlert(new CallAlert());
+        IAlert alert;
+        if (Arrays.asList(args).contains(MULTICHANNEL_OPTION)) {
+            System.out.println("Modo multicanal: las alertas se envían por todos los canales a la vez.");
+            alert = new CompositeAlert(CompletionPolicy.firstSuccess(), CHANNEL_TIMEOUT,
+                limited(primary, rate, burst, BackpressurePolicy.queue(MULTICHANNEL_QUEUE_WAIT, call)),
+                limited(call, rate, burst, BackpressurePolicy.queue(MULTICHANNEL_QUEUE_WAIT, primary)));
+        } else {
+            alert = limited(primary, rate, burst, BackpressurePolicy.queue(MAX_QUEUE_WAIT, call));
+        }
+        return new CoalescingAlert(alert, COALESCING_WINDOW);
+    }
+
+    /**
+     * Arranca el simulador local del centro 112 y crea un canal de red hacia
+     * él. Si no se puede arrancar, se usa el {@link AlertSender}.
+     *
+     * @return El canal de alerta principal.
+     */
+    private static IAlert createNetworkAlert() {
+        try {
+            DispatchCenterStub center = new DispatchCenterStub(SIMULATED_112_LATENCY, 0.0);
+            NetworkAlert alert = new NetworkAlert(center.start());
+            System.out.println("Modo red: las alertas se envían al centro 112 simulado en " + center.getAddress() + ".");
+            return alert;
+        } catch (IOException e) {
+            System.err.println("⚠️  Advertencia: No se pudo arrancar el centro 112 simulado: " + e.getMessage());
+            return new AlertSender();
+        }
+    }
+
+    /**
+     * @return Datos de usuario de ejemplo, que el usuario actualiza al iniciar el sistema.
+     */
+    private static UserData sampleUserData() {
+        return new UserData(
+            "Juan Pérez",
+            "+34 600 123 456",
+            "Alergias: Ninguna\nTipo de sangre: A+",
+            "María García (Madre): +34 600 654 321"
+        );
+    }
+
+    /**
+     * Abre una sesión por cada archivo del directorio, usando su contenido
+     * como la entrada de una persona, y espera a que terminen todas.
+     *
+     * @param directory   El directorio con las entradas de las sesiones.
+     * @param alertSender El sistema de alertas compartido.
+     * @param logger      El registro de emergencias compartido.
+     * @throws IOException          si no se puede leer el directorio.
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    private static void runSessions(Path directory, IAlert alertSender, EmergencyLogger logger)
+            throws IOException, InterruptedException {
+        if (!Files.isDirectory(directory)) {
+            System.err.println("❌ Error: '" + directory + "' no es un directorio con las entradas de las sesiones.");
+            return;
+        }
+        SessionEngine engine = new SessionEngine(alertSender, logger);
+        try (DirectoryStream<Path> inputs = Files.newDirectoryStream(directory)) {
+            for (Path input : inputs) {
+                if (Files.isRegularFile(input)) {
+                    engine.open(input.getFileName().toString(),
+                        new ByteArrayInputStream(Files.readAllBytes(input)), sampleUserData());
+                }
+            }
+        }
+        if (!engine.awaitAll(SESSIONS_TIMEOUT)) {
+            System.err.println("⚠️  Advertencia: Algunas sesiones no han terminado a tiempo.");
+        }
+        engine.close();
+        System.out.println("\n" + engine);
+        System.out.println(engine.getPipeline().report());
+    }
+
+    /**
+     * Atiende la API HTTP de emergencias hasta que se detiene el proceso
+     * (Ctrl+C). Al detenerse se termina lo pendiente y se cierran los registros.
+     *
+     * @param port        El puerto, o {@value BulkIngestor#STDIN} para el puerto por defecto.
+     * @param userData    Los datos del usuario, para los eventos que no traen los suyos.
+     * @param alertSender El sistema de alertas.
+     * @param logger      El registro de emergencias.
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    private static void serveHttp(String port, UserData userData, IAlert alertSender, EmergencyLogger logger)
+            throws InterruptedException {
+        int portNumber;
+        try {
+            portNumber = BulkIngestor.STDIN.equals(port) ? DEFAULT_HTTP_PORT : Integer.parseInt(port);
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Error: '" + port + "' no es un número de puerto válido.");
+            return;
+        }
+        EmergencyPipeline pipeline = new EmergencyPipeline(alertSender, logger,
+            HTTP_REGISTRATION, HTTP_DELIVERY, HTTP_DELIVERY, HTTP_FEEDBACK).start();
+        EmergencyHttpServer server = new EmergencyHttpServer(new InetSocketAddress(portNumber), pipeline, userData);
+        InetSocketAddress address = server.start();
+        System.out.println("API HTTP escuchando en http://localhost:" + address.getPort()
+            + "/emergencias (Ctrl+C para detener).");
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("parada-http").unstarted(() -> {
+            server.close();
+            pipeline.close();
+            logger.close();
+            System.out.println("\n" + server + "\n" + pipeline.report());
+        }));
+        new CountDownLatch(1).await();
+    }
+
+    /**
+     * Busca el valor de una opción de la línea de comandos.
+     *
+     * @param args   Argumentos de la línea de comandos.
+     * @param option La opción.
+     * @return El argumento que sigue a la opción; {@value BulkIngestor#STDIN} si
+     *         es la última; o {@code null} si no aparece.
+     */
+    private static String optionValue(String[] args, String option) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(option)) {
+                return i + 1 < args.length && !args[i + 1].startsWith("--") ? args[i + 1] : BulkIngestor.STDIN;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca el valor numérico de una opción de la línea de comandos.
+     *
+     * @param args         Argumentos de la línea de comandos.
+     * @param option       La opción.
+     * @param defaultValue El valor si la opción no aparece o no es un número válido.
+     * @return El valor de la opción.
+     */
+    private static double numberOption(String[] args, String option, double defaultValue) {
+        String value = optionValue(args, option);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            double number = Double.parseDouble(value);
+            if (number >= 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Se avisa abajo.
+        }
+        System.err.println("⚠️  Advertencia: '" + value + "' no es un valor válido para " + option
+            + "; se usa " + defaultValue + ".");
+        return defaultValue;
+    }
+
+    /**
+     * Envuelve un canal con su límite de ritmo.
+     *
+     * @param channel      El canal de alerta, ya con reintentos.
+     * @param rate         Envíos por segundo; 0 para no limitar el canal.
+     * @param burst        Ráfaga máxima.
+     * @param backpressure Qué hacer cuando el canal está saturado.
+     * @return El canal limitado, o el mismo canal si no hay límite.
+     */
+    private static IAlert limited(IAlert channel, double rate, int burst, BackpressurePolicy backpressure) {
+        if (rate <= 0) {
+            return channel;
         }
+        return new RateLimitedAlert(channel, new TokenBucket(rate, Math.max(1, burst)), backpressure);
     }
 }
@@ -0,0 +1,130 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.persistence.AsyncFileAppender;
+import com.emergencias.persistence.OverflowPolicy;
+import com.emergencias.persistence.RotationPolicy;
+import com.emergencias.persistence.SegmentedTextLog;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * <h1>Medición de Memoria por Alerta</h1>
+ *
+ * <p>
+ * Programa independiente que mide, con el {@code ThreadMXBean} de la JVM,
+ * cuántos bytes reserva el hilo que envía una alerta para componer el
+ * mensaje y dejarlo en el log asíncrono, tal como lo hacen
+ * {@link AlertSender} y {@link CallAlert}. Como referencia mide también
+ * la forma anterior: {@code String.format}, concatenación y un
+ * {@code String} por entrada del log.
+ * </p>
+ *
+ * <p>
+ * Uso: {@code java -cp <clases>:lib/* com.emergencias.alert.AlertAllocationCheck [alertas]}.
+ * Las entradas se escriben en un directorio temporal que se borra al terminar.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class AlertAllocationCheck {
+    private static final int DEFAULT_ALERTS = 100_000;
+    private static final int WARMUP_ALERTS = 20_000;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private AlertAllocationCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int alerts = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ALERTS;
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("❌ Error: Esta JVM no permite medir la memoria reservada por hilo.");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        EmergencyEvent event = new EmergencyEvent("Incendio", "Plaza Belluga, Murcia", 8,
+            "Nombre: Ana\nTeléfono: 600000000\nInformación médica: Ninguna");
+        Path directory = Files.createTempDirectory("alert-allocation");
+        try {
+            Path templateLog = directory.resolve("plantilla.log");
+            Path formatLog = directory.resolve("format.log");
+            measure(threads, "Plantilla + bytes", alerts, templateLog, appender -> sendWithTemplate(event, appender));
+            measure(threads, "String.format    ", alerts, formatLog, appender -> sendWithFormat(event, appender));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // --- MEDICIÓN ---
+
+    private interface Sender {
+        void send(AsyncFileAppender appender);
+    }
+
+    private static void measure(com.sun.management.ThreadMXBean threads, String name, int alerts,
+                                Path logFile, Sender sender) throws IOException {
+        RotationPolicy rotation = RotationPolicy.daily(Long.MAX_VALUE);
+        AsyncFileAppender appender = AsyncFileAppender.open(logFile, rotation, 8192, OverflowPolicy.block());
+        try {
+            for (int i = 0; i < WARMUP_ALERTS; i++) {
+                sender.send(appender);
+            }
+            appender.flush();
+
+            long thread = Thread.currentThread().threadId();
+            long before = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int i = 0; i < alerts; i++) {
+                sender.send(appender);
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            appender.flush();
+
+            System.out.printf("%s: %8.1f bytes/alerta, %6.0f ns/alerta (%d alertas)%n",
+                name, (double) allocated / alerts, (double) elapsed / alerts, alerts);
+        } finally {
+            appender.close();
+            SegmentedTextLog.open(logFile, rotation).close();
+        }
+    }
+
+    /**
+     * Como {@link AlertSender#send(EmergencyEvent)}, sin la consola: la
+     * plantilla y la codificación se hacen en un buffer del almacén.
+     */
+    private static void sendWithTemplate(EmergencyEvent event, AsyncFileAppender appender) {
+        try (AlertTemplate.Buffer buffer = AlertTemplate.Buffer.acquire()) {
+            buffer.text().append(AlertSender.LOG_SEPARATOR);
+            AlertSender.MESSAGE_TEMPLATE.render(event, buffer).append("\n\n");
+            appender.append(buffer.utf8(), event.getSeverityLevel());
+        }
+    }
+
+    /**
+     * La forma anterior de componer la alerta, como referencia.
+     */
+    private static void sendWithFormat(EmergencyEvent event, AsyncFileAppender appender) {
+        LocalDateTime timestamp = event.getTimestamp();
+        String message = String.format(
+            "[%s] ALERTA DE EMERGENCIA%nTipo: %s%nUbicación: %s%nNivel de gravedad: %d/10%n%n"
+                + "--- INFORMACIÓN DEL USUARIO ---%n%s",
+            timestamp.format(TIMESTAMP_FORMAT), event.getEmergencyType(), event.getLocation(),
+            event.getSeverityLevel(), event.getUserData());
+        appender.append(AlertSender.LOG_SEPARATOR + message + "\n\n", event.getSeverityLevel());
+    }
+}
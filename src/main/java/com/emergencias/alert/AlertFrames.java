@@ -0,0 +1,235 @@
+package com.emergencias.alert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Tramas del Protocolo de Alertas en Red</h1>
+ *
+ * <p>
+ * Formato binario que comparten {@link NetworkAlert} y
+ * {@link DispatchCenterStub}. Cada trama va precedida de su longitud
+ * ({@code int}) y empieza por un byte de tipo:
+ * </p>
+ *
+ * <pre>
+ * ALERTA:    [tipo=1][id (short + UTF-8)][gravedad (int)][mensaje UTF-8 hasta el final]
+ * ACUSE:     [tipo=2][id (short + UTF-8)][detalle UTF-8 hasta el final]
+ * RECHAZO:   [tipo=3][id (short + UTF-8)][detalle UTF-8 hasta el final]
+ * </pre>
+ *
+ * <p>
+ * El identificador relaciona cada respuesta con su alerta, de modo que por
+ * una misma conexión puede haber muchas alertas pendientes a la vez.
+ * </p>
+ *
+ * <p>
+ * {@link Link} encapsula una conexión no bloqueante: acumula lo recibido
+ * hasta completar tramas y escribe las pendientes de una vez.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class AlertFrames {
+    static final byte ALERT = 1;
+    static final byte ACK = 2;
+    static final byte NACK = 3;
+
+    /** Tamaño máximo de una trama; una mayor indica un flujo corrupto. */
+    static final int MAX_FRAME = 1024 * 1024;
+
+    private AlertFrames() {
+    }
+
+    /**
+     * @param id       Identificador de la alerta.
+     * @param severity Gravedad del evento.
+     * @param message  Mensaje ya codificado en UTF-8 (se copia).
+     * @return La trama completa, lista para escribir.
+     */
+    static ByteBuffer alert(String id, int severity, ByteBuffer message) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + 2 + idBytes.length + 4 + message.remaining());
+        frame.putInt(frame.capacity() - 4).put(ALERT).putShort((short) idBytes.length).put(idBytes)
+            .putInt(severity).put(message);
+        return frame.flip();
+    }
+
+    /**
+     * @param type   {@link #ACK} o {@link #NACK}.
+     * @param id     Identificador de la alerta.
+     * @param detail Texto libre (puede estar vacío).
+     * @return La trama completa, lista para escribir.
+     */
+    static ByteBuffer reply(byte type, String id, String detail) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] detailBytes = detail.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + 2 + idBytes.length + detailBytes.length);
+        frame.putInt(frame.capacity() - 4).put(type).putShort((short) idBytes.length).put(idBytes).put(detailBytes);
+        return frame.flip();
+    }
+
+    /**
+     * Extrae la siguiente trama completa del buffer de lectura (en modo
+     * lectura). Si aún no ha llegado entera, deja el buffer como estaba.
+     *
+     * @param in Bytes recibidos.
+     * @return La trama sin el prefijo de longitud, o {@code null} si está incompleta.
+     * @throws IOException si la longitud anunciada no es válida.
+     */
+    static Frame next(ByteBuffer in) throws IOException {
+        if (in.remaining() < 4) {
+            return null;
+        }
+        int length = in.getInt(in.position());
+        if (length < 3 || length > MAX_FRAME - 4) {
+            throw new IOException("Longitud de trama no válida: " + length);
+        }
+        if (in.remaining() < 4 + length) {
+            return null;
+        }
+        in.position(in.position() + 4);
+        int end = in.position() + length;
+        byte type = in.get();
+        int idLength = in.getShort() & 0xFFFF;
+        if (idLength > end - in.position() - (type == ALERT ? 4 : 0)) {
+            throw new IOException("Identificador de trama no válido.");
+        }
+        byte[] idBytes = new byte[idLength];
+        in.get(idBytes);
+        int severity = type == ALERT ? in.getInt() : 0;
+        String text = new String(in.array(), in.arrayOffset() + in.position(), end - in.position(), StandardCharsets.UTF_8);
+        in.position(end);
+        return new Frame(type, new String(idBytes, StandardCharsets.UTF_8), severity, text);
+    }
+
+    /**
+     * Trama recibida.
+     */
+    static final class Frame {
+        final byte type;
+        final String id;
+        final int severity;
+        final String text;
+
+        Frame(byte type, String id, int severity, String text) {
+            this.type = type;
+            this.id = id;
+            this.severity = severity;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Conexión no bloqueante por la que se envían y reciben tramas. Solo la
+     * usa el hilo del {@link java.nio.channels.Selector} que la registró.
+     */
+    static final class Link {
+        private static final int INITIAL_READ_BUFFER = 64 * 1024;
+        private static final int MAX_GATHER = 64;
+
+        final SocketChannel channel;
+        SelectionKey key;
+        private final Deque<ByteBuffer> out = new ArrayDeque<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        private ByteBuffer in = ByteBuffer.allocate(INITIAL_READ_BUFFER);
+
+        Link(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Añade una trama a la cola de salida; se escribe en el siguiente
+         * {@link #flush()}.
+         */
+        void enqueue(ByteBuffer frame) {
+            out.add(frame);
+            if (key != null && key.isValid() && channel.isConnected()) {
+                key.interestOpsOr(SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Escribe todas las tramas pendientes que admita el socket, varias
+         * por llamada al sistema.
+         *
+         * @return {@code true} si no queda nada por escribir.
+         * @throws IOException si falla la conexión.
+         */
+        boolean flush() throws IOException {
+            while (!out.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer frame : out) {
+                    gather[count++] = frame;
+                    if (count == MAX_GATHER) {
+                        break;
+                    }
+                }
+                channel.write(gather, 0, count);
+                Arrays.fill(gather, 0, count, null);
+                int written = 0;
+                while (written < count && !out.peekFirst().hasRemaining()) {
+                    out.pollFirst();
+                    written++;
+                }
+                if (written < count) {
+                    break; // El socket está lleno: se sigue cuando vuelva a admitir datos.
+                }
+            }
+            if (key != null && key.isValid()) {
+                key.interestOps(out.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            return out.isEmpty();
+        }
+
+        /**
+         * Lee lo disponible y entrega cada trama completa al manejador.
+         *
+         * @return {@code false} si el otro extremo cerró la conexión.
+         * @throws IOException si falla la conexión o llega una trama no válida.
+         */
+        boolean read(Consumer<Frame> handler) throws IOException {
+            if (channel.read(in) < 0) {
+                return false;
+            }
+            in.flip();
+            Frame frame;
+            while ((frame = next(in)) != null) {
+                handler.accept(frame);
+            }
+            int needed = in.remaining() >= 4 ? 4 + in.getInt(in.position()) : 4;
+            in.compact();
+            if (needed > in.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(needed);
+                in.flip();
+                larger.put(in);
+                in = larger;
+            }
+            return true;
+        }
+
+        /**
+         * @return {@code true} si hay tramas sin escribir.
+         */
+        boolean hasPendingWrites() {
+            return !out.isEmpty();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // La conexión ya no se usa.
+            }
+        }
+    }
+}
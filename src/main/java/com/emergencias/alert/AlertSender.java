@@ -1,11 +1,20 @@
 package com.emergencias.alert;
 
+import com.emergencias.model.EmergencyContact;
 import com.emergencias.model.EmergencyEvent;
 import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.ContactNotifier;
+import com.emergencias.services.ContactResult;
 import com.emergencias.services.IAlert;
-import java.io.FileWriter;
+import com.emergencias.persistence.RotationPolicy;
+import com.emergencias.persistence.AsyncFileAppender;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <h1>Gestor de Envío de Alertas</h1>
@@ -34,7 +43,21 @@ public class AlertSender implements IAlert {
     // --- CONSTANTES DE CONFIGURACIÓN ---
     private static final String EMERGENCY_NUMBER = "112";
     private static final String ALERTS_FILE = "logs/emergency_alerts.log";
-    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final RotationPolicy ALERTS_ROTATION = RotationPolicy.daily(16L * 1024 * 1024); // Rotación diaria o a los 16 MB
+    // Formato de las entradas del log (también lo usa AlertAllocationCheck para medirlo).
+    static final String LOG_SEPARATOR = "=".repeat(80) + "\n";
+    static final AlertTemplate MESSAGE_TEMPLATE = AlertTemplate.compile(
+        "[{hora}] ALERTA DE EMERGENCIA\n" +
+        "Tipo: {tipo}\n" +
+        "Ubicación: {ubicacion}\n" +
+        "Nivel de gravedad: {gravedad}/10\n" +
+        "\n--- INFORMACIÓN DEL USUARIO ---\n{usuario}");
+    private static final long CONTACT_MESSAGE_DELAY_MS = 300; // Simula el envío de un mensaje
+    private static final ContactNotifier CONTACT_NOTIFIER =
+        new ContactNotifier("Mensaje a contacto", AlertSender::sendContactMessage, Duration.ofSeconds(10));
+
+    // Escritor del log de alertas (se abre con la primera alerta).
+    private volatile AsyncFileAppender alertsLog;
 
     /**
      * Envía la alerta principal de la emergencia.
@@ -55,24 +78,49 @@ public class AlertSender implements IAlert {
             return false;
         }
 
-        String alertMessage = formatAlertMessage(event);
-        
-        // 1. Muestra la alerta en consola para feedback inmediato al usuario.
-        System.out.println("\n=== ALERTA ENVIADA A SERVICIOS DE EMERGENCIA ===");
-        System.out.println(alertMessage);
-        
-        // 2. Registra la alerta en un archivo de log para persistencia y auditoría.
-        logAlertToFile(alertMessage);
-        
+        // El mensaje se compone una sola vez, ya con el formato del log.
+        try (AlertTemplate.Buffer buffer = AlertTemplate.Buffer.acquire()) {
+            StringBuilder entry = buffer.text().append(LOG_SEPARATOR);
+            int messageStart = entry.length();
+            MESSAGE_TEMPLATE.render(event, buffer).append('\n');
+            int messageEnd = entry.length();
+            entry.append('\n');
+
+            // 1. Muestra la alerta en consola para feedback inmediato al usuario.
+            System.out.println("\n=== ALERTA ENVIADA A SERVICIOS DE EMERGENCIA ===");
+            buffer.print(System.out, messageStart, messageEnd);
+
+            // 2. Registra la alerta en un archivo de log para persistencia y auditoría.
+            logAlertToFile(buffer.utf8(), event.getSeverityLevel());
+        }
+
         // 3. Simula la comunicación con el servicio de emergencias.
         return simulateEmergencyServiceCall(event);
     }
 
+    /**
+     * Envía la alerta en un hilo virtual, sin bloquear al llamante durante la
+     * simulación de la llamada. Un evento nulo se rechaza de inmediato, sin
+     * llegar a crear el hilo.
+     *
+     * @param event El evento de emergencia con los detalles a comunicar.
+     * @return Un futuro con el resultado del envío.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        if (event == null) {
+            System.err.println("❌ Error: No se puede enviar una alerta para un evento nulo.");
+            return CompletableFuture.completedFuture(
+                AlertResult.failed(getAlertType(), "Evento nulo.", Duration.ZERO));
+        }
+        return IAlert.super.sendAsync(event);
+    }
+
     /**
      * Notifica a los contactos de emergencia del usuario.
      * <p>
-     * Simula el envío de un mensaje o notificación a los contactos personales
-     * configurados en {@link UserData}.
+     * Simula el envío de un mensaje a cada uno de los contactos personales
+     * configurados en {@link UserData}, todos a la vez.
      * </p>
      *
      * @param userData Los datos del usuario que contienen la información del contacto.
@@ -80,18 +128,49 @@ public class AlertSender implements IAlert {
      */
     @Override
     public void notifyContacts(UserData userData, EmergencyEvent event) {
-        System.out.println("\n--- Notificando a Contactos de Emergencia ---");
-        
-        if (userData == null || userData.getEmergencyContact() == null || userData.getEmergencyContact().isEmpty()) {
+        notifyContactsAsync(userData, event).join();
+    }
+
+    /**
+     * Envía los mensajes a los contactos en paralelo mediante el
+     * {@link ContactNotifier}, sin ocupar ningún hilo mientras se espera.
+     *
+     * @param userData Los datos del usuario que contienen la información del contacto.
+     * @param event    El evento de emergencia con los detalles a notificar.
+     * @return Un futuro que se completa cuando todos los contactos han respondido o vence el plazo.
+     */
+    @Override
+    public CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        List<EmergencyContact> contacts = userData == null ? List.of() : userData.getEmergencyContacts();
+        if (contacts.isEmpty()) {
+            System.out.println("\n--- Notificando a Contactos de Emergencia ---");
             System.out.println("⚠️  No hay contactos de emergencia configurados para notificar.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        
-        System.out.println("✅ Notificación enviada a: " + userData.getEmergencyContact());
-        System.out.println("   Detalles enviados:");
-        System.out.println("   - Tipo de emergencia: " + event.getEmergencyType());
-        System.out.println("   - Ubicación: " + event.getLocation());
-        System.out.println("-------------------------------------------");
+        return CONTACT_NOTIFIER.notifyAll(contacts, event).thenAccept(results -> {
+            StringBuilder report = new StringBuilder("\n--- Notificando a Contactos de Emergencia ---\n");
+            for (ContactResult result : results) {
+                if (result.isSuccess()) {
+                    report.append("✅ Notificación enviada a: ").append(result.getContact()).append('\n');
+                } else {
+                    report.append("❌ No se pudo notificar a ").append(result.getContact())
+                        .append(": ").append(result.getResult().getDetail()).append('\n');
+                }
+            }
+            report.append("   Detalles enviados:\n")
+                .append("   - Tipo de emergencia: ").append(event.getEmergencyType()).append('\n')
+                .append("   - Ubicación: ").append(event.getLocation()).append('\n')
+                .append("-------------------------------------------");
+            System.out.println(report);
+        });
+    }
+
+    /**
+     * Simula el envío de un mensaje a un contacto con una o varias emergencias.
+     */
+    private static void sendContactMessage(EmergencyContact contact, List<EmergencyEvent> events)
+            throws InterruptedException {
+        Thread.sleep(CONTACT_MESSAGE_DELAY_MS);
     }
 
     /**
@@ -105,38 +184,33 @@ public class AlertSender implements IAlert {
     }
 
     /**
-     * Formatea un mensaje de alerta legible a partir de un evento de emergencia.
+     * Escribe el mensaje de alerta en un archivo de log. La escritura en disco
+     * la hace el hilo del {@link AsyncFileAppender}; aquí solo se encola.
      *
-     * @param event El evento de emergencia.
-     * @return Una cadena de texto con todos los detalles formateados.
+     * @param entry    La entrada completa del log (separador y mensaje) en UTF-8;
+     *                 el appender copia los bytes antes de volver.
+     * @param severity Gravedad del evento.
      */
-    private String formatAlertMessage(EmergencyEvent event) {
-        return String.format(
-            "[%s] ALERTA DE EMERGENCIA\n" +
-            "Tipo: %s\n" +
-            "Ubicación: %s\n" +
-            "Nivel de gravedad: %d/10\n" +
-            "\n--- INFORMACIÓN DEL USUARIO ---\n%s",
-            event.getTimestamp().format(TIMESTAMP_FORMAT),
-            event.getEmergencyType(),
-            event.getLocation(),
-            event.getSeverityLevel(),
-            event.getUserData()
-        );
+    private void logAlertToFile(ByteBuffer entry, int severity) {
+        try {
+            alertsLog().append(entry, severity);
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo guardar la alerta en el archivo de log: " + e.getMessage());
+        }
     }
 
     /**
-     * Escribe el mensaje de alerta en un archivo de log.
-     *
-     * @param alertMessage El mensaje de alerta formateado.
+     * Devuelve el escritor del log de alertas, abriéndolo la primera vez.
+     * Se conserva en un campo: el escritor es uno por archivo y sigue
+     * escribiendo aunque se cierre al terminar la JVM.
      */
-    private void logAlertToFile(String alertMessage) {
-        try (FileWriter writer = new FileWriter(ALERTS_FILE, true)) {
-            writer.write("=".repeat(80) + "\n");
-            writer.write(alertMessage + "\n\n");
-        } catch (IOException e) {
-            System.err.println("❌ Error crítico: No se pudo guardar la alerta en el archivo de log: " + e.getMessage());
+    private AsyncFileAppender alertsLog() throws IOException {
+        AsyncFileAppender log = alertsLog;
+        if (log == null) {
+            log = AsyncFileAppender.open(Path.of(ALERTS_FILE), ALERTS_ROTATION);
+            alertsLog = log;
         }
+        return log;
     }
 
     /**
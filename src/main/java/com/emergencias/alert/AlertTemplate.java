@@ -0,0 +1,295 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <h1>Plantilla Precompilada de Mensajes de Alerta</h1>
+ *
+ * <p>
+ * Sustituye a {@code String.format} al componer los mensajes de alerta. La
+ * plantilla se analiza una sola vez; al renderizarla solo se copian los
+ * textos fijos y los campos del evento en un {@link StringBuilder}
+ * reutilizable, sin crear cadenas intermedias.
+ * </p>
+ *
+ * <p>
+ * Marcadores disponibles: {@code {id}}, {@code {hora}}
+ * ({@code yyyy-MM-dd HH:mm:ss}), {@code {tipo}}, {@code {ubicacion}},
+ * {@code {gravedad}} y {@code {usuario}}.
+ * </p>
+ *
+ * <p>
+ * Los buffers ({@link Buffer}) se toman de un pequeño almacén compartido en
+ * lugar de guardarse por hilo, porque cada alerta se envía en un hilo
+ * virtual nuevo y un buffer por hilo no llegaría a reutilizarse.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class AlertTemplate {
+
+    /**
+     * Campos del evento que pueden aparecer en la plantilla.
+     */
+    private enum Field { LITERAL, ID, TIMESTAMP, TYPE, LOCATION, SEVERITY, USER }
+
+    private final Field[] fields;
+    private final String[] literals;
+
+    private AlertTemplate(Field[] fields, String[] literals) {
+        this.fields = fields;
+        this.literals = literals;
+    }
+
+    /**
+     * Analiza una plantilla.
+     *
+     * @param pattern Texto con marcadores entre llaves.
+     * @return La plantilla compilada.
+     * @throws IllegalArgumentException si contiene un marcador desconocido o sin cerrar.
+     */
+    public static AlertTemplate compile(String pattern) {
+        List<Field> fields = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        int position = 0;
+        while (position < pattern.length()) {
+            int open = pattern.indexOf('{', position);
+            if (open < 0) {
+                open = pattern.length();
+            }
+            if (open > position) {
+                fields.add(Field.LITERAL);
+                literals.add(pattern.substring(position, open));
+            }
+            if (open == pattern.length()) {
+                break;
+            }
+            int close = pattern.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Marcador sin cerrar en la plantilla: " + pattern.substring(open));
+            }
+            fields.add(fieldOf(pattern.substring(open + 1, close)));
+            literals.add(null);
+            position = close + 1;
+        }
+        return new AlertTemplate(fields.toArray(new Field[0]), literals.toArray(new String[0]));
+    }
+
+    private static Field fieldOf(String name) {
+        switch (name) {
+            case "id": return Field.ID;
+            case "hora": return Field.TIMESTAMP;
+            case "tipo": return Field.TYPE;
+            case "ubicacion": return Field.LOCATION;
+            case "gravedad": return Field.SEVERITY;
+            case "usuario": return Field.USER;
+            default: throw new IllegalArgumentException("Marcador desconocido en la plantilla: {" + name + "}");
+        }
+    }
+
+    /**
+     * Añade el mensaje del evento al texto del buffer.
+     *
+     * @param event  El evento de emergencia.
+     * @param buffer El buffer donde se escribe.
+     * @return El texto del buffer, para seguir añadiendo.
+     */
+    public StringBuilder render(EmergencyEvent event, Buffer buffer) {
+        StringBuilder out = buffer.text;
+        for (int i = 0; i < fields.length; i++) {
+            switch (fields[i]) {
+                case LITERAL: out.append(literals[i]); break;
+                case ID: out.append(event.getId()); break;
+                case TIMESTAMP: buffer.appendTimestamp(event.getTimestamp()); break;
+                case TYPE: out.append(event.getEmergencyType()); break;
+                case LOCATION: out.append(event.getLocation()); break;
+                case SEVERITY: out.append(event.getSeverityLevel()); break;
+                case USER: out.append(event.getUserData()); break;
+                default: break;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * <h2>Buffer de Renderizado Reutilizable</h2>
+     *
+     * <p>
+     * Agrupa el texto, la hora ya formateada del último segundo visto y los
+     * buffers de codificación. Se obtiene con {@link #acquire()} y se
+     * devuelve al almacén con {@link #close()} (try-with-resources); no debe
+     * usarse desde dos hilos a la vez.
+     * </p>
+     */
+    public static final class Buffer implements AutoCloseable {
+        private static final AtomicReferenceArray<Buffer> POOL =
+            new AtomicReferenceArray<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        // Los buffers que crecen por encima de esto no se devuelven al almacén.
+        private static final int MAX_RETAINED_CHARS = 64 * 1024;
+        private static final DateTimeFormatter WIDE_YEAR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        private final StringBuilder text = new StringBuilder(1024);
+
+        // --- HORA CACHEADA ---
+        private long cachedSecond = Long.MIN_VALUE;
+        private final char[] cachedTimestamp = new char[19];
+
+        // --- CODIFICACIÓN ---
+        private char[] chars = new char[1024];
+        private CharBuffer charView = CharBuffer.wrap(chars);
+        private ByteBuffer bytes = ByteBuffer.allocate(2048);
+        private CharsetEncoder encoder;
+
+        private Buffer() {
+        }
+
+        /**
+         * @return Un buffer vacío, del almacén si hay alguno libre.
+         */
+        public static Buffer acquire() {
+            for (int i = 0; i < POOL.length(); i++) {
+                Buffer buffer = POOL.getAndSet(i, null);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+            return new Buffer();
+        }
+
+        /**
+         * @return El texto renderizado hasta ahora.
+         */
+        public StringBuilder text() {
+            return text;
+        }
+
+        /**
+         * Codifica una parte del texto sin crear cadenas intermedias.
+         *
+         * @param charset Juego de caracteres de destino.
+         * @param start   Primer carácter (incluido).
+         * @param end     Último carácter (excluido).
+         * @return Los bytes, listos para leer. Se reutilizan en la siguiente llamada.
+         */
+        public ByteBuffer encode(Charset charset, int start, int end) {
+            int length = end - start;
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+                charView = CharBuffer.wrap(chars);
+            }
+            text.getChars(start, end, chars, 0);
+            charView.clear().limit(length);
+
+            CharsetEncoder coder = encoderFor(charset);
+            int maxBytes = (int) Math.ceil(length * (double) coder.maxBytesPerChar());
+            if (bytes.capacity() < maxBytes) {
+                bytes = ByteBuffer.allocate(Math.max(maxBytes, bytes.capacity() * 2));
+            }
+            bytes.clear();
+            coder.reset();
+            coder.encode(charView, bytes, true);
+            coder.flush(bytes);
+            return bytes.flip();
+        }
+
+        /**
+         * @return Todo el texto codificado en UTF-8.
+         */
+        public ByteBuffer utf8() {
+            return encode(StandardCharsets.UTF_8, 0, text.length());
+        }
+
+        /**
+         * Escribe una parte del texto en una salida (por ejemplo, la consola)
+         * con su juego de caracteres.
+         *
+         * @param out   La salida.
+         * @param start Primer carácter (incluido).
+         * @param end   Último carácter (excluido).
+         */
+        public void print(PrintStream out, int start, int end) {
+            ByteBuffer encoded = encode(out.charset(), start, end);
+            out.write(encoded.array(), 0, encoded.limit());
+        }
+
+        /**
+         * Vacía el buffer y lo devuelve al almacén.
+         */
+        @Override
+        public void close() {
+            if (text.capacity() > MAX_RETAINED_CHARS) {
+                return;
+            }
+            text.setLength(0);
+            for (int i = 0; i < POOL.length(); i++) {
+                if (POOL.compareAndSet(i, null, this)) {
+                    return;
+                }
+            }
+        }
+
+        private CharsetEncoder encoderFor(Charset charset) {
+            if (encoder == null || !encoder.charset().equals(charset)) {
+                encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+            return encoder;
+        }
+
+        /**
+         * Añade la hora en formato {@code yyyy-MM-dd HH:mm:ss}. Solo vuelve a
+         * formatearla cuando cambia el segundo.
+         */
+        private void appendTimestamp(LocalDateTime timestamp) {
+            if (timestamp == null) {
+                text.append("null");
+                return;
+            }
+            int year = timestamp.getYear();
+            if (year < 0 || year > 9999) {
+                text.append(timestamp.format(WIDE_YEAR_FORMAT));
+                return;
+            }
+            long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+            if (second != cachedSecond) {
+                writeDigits(year, 0, 4);
+                cachedTimestamp[4] = '-';
+                writeDigits(timestamp.getMonthValue(), 5, 2);
+                cachedTimestamp[7] = '-';
+                writeDigits(timestamp.getDayOfMonth(), 8, 2);
+                cachedTimestamp[10] = ' ';
+                writeDigits(timestamp.getHour(), 11, 2);
+                cachedTimestamp[13] = ':';
+                writeDigits(timestamp.getMinute(), 14, 2);
+                cachedTimestamp[16] = ':';
+                writeDigits(timestamp.getSecond(), 17, 2);
+                cachedSecond = second;
+            }
+            text.append(cachedTimestamp);
+        }
+
+        private void writeDigits(int value, int offset, int width) {
+            for (int i = offset + width - 1; i >= offset; i--) {
+                cachedTimestamp[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.emergencias.alert;
+
+import com.emergencias.services.IAlert;
+
+import java.time.Duration;
+
+/**
+ * <h1>Política de Contrapresión de un Canal Limitado</h1>
+ *
+ * <p>
+ * Define qué hace un {@link RateLimitedAlert} cuando su canal no admite más
+ * envíos por ahora.
+ * </p>
+ *
+ * <ul>
+ *     <li><b>{@link #reject()}:</b> el envío termina al instante con
+ *         {@link com.emergencias.services.AlertResult.Status#THROTTLED}.</li>
+ *     <li><b>{@link #queue(Duration)}:</b> el envío espera su turno, sin ocupar ningún
+ *         hilo, si le llega antes del plazo; si no, se rechaza.</li>
+ *     <li><b>{@link #queue(Duration, IAlert)}:</b> igual, pero si el turno no
+ *         llega a tiempo el envío se desvía a otro canal en lugar de
+ *         rechazarse: ninguna emergencia se queda sin alerta.</li>
+ *     <li><b>{@link #fallback(IAlert)}:</b> el envío se desvía a un canal secundario.</li>
+ * </ul>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class BackpressurePolicy {
+
+    /**
+     * Respuestas disponibles a la saturación del canal.
+     */
+    public enum Mode { REJECT, QUEUE, FALLBACK }
+
+    private final Mode mode;
+    private final Duration maxWait;
+    private final IAlert secondary;
+
+    private BackpressurePolicy(Mode mode, Duration maxWait, IAlert secondary) {
+        this.mode = mode;
+        this.maxWait = maxWait;
+        this.secondary = secondary;
+    }
+
+    /**
+     * @return La política que rechaza los envíos sobrantes.
+     */
+    public static BackpressurePolicy reject() {
+        return new BackpressurePolicy(Mode.REJECT, Duration.ZERO, null);
+    }
+
+    /**
+     * @param maxWait Espera máxima de un envío en cola.
+     * @return La política que hace esperar a los envíos sobrantes.
+     */
+    public static BackpressurePolicy queue(Duration maxWait) {
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("La espera máxima no puede ser negativa.");
+        }
+        return new BackpressurePolicy(Mode.QUEUE, maxWait, null);
+    }
+
+    /**
+     * @param maxWait  Espera máxima de un envío en cola.
+     * @param overflow Canal al que se desvían los envíos que no tendrían turno a tiempo.
+     * @return La política que hace esperar a los envíos sobrantes y desvía los que no caben.
+     */
+    public static BackpressurePolicy queue(Duration maxWait, IAlert overflow) {
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("La espera máxima no puede ser negativa.");
+        }
+        if (overflow == null) {
+            throw new IllegalArgumentException("El canal secundario no puede ser nulo.");
+        }
+        return new BackpressurePolicy(Mode.QUEUE, maxWait, overflow);
+    }
+
+    /**
+     * @param secondary Canal al que se desvían los envíos sobrantes.
+     * @return La política que degrada a un canal secundario.
+     */
+    public static BackpressurePolicy fallback(IAlert secondary) {
+        if (secondary == null) {
+            throw new IllegalArgumentException("El canal secundario no puede ser nulo.");
+        }
+        return new BackpressurePolicy(Mode.FALLBACK, Duration.ZERO, secondary);
+    }
+
+    public Mode getMode() { return mode; }
+    public Duration getMaxWait() { return maxWait; }
+    public IAlert getSecondary() { return secondary; }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case QUEUE:
+                return "Espera en cola hasta " + maxWait.toMillis() + " ms"
+                    + (secondary == null ? "" : " y luego desvío a " + secondary.getAlertType());
+            case FALLBACK: return "Desvío a " + secondary.getAlertType();
+            default: return "Rechazo inmediato";
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.emergencias.alert;
 
+import com.emergencias.model.EmergencyContact;
 import com.emergencias.model.EmergencyEvent;
 import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.ContactNotifier;
+import com.emergencias.services.ContactResult;
 import com.emergencias.services.IAlert;
-import java.io.FileWriter;
+import com.emergencias.persistence.RotationPolicy;
+import com.emergencias.persistence.AsyncFileAppender;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <h1>Implementación de Alerta por Llamada Telefónica</h1>
@@ -30,7 +39,19 @@ public class CallAlert implements IAlert {
     // --- CONSTANTES ---
     private static final String EMERGENCY_NUMBER = "112";
     private static final String ALERTS_FILE = "logs/call_alerts.log"; // Archivo de log específico para llamadas
-    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final RotationPolicy ALERTS_ROTATION = RotationPolicy.daily(16L * 1024 * 1024); // Rotación diaria o a los 16 MB
+    private static final String LOG_SEPARATOR = "=".repeat(80) + "\n";
+    private static final AlertTemplate MESSAGE_TEMPLATE = AlertTemplate.compile(
+        "[{hora}] ALERTA DE EMERGENCIA\n" +
+        "  - Tipo: {tipo}\n" +
+        "  - Ubicación: {ubicacion}\n" +
+        "  - Gravedad: {gravedad}/10");
+    private static final long CONTACT_CALL_DELAY_MS = 500; // Simula la duración de una llamada a un contacto
+    private static final ContactNotifier CONTACT_NOTIFIER =
+        new ContactNotifier("Llamada a contacto", CallAlert::callContact, Duration.ofSeconds(15));
+
+    // Escritor compartido del log de llamadas.
+    private volatile AsyncFileAppender alertsLog;
 
     /**
      * Envía una alerta simulando una llamada a los servicios de emergencia.
@@ -49,34 +70,91 @@ public class CallAlert implements IAlert {
             return false;
         }
 
-        String alertMessage = formatAlertMessage(event);
-        
-        System.out.println("\n=== INICIANDO LLAMADA DE EMERGENCIA ===");
-        System.out.println(alertMessage);
-        
-        // Registrar la alerta de llamada en su propio archivo de log.
-        logAlertToFile(alertMessage);
-        
+        // El mensaje se compone una sola vez, ya con el formato del log.
+        try (AlertTemplate.Buffer buffer = AlertTemplate.Buffer.acquire()) {
+            StringBuilder entry = buffer.text().append(LOG_SEPARATOR);
+            int messageStart = entry.length();
+            MESSAGE_TEMPLATE.render(event, buffer).append('\n');
+            int messageEnd = entry.length();
+            entry.append('\n');
+
+            System.out.println("\n=== INICIANDO LLAMADA DE EMERGENCIA ===");
+            buffer.print(System.out, messageStart, messageEnd);
+
+            // Registrar la alerta de llamada en su propio archivo de log.
+            logAlertToFile(buffer.utf8(), event.getSeverityLevel());
+        }
+
         // Simular la llamada al 112.
         return simulateEmergencyCall(event);
     }
 
     /**
-     * Notifica a los contactos personales simulando una llamada.
+     * Envía la alerta en un hilo virtual, sin bloquear al llamante durante la
+     * simulación de la llamada. Un evento nulo se rechaza de inmediato, sin
+     * llegar a crear el hilo.
+     *
+     * @param event El evento de emergencia con los detalles a comunicar.
+     * @return Un futuro con el resultado del envío.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        if (event == null) {
+            System.err.println("❌ Error: No se puede realizar una llamada para un evento nulo.");
+            return CompletableFuture.completedFuture(
+                AlertResult.failed(getAlertType(), "Evento nulo.", Duration.ZERO));
+        }
+        return IAlert.super.sendAsync(event);
+    }
+
+    /**
+     * Notifica a los contactos personales simulando una llamada a cada uno,
+     * todas a la vez.
      *
      * @param userData Los datos del usuario que contienen el contacto de emergencia.
-     * @param event    El evento de emergencia (no se usa en esta implementación simple).
+     * @param event    El evento de emergencia.
      */
     @Override
     public void notifyContacts(UserData userData, EmergencyEvent event) {
-        System.out.println("\n--- Realizando llamada a contactos de emergencia... ---");
-        if (userData == null || userData.getEmergencyContact() == null || userData.getEmergencyContact().isEmpty()) {
+        notifyContactsAsync(userData, event).join();
+    }
+
+    /**
+     * Llama a los contactos en paralelo mediante el {@link ContactNotifier}.
+     *
+     * @param userData Los datos del usuario que contienen el contacto de emergencia.
+     * @param event    El evento de emergencia.
+     * @return Un futuro que se completa cuando todas las llamadas terminan o vence el plazo.
+     */
+    @Override
+    public CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        List<EmergencyContact> contacts = userData == null ? List.of() : userData.getEmergencyContacts();
+        if (contacts.isEmpty()) {
+            System.out.println("\n--- Realizando llamada a contactos de emergencia... ---");
             System.out.println("⚠️  No hay contactos de emergencia para llamar.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        
-        System.out.println("✅ Llamada de notificación realizada con éxito a: " + userData.getEmergencyContact());
-        System.out.println("----------------------------------------------------");
+        return CONTACT_NOTIFIER.notifyAll(contacts, event).thenAccept(results -> {
+            StringBuilder report = new StringBuilder("\n--- Realizando llamada a contactos de emergencia... ---\n");
+            for (ContactResult result : results) {
+                if (result.isSuccess()) {
+                    report.append("✅ Llamada de notificación realizada con éxito a: ").append(result.getContact()).append('\n');
+                } else {
+                    report.append("❌ No se pudo llamar a ").append(result.getContact())
+                        .append(": ").append(result.getResult().getDetail()).append('\n');
+                }
+            }
+            report.append("----------------------------------------------------");
+            System.out.println(report);
+        });
+    }
+
+    /**
+     * Simula una llamada a un contacto para comunicarle una o varias emergencias.
+     */
+    private static void callContact(EmergencyContact contact, List<EmergencyEvent> events)
+            throws InterruptedException {
+        Thread.sleep(CONTACT_CALL_DELAY_MS);
     }
 
     /**
@@ -89,37 +167,29 @@ public class CallAlert implements IAlert {
         return "Llamada Telefónica";
     }
 
-    /**
-     * Formatea el mensaje que se comunicaría en la llamada de emergencia.
-     *
-     * @param event El evento de emergencia.
-     * @return Una cadena de texto formateada con los detalles clave.
-     */
-    private String formatAlertMessage(EmergencyEvent event) {
-        return String.format(
-            "[%s] ALERTA DE EMERGENCIA\n" +
-            "  - Tipo: %s\n" +
-            "  - Ubicación: %s\n" +
-            "  - Gravedad: %d/10",
-            event.getTimestamp().format(TIMESTAMP_FORMAT),
-            event.getEmergencyType(),
-            event.getLocation(),
-            event.getSeverityLevel()
-        );
-    }
-    
     /**
      * Escribe el mensaje de la alerta de llamada en un archivo de log.
      */
-    private void logAlertToFile(String alertMessage) {
-        try (FileWriter writer = new FileWriter(ALERTS_FILE, true)) {
-            writer.write("=".repeat(80) + "\n");
-            writer.write(alertMessage + "\n\n");
+    private void logAlertToFile(ByteBuffer entry, int severity) {
+        try {
+            alertsLog().append(entry, severity);
         } catch (IOException e) {
             System.err.println("❌ Error crítico: No se pudo registrar la llamada en el log: " + e.getMessage());
         }
     }
 
+    /**
+     * Escritor del log de llamadas; se abre con la primera llamada.
+     */
+    private AsyncFileAppender alertsLog() throws IOException {
+        AsyncFileAppender log = alertsLog;
+        if (log == null) {
+            log = AsyncFileAppender.open(Path.of(ALERTS_FILE), ALERTS_ROTATION);
+            alertsLog = log;
+        }
+        return log;
+    }
+
     /**
      * Simula el proceso de una llamada al 112, con retardos para el realismo.
      *
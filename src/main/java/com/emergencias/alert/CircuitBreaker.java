@@ -0,0 +1,163 @@
+package com.emergencias.alert;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>Cortocircuito de un Canal de Alerta (Circuit Breaker)</h1>
+ *
+ * <p>
+ * Evita seguir enviando alertas a un canal caído. Tras un número de fallos
+ * consecutivos el circuito se <b>abre</b> y los envíos se rechazan al
+ * instante, sin ocupar hilos esperando a un destino que no responde. Pasado
+ * un tiempo, el circuito queda <b>medio abierto</b> y deja pasar un único
+ * envío de prueba: si tiene éxito, se <b>cierra</b> de nuevo; si falla,
+ * vuelve a abrirse.
+ * </p>
+ *
+ * <p>
+ * No usa cerrojos: el estado y el instante de apertura se guardan juntos en
+ * un único {@link AtomicLong} y se cambian con CAS, y los contadores son
+ * atómicos.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class CircuitBreaker {
+
+    /**
+     * Estados del circuito.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final State[] STATES = State.values();
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    // (instante de apertura en ms << 2) | ordinal del estado.
+    private final AtomicLong stateWord = new AtomicLong(encode(State.CLOSED, 0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    // --- ESTADÍSTICAS ---
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * @param name             Nombre del canal (para los mensajes).
+     * @param failureThreshold Fallos consecutivos que abren el circuito.
+     * @param openDuration     Tiempo que el circuito permanece abierto antes de probar de nuevo.
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Configuración del circuito no válida.");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Pide permiso para hacer un envío.
+     *
+     * @return {@code true} si el envío puede hacerse; {@code false} si el circuito lo rechaza.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long word = stateWord.get();
+            State state = stateOf(word);
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (nowMillis() - openedAtOf(word) < openNanos / 1_000_000) {
+                    rejections.incrementAndGet();
+                    return false;
+                }
+                // Plazo cumplido: el primer hilo que lo note pasa a medio abierto.
+                if (!stateWord.compareAndSet(word, encode(State.HALF_OPEN, openedAtOf(word)))) {
+                    continue;
+                }
+            }
+            // Medio abierto: solo pasa un envío de prueba a la vez.
+            if (probeInFlight.compareAndSet(false, true)) {
+                return true;
+            }
+            rejections.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Registra un envío con éxito: reinicia los fallos y cierra el circuito.
+     */
+    public void onSuccess() {
+        successes.incrementAndGet();
+        consecutiveFailures.set(0);
+        long word = stateWord.get();
+        if (stateOf(word) != State.CLOSED && stateWord.compareAndSet(word, encode(State.CLOSED, 0))) {
+            System.out.println("✅ Canal " + name + " recuperado: circuito cerrado.");
+        }
+        probeInFlight.set(false);
+    }
+
+    /**
+     * Registra un envío fallido: abre el circuito si se alcanza el umbral o
+     * si falla el envío de prueba.
+     */
+    public void onFailure() {
+        failures.incrementAndGet();
+        int failed = consecutiveFailures.incrementAndGet();
+        long word = stateWord.get();
+        State state = stateOf(word);
+        boolean open = state == State.HALF_OPEN || (state == State.CLOSED && failed >= failureThreshold);
+        if (open && stateWord.compareAndSet(word, encode(State.OPEN, nowMillis()))) {
+            System.err.println("⚠️  Advertencia: Canal " + name + " no disponible tras " + failed
+                + " fallos; se rechazan los envíos durante " + openNanos / 1_000_000 + " ms.");
+        }
+        probeInFlight.set(false);
+    }
+
+    /**
+     * Libera el permiso de un envío que no llegó a completarse (por ejemplo,
+     * cancelado), sin contarlo como éxito ni como fallo.
+     */
+    public void release() {
+        probeInFlight.set(false);
+    }
+
+    public State getState() { return stateOf(stateWord.get()); }
+    public String getName() { return name; }
+    public long getSuccesses() { return successes.get(); }
+    public long getFailures() { return failures.get(); }
+    public long getRejections() { return rejections.get(); }
+
+    @Override
+    public String toString() {
+        return name + ": " + getState() + " (éxitos=" + successes.get() + ", fallos=" + failures.get()
+            + ", rechazos=" + rejections.get() + ")";
+    }
+
+    private static long encode(State state, long openedAtMillis) {
+        return (openedAtMillis << 2) | state.ordinal();
+    }
+
+    private static State stateOf(long word) {
+        return STATES[(int) (word & 3)];
+    }
+
+    private static long openedAtOf(long word) {
+        return word >> 2;
+    }
+
+    private static long nowMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
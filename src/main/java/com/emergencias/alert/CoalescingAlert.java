@@ -0,0 +1,295 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.IAlert;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>Alerta con Agrupación de Reportes Duplicados</h1>
+ *
+ * <p>
+ * Envuelve cualquier {@link IAlert} (patrón Decorator) para que los reportes
+ * casi idénticos de un mismo incidente (un choque en cadena, un incendio en
+ * un edificio) no generen una llamada al 112 cada uno. Los eventos con el
+ * mismo tipo y la misma ubicación normalizada (sin mayúsculas, tildes,
+ * espacios ni signos de puntuación) que llegan dentro de la ventana de agrupación forman
+ * un único {@link Incident}:
+ * <ul>
+ *     <li>El primer reporte se envía por el canal envuelto.</li>
+ *     <li>Los siguientes solo suman un reportante y devuelven el resultado de
+ *     ese envío como {@link AlertResult.Status#COALESCED}.</li>
+ *     <li>El incidente se vuelve a comunicar si llega un reporte más grave o
+ *     si el envío anterior falló.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * La ventana se renueva con cada reporte: el incidente se cierra cuando pasa
+ * la ventana completa sin reportes nuevos. Además, la hora de cada evento
+ * ({@link EmergencyEvent#getTimestamp()}) debe caer dentro de la ventana
+ * respecto al último reporte del incidente: al reproducir emergencias
+ * históricas, que llegan todas seguidas, dos incidentes en el mismo lugar
+ * separados por horas no se agrupan. Los contactos personales de cada
+ * reportante se siguen avisando siempre.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class CoalescingAlert implements IAlert {
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final IAlert delegate;
+    private final long windowNanos;
+    private final Map<String, Incident> incidents = new ConcurrentHashMap<>();
+
+    // --- ESTADÍSTICAS ---
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param delegate El canal por el que se comunican los incidentes.
+     * @param window   Tiempo sin reportes nuevos tras el que se cierra un incidente.
+     */
+    public CoalescingAlert(IAlert delegate, Duration window) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("La ventana de agrupación debe ser positiva.");
+        }
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Envía la alerta (o la agrupa) y espera el resultado.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return {@code true} si el incidente quedó comunicado.
+     */
+    @Override
+    public boolean send(EmergencyEvent event) {
+        return sendAsync(event).join().isSuccess();
+    }
+
+    /**
+     * Comunica el incidente del evento, o lo agrupa con uno abierto, sin
+     * bloquear al llamante.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return Un futuro con el resultado del envío o de la agrupación.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        if (event == null) {
+            return delegate.sendAsync(null);
+        }
+        String key = incidentKey(event);
+        long now = System.nanoTime();
+        Incident[] opened = new Incident[1];
+        Incident incident = incidents.compute(key, (k, current) -> {
+            if (current != null && now - current.lastReportNanos <= windowNanos
+                    && current.sameTime(event, windowNanos)) {
+                return current;
+            }
+            opened[0] = new Incident(k, event, now);
+            return opened[0];
+        });
+
+        if (incident == opened[0]) {
+            scheduleClose(incident);
+            return dispatch(incident, event);
+        }
+
+        boolean resend;
+        int reporters;
+        CompletableFuture<AlertResult> previous;
+        synchronized (incident) {
+            reporters = ++incident.reporters;
+            incident.lastReportNanos = now;
+            if (event.getTimestamp() != null
+                    && (incident.lastReportTime == null || event.getTimestamp().isAfter(incident.lastReportTime))) {
+                incident.lastReportTime = event.getTimestamp();
+            }
+            boolean escalated = event.getSeverityLevel() > incident.maxSeverity;
+            if (escalated) {
+                incident.maxSeverity = event.getSeverityLevel();
+            }
+            previous = incident.dispatch;
+            boolean failed = previous.isDone() && !previous.isCompletedExceptionally() && !previous.join().isSuccess();
+            resend = escalated || failed || previous.isCompletedExceptionally();
+        }
+        if (resend) {
+            System.out.println("🔁 Incidente actualizado (" + reporters + " reportes, gravedad "
+                + incident.maxSeverity + "/10): se vuelve a comunicar.");
+            return dispatch(incident, event);
+        }
+
+        coalesced.increment();
+        String detail = "Agrupada en el incidente " + incident.getId() + " (" + reporters + " reportes)";
+        return previous.handle((result, error) -> {
+            Duration waited = Duration.ofNanos(System.nanoTime() - now);
+            if (error == null && result.isSuccess()) {
+                return AlertResult.coalesced(result.getAlertType(), detail, waited);
+            }
+            return error == null ? result
+                : AlertResult.failed(getAlertType(), "Fallo al comunicar el incidente: " + error.getMessage(), waited);
+        });
+    }
+
+    /**
+     * Envía el evento por el canal envuelto y lo deja como último envío del incidente.
+     */
+    private CompletableFuture<AlertResult> dispatch(Incident incident, EmergencyEvent event) {
+        dispatched.increment();
+        CompletableFuture<AlertResult> send = delegate.sendAsync(event);
+        CompletableFuture<AlertResult> previous;
+        synchronized (incident) {
+            previous = incident.dispatch;
+            incident.dispatch = send;
+        }
+        if (previous == incident.pendingDispatch) {
+            // Los reportes agrupados antes de empezar el primer envío esperan a este.
+            send.whenComplete((result, error) -> {
+                if (error == null) {
+                    previous.complete(result);
+                } else {
+                    previous.completeExceptionally(error);
+                }
+            });
+        }
+        return send;
+    }
+
+    /**
+     * Cierra el incidente cuando pasa la ventana sin reportes nuevos.
+     */
+    private void scheduleClose(Incident incident) {
+        long remaining = incident.lastReportNanos + windowNanos - System.nanoTime();
+        CompletableFuture.delayedExecutor(Math.max(0, remaining), TimeUnit.NANOSECONDS).execute(() -> {
+            if (System.nanoTime() - incident.lastReportNanos < windowNanos) {
+                scheduleClose(incident);
+                return;
+            }
+            if (incidents.remove(incident.key, incident) && incident.getReporters() > 1) {
+                System.out.println("✅ Incidente " + incident.getId() + " cerrado: "
+                    + incident.getReporters() + " reportes agrupados.");
+            }
+        });
+    }
+
+    /**
+     * @param event El evento de emergencia.
+     * @return La clave del incidente: tipo y ubicación normalizados.
+     */
+    static String incidentKey(EmergencyEvent event) {
+        return normalize(event.getEmergencyType()) + "|" + normalize(event.getLocation());
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String plain = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+
+    @Override
+    public void notifyContacts(UserData userData, EmergencyEvent event) {
+        delegate.notifyContacts(userData, event);
+    }
+
+    @Override
+    public CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        return delegate.notifyContactsAsync(userData, event);
+    }
+
+    @Override
+    public String getAlertType() {
+        return delegate.getAlertType();
+    }
+
+    /**
+     * @return Los incidentes abiertos.
+     */
+    public List<Incident> getOpenIncidents() {
+        return new ArrayList<>(incidents.values());
+    }
+
+    /** @return El número de envíos hechos por el canal envuelto. */
+    public long getDispatched() { return dispatched.sum(); }
+
+    /** @return El número de reportes agrupados sin nuevo envío. */
+    public long getCoalesced() { return coalesced.sum(); }
+
+    /**
+     * <h2>Incidente</h2>
+     *
+     * <p>
+     * Grupo de reportes del mismo tipo y ubicación. Su identificador es el
+     * del primer reporte.
+     * </p>
+     */
+    public static final class Incident {
+        private final String key;
+        private final EmergencyEvent firstReport;
+        private final LocalDateTime openedAt;
+        private volatile long lastReportNanos;
+        // Hora del reporte más reciente según el propio evento.
+        private volatile LocalDateTime lastReportTime;
+        private volatile int reporters = 1;
+        private volatile int maxSeverity;
+        private final CompletableFuture<AlertResult> pendingDispatch = new CompletableFuture<>();
+        private CompletableFuture<AlertResult> dispatch = pendingDispatch;
+
+        private Incident(String key, EmergencyEvent firstReport, long nowNanos) {
+            this.key = key;
+            this.firstReport = firstReport;
+            this.openedAt = LocalDateTime.now();
+            this.lastReportNanos = nowNanos;
+            this.lastReportTime = firstReport.getTimestamp();
+            this.maxSeverity = firstReport.getSeverityLevel();
+        }
+
+        /**
+         * @return {@code true} si la hora del evento está dentro de la ventana
+         *         respecto al último reporte (o si alguno no tiene hora).
+         */
+        private boolean sameTime(EmergencyEvent event, long windowNanos) {
+            LocalDateTime last = lastReportTime;
+            if (last == null || event.getTimestamp() == null) {
+                return true;
+            }
+            return Math.abs(Duration.between(last, event.getTimestamp()).toNanos()) <= windowNanos;
+        }
+
+        public String getId() {
+            return firstReport.getId() != null ? firstReport.getId() : key;
+        }
+
+        public EmergencyEvent getFirstReport() { return firstReport; }
+        public LocalDateTime getOpenedAt() { return openedAt; }
+        public int getReporters() { return reporters; }
+        public int getMaxSeverity() { return maxSeverity; }
+
+        @Override
+        public String toString() {
+            return getId() + ": " + firstReport.getEmergencyType() + " en " + firstReport.getLocation()
+                + " (" + reporters + " reportes, gravedad máxima " + maxSeverity + "/10)";
+        }
+    }
+}
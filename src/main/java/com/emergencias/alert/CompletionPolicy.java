@@ -0,0 +1,94 @@
+package com.emergencias.alert;
+
+/**
+ * <h1>Política de Finalización de un Envío Multicanal</h1>
+ *
+ * <p>
+ * Define cuántos canales de un {@link CompositeAlert} deben confirmar la
+ * alerta para darla por enviada.
+ * </p>
+ *
+ * <ul>
+ *     <li><b>{@link #firstSuccess()}:</b> basta con el primer canal que confirme; el
+ *         resto se cancela en ese momento.</li>
+ *     <li><b>{@link #allOf()}:</b> deben confirmar todos los canales.</li>
+ *     <li><b>{@link #quorum(int)}:</b> deben confirmar al menos {@code k} canales.</li>
+ * </ul>
+ *
+ * <p>
+ * En cualquier caso, el envío se da por fallido en cuanto los canales que
+ * quedan pendientes ya no pueden alcanzar el número requerido.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class CompletionPolicy {
+
+    /**
+     * Modos de finalización disponibles.
+     */
+    public enum Mode { FIRST_SUCCESS, ALL_OF, QUORUM }
+
+    private final Mode mode;
+    private final int quorum;
+
+    private CompletionPolicy(Mode mode, int quorum) {
+        this.mode = mode;
+        this.quorum = quorum;
+    }
+
+    /**
+     * @return La política que se completa con la primera confirmación.
+     */
+    public static CompletionPolicy firstSuccess() {
+        return new CompletionPolicy(Mode.FIRST_SUCCESS, 1);
+    }
+
+    /**
+     * @return La política que exige la confirmación de todos los canales.
+     */
+    public static CompletionPolicy allOf() {
+        return new CompletionPolicy(Mode.ALL_OF, 0);
+    }
+
+    /**
+     * @param k Número mínimo de canales que deben confirmar (debe ser positivo).
+     * @return La política de quórum correspondiente.
+     */
+    public static CompletionPolicy quorum(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("El quórum debe ser positivo.");
+        }
+        return new CompletionPolicy(Mode.QUORUM, k);
+    }
+
+    /**
+     * @param channels Número de canales del envío.
+     * @return El número de confirmaciones necesarias.
+     * @throws IllegalArgumentException si el quórum supera el número de canales.
+     */
+    int required(int channels) {
+        int required = mode == Mode.ALL_OF ? channels : quorum;
+        if (required > channels) {
+            throw new IllegalArgumentException("El quórum (" + required
+                + ") supera el número de canales (" + channels + ").");
+        }
+        return required;
+    }
+
+    public Mode getMode() { return mode; }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case FIRST_SUCCESS:
+                return "primer éxito";
+            case ALL_OF:
+                return "todos los canales";
+            default:
+                return "quórum de " + quorum;
+        }
+    }
+}
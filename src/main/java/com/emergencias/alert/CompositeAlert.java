@@ -0,0 +1,220 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.IAlert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>Alerta Multicanal</h1>
+ *
+ * <p>
+ * Implementación de {@link IAlert} que envía el mismo evento por varios
+ * canales a la vez (por ejemplo, {@link AlertSender} y {@link CallAlert}),
+ * en lugar de probarlos uno detrás de otro. El tiempo hasta la primera
+ * confirmación es el del canal más rápido, no la suma de todos.
+ * </p>
+ *
+ * <p>
+ * Cada canal tiene su propio plazo: si no responde a tiempo, se cancela
+ * (interrumpiendo su envío) y cuenta como fallido. La {@link CompletionPolicy}
+ * decide cuántas confirmaciones hacen falta; en cuanto se alcanzan, o en
+ * cuanto ya no se pueden alcanzar, se cancelan los canales que siguen en
+ * curso.
+ * </p>
+ *
+ * <p>
+ * Como los canales son a su vez {@link IAlert}, una alerta multicanal puede
+ * formar parte de otra.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class CompositeAlert implements IAlert {
+    private final CompletionPolicy policy;
+    private final List<Channel> channels;
+    private final int required;
+
+    /**
+     * Canal de una alerta multicanal, con su plazo máximo.
+     */
+    public static final class Channel {
+        private final IAlert alert;
+        private final Duration timeout;
+
+        private Channel(IAlert alert, Duration timeout) {
+            if (alert == null || timeout == null || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Cada canal necesita una alerta y un plazo positivo.");
+            }
+            this.alert = alert;
+            this.timeout = timeout;
+        }
+
+        /**
+         * @param alert   El canal de alerta.
+         * @param timeout Plazo máximo para que el canal confirme el envío.
+         * @return El canal.
+         */
+        public static Channel of(IAlert alert, Duration timeout) {
+            return new Channel(alert, timeout);
+        }
+
+        public IAlert getAlert() { return alert; }
+        public Duration getTimeout() { return timeout; }
+    }
+
+    /**
+     * Crea una alerta multicanal con el mismo plazo para todos los canales.
+     *
+     * @param policy  Política de finalización.
+     * @param timeout Plazo de cada canal.
+     * @param alerts  Canales de alerta (al menos uno).
+     */
+    public CompositeAlert(CompletionPolicy policy, Duration timeout, IAlert... alerts) {
+        this(policy, Arrays.stream(alerts).map(alert -> Channel.of(alert, timeout)).toList());
+    }
+
+    /**
+     * Crea una alerta multicanal con un plazo distinto para cada canal.
+     *
+     * @param policy   Política de finalización.
+     * @param channels Canales con sus plazos (al menos uno).
+     * @throws IllegalArgumentException si no hay canales o el quórum no es alcanzable.
+     */
+    public CompositeAlert(CompletionPolicy policy, List<Channel> channels) {
+        if (channels == null || channels.isEmpty()) {
+            throw new IllegalArgumentException("Una alerta multicanal necesita al menos un canal.");
+        }
+        this.policy = policy;
+        this.channels = List.copyOf(channels);
+        this.required = policy.required(channels.size());
+    }
+
+    /**
+     * Envía la alerta por todos los canales y espera a que se cumpla la política.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return {@code true} si se alcanzó el número de confirmaciones requerido.
+     */
+    @Override
+    public boolean send(EmergencyEvent event) {
+        return sendAsync(event).join().isSuccess();
+    }
+
+    /**
+     * Envía la alerta por todos los canales en paralelo.
+     * <p>
+     * El futuro se completa en cuanto se cumple la política (o deja de poder
+     * cumplirse); los canales que siguen pendientes se cancelan. Cancelar el
+     * futuro devuelto cancela todos los canales.
+     * </p>
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return Un futuro con el resultado agregado.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        long start = System.nanoTime();
+        int count = channels.size();
+        List<CompletableFuture<AlertResult>> sends = new ArrayList<>(count);
+        AtomicReferenceArray<AlertResult> results = new AtomicReferenceArray<>(count);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<AlertResult> overall = new CompletableFuture<>();
+
+        // Primero se lanzan todos los canales, para que ninguno espere a otro.
+        for (Channel channel : channels) {
+            sends.add(channel.alert.sendAsync(event));
+        }
+
+        for (int i = 0; i < count; i++) {
+            Channel channel = channels.get(i);
+            CompletableFuture<AlertResult> send = sends.get(i);
+            int index = i;
+            long timeoutMillis = channel.timeout.toMillis();
+            CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+                if (results.compareAndSet(index, null, AlertResult.timedOut(channel.alert.getAlertType(), channel.timeout))) {
+                    send.cancel(true);
+                }
+            });
+            send.whenComplete((result, error) -> {
+                AlertResult outcome = error == null ? result : failureOf(channel.alert, error, start);
+                results.compareAndSet(index, null, outcome);
+                if (results.get(index).isSuccess()) {
+                    if (successes.incrementAndGet() == required) {
+                        overall.complete(AlertResult.sent(getAlertType(), elapsed(start)));
+                    }
+                } else if (count - failures.incrementAndGet() < required) {
+                    overall.complete(AlertResult.failed(getAlertType(), summarize(results), elapsed(start)));
+                }
+            });
+        }
+
+        // Cumplida la política (o cancelado el envío), los canales pendientes sobran.
+        overall.whenComplete((result, error) -> sends.forEach(send -> send.cancel(true)));
+        return overall;
+    }
+
+    /**
+     * Notifica a los contactos a través del primer canal, para que no reciban
+     * el mismo aviso una vez por cada canal.
+     *
+     * @param userData Los datos del usuario, que contienen la información del contacto.
+     * @param event    El evento de emergencia con los detalles a notificar.
+     */
+    @Override
+    public void notifyContacts(UserData userData, EmergencyEvent event) {
+        channels.get(0).alert.notifyContacts(userData, event);
+    }
+
+    /**
+     * @return Los canales y la política de la alerta (ej. "Multicanal [A, B] (primer éxito)").
+     */
+    @Override
+    public String getAlertType() {
+        return channels.stream().map(channel -> channel.alert.getAlertType())
+            .collect(Collectors.joining(", ", "Multicanal [", "] (" + policy + ")"));
+    }
+
+    public List<Channel> getChannels() { return channels; }
+
+    private static AlertResult failureOf(IAlert alert, Throwable error, long start) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return AlertResult.cancelled(alert.getAlertType(), elapsed(start));
+        }
+        return AlertResult.failed(alert.getAlertType(), cause.getMessage(), elapsed(start));
+    }
+
+    /**
+     * Resume el estado de cada canal para el detalle de un envío fallido.
+     */
+    private static String summarize(AtomicReferenceArray<AlertResult> results) {
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < results.length(); i++) {
+            AlertResult result = results.get(i);
+            if (result != null) {
+                parts.add(result.getAlertType() + ": " + result.getStatus());
+            }
+        }
+        return String.join("; ", parts);
+    }
+
+    private static Duration elapsed(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,285 @@
+package com.emergencias.alert;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Simulador Local del Centro de Emergencias 112</h1>
+ *
+ * <p>
+ * Servidor TCP en la interfaz de loopback que habla el protocolo de
+ * {@link AlertFrames} y hace de centro de emergencias para
+ * {@link NetworkAlert}. Permite medir alertas por segundo y latencias reales
+ * en una sola máquina, sin depender de un servicio externo.
+ * </p>
+ *
+ * <p>
+ * Se puede configurar, incluso mientras está en marcha:
+ * <ul>
+ *     <li>La latencia de respuesta (cada alerta tarda entre la mitad y vez y
+ *     media el valor indicado).</li>
+ *     <li>La proporción de alertas rechazadas y la de alertas sin respuesta.</li>
+ *     <li>La caída de todas las conexiones ({@link #disconnectAll()}).</li>
+ * </ul>
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class DispatchCenterStub implements AutoCloseable {
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+
+    private volatile long latencyNanos;
+    private volatile double failureRate;
+    private volatile double dropRate;
+    private volatile boolean disconnectRequested;
+    private volatile boolean closed;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final List<AlertFrames.Link> clients = new ArrayList<>();
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService delays = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().daemon().name("centro-112-retardos").factory());
+    private Thread ioThread;
+
+    // --- ESTADÍSTICAS ---
+    private final LongAdder received = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param latency     Latencia media de respuesta.
+     * @param failureRate Proporción de alertas rechazadas (de 0 a 1).
+     */
+    public DispatchCenterStub(Duration latency, double failureRate) {
+        this.latencyNanos = latency.toNanos();
+        this.failureRate = failureRate;
+        try {
+            this.selector = Selector.open();
+            this.server = ServerSocketChannel.open();
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo crear el simulador del 112: " + e.getMessage());
+            throw new RuntimeException("No se pudo crear el simulador del centro de emergencias", e);
+        }
+    }
+
+    /**
+     * Empieza a escuchar en un puerto libre de la interfaz de loopback.
+     *
+     * @return La dirección en la que escucha.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public synchronized InetSocketAddress start() throws IOException {
+        if (ioThread == null) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            ioThread = Thread.ofPlatform().daemon().name("centro-112").start(this::ioLoop);
+        }
+        return getAddress();
+    }
+
+    /**
+     * @return La dirección en la que escucha el simulador.
+     * @throws IOException si no se puede consultar.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    public void setLatency(Duration latency) { this.latencyNanos = latency.toNanos(); }
+    public void setFailureRate(double failureRate) { this.failureRate = failureRate; }
+    public void setDropRate(double dropRate) { this.dropRate = dropRate; }
+
+    /**
+     * Cierra todas las conexiones abiertas, como si se cayera la red. Las
+     * nuevas conexiones se siguen aceptando.
+     */
+    public void disconnectAll() {
+        disconnectRequested = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Deja de aceptar conexiones y cierra las abiertas.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        Thread thread;
+        synchronized (this) {
+            thread = ioThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        delays.shutdownNow();
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            // El simulador ya no se usa.
+        }
+    }
+
+    public long getReceived() { return received.sum(); }
+    public long getAcknowledged() { return acknowledged.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getDropped() { return dropped.sum(); }
+
+    @Override
+    public String toString() {
+        return "Centro 112 simulado: recibidas=" + received.sum() + ", confirmadas=" + acknowledged.sum()
+            + ", rechazadas=" + rejected.sum() + ", sin respuesta=" + dropped.sum();
+    }
+
+    // --- HILO DE RED ---
+
+    private void ioLoop() {
+        while (!closed) {
+            try {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                System.err.println("❌ Error en el selector del simulador del 112: " + e.getMessage());
+                break;
+            }
+            if (disconnectRequested) {
+                disconnectRequested = false;
+                clients.forEach(AlertFrames.Link::close);
+                clients.clear();
+            }
+            sendReplies();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isValid() && key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                AlertFrames.Link client = (AlertFrames.Link) key.attachment();
+                try {
+                    if (key.isValid() && key.isReadable() && !client.read(frame -> onAlert(client, frame))) {
+                        drop(client);
+                        continue;
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        client.flush();
+                    }
+                } catch (IOException e) {
+                    drop(client);
+                }
+            }
+        }
+        clients.forEach(AlertFrames.Link::close);
+        clients.clear();
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            AlertFrames.Link client = new AlertFrames.Link(channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+        } catch (IOException e) {
+            System.err.println("⚠️  Advertencia: El simulador del 112 no pudo aceptar una conexión: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decide la respuesta a una alerta y la programa según la latencia.
+     */
+    private void onAlert(AlertFrames.Link client, AlertFrames.Frame frame) {
+        received.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < dropRate) {
+            dropped.increment();
+            return;
+        }
+        ByteBuffer reply;
+        if (random.nextDouble() < failureRate) {
+            rejected.increment();
+            reply = AlertFrames.reply(AlertFrames.NACK, frame.id, "Centro saturado (fallo simulado).");
+        } else {
+            acknowledged.increment();
+            reply = AlertFrames.reply(AlertFrames.ACK, frame.id, "Recibida por el operador.");
+        }
+        long latency = latencyNanos;
+        if (latency <= 0) {
+            client.enqueue(reply);
+            return;
+        }
+        long delay = latency / 2 + random.nextLong(latency + 1);
+        delays.schedule(() -> {
+            replies.add(new Reply(client, reply));
+            selector.wakeup();
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void sendReplies() {
+        Reply reply;
+        while ((reply = replies.poll()) != null) {
+            if (reply.client.channel.isOpen()) {
+                reply.client.enqueue(reply.frame);
+            }
+        }
+        for (AlertFrames.Link client : new ArrayList<>(clients)) {
+            if (client.hasPendingWrites()) {
+                try {
+                    client.flush();
+                } catch (IOException e) {
+                    drop(client);
+                }
+            }
+        }
+    }
+
+    private void drop(AlertFrames.Link client) {
+        client.close();
+        clients.remove(client);
+    }
+
+    /**
+     * Respuesta lista para enviarse por una conexión.
+     */
+    private static final class Reply {
+        private final AlertFrames.Link client;
+        private final ByteBuffer frame;
+
+        Reply(AlertFrames.Link client, ByteBuffer frame) {
+            this.client = client;
+            this.frame = frame;
+        }
+    }
+}
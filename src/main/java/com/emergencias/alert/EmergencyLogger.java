@@ -2,17 +2,31 @@ package com.emergencias.alert;
 
 import com.emergencias.model.EmergencyEvent;
 import com.emergencias.model.UserFeedback;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.emergencias.persistence.DurabilityPolicy;
+import com.emergencias.persistence.EmergencyEventCodec;
+import com.emergencias.persistence.EmergencyHistory;
+import com.emergencias.persistence.EmergencyIdGenerator;
+import com.emergencias.persistence.EventCodec;
+import com.emergencias.persistence.JsonEventCodec;
+import com.emergencias.persistence.RotationPolicy;
+import com.emergencias.persistence.SegmentedJournal;
+import com.emergencias.persistence.UserFeedbackCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 /**
  * <h1>Gestor de Registros de Emergencias y Feedback</h1>
@@ -20,7 +34,43 @@ import java.util.UUID;
  * <p>
  * Esta clase se encarga de la persistencia de los datos generados durante la
  * ejecución del programa. Guarda tanto los eventos de emergencia como el
- * feedback de los usuarios en archivos JSON estructurados.
+ * feedback de los usuarios en diarios de solo anexado ({@link SegmentedJournal}),
+ * de modo que cada registro cuesta una única escritura al final del archivo.
+ * </p>
+ *
+ * <p>
+ * Los diarios se rotan cada día (o al alcanzar un tamaño máximo): los
+ * segmentos sellados se mueven a {@code logs/archive/} y se comprimen por
+ * bloques, de modo que el archivo activo se mantiene pequeño.
+ * </p>
+ *
+ * <p>
+ * Los archivos JSON antiguos ({@code emergency_history.json} y
+ * {@code user_feedback.json}) se conservan y se siguen leyendo como parte
+ * del historial.
+ * </p>
+ *
+ * <p>
+ * Cada diario elige su formato ({@link EventCodec.Format}). Por defecto se
+ * usa un formato binario compacto, con los tipos de emergencia codificados
+ * en un diccionario ({@code emergency_history.dict}); el formato JSON sigue
+ * disponible para depuración o intercambio. Los segmentos escritos en un
+ * formato se siguen leyendo aunque se cambie al otro.
+ * </p>
+ *
+ * <p>
+ * Las escrituras concurrentes se agrupan (group commit). Por defecto, cada
+ * emergencia es durable en disco antes de confirmarse, mientras que el
+ * feedback, menos crítico, se sincroniza periódicamente.
+ * </p>
+ *
+ * <p>
+ * Además del diario, cada emergencia se copia en un {@link EmergencyHistory}:
+ * un almacén binario mapeado en memoria con índices por ID, tipo, ubicación
+ * y marca de tiempo, sobre el que se pueden hacer consultas rápidas. El
+ * diario manda: la copia se hace cuando el registro ya es durable, y al
+ * abrir se añaden al almacén las emergencias del diario que le falten (por
+ * ejemplo, si el proceso se detuvo entre las dos escrituras).
  * </p>
  *
  * <p>
@@ -31,38 +81,110 @@ import java.util.UUID;
  * @version 1.1
  * @since 2023-10-27
  */
-public class EmergencyLogger {
+public class EmergencyLogger implements AutoCloseable {
     // --- RUTAS DE LOS ARCHIVOS DE LOG ---
-    private static final String HISTORY_FILE = "logs/emergency_history.json";
-    private static final String FEEDBACK_FILE = "logs/user_feedback.json";
+    private static final String HISTORY_FILE = "logs/emergency_history.json";       // Formato antiguo (solo lectura)
+    private static final String FEEDBACK_FILE = "logs/user_feedback.json";          // Formato antiguo (solo lectura)
+    private static final String HISTORY_JOURNAL = "logs/emergency_history.journal";
+    private static final String FEEDBACK_JOURNAL = "logs/user_feedback.journal";
+    private static final String HISTORY_DICTIONARY = "logs/emergency_history.dict";
+    private static final String EVENT_STORE_DIR = "logs/store";
     private static final String LOGS_DIR = "logs";
 
+    // --- POLÍTICAS DE DURABILIDAD POR DEFECTO ---
+    private static final DurabilityPolicy DEFAULT_HISTORY_POLICY = DurabilityPolicy.everyRecord();
+    private static final DurabilityPolicy DEFAULT_FEEDBACK_POLICY = DurabilityPolicy.everyMillis(200);
+
+    // --- FORMATO DE LOS REGISTROS POR DEFECTO ---
+    private static final EventCodec.Format DEFAULT_FORMAT = EventCodec.Format.BINARY;
+
+    // --- ROTACIÓN DE SEGMENTOS (diaria o al alcanzar el tamaño máximo) ---
+    private static final RotationPolicy HISTORY_ROTATION = RotationPolicy.daily(64L * 1024 * 1024);
+    private static final RotationPolicy FEEDBACK_ROTATION = RotationPolicy.daily(16L * 1024 * 1024);
+
     // ObjectMapper de Jackson, configurado para ser reutilizado.
     private final ObjectMapper objectMapper;
 
+    // Codificadores de los registros de cada diario.
+    private final EventCodec<EmergencyEvent> historyCodec;
+    private final EventCodec<UserFeedback> feedbackCodec;
+
+    // Diarios de solo anexado y segmentados, abiertos durante toda la vida del logger.
+    private final SegmentedJournal<EmergencyEvent> historyJournal;
+    private final SegmentedJournal<UserFeedback> feedbackJournal;
+
+    // Generador de IDs ordenados por tiempo (sin bloqueos).
+    private final EmergencyIdGenerator idGenerator = new EmergencyIdGenerator();
+
+    // Almacén binario e indexado del historial, para consultas.
+    private final EmergencyHistory history;
+
     /**
      * Constructor que inicializa el logger.
      * <p>
-     * Se encarga de crear el directorio de logs si no existe y de configurar
-     * el {@link ObjectMapper} para que funcione con fechas de Java 8 y genere
-     * un JSON formateado (legible).
+     * Se encarga de crear el directorio de logs si no existe, de configurar
+     * el {@link ObjectMapper} para que funcione con fechas de Java 8 y de
+     * abrir los diarios de emergencias y feedback.
      * </p>
+     *
+     * @throws RuntimeException si no se pueden abrir los diarios.
      */
     public EmergencyLogger() {
+        this(DEFAULT_HISTORY_POLICY, DEFAULT_FEEDBACK_POLICY);
+    }
+
+    /**
+     * Constructor que permite elegir la política de durabilidad de cada diario.
+     *
+     * @param historyPolicy  Política para el historial de emergencias.
+     * @param feedbackPolicy Política para el feedback de los usuarios.
+     * @throws RuntimeException si no se pueden abrir los diarios.
+     */
+    public EmergencyLogger(DurabilityPolicy historyPolicy, DurabilityPolicy feedbackPolicy) {
+        this(historyPolicy, feedbackPolicy, DEFAULT_FORMAT, DEFAULT_FORMAT);
+    }
+
+    /**
+     * Constructor que permite elegir la política de durabilidad y el formato
+     * de cada diario.
+     *
+     * @param historyPolicy  Política para el historial de emergencias.
+     * @param feedbackPolicy Política para el feedback de los usuarios.
+     * @param historyFormat  Formato de los registros del historial.
+     * @param feedbackFormat Formato de los registros de feedback.
+     * @throws RuntimeException si no se pueden abrir los diarios.
+     */
+    public EmergencyLogger(DurabilityPolicy historyPolicy, DurabilityPolicy feedbackPolicy,
+                           EventCodec.Format historyFormat, EventCodec.Format feedbackFormat) {
         createLogsDirectory();
         
         this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT); // JSON legible
         this.objectMapper.registerModule(new JavaTimeModule()); // Soporte para LocalDateTime
         this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS); // Usar formato de texto para fechas
+
+        try {
+            this.historyCodec = createHistoryCodec(historyFormat);
+            this.feedbackCodec = createFeedbackCodec(feedbackFormat);
+            this.historyJournal = new SegmentedJournal<>(
+                Path.of(HISTORY_JOURNAL), Path.of(HISTORY_FILE), EmergencyEvent.class, objectMapper,
+                historyCodec, historyPolicy, HISTORY_ROTATION, EmergencyEvent::getTimestamp);
+            this.feedbackJournal = new SegmentedJournal<>(
+                Path.of(FEEDBACK_JOURNAL), Path.of(FEEDBACK_FILE), UserFeedback.class, objectMapper,
+                feedbackCodec, feedbackPolicy, FEEDBACK_ROTATION, UserFeedback::getFeedbackTime);
+            this.history = new EmergencyHistory(Path.of(EVENT_STORE_DIR));
+            reconcileStore();
+        } catch (IOException e) {
+            System.err.println("❌ Error al abrir los diarios de registro: " + e.getMessage());
+            throw new RuntimeException("No se pudieron abrir los archivos de historial.", e);
+        }
     }
 
     /**
-     * Registra un evento de emergencia en el archivo {@code emergency_history.json}.
+     * Registra un evento de emergencia en el diario {@code emergency_history.journal}.
      * <p>
-     * El método lee el archivo JSON existente, lo convierte en una lista de eventos,
-     * añade el nuevo evento y vuelve a escribir la lista completa en el archivo.
-     * Asigna un ID único al evento antes de guardarlo.
+     * Asigna un ID único al evento y lo añade al final del diario, sin leer
+     * ni reescribir el historial existente. El método espera a que el registro
+     * sea durable según la política del historial.
      * </p>
      *
      * @param event El evento de emergencia a registrar.
@@ -70,32 +192,39 @@ public class EmergencyLogger {
      * @throws RuntimeException si ocurre un error de I/O al escribir el archivo.
      */
     public String logEmergency(EmergencyEvent event) {
+        try {
+            return logEmergencyAsync(event).join();
+        } catch (CompletionException e) {
+            System.err.println("❌ Error al registrar la emergencia en el diario: " + e.getCause().getMessage());
+            throw new RuntimeException("Error al escribir en el archivo de historial.", e.getCause());
+        }
+    }
+
+    /**
+     * Versión no bloqueante de {@link #logEmergency(EmergencyEvent)}.
+     * <p>
+     * El ID se asigna de inmediato; el futuro se completa con él cuando el
+     * registro es durable, de modo que muchos llamantes concurrentes comparten
+     * una misma escritura y sincronización a disco. Solo entonces se copia el
+     * evento en el almacén consultable: nunca contiene emergencias que no
+     * estén en el diario.
+     * </p>
+     *
+     * @param event El evento de emergencia a registrar.
+     * @return Un futuro con el ID único generado para esta emergencia.
+     */
+    public CompletableFuture<String> logEmergencyAsync(EmergencyEvent event) {
         if (event == null) {
             throw new IllegalArgumentException("El evento de emergencia no puede ser nulo.");
         }
-        
-        String emergencyId = UUID.randomUUID().toString();
-        event.setId(emergencyId);
-
-        try {
-            File file = new File(HISTORY_FILE);
-            List<EmergencyEvent> emergencies;
-
-            if (file.exists() && file.length() > 0) {
-                emergencies = objectMapper.readValue(file, new TypeReference<List<EmergencyEvent>>() {});
-            } else {
-                emergencies = new ArrayList<>();
-            }
 
-            emergencies.add(event);
-            objectMapper.writeValue(file, emergencies);
-
-        } catch (IOException e) {
-            System.err.println("❌ Error al registrar la emergencia en JSON: " + e.getMessage());
-            throw new RuntimeException("Error al escribir en el archivo de historial JSON.", e);
-        }
+        String emergencyId = idGenerator.nextId();
+        event.setId(emergencyId);
 
-        return emergencyId;
+        return historyJournal.append(event).thenApply(offset -> {
+            copyToStore(event);
+            return emergencyId;
+        });
     }
 
     /**
@@ -107,6 +236,20 @@ public class EmergencyLogger {
      * @throws RuntimeException si ocurre un error durante la recopilación.
      */
     public UserFeedback collectAndLogFeedback(String emergencyId, Scanner scanner) {
+        UserFeedback feedback = collectFeedback(emergencyId, scanner);
+        logFeedback(feedback);
+        return feedback;
+    }
+
+    /**
+     * Recopila el feedback del usuario para una emergencia, sin registrarlo.
+     *
+     * @param emergencyId El ID de la emergencia sobre la que se está dando feedback.
+     * @param scanner     La instancia de Scanner para leer la entrada.
+     * @return El objeto {@link UserFeedback} creado.
+     * @throws RuntimeException si ocurre un error durante la recopilación.
+     */
+    public UserFeedback collectFeedback(String emergencyId, Scanner scanner) {
         if (emergencyId == null || emergencyId.isEmpty()) {
             throw new IllegalArgumentException("El ID de emergencia no puede ser nulo o vacío.");
         }
@@ -125,10 +268,7 @@ public class EmergencyLogger {
                 comments = "Sin comentarios.";
             }
 
-            UserFeedback feedback = new UserFeedback(emergencyId, rating, comments);
-            logFeedback(feedback);
-
-            return feedback;
+            return new UserFeedback(emergencyId, rating, comments);
             
         } catch (Exception e) {
             System.err.println("❌ Error al recopilar el feedback: " + e.getMessage());
@@ -137,36 +277,245 @@ public class EmergencyLogger {
     }
 
     /**
-     * Registra un objeto de feedback en el archivo {@code user_feedback.json}.
+     * Registra un objeto de feedback en el diario {@code user_feedback.journal}.
      * <p>
-     * Sigue la misma lógica que {@code logEmergency}: lee la lista, añade el
-     * nuevo feedback y reescribe el archivo.
+     * Sigue la misma lógica que {@code logEmergency}: el feedback se añade al
+     * final del diario sin reescribir el archivo. No se espera a su
+     * sincronización; los errores se notifican por consola.
      * </p>
      *
      * @param feedback El objeto de feedback a registrar.
      */
-    private void logFeedback(UserFeedback feedback) {
+    public void logFeedback(UserFeedback feedback) {
         if (feedback == null) {
             System.err.println("❌ Error: No se puede registrar un feedback nulo.");
             return;
         }
         
+        feedbackJournal.append(feedback).exceptionally(e -> {
+            System.err.println("❌ Error al registrar el feedback en el diario: " + e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Devuelve el historial completo de emergencias (archivo antiguo + diario).
+     *
+     * @return La lista de eventos registrados, en orden de registro.
+     * @throws RuntimeException si ocurre un error de lectura.
+     */
+    public List<EmergencyEvent> readEmergencyHistory() {
         try {
-            File file = new File(FEEDBACK_FILE);
-            List<UserFeedback> feedbacks;
+            return historyJournal.readAll();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el historial de emergencias.", e);
+        }
+    }
 
-            if (file.exists() && file.length() > 0) {
-                feedbacks = objectMapper.readValue(file, new TypeReference<List<UserFeedback>>() {});
-            } else {
-                feedbacks = new ArrayList<>();
-            }
+    /**
+     * Devuelve las emergencias registradas en un rango de fechas.
+     * <p>
+     * Solo se abren los segmentos archivados cuyo rango de tiempo se solapa
+     * con el pedido.
+     * </p>
+     *
+     * @param from Inicio del rango (incluido).
+     * @param to   Fin del rango (incluido).
+     * @return Los eventos del rango, en orden de registro.
+     * @throws RuntimeException si ocurre un error de lectura.
+     */
+    public List<EmergencyEvent> readEmergencyHistory(LocalDateTime from, LocalDateTime to) {
+        try {
+            return historyJournal.read(from, to);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el historial de emergencias.", e);
+        }
+    }
+
+    /**
+     * Devuelve todo el feedback registrado (archivo antiguo + diario).
+     *
+     * @return La lista de feedback, en orden de registro.
+     * @throws RuntimeException si ocurre un error de lectura.
+     */
+    public List<UserFeedback> readFeedbackHistory() {
+        try {
+            return feedbackJournal.readAll();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el historial de feedback.", e);
+        }
+    }
+
+    /**
+     * Recorre el historial completo de emergencias sin cargarlo en memoria.
+     * <p>
+     * Cada evento se decodifica cuando el flujo lo pide, por lo que sirve
+     * para informes y exportaciones de historiales mayores que la memoria
+     * disponible. El flujo debe cerrarse al terminar:
+     * <pre>
+     * try (Stream&lt;EmergencyEvent&gt; events = logger.streamEmergencyHistory()) {
+     *     events.filter(e -&gt; e.getSeverityLevel() &gt;= 8).forEach(...);
+     * }
+     * </pre>
+     * </p>
+     *
+     * @return Un flujo perezoso con los eventos, en orden de registro.
+     * @throws RuntimeException si no se pueden abrir los archivos.
+     */
+    public Stream<EmergencyEvent> streamEmergencyHistory() {
+        try {
+            return historyJournal.stream();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el historial de emergencias.", e);
+        }
+    }
+
+    /**
+     * Recorre sin cargarlas en memoria las emergencias de un rango de fechas.
+     *
+     * @param from Inicio del rango (incluido).
+     * @param to   Fin del rango (incluido).
+     * @return Un flujo perezoso con los eventos del rango (debe cerrarse).
+     * @throws RuntimeException si no se pueden abrir los archivos.
+     */
+    public Stream<EmergencyEvent> streamEmergencyHistory(LocalDateTime from, LocalDateTime to) {
+        try {
+            return historyJournal.stream(from, to);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el historial de emergencias.", e);
+        }
+    }
 
-            feedbacks.add(feedback);
-            objectMapper.writeValue(file, feedbacks);
+    /**
+     * Recorre todo el feedback registrado sin cargarlo en memoria.
+     *
+     * @return Un flujo perezoso con el feedback, en orden de registro (debe cerrarse).
+     * @throws RuntimeException si no se pueden abrir los archivos.
+     */
+    public Stream<UserFeedback> streamFeedbackHistory() {
+        try {
+            return feedbackJournal.stream();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el historial de feedback.", e);
+        }
+    }
+
+    /**
+     * Devuelve el historial consultable de emergencias.
+     * <p>
+     * Permite buscar por ID y filtrar por tipo, ubicación, gravedad y rango
+     * de fechas usando los índices del almacén.
+     * </p>
+     *
+     * @return El {@link EmergencyHistory} usado por este logger.
+     */
+    public EmergencyHistory getHistory() {
+        return history;
+    }
 
+    /**
+     * Cierra los diarios y el almacén abiertos por el logger.
+     */
+    @Override
+    public void close() {
+        try {
+            historyJournal.close();
+            feedbackJournal.close();
+            historyCodec.close();
+            feedbackCodec.close();
+            history.close();
         } catch (IOException e) {
-            System.err.println("❌ Error al registrar el feedback en JSON: " + e.getMessage());
+            System.err.println("⚠️  Advertencia: No se pudieron cerrar los diarios: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea el codificador del historial. En formato JSON, si existe el
+     * diccionario de una ejecución anterior en binario, se conserva como
+     * codificador de lectura para los segmentos binarios.
+     */
+    private EventCodec<EmergencyEvent> createHistoryCodec(EventCodec.Format format) throws IOException {
+        if (format == EventCodec.Format.BINARY) {
+            return new EmergencyEventCodec(Path.of(HISTORY_DICTIONARY));
+        }
+        EventCodec<EmergencyEvent> json = new JsonEventCodec<>(EmergencyEvent.class, objectMapper);
+        if (Files.exists(Path.of(HISTORY_DICTIONARY))) {
+            return EventCodec.readingAlso(json, new EmergencyEventCodec(Path.of(HISTORY_DICTIONARY)));
+        }
+        return json;
+    }
+
+    /**
+     * Crea el codificador del feedback. El formato binario no necesita
+     * diccionario, así que siempre se puede leer.
+     */
+    private EventCodec<UserFeedback> createFeedbackCodec(EventCodec.Format format) {
+        if (format == EventCodec.Format.BINARY) {
+            return new UserFeedbackCodec();
+        }
+        return EventCodec.readingAlso(new JsonEventCodec<>(UserFeedback.class, objectMapper), new UserFeedbackCodec());
+    }
+
+    /**
+     * Copia en el almacén consultable una emergencia ya durable en el diario.
+     * Un fallo (de escritura o un evento que el almacén no admite) no anula
+     * el registro: se vuelve a intentar la próxima vez que se abra el logger.
+     */
+    private void copyToStore(EmergencyEvent event) {
+        try {
+            history.append(event);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️  Advertencia: La emergencia " + event.getId()
+                + " está en el diario pero no en el historial consultable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pone el almacén binario al día con el diario. Si tiene menos
+     * emergencias (primera ejecución, o se perdieron copias por una parada o
+     * un error), recorre el historial y añade las que falten. Si el almacén
+     * está vacío se copian todas sin buscarlas. Una emergencia que no se
+     * puede copiar se omite con un aviso, sin impedir que el logger arranque.
+     */
+    private void reconcileStore() throws IOException {
+        long stored = history.size();
+        if (stored >= historyJournal.count()) {
+            return;
+        }
+        long added = 0;
+        try (Stream<EmergencyEvent> events = historyJournal.stream()) {
+            Iterator<EmergencyEvent> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                EmergencyEvent event = iterator.next();
+                try {
+                    if (stored == 0 || isMissingFromStore(event)) {
+                        history.append(event);
+                        added++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("⚠️  Advertencia: No se pudo copiar la emergencia " + event.getId()
+                        + " al historial consultable: " + e.getMessage());
+                }
+            }
+        }
+        if (stored > 0) {
+            System.out.println("⚠️  Advertencia: Se han añadido " + added
+                + " emergencias del diario que faltaban en el historial consultable.");
+        }
+    }
+
+    /**
+     * Indica si una emergencia del diario falta en el almacén. Las que no
+     * tienen un ID válido no se pueden buscar; se copiaron al crear el
+     * almacén, así que no se vuelven a añadir.
+     */
+    private boolean isMissingFromStore(EmergencyEvent event) {
+        try {
+            UUID.fromString(event.getId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
         }
+        return history.findById(event.getId()).isEmpty();
     }
 
     /**
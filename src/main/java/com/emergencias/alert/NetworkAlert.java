@@ -0,0 +1,418 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.persistence.EmergencyIdGenerator;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.IAlert;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Alerta por Red</h1>
+ *
+ * <p>
+ * Implementación de {@link IAlert} que envía cada alerta a un centro de
+ * emergencias por TCP, con el protocolo de {@link AlertFrames}, y la da por
+ * enviada cuando el centro la confirma.
+ * </p>
+ *
+ * <p>
+ * Todo el tráfico lo gestiona un único hilo con un {@link Selector}, sobre
+ * un grupo de conexiones persistentes no bloqueantes que se reabren si se
+ * caen. Las alertas se reparten entre las conexiones y se envían sin esperar
+ * la respuesta de las anteriores; cada confirmación se asocia a su alerta
+ * por el ID de la emergencia. Si el centro no responde en el plazo
+ * configurado, el envío termina como
+ * {@link AlertResult.Status#TIMED_OUT}.
+ * </p>
+ *
+ * <p>
+ * Los contactos personales no pasan por el centro 112: se avisan por un
+ * canal de mensajes aparte ({@link AlertSender} por defecto), con su
+ * {@link com.emergencias.services.ContactNotifier}.
+ * </p>
+ *
+ * <p>
+ * El centro puede simularse en local con {@link DispatchCenterStub}.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class NetworkAlert implements IAlert, AutoCloseable {
+    // --- VALORES POR DEFECTO ---
+    private static final int DEFAULT_CONNECTIONS = 4;
+    private static final Duration DEFAULT_ACK_TIMEOUT = Duration.ofSeconds(5);
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+    private static final AlertTemplate MESSAGE_TEMPLATE = AlertTemplate.compile(
+        "[{hora}] {tipo} | Ubicación: {ubicacion} | Gravedad: {gravedad}/10 | {usuario}");
+
+    private final InetSocketAddress address;
+    private final Duration ackTimeout;
+    private final IAlert contactChannel;
+    private final EmergencyIdGenerator idGenerator = new EmergencyIdGenerator();
+
+    // --- ESTADO DEL HILO DE RED ---
+    private final Selector selector;
+    private final AlertFrames.Link[] links;
+    private int nextLink;
+    private final Queue<Request> submissions = new ConcurrentLinkedQueue<>();
+    private final Map<String, Request> pending = new ConcurrentHashMap<>();
+    private final AtomicLong duplicateIds = new AtomicLong();
+    private Thread ioThread;
+    private volatile boolean closed;
+
+    // --- ESTADÍSTICAS ---
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder connectionFailures = new LongAdder();
+
+    /**
+     * Crea el canal con el número de conexiones y el plazo de confirmación
+     * por defecto (4 conexiones, 5 segundos).
+     *
+     * @param address Dirección del centro de emergencias.
+     */
+    public NetworkAlert(InetSocketAddress address) {
+        this(address, DEFAULT_CONNECTIONS, DEFAULT_ACK_TIMEOUT);
+    }
+
+    /**
+     * @param address     Dirección del centro de emergencias.
+     * @param connections Número de conexiones persistentes.
+     * @param ackTimeout  Plazo para que el centro confirme cada alerta.
+     */
+    public NetworkAlert(InetSocketAddress address, int connections, Duration ackTimeout) {
+        this(address, connections, ackTimeout, new AlertSender());
+    }
+
+    /**
+     * @param address        Dirección del centro de emergencias.
+     * @param connections    Número de conexiones persistentes.
+     * @param ackTimeout     Plazo para que el centro confirme cada alerta.
+     * @param contactChannel Canal por el que se avisa a los contactos personales.
+     */
+    public NetworkAlert(InetSocketAddress address, int connections, Duration ackTimeout, IAlert contactChannel) {
+        if (connections < 1 || ackTimeout.isNegative() || ackTimeout.isZero() || contactChannel == null) {
+            throw new IllegalArgumentException("Configuración del canal de red no válida.");
+        }
+        this.address = address;
+        this.ackTimeout = ackTimeout;
+        this.contactChannel = contactChannel;
+        this.links = new AlertFrames.Link[connections];
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo abrir el selector de red: " + e.getMessage());
+            throw new RuntimeException("No se pudo crear el canal de red", e);
+        }
+    }
+
+    /**
+     * Envía la alerta y espera la confirmación del centro.
+     *
+     * @param event El evento de emergencia con los detalles a comunicar.
+     * @return {@code true} si el centro confirmó la alerta.
+     */
+    @Override
+    public boolean send(EmergencyEvent event) {
+        return sendAsync(event).join().isSuccess();
+    }
+
+    /**
+     * Encola la alerta para el hilo de red y devuelve enseguida. El futuro se
+     * completa con la confirmación, el rechazo del centro, el plazo agotado o
+     * la caída de la conexión.
+     *
+     * @param event El evento de emergencia con los detalles a comunicar.
+     * @return Un futuro con el resultado del envío.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        if (event == null) {
+            System.err.println("❌ Error: No se puede enviar una alerta para un evento nulo.");
+            return CompletableFuture.completedFuture(AlertResult.failed(getAlertType(), "Evento nulo.", Duration.ZERO));
+        }
+        if (closed) {
+            return CompletableFuture.completedFuture(
+                AlertResult.failed(getAlertType(), "El canal de red está cerrado.", Duration.ZERO));
+        }
+        startIoThread();
+
+        Request request = new Request(System.nanoTime());
+        String baseId = event.getId() != null ? event.getId() : idGenerator.nextId();
+        request.id = baseId;
+        while (pending.putIfAbsent(request.id, request) != null) {
+            request.id = baseId + "#" + duplicateIds.incrementAndGet(); // Mismo evento enviado dos veces a la vez.
+        }
+        String id = request.id;
+        try (AlertTemplate.Buffer buffer = AlertTemplate.Buffer.acquire()) {
+            MESSAGE_TEMPLATE.render(event, buffer);
+            request.frame = AlertFrames.alert(id, event.getSeverityLevel(), buffer.utf8());
+        }
+
+        request.future.whenComplete((result, error) -> pending.remove(id, request));
+        CompletableFuture.delayedExecutor(ackTimeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (pending.remove(id, request)) {
+                timedOut.increment();
+                request.future.complete(AlertResult.timedOut(getAlertType(), ackTimeout));
+            }
+        });
+
+        submissions.add(request);
+        selector.wakeup();
+        return request.future;
+    }
+
+    /**
+     * Avisa a los contactos personales por el canal de mensajes, no por la
+     * conexión con el centro de emergencias.
+     *
+     * @param userData Los datos del usuario, que contienen los contactos.
+     * @param event    El evento de emergencia con los detalles a notificar.
+     */
+    @Override
+    public void notifyContacts(UserData userData, EmergencyEvent event) {
+        contactChannel.notifyContacts(userData, event);
+    }
+
+    @Override
+    public CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        return contactChannel.notifyContactsAsync(userData, event);
+    }
+
+    @Override
+    public String getAlertType() {
+        return "Alerta en Red (" + address.getHostString() + ":" + address.getPort() + ")";
+    }
+
+    /**
+     * Cierra las conexiones. Los envíos pendientes terminan como fallidos.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        Thread thread;
+        synchronized (this) {
+            thread = ioThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        failPending(null, "El canal de red se ha cerrado.");
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // El selector ya no se usa.
+        }
+    }
+
+    public long getSent() { return sent.sum(); }
+    public long getAcknowledged() { return acknowledged.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getTimedOut() { return timedOut.sum(); }
+    public long getConnectionFailures() { return connectionFailures.sum(); }
+    public int getInFlight() { return pending.size(); }
+
+    @Override
+    public String toString() {
+        return getAlertType() + ": enviadas=" + sent.sum() + ", confirmadas=" + acknowledged.sum()
+            + ", rechazadas=" + rejected.sum() + ", sin respuesta=" + timedOut.sum()
+            + ", conexiones caídas=" + connectionFailures.sum();
+    }
+
+    // --- HILO DE RED ---
+
+    private synchronized void startIoThread() {
+        if (ioThread == null) {
+            ioThread = Thread.ofPlatform().daemon().name("alerta-red").start(this::ioLoop);
+        }
+    }
+
+    private void ioLoop() {
+        while (!closed) {
+            try {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                System.err.println("❌ Error en el selector de red: " + e.getMessage());
+                break;
+            }
+            assignSubmissions();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                AlertFrames.Link link = (AlertFrames.Link) key.attachment();
+                try {
+                    if (key.isConnectable() && link.channel.finishConnect()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                        link.flush();
+                    }
+                    if (key.isValid() && key.isReadable() && !link.read(this::onReply)) {
+                        throw new IOException("El centro cerró la conexión.");
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        link.flush();
+                    }
+                } catch (IOException e) {
+                    dropLink(link, e);
+                }
+            }
+        }
+        for (int i = 0; i < links.length; i++) {
+            if (links[i] != null) {
+                links[i].close();
+                links[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Reparte las alertas encoladas entre las conexiones y las escribe.
+     */
+    private void assignSubmissions() {
+        Request request;
+        while ((request = submissions.poll()) != null) {
+            if (request.future.isDone()) {
+                continue; // Cancelada o sin respuesta antes de salir.
+            }
+            AlertFrames.Link link = nextLink();
+            if (link == null) {
+                complete(request, AlertResult.failed(getAlertType(), "No se pudo conectar con el centro.",
+                    Duration.ofNanos(System.nanoTime() - request.startNanos)));
+                continue;
+            }
+            request.link = link;
+            link.enqueue(request.frame);
+            sent.increment();
+        }
+        for (AlertFrames.Link link : links) {
+            if (link != null && link.hasPendingWrites() && link.channel.isConnected()) {
+                try {
+                    link.flush();
+                } catch (IOException e) {
+                    dropLink(link, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return La siguiente conexión por turno, abriéndola si hace falta, o
+     *         {@code null} si no se puede conectar.
+     */
+    private AlertFrames.Link nextLink() {
+        int index = nextLink;
+        nextLink = (nextLink + 1) % links.length;
+        if (links[index] != null) {
+            return links[index];
+        }
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            AlertFrames.Link link = new AlertFrames.Link(channel);
+            boolean connected = channel.connect(address);
+            link.key = channel.register(selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, link);
+            links[index] = link;
+            return link;
+        } catch (IOException e) {
+            connectionFailures.increment();
+            System.err.println("⚠️  Advertencia: No se pudo conectar con " + address + ": " + e.getMessage());
+            if (channel != null) {
+                new AlertFrames.Link(channel).close();
+            }
+            return null;
+        }
+    }
+
+    private void onReply(AlertFrames.Frame frame) {
+        Request request = pending.get(frame.id);
+        if (request == null) {
+            return; // Ya terminó por plazo agotado o cancelación.
+        }
+        Duration latency = Duration.ofNanos(System.nanoTime() - request.startNanos);
+        if (frame.type == AlertFrames.ACK) {
+            acknowledged.increment();
+            complete(request, AlertResult.sent(getAlertType(), latency));
+        } else {
+            rejected.increment();
+            complete(request, AlertResult.failed(getAlertType(), "Rechazada por el centro: " + frame.text, latency));
+        }
+    }
+
+    /**
+     * Cierra una conexión caída; sus alertas pendientes fallan y la conexión
+     * se reabre al necesitarla.
+     */
+    private void dropLink(AlertFrames.Link link, IOException cause) {
+        link.close();
+        for (int i = 0; i < links.length; i++) {
+            if (links[i] == link) {
+                links[i] = null;
+            }
+        }
+        connectionFailures.increment();
+        System.err.println("⚠️  Advertencia: Conexión con el centro perdida: " + cause.getMessage());
+        failPending(link, "Conexión perdida: " + cause.getMessage());
+    }
+
+    /**
+     * Hace fallar las alertas pendientes de una conexión (o todas, con {@code null}).
+     */
+    private void failPending(AlertFrames.Link link, String detail) {
+        for (Request request : pending.values()) {
+            if (link == null || request.link == link) {
+                complete(request, AlertResult.failed(getAlertType(), detail,
+                    Duration.ofNanos(System.nanoTime() - request.startNanos)));
+            }
+        }
+    }
+
+    private void complete(Request request, AlertResult result) {
+        if (pending.remove(request.id, request)) {
+            request.future.complete(result);
+        }
+    }
+
+    /**
+     * Alerta en curso.
+     */
+    private static final class Request {
+        private final long startNanos;
+        private final CompletableFuture<AlertResult> future = new CompletableFuture<>();
+        private volatile String id;
+        private ByteBuffer frame;
+        private volatile AlertFrames.Link link;
+
+        Request(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
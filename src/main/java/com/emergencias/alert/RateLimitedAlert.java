@@ -0,0 +1,177 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.IAlert;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Alerta con Límite de Ritmo</h1>
+ *
+ * <p>
+ * Envuelve cualquier {@link IAlert} (patrón Decorator) para que no reciba más
+ * envíos de los que puede atender: cada envío necesita una ficha de su
+ * {@link TokenBucket}. Cuando no hay fichas, la {@link BackpressurePolicy}
+ * decide si el envío se rechaza, espera su turno o se desvía a un canal
+ * secundario; en todos los casos el llamante lo sabe por el
+ * {@link AlertResult} ({@link AlertResult.Status#THROTTLED} si se rechaza).
+ * Para no dejar ninguna emergencia sin alerta, la política debe tener un
+ * canal secundario ({@link BackpressurePolicy#queue(Duration, IAlert)} o
+ * {@link BackpressurePolicy#fallback(IAlert)}).
+ * </p>
+ *
+ * <p>
+ * Debe ir por fuera del {@link ResilientAlert} del canal, para que los
+ * rechazos por saturación no cuenten como fallos del canal ni se reintenten.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class RateLimitedAlert implements IAlert {
+    private final IAlert delegate;
+    private final TokenBucket bucket;
+    private final BackpressurePolicy backpressure;
+
+    // --- ESTADÍSTICAS ---
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder degraded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param delegate     El canal de alerta.
+     * @param bucket       Límite de ritmo del canal.
+     * @param backpressure Qué hacer cuando el canal está saturado.
+     */
+    public RateLimitedAlert(IAlert delegate, TokenBucket bucket, BackpressurePolicy backpressure) {
+        this.delegate = delegate;
+        this.bucket = bucket;
+        this.backpressure = backpressure;
+    }
+
+    /**
+     * Envía la alerta respetando el límite y espera el resultado.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return {@code true} si la alerta se entregó (por este canal o por el secundario).
+     */
+    @Override
+    public boolean send(EmergencyEvent event) {
+        return sendAsync(event).join().isSuccess();
+    }
+
+    /**
+     * Envía la alerta si el canal lo admite; si no, aplica la política de
+     * contrapresión. Nunca bloquea al llamante.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return Un futuro con el resultado del envío.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        long start = System.nanoTime();
+        switch (backpressure.getMode()) {
+            case QUEUE:
+                long wait = bucket.reserve(backpressure.getMaxWait());
+                if (wait == 0) {
+                    return delegate.sendAsync(event);
+                }
+                if (wait > 0) {
+                    queued.increment();
+                    return sendLater(event, wait);
+                }
+                if (backpressure.getSecondary() != null) {
+                    degraded.increment();
+                    return backpressure.getSecondary().sendAsync(event);
+                }
+                break;
+            case FALLBACK:
+                if (bucket.tryAcquire()) {
+                    return delegate.sendAsync(event);
+                }
+                degraded.increment();
+                return backpressure.getSecondary().sendAsync(event);
+            default:
+                if (bucket.tryAcquire()) {
+                    return delegate.sendAsync(event);
+                }
+                break;
+        }
+        rejected.increment();
+        return CompletableFuture.completedFuture(AlertResult.throttled(getAlertType(),
+            "Canal saturado (" + backpressure + ").", Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    /**
+     * Envía la alerta cuando llega su turno, sin ocupar un hilo mientras
+     * tanto. Cancelar el futuro cancela el envío pendiente o en curso.
+     */
+    private CompletableFuture<AlertResult> sendLater(EmergencyEvent event, long waitNanos) {
+        CompletableFuture<AlertResult> overall = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<AlertResult>> current = new AtomicReference<>();
+        overall.whenComplete((result, error) -> {
+            CompletableFuture<AlertResult> send = current.get();
+            if (overall.isCancelled() && send != null) {
+                send.cancel(true);
+            }
+        });
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (overall.isDone()) {
+                return; // Cancelado mientras esperaba su turno.
+            }
+            CompletableFuture<AlertResult> send = delegate.sendAsync(event);
+            current.set(send);
+            if (overall.isCancelled()) {
+                send.cancel(true);
+            }
+            send.whenComplete((result, error) -> {
+                if (error == null) {
+                    overall.complete(result);
+                } else {
+                    overall.completeExceptionally(error);
+                }
+            });
+        });
+        return overall;
+    }
+
+    @Override
+    public void notifyContacts(UserData userData, EmergencyEvent event) {
+        delegate.notifyContacts(userData, event);
+    }
+
+    @Override
+    public CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        return delegate.notifyContactsAsync(userData, event);
+    }
+
+    @Override
+    public String getAlertType() {
+        return delegate.getAlertType();
+    }
+
+    /** @return El cubo de fichas del canal (ritmo y fichas concedidas o denegadas). */
+    public TokenBucket getBucket() { return bucket; }
+
+    /** @return Envíos que tuvieron que esperar su turno. */
+    public long getQueued() { return queued.sum(); }
+
+    /** @return Envíos desviados al canal secundario. */
+    public long getDegraded() { return degraded.sum(); }
+
+    /** @return Envíos rechazados por saturación. */
+    public long getRejected() { return rejected.sum(); }
+
+    @Override
+    public String toString() {
+        return getAlertType() + ": " + bucket + ", en cola=" + queued.sum() + ", desviados=" + degraded.sum()
+            + ", rechazados=" + rejected.sum();
+    }
+}
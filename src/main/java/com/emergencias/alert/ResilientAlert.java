@@ -0,0 +1,170 @@
+package com.emergencias.alert;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.IAlert;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <h1>Alerta con Reintentos y Cortocircuito</h1>
+ *
+ * <p>
+ * Envuelve cualquier {@link IAlert} (patrón Decorator) para hacer su entrega
+ * más robusta:
+ * <ul>
+ *     <li>Si un envío falla, se reintenta según la {@link RetryPolicy}, con
+ *     esperas exponenciales y aleatorias. Las esperas no ocupan ningún hilo:
+ *     el siguiente intento se programa para más tarde.</li>
+ *     <li>Cada canal tiene su {@link CircuitBreaker}: si el canal está caído,
+ *     los envíos fallan al instante en lugar de acumular hilos bloqueados, de
+ *     modo que una {@link CompositeAlert} puede pasar enseguida a otro canal.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Los envíos cancelados (por ejemplo, porque otro canal ya confirmó la
+ * alerta) no se reintentan ni cuentan como fallos del canal.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class ResilientAlert implements IAlert {
+    // --- VALORES POR DEFECTO ---
+    private static final RetryPolicy DEFAULT_RETRY =
+        RetryPolicy.exponential(3, Duration.ofMillis(200), Duration.ofSeconds(2));
+    private static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final IAlert delegate;
+    private final RetryPolicy retry;
+    private final CircuitBreaker breaker;
+
+    /**
+     * Envuelve un canal con la política de reintentos y el cortocircuito por defecto.
+     *
+     * @param delegate El canal de alerta.
+     */
+    public ResilientAlert(IAlert delegate) {
+        this(delegate, DEFAULT_RETRY,
+            new CircuitBreaker(delegate.getAlertType(), DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION));
+    }
+
+    /**
+     * @param delegate El canal de alerta.
+     * @param retry    Política de reintentos.
+     * @param breaker  Cortocircuito del canal.
+     */
+    public ResilientAlert(IAlert delegate, RetryPolicy retry, CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.retry = retry;
+        this.breaker = breaker;
+    }
+
+    /**
+     * Envía la alerta con reintentos y espera el resultado.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return {@code true} si algún intento tuvo éxito.
+     */
+    @Override
+    public boolean send(EmergencyEvent event) {
+        return sendAsync(event).join().isSuccess();
+    }
+
+    /**
+     * Envía la alerta con reintentos sin bloquear al llamante. Cancelar el
+     * futuro cancela el intento en curso y los reintentos pendientes.
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return Un futuro con el resultado del último intento.
+     */
+    @Override
+    public CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        CompletableFuture<AlertResult> overall = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<AlertResult>> current = new AtomicReference<>();
+        overall.whenComplete((result, error) -> {
+            CompletableFuture<AlertResult> attempt = current.get();
+            if (overall.isCancelled() && attempt != null) {
+                attempt.cancel(true);
+            }
+        });
+        attempt(event, 1, System.nanoTime(), overall, current);
+        return overall;
+    }
+
+    /**
+     * Hace un intento y, si falla, programa el siguiente.
+     */
+    private void attempt(EmergencyEvent event, int number, long start, CompletableFuture<AlertResult> overall,
+                         AtomicReference<CompletableFuture<AlertResult>> current) {
+        if (overall.isDone()) {
+            return; // Cancelado mientras esperaba el reintento.
+        }
+        if (!breaker.tryAcquire()) {
+            overall.complete(AlertResult.failed(getAlertType(),
+                "Canal no disponible (circuito abierto).", Duration.ofNanos(System.nanoTime() - start)));
+            return;
+        }
+
+        CompletableFuture<AlertResult> send = delegate.sendAsync(event);
+        current.set(send);
+        if (overall.isCancelled()) {
+            send.cancel(true);
+        }
+        send.whenComplete((result, error) -> {
+            if (error == null && result.isSuccess()) {
+                breaker.onSuccess();
+                overall.complete(result);
+                return;
+            }
+            if (overall.isDone() || (error == null && result.getStatus() == AlertResult.Status.CANCELLED)) {
+                breaker.release(); // Cancelado desde fuera: no es culpa del canal.
+                overall.complete(result != null ? result
+                    : AlertResult.cancelled(getAlertType(), Duration.ofNanos(System.nanoTime() - start)));
+                return;
+            }
+            breaker.onFailure();
+            if (number >= retry.getMaxAttempts()) {
+                String detail = error != null ? error.getMessage()
+                    : result.getDetail();
+                overall.complete(AlertResult.failed(getAlertType(), "Fallo tras " + number + " intentos: " + detail,
+                    Duration.ofNanos(System.nanoTime() - start)));
+                return;
+            }
+            long delay = retry.delayMillis(number);
+            System.err.println("⚠️  Advertencia: Falló el envío por " + delegate.getAlertType()
+                + " (intento " + number + "); se reintenta en " + delay + " ms.");
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                .execute(() -> attempt(event, number + 1, start, overall, current));
+        });
+    }
+
+    @Override
+    public void notifyContacts(UserData userData, EmergencyEvent event) {
+        delegate.notifyContacts(userData, event);
+    }
+
+    @Override
+    public CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        return delegate.notifyContactsAsync(userData, event);
+    }
+
+    @Override
+    public String getAlertType() {
+        return delegate.getAlertType();
+    }
+
+    /**
+     * @return El cortocircuito del canal (estado y estadísticas).
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+}
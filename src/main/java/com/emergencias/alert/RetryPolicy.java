@@ -0,0 +1,74 @@
+package com.emergencias.alert;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h1>Política de Reintentos</h1>
+ *
+ * <p>
+ * Define cuántas veces se intenta un envío y cuánto se espera entre
+ * intentos. La espera crece de forma exponencial ({@code base * 2^n}, con un
+ * máximo) y se elige al azar entre cero y ese valor ("full jitter"), para que
+ * muchos envíos que fallan a la vez no reintenten todos en el mismo instante.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseMillis;
+    private final long maxMillis;
+
+    private RetryPolicy(int maxAttempts, long baseMillis, long maxMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Reintentos con espera exponencial y aleatoria.
+     *
+     * @param maxAttempts Número total de intentos, incluido el primero (al menos 1).
+     * @param baseDelay   Espera máxima antes del primer reintento.
+     * @param maxDelay    Límite de la espera entre intentos.
+     * @return La política correspondiente.
+     */
+    public static RetryPolicy exponential(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un intento.");
+        }
+        if (baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("Las esperas no son válidas: " + baseDelay + ", " + maxDelay);
+        }
+        return new RetryPolicy(maxAttempts, baseDelay.toMillis(), maxDelay.toMillis());
+    }
+
+    /**
+     * @return Una política sin reintentos (un único intento).
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, 0, 0);
+    }
+
+    /**
+     * Calcula la espera antes de un reintento.
+     *
+     * @param attempt Número del intento que acaba de fallar (empezando en 1).
+     * @return Milisegundos de espera, entre 0 y el límite exponencial.
+     */
+    long delayMillis(int attempt) {
+        int exponent = Math.min(attempt - 1, 30); // Evita desbordar el desplazamiento.
+        long ceiling = Math.min(maxMillis, baseMillis << exponent);
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+
+    @Override
+    public String toString() {
+        return maxAttempts + " intentos, espera de " + baseMillis + " a " + maxMillis + " ms";
+    }
+}
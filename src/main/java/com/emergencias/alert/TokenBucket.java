@@ -0,0 +1,108 @@
+package com.emergencias.alert;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Cubo de Fichas (Token Bucket)</h1>
+ *
+ * <p>
+ * Limita el ritmo de envíos de un canal: admite ráfagas de hasta
+ * {@code burst} envíos y, a la larga, no más de {@code permitsPerSecond} por
+ * segundo. Cada envío consume una ficha y el cubo se rellena de forma
+ * continua.
+ * </p>
+ *
+ * <p>
+ * Se implementa con el algoritmo GCRA: en lugar de contar fichas se guarda
+ * un único instante teórico de llegada ({@code tat}) en un
+ * {@link AtomicLong} que se avanza con CAS, sin cerrojos ni hilos de
+ * relleno.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int burst;
+
+    // Instante teórico en que el cubo volverá a estar lleno, menos un intervalo.
+    private final AtomicLong tat = new AtomicLong(System.nanoTime());
+
+    // --- ESTADÍSTICAS ---
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param permitsPerSecond Ritmo de relleno (envíos por segundo a la larga).
+     * @param burst            Capacidad del cubo (envíos seguidos admitidos).
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Configuración del cubo de fichas no válida.");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = (burst - 1) * intervalNanos;
+        this.burst = burst;
+    }
+
+    /**
+     * Toma una ficha si hay alguna disponible.
+     *
+     * @return {@code true} si se concede el envío.
+     */
+    public boolean tryAcquire() {
+        return reserve(Duration.ZERO) == 0;
+    }
+
+    /**
+     * Reserva una ficha que estará disponible como mucho dentro de
+     * {@code maxWait}. La reserva es firme: quien la obtiene debe esperar el
+     * tiempo devuelto antes de enviar.
+     *
+     * @param maxWait Espera máxima aceptable.
+     * @return Nanosegundos que hay que esperar (0 si puede enviarse ya), o
+     *         {@code -1} si no habrá ficha dentro del plazo.
+     */
+    public long reserve(Duration maxWait) {
+        long maxWaitNanos = maxWait.toNanos();
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long start = current - now > 0 ? current : now; // Un cubo lleno no acumula más fichas.
+            long wait = start - now - toleranceNanos;
+            if (wait > maxWaitNanos) {
+                throttled.increment();
+                return -1;
+            }
+            if (tat.compareAndSet(current, start + intervalNanos)) {
+                granted.increment();
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * @return Las fichas disponibles ahora mismo (aproximado).
+     */
+    public int availableTokens() {
+        long backlog = tat.get() - System.nanoTime();
+        if (backlog <= 0) {
+            return burst;
+        }
+        return (int) Math.max(0, (toleranceNanos - backlog) / intervalNanos + 1);
+    }
+
+    public long getGranted() { return granted.sum(); }
+    public long getThrottled() { return throttled.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f/s, ráfaga %d (concedidos=%d, limitados=%d)",
+            1_000_000_000.0 / intervalNanos, burst, granted.sum(), throttled.sum());
+    }
+}
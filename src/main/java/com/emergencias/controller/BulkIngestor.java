@@ -0,0 +1,219 @@
+package com.emergencias.controller;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.services.AlertResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Ingesta Masiva de Emergencias</h1>
+ *
+ * <p>
+ * Modo sin interacción del sistema: lee emergencias en formato JSON Lines
+ * (un {@link EmergencyEvent} por línea) desde un archivo o desde la entrada
+ * estándar y las pone en el mismo {@link EmergencyPipeline} que
+ * {@link EmergencyManager}: registro, alerta y aviso a los contactos, con las
+ * métricas de cada etapa. No se pregunta nada al usuario
+ * (ni feedback ni centros de salud de Murcia), así que otros sistemas pueden
+ * alimentar el flujo y se puede someter a pruebas de carga.
+ * </p>
+ *
+ * <p>
+ * Como mucho {@code maxInFlight} emergencias se procesan a la vez: la
+ * lectura se detiene hasta que termina alguna. Al final se muestra un
+ * resumen con el rendimiento, el resultado de cada alerta y las latencias
+ * de principio a fin ({@link LatencyHistogram}).
+ * </p>
+ *
+ * <p>
+ * Ejemplo de línea:
+ * {@code {"emergencyType":"Incendio","location":"Murcia","severityLevel":8}}.
+ * Los campos que falten se completan: la hora con la actual y los datos del
+ * usuario con los del {@link UserData} configurado. Solo se avisa a los
+ * contactos que trae la propia línea, en el campo
+ * {@code "emergencyContact"}; sin él, no se avisa a nadie.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class BulkIngestor {
+    /** Nombre que indica que las emergencias se leen de la entrada estándar. */
+    public static final String STDIN = "-";
+
+    private final EmergencyPipeline pipeline;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final EmergencyEventReader reader;
+
+    // --- ESTADÍSTICAS ---
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final Map<AlertResult.Status, LongAdder> outcomes = new EnumMap<>(AlertResult.Status.class);
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder unregistered = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private long elapsedNanos;
+
+    /**
+     * @param userData    Los datos del usuario, para los eventos que no traen los suyos.
+     * @param pipeline    El flujo por etapas, ya arrancado; no se cierra aquí.
+     * @param maxInFlight Número máximo de emergencias en proceso a la vez.
+     */
+    public BulkIngestor(UserData userData, EmergencyPipeline pipeline, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Debe poder procesarse al menos una emergencia a la vez.");
+        }
+        this.pipeline = pipeline;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.reader = new EmergencyEventReader(userData);
+        for (AlertResult.Status status : AlertResult.Status.values()) {
+            outcomes.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Procesa todas las emergencias de un archivo JSON Lines, o de la entrada
+     * estándar si el nombre es {@value #STDIN}, y espera a que terminen.
+     *
+     * @param source Ruta del archivo o {@value #STDIN}.
+     * @throws IOException si no se puede leer la fuente.
+     */
+    public void ingest(String source) throws IOException {
+        if (STDIN.equals(source)) {
+            ingest(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        } else {
+            try (BufferedReader in = Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+                ingest(in);
+            }
+        }
+    }
+
+    /**
+     * Procesa todas las emergencias de un lector JSON Lines y espera a que
+     * terminen. Las líneas vacías se ignoran y las que no son una emergencia
+     * válida se cuentan y se saltan.
+     *
+     * @param in El lector.
+     * @throws IOException si falla la lectura.
+     */
+    public void ingest(BufferedReader in) throws IOException {
+        long start = System.nanoTime();
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                EmergencyEventReader.Report report = parse(line, lineNumber);
+                if (report != null) {
+                    inFlight.acquireUninterruptibly();
+                    process(report.event(), report.contacts());
+                }
+            }
+        } finally {
+            // Se espera a que terminen todas las emergencias en proceso.
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+            elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Convierte una línea en una emergencia, completando los campos que falten.
+     *
+     * @return La emergencia y sus contactos, o {@code null} si la línea no es válida.
+     */
+    private EmergencyEventReader.Report parse(String line, long lineNumber) {
+        try {
+            return reader.read(line);
+        } catch (IOException | IllegalArgumentException e) {
+            invalid.increment();
+            System.err.println("⚠️  Advertencia: Línea " + lineNumber + " ignorada: " + EmergencyEventReader.describe(e));
+            return null;
+        }
+    }
+
+    /**
+     * Pone una emergencia en el flujo sin esperar a que pase por las etapas,
+     * y libera su plaza al terminar.
+     *
+     * @param contacts Los contactos a los que avisar, o {@code null} si no hay.
+     */
+    private void process(EmergencyEvent event, UserData contacts) {
+        long start = System.nanoTime();
+        try {
+            EmergencyPipeline.Ticket ticket = pipeline.submit(event, contacts);
+            CompletableFuture<Void> registration = ticket.registration()
+                .handle((id, error) -> {
+                    if (error != null) {
+                        unregistered.increment();
+                    }
+                    return null;
+                });
+            CompletableFuture<Void> delivery = ticket.alert()
+                .thenCompose(result -> {
+                    outcomes.get(result.getStatus()).increment();
+                    return ticket.contacts();
+                })
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        errors.increment();
+                    }
+                    return null;
+                });
+            CompletableFuture.allOf(registration, delivery).whenComplete((ignored, error) -> {
+                latencies.record(System.nanoTime() - start);
+                inFlight.release();
+            });
+        } catch (RuntimeException e) {
+            errors.increment();
+            inFlight.release();
+            System.err.println("❌ Error al procesar la emergencia: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Las latencias de principio a fin de las emergencias procesadas.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * @return Un resumen del rendimiento, los resultados y las latencias.
+     */
+    public String report() {
+        long processed = latencies.getCount();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder report = new StringBuilder("=== RESUMEN DE LA INGESTA ===\n");
+        report.append(String.format("  Procesadas: %d en %.2f s (%.1f emergencias/s), máximo %d a la vez%n",
+            processed, seconds, seconds > 0 ? processed / seconds : 0.0, maxInFlight));
+        report.append("  Líneas no válidas: ").append(invalid.sum())
+            .append(", sin registrar: ").append(unregistered.sum())
+            .append(", errores: ").append(errors.sum()).append('\n');
+        report.append("  Alertas:");
+        for (Map.Entry<AlertResult.Status, LongAdder> outcome : outcomes.entrySet()) {
+            if (outcome.getValue().sum() > 0) {
+                report.append(' ').append(outcome.getKey()).append('=').append(outcome.getValue().sum());
+            }
+        }
+        report.append('\n');
+        report.append("  Latencia: ").append(latencies).append('\n');
+        return report.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package com.emergencias.controller;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.EmergencyType;
+import com.emergencias.model.MedicalEmergency;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Planificador de Despacho por Gravedad</h1>
+ *
+ * <p>
+ * Orden de la cola de emergencias pendientes de alerta: primero las más
+ * urgentes, en lugar de por orden de llegada. La urgencia de cada
+ * emergencia es la suma de su gravedad ({@code severityLevel}, 1-10) y de la
+ * prioridad de su tipo ({@link EmergencyType#getPriority()}, 1-10). Cada
+ * emergencia recibe un {@link Turn} al entrar en la cola, y la cola se
+ * ordena por turnos; {@link EmergencyPipeline} lo usa en su etapa de alerta,
+ * compartida por todas las fuentes (consola, sesiones, ingesta y API HTTP).
+ * </p>
+ *
+ * <p>
+ * <b>Envejecimiento (aging):</b> cada punto de urgencia equivale a un tiempo
+ * de espera ({@code agingStep}). La cola se ordena por el instante de llegada
+ * adelantado según la urgencia, de modo que una emergencia leve que lleva
+ * esperando lo suficiente acaba por delante de las graves que llegan
+ * después: ninguna espera más de {@code agingStep} por cada punto de
+ * diferencia de urgencia. El orden no cambia con el tiempo, así que no hace
+ * falta reordenar la cola.
+ * </p>
+ *
+ * <p>
+ * Es seguro entre hilos. El planificador mide el tiempo de espera en cola
+ * de cada {@link PriorityClass}.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class DispatchScheduler {
+    // --- VALORES POR DEFECTO ---
+    private static final Duration DEFAULT_AGING_STEP = Duration.ofSeconds(2);
+    private static final int DEFAULT_TYPE_PRIORITY = 5;
+
+    /**
+     * Clases de prioridad según la urgencia (gravedad + prioridad del tipo, de 2 a 20).
+     */
+    public enum PriorityClass {
+        CRITICAL(16), HIGH(11), MEDIUM(6), LOW(0);
+
+        private final int minScore;
+
+        PriorityClass(int minScore) {
+            this.minScore = minScore;
+        }
+
+        static PriorityClass of(int score) {
+            for (PriorityClass priorityClass : values()) {
+                if (score >= priorityClass.minScore) {
+                    return priorityClass;
+                }
+            }
+            return LOW;
+        }
+    }
+
+    private final long agingStepNanos;
+    private final Map<String, Integer> typePriorities = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<PriorityClass, WaitStats> stats = new EnumMap<>(PriorityClass.class);
+
+    /**
+     * Crea un planificador con el envejecimiento por defecto (2 segundos por
+     * punto de urgencia) y los tipos de emergencia conocidos.
+     */
+    public DispatchScheduler() {
+        this(DEFAULT_AGING_STEP);
+    }
+
+    /**
+     * @param agingStep Tiempo de espera que equivale a un punto de urgencia.
+     */
+    public DispatchScheduler(Duration agingStep) {
+        if (agingStep.isNegative()) {
+            throw new IllegalArgumentException("El paso de envejecimiento no puede ser negativo.");
+        }
+        this.agingStepNanos = agingStep.toNanos();
+        for (PriorityClass priorityClass : PriorityClass.values()) {
+            stats.put(priorityClass, new WaitStats());
+        }
+        EmergencyType medical = new MedicalEmergency();
+        typePriorities.put(normalize(medical.getName()), medical.getPriority());
+    }
+
+    /**
+     * Registra la prioridad de un tipo de emergencia. Los eventos cuyo tipo
+     * coincide con su nombre (sin distinguir mayúsculas) usan esa prioridad;
+     * los tipos desconocidos tienen prioridad {@value #DEFAULT_TYPE_PRIORITY}.
+     *
+     * @param type El tipo de emergencia.
+     */
+    public void registerType(EmergencyType type) {
+        typePriorities.put(normalize(type.getName()), type.getPriority());
+    }
+
+    /**
+     * Da turno a una emergencia que entra en la cola de despacho.
+     *
+     * @param event La emergencia.
+     * @return Su turno; los turnos menores se atienden antes.
+     */
+    public Turn turnOf(EmergencyEvent event) {
+        int score = scoreOf(event);
+        long now = System.nanoTime();
+        return new Turn(score, now, now - score * agingStepNanos, sequence.getAndIncrement());
+    }
+
+    /**
+     * Anota que se atiende una emergencia, para medir su espera en cola.
+     *
+     * @param turn El turno que recibió al entrar en la cola.
+     */
+    public void dispatched(Turn turn) {
+        stats.get(PriorityClass.of(turn.score)).add(System.nanoTime() - turn.enqueuedNanos);
+    }
+
+    /**
+     * @param priorityClass La clase de prioridad.
+     * @return Las estadísticas de espera de esa clase.
+     */
+    public WaitStats getWaitStats(PriorityClass priorityClass) {
+        return stats.get(priorityClass);
+    }
+
+    /**
+     * @return Un resumen de los tiempos de espera por clase de prioridad.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("=== TIEMPOS DE ESPERA EN COLA ===\n");
+        for (PriorityClass priorityClass : PriorityClass.values()) {
+            report.append(String.format("  %-8s %s%n", priorityClass, stats.get(priorityClass)));
+        }
+        return report.toString();
+    }
+
+    /**
+     * @return La urgencia de una emergencia: gravedad más prioridad de su tipo.
+     */
+    int scoreOf(EmergencyEvent event) {
+        String type = event.getEmergencyType();
+        int typePriority = type == null ? DEFAULT_TYPE_PRIORITY
+            : typePriorities.getOrDefault(normalize(type), DEFAULT_TYPE_PRIORITY);
+        return event.getSeverityLevel() + typePriority;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Turno de una emergencia en cola: su urgencia y su instante de llegada
+     * adelantado. A igual instante, se respeta el orden de llegada.
+     */
+    public static final class Turn implements Comparable<Turn> {
+        private final int score;
+        private final long enqueuedNanos;
+        private final long dueNanos;
+        private final long sequence;
+
+        private Turn(int score, long enqueuedNanos, long dueNanos, long sequence) {
+            this.score = score;
+            this.enqueuedNanos = enqueuedNanos;
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+        }
+
+        /** @return La urgencia (gravedad más prioridad del tipo). */
+        public int getScore() { return score; }
+
+        @Override
+        public int compareTo(Turn other) {
+            int byDue = Long.compare(dueNanos, other.dueNanos);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * <h2>Estadísticas de Espera de una Clase de Prioridad</h2>
+     *
+     * <p>
+     * Contadores sin bloqueos del número de emergencias despachadas y de su
+     * tiempo de espera en cola (medio y máximo).
+     * </p>
+     */
+    public static final class WaitStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long waitNanos) {
+            count.increment();
+            totalNanos.add(waitNanos);
+            maxNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        public long getCount() { return count.sum(); }
+
+        /** @return La espera media, o cero si no se ha despachado ninguna. */
+        public Duration getAverageWait() {
+            long dispatched = count.sum();
+            return dispatched == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / dispatched);
+        }
+
+        public Duration getMaxWait() { return Duration.ofNanos(maxNanos.get()); }
+
+        @Override
+        public String toString() {
+            return String.format("despachadas=%d, espera media=%d ms, máxima=%d ms",
+                getCount(), getAverageWait().toMillis(), getMaxWait().toMillis());
+        }
+    }
+}
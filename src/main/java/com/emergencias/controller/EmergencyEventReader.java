@@ -0,0 +1,126 @@
+package com.emergencias.controller;
+
+import com.emergencias.model.EmergencyContact;
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * <h1>Lector de Emergencias en JSON</h1>
+ *
+ * <p>
+ * Convierte un {@link EmergencyEvent} en JSON, recibido de otro sistema, en
+ * una emergencia lista para el flujo: comprueba los campos obligatorios y
+ * completa los que falten (la hora con la actual y los datos del usuario con
+ * los configurados). Lo comparten las entradas sin interacción
+ * ({@link BulkIngestor}, {@link EmergencyHttpServer}).
+ * </p>
+ *
+ * <p>
+ * Los contactos a los que avisar vienen en el campo opcional
+ * {@value #CONTACT_FIELD}, con el mismo formato que en {@link UserData}
+ * (por ejemplo {@code "Ana 600 111 222; Luis 611 222 333"}). Si no vienen, no
+ * se avisa a nadie: los contactos del usuario configurado no son los de
+ * quien reporta.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class EmergencyEventReader {
+    /** Campo del JSON con los contactos a los que avisar. */
+    static final String CONTACT_FIELD = "emergencyContact";
+
+    private final ObjectMapper mapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ObjectReader reader = mapper.readerFor(EmergencyEvent.class);
+    private final UserData userData;
+
+    /**
+     * @param userData Los datos del usuario, para los eventos que no traen los suyos.
+     */
+    EmergencyEventReader(UserData userData) {
+        this.userData = userData;
+    }
+
+    /**
+     * @param json El evento en JSON.
+     * @return La emergencia y sus contactos.
+     * @throws IOException              si el texto no es un JSON válido.
+     * @throws IllegalArgumentException si faltan campos o no son válidos.
+     */
+    Report read(String json) throws IOException {
+        return complete(mapper.readTree(json));
+    }
+
+    /**
+     * @param json   El evento en JSON (UTF-8).
+     * @param length Número de bytes válidos.
+     * @return La emergencia y sus contactos.
+     * @throws IOException              si el contenido no es un JSON válido.
+     * @throws IllegalArgumentException si faltan campos o no son válidos.
+     */
+    Report read(byte[] json, int length) throws IOException {
+        return complete(mapper.readTree(json, 0, length));
+    }
+
+    private Report complete(JsonNode json) throws IOException {
+        if (json == null || !json.isObject()) {
+            throw new IllegalArgumentException("no hay ninguna emergencia");
+        }
+        EmergencyEvent event = reader.readValue(json);
+        if (event.getEmergencyType() == null || event.getEmergencyType().isBlank()
+                || event.getLocation() == null || event.getLocation().isBlank()
+                || event.getSeverityLevel() < 1 || event.getSeverityLevel() > 10) {
+            throw new IllegalArgumentException("faltan el tipo o la ubicación, o la gravedad no está entre 1 y 10");
+        }
+        if (event.getUserData() == null) {
+            event.setUserData(userData.toString());
+        }
+        if (event.getTimestamp() == null) {
+            // Un "timestamp": null explícito anula la hora que pone el constructor.
+            event = new EmergencyEvent(event.getId(), event.getEmergencyType(), event.getLocation(),
+                event.getSeverityLevel(), event.getUserData(), LocalDateTime.now());
+        }
+        JsonNode contactField = json.get(CONTACT_FIELD);
+        String contactText = contactField == null || !contactField.isTextual() ? null : contactField.asText();
+        UserData contacts = EmergencyContact.parseAll(contactText).isEmpty() ? null
+            : new UserData(null, null, null, contactText);
+        return new Report(event, contacts);
+    }
+
+    /**
+     * @return La primera línea del mensaje de un error de lectura (los de
+     *         Jackson incluyen la posición en varias líneas).
+     */
+    static String describe(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage().lines().findFirst().orElse("");
+    }
+
+    /**
+     * Una emergencia leída y los contactos a los que avisar.
+     */
+    static final class Report {
+        private final EmergencyEvent event;
+        private final UserData contacts;
+
+        private Report(EmergencyEvent event, UserData contacts) {
+            this.event = event;
+            this.contacts = contacts;
+        }
+
+        EmergencyEvent event() { return event; }
+
+        /** @return Los contactos del evento, o {@code null} si no trae ninguno. */
+        UserData contacts() { return contacts; }
+    }
+}
@@ -0,0 +1,231 @@
+package com.emergencias.controller;
+
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>API HTTP para Reportar Emergencias</h1>
+ *
+ * <p>
+ * Servidor HTTP embebido (el {@link HttpServer} del JDK, sin dependencias
+ * externas) para que otros sistemas reporten emergencias sin pasar por la
+ * consola. Cada emergencia sigue el mismo camino que las de la consola: el
+ * {@link EmergencyPipeline} la registra, envía la alerta y avisa a los
+ * contactos que trae la petición en el campo {@code "emergencyContact"} (si
+ * no trae ninguno, no se avisa a nadie).
+ * </p>
+ *
+ * <ul>
+ *     <li>{@code POST /emergencias} con un {@link EmergencyEvent} en JSON
+ *         (por ejemplo {@code {"emergencyType":"Incendio","location":"Murcia","severityLevel":8}}):
+ *         responde {@code 202} con el ID asignado en cuanto el registro es
+ *         durable; la alerta sigue su curso. {@code 400} si el JSON no es
+ *         una emergencia válida o la cabecera {@code Content-Length} no es
+ *         un número no negativo, y {@code 413} si el cuerpo supera
+ *         {@value #MAX_BODY_BYTES} bytes.</li>
+ *     <li>{@code GET /estado}: peticiones atendidas, latencias y estado de
+ *         las etapas del flujo, en texto.</li>
+ * </ul>
+ *
+ * <p>
+ * Cada petición se atiende en su propio hilo virtual. Las respuestas llevan
+ * siempre su longitud y el cuerpo de la petición se lee entero, de modo que
+ * los clientes pueden reutilizar la conexión (keep-alive) para muchas
+ * peticiones seguidas; solo se cierra tras un cuerpo demasiado grande.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class EmergencyHttpServer implements AutoCloseable {
+    /** Tamaño máximo del cuerpo de una petición. */
+    public static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int BACKLOG = 1024;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final EmergencyPipeline pipeline;
+    private final EmergencyEventReader reader;
+    private final ObjectWriter writer = new ObjectMapper().writer();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // --- ESTADÍSTICAS ---
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * @param address  Dirección y puerto en los que escuchar (puerto 0: uno libre).
+     * @param pipeline El flujo por etapas, ya arrancado.
+     * @param userData Los datos del usuario, para los eventos que no traen los suyos.
+     */
+    public EmergencyHttpServer(InetSocketAddress address, EmergencyPipeline pipeline, UserData userData) {
+        this.pipeline = pipeline;
+        this.reader = new EmergencyEventReader(userData);
+        try {
+            this.server = HttpServer.create(address, BACKLOG);
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo abrir el puerto " + address.getPort() + ": " + e.getMessage());
+            throw new RuntimeException("No se pudo crear el servidor HTTP de emergencias", e);
+        }
+    }
+
+    /**
+     * Empieza a atender peticiones.
+     *
+     * @return La dirección en la que escucha.
+     */
+    public InetSocketAddress start() {
+        server.createContext("/emergencias", this::handleReport);
+        server.createContext("/estado", this::handleStatus);
+        server.setExecutor(executor);
+        server.start();
+        return server.getAddress();
+    }
+
+    /**
+     * Deja de aceptar conexiones, espera un momento a que terminen las
+     * peticiones en curso y libera el puerto.
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+    }
+
+    public LatencyHistogram getLatencies() { return latencies; }
+    public long getAccepted() { return accepted.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getFailed() { return failed.sum(); }
+
+    @Override
+    public String toString() {
+        return "API HTTP: aceptadas=" + accepted.sum() + ", rechazadas=" + rejected.sum()
+            + ", con error=" + failed.sum() + "\n  Latencia: " + latencies;
+    }
+
+    // --- MANEJADORES ---
+
+    private void handleReport(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, error("Use POST para reportar una emergencia."));
+                return;
+            }
+            String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+            long length = declared == null ? -1 : parseLength(declared);
+            if (declared != null && length < 0) {
+                rejected.increment();
+                exchange.getResponseHeaders().set("Connection", "close");
+                respond(exchange, 400, error("Content-Length no válido: " + declared));
+                return;
+            }
+            byte[] body = readBody(exchange, length);
+            if (body == null) {
+                rejected.increment();
+                // El resto del cuerpo no se lee: la conexión se cierra tras responder.
+                exchange.getResponseHeaders().set("Connection", "close");
+                respond(exchange, 413, error("El cuerpo supera el máximo de " + MAX_BODY_BYTES + " bytes."));
+                return;
+            }
+            EmergencyEventReader.Report report;
+            try {
+                report = reader.read(body, body.length);
+            } catch (IOException | IllegalArgumentException e) {
+                rejected.increment();
+                respond(exchange, 400, error("Emergencia no válida: " + EmergencyEventReader.describe(e)));
+                return;
+            }
+            try {
+                String id = pipeline.submit(report.event(), report.contacts()).registration().join();
+                accepted.increment();
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("id", id);
+                response.put("estado", "registrada");
+                respond(exchange, 202, writer.writeValueAsBytes(response));
+            } catch (CompletionException | IllegalStateException e) {
+                failed.increment();
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                respond(exchange, 503, error("No se pudo registrar la emergencia: " + cause.getMessage()));
+            }
+        } finally {
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                respond(exchange, 405, error("Use GET para consultar el estado."));
+                return;
+            }
+            byte[] status = (this + "\n" + pipeline.report()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, status.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(status);
+            }
+        }
+    }
+
+    /**
+     * @return La longitud declarada, o {@code -1} si no es un número no negativo.
+     */
+    private static long parseLength(String declared) {
+        try {
+            return Math.max(-1, Long.parseLong(declared.trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Lee el cuerpo de la petición sin pasar del límite. Si se conoce su
+     * longitud, se reserva justo lo necesario.
+     *
+     * @param length Longitud declarada (ya validada), o {@code -1} si no se conoce.
+     * @return El cuerpo, o {@code null} si supera {@link #MAX_BODY_BYTES}.
+     */
+    private static byte[] readBody(HttpExchange exchange, long length) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if (length >= 0) {
+            return length > MAX_BODY_BYTES ? null : in.readNBytes((int) length);
+        }
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private byte[] error(String message) throws IOException {
+        return writer.writeValueAsBytes(Map.of("error", message));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.emergencias.alert.EmergencyLogger;
 import com.emergencias.detector.EmergencyDetector;
 import com.emergencias.model.EmergencyEvent;
 import com.emergencias.model.UserData;
-import com.emergencias.model.CentroSalud;
-import com.emergencias.model.CentroSaludUtils;
+import com.emergencias.model.CentroCercano;
+import com.emergencias.model.CentroSaludRepository;
+import com.emergencias.model.Coordenadas;
+import com.emergencias.services.AlertResult;
 import com.emergencias.services.IAlert;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 /**
@@ -30,14 +33,21 @@ import java.util.Scanner;
  * @since 2023-10-27
  */
 public class EmergencyManager {
+    // --- CENTROS CERCANOS ---
+    private static final int NEAREST_CENTERS = 3;
+    // Más lejos no se sugiere: la ubicación está fuera de la región.
+    private static final double NEAREST_MAX_KM = 50.0;
+
     // --- DEPENDENCIAS ---
     // Estos son los componentes que el EmergencyManager necesita para funcionar.
     // Son 'final' porque se asignan una vez en el constructor y no deben cambiar.
     private final EmergencyDetector detector;
-    private final IAlert alertSender;
     private final UserData userData;
     private final EmergencyLogger logger;
     private final Scanner scanner;
+    private final EmergencyPipeline pipeline;
+    // Indica si el flujo por etapas es propio (se arranca y se cierra aquí) o compartido.
+    private final boolean ownsPipeline;
 
     /**
      * Constructor que recibe e inicializa todas las dependencias del gestor.
@@ -49,11 +59,35 @@ public class EmergencyManager {
      * @param logger        El componente para registrar los eventos y el feedback.
      */
     public EmergencyManager(UserData userData, Scanner scanner, EmergencyDetector detector, IAlert alertSender, EmergencyLogger logger) {
+        this(userData, scanner, detector, logger, new EmergencyPipeline(alertSender, logger), true);
+    }
+
+    /**
+     * Constructor que permite compartir el flujo por etapas entre varios
+     * gestores (por ejemplo, una sesión por persona en {@link SessionEngine}).
+     * El flujo debe estar arrancado; el gestor no lo cierra. Las emergencias
+     * de todos los gestores esperan en la misma cola de alerta, ordenada por
+     * urgencia.
+     *
+     * @param userData      El objeto que contiene los datos del usuario.
+     * @param scanner       La instancia de Scanner para la entrada del usuario.
+     * @param detector      El componente encargado de detectar y definir la emergencia.
+     * @param logger        El componente para registrar los eventos y el feedback.
+     * @param pipeline      El flujo por etapas que registra, alerta y avisa.
+     */
+    public EmergencyManager(UserData userData, Scanner scanner, EmergencyDetector detector,
+                            EmergencyLogger logger, EmergencyPipeline pipeline) {
+        this(userData, scanner, detector, logger, pipeline, false);
+    }
+
+    private EmergencyManager(UserData userData, Scanner scanner, EmergencyDetector detector, EmergencyLogger logger,
+                             EmergencyPipeline pipeline, boolean ownsPipeline) {
         this.userData = userData;
         this.scanner = scanner;
         this.detector = detector;
-        this.alertSender = alertSender;
         this.logger = logger;
+        this.pipeline = pipeline;
+        this.ownsPipeline = ownsPipeline;
     }
 
     /**
@@ -70,6 +104,9 @@ public class EmergencyManager {
     public void startSystem() {
         System.out.println("Sistema de Gestión de Emergencias - Iniciado");
         System.out.println("=========================================\n");
+        if (ownsPipeline) {
+            pipeline.start();
+        }
         
         try {
             // Al iniciar, se solicitan los datos del usuario.
@@ -96,15 +133,27 @@ public class EmergencyManager {
                     
                     System.out.println("\n" + "=".repeat(80) + "\n");
                     
+                } catch (NoSuchElementException e) {
+                    // La entrada se ha cerrado (fin de archivo o desconexión): no hay a quién atender.
+                    System.out.println("\n✅ Entrada cerrada. Saliendo del sistema de emergencias.");
+                    break;
                 } catch (Exception e) {
                     // Captura errores dentro del bucle para que la aplicación no se detenga.
                     System.err.println("❌ Error en el ciclo principal: " + e.getMessage());
                     System.out.println("El sistema se ha recuperado. Intente nuevamente...\n");
                 }
             }
+        } catch (NoSuchElementException e) {
+            // La entrada se cerró antes de registrar los datos del usuario.
+            System.out.println("\n✅ Entrada cerrada. Saliendo del sistema de emergencias.");
         } catch (Exception e) {
             // Captura errores críticos que ocurran fuera del bucle principal.
             System.err.println("\n❌ Error crítico en el sistema: " + e.getMessage());
+        } finally {
+            // Se termina lo pendiente en las etapas (por ejemplo, el último feedback).
+            if (ownsPipeline) {
+                pipeline.close();
+            }
         }
     }
 
@@ -112,36 +161,52 @@ public class EmergencyManager {
      * Procesa un evento de emergencia confirmado.
      * <p>
      * Este método coordina el registro, la alerta y las acciones post-alerta.
+     * El registro, la alerta y el aviso a los contactos avanzan por las
+     * etapas del {@link EmergencyPipeline}: la llamada al 112 no espera a que
+     * la emergencia sea durable en disco, y la notificación a los contactos
+     * avanza mientras se atiende al usuario. Las preguntas al usuario se
+     * hacen aquí, en el hilo de la sesión.
      * </p>
      *
      * @param event El evento de emergencia a procesar.
      */
     private void processEmergency(EmergencyEvent event) {
         try {
-            // 2.1. Registro: Se guarda la emergencia en el log, obteniendo un ID único.
-            String emergencyId = logger.logEmergency(event);
-            System.out.println("\n✅ Emergencia registrada con ID: " + emergencyId);
-            
-            // 2.2. Alerta: Se envía la alerta a los servicios de emergencia.
-            boolean alertSent = alertSender.send(event);
-            
-            if (alertSent) {
-                // 2.3. Notificación: Se avisa a los contactos de emergencia del usuario.
-                alertSender.notifyContacts(userData, event);
+            // 2.1. La emergencia entra en el flujo por etapas (el ID se asigna antes de enviar la alerta).
+            EmergencyPipeline.Ticket ticket = pipeline.submit(event, userData);
 
-                // 2.4. Acción local: Si la emergencia es en Murcia, se ofrece info adicional.
+            // 2.2. Registro: Un fallo al guardar no debe impedir que la alerta llegue.
+            String emergencyId = null;
+            try {
+                emergencyId = ticket.registration().join();
+                System.out.println("\n✅ Emergencia registrada con ID: " + emergencyId);
+            } catch (Exception e) {
+                System.err.println("\n⚠️  Advertencia: No se pudo registrar la emergencia: " + e.getMessage());
+            }
+
+            // 2.3. Alerta: Se espera el resultado del envío a los servicios de emergencia.
+            AlertResult result = ticket.alert().join();
+
+            if (result.isSuccess()) {
+                // 2.4. Notificación: La etapa de aviso ya está avisando a los contactos del usuario.
+
+                // 2.5. Acción local: Si la emergencia es en Murcia, se ofrece info adicional.
                 handleMurciaSpecifics(event.getLocation());
 
+                ticket.contacts().join();
                 System.out.println("\n✅ ¡Emergencia reportada con éxito!");
                 System.out.println("Se ha creado un registro de la emergencia en el sistema.");
 
-                // 2.5. Feedback: Se solicita al usuario que valore la experiencia.
-                logger.collectAndLogFeedback(emergencyId, scanner);
-                System.out.println("\n✅ Gracias por tu feedback. Nos ayuda a mejorar el sistema.");
+                // 2.6. Feedback: Se solicita al usuario que valore la experiencia; se registra en su etapa.
+                if (emergencyId != null) {
+                    pipeline.submitFeedback(logger.collectFeedback(emergencyId, scanner));
+                    System.out.println("\n✅ Gracias por tu feedback. Nos ayuda a mejorar el sistema.");
+                }
 
             } else {
                 // Manejo de fallo en el envío de la alerta principal.
-                System.out.println("\n❌ No se pudo enviar la alerta. Por favor, intente nuevamente o llame al 112 manualmente.");
+                System.out.println("\n❌ No se pudo enviar la alerta (" + result.getDetail()
+                    + "). Por favor, intente nuevamente o llame al 112 manualmente.");
             }
         } catch (Exception e) {
             System.err.println("\n❌ Error al procesar la emergencia: " + e.getMessage());
@@ -151,25 +216,29 @@ public class EmergencyManager {
     /**
      * Maneja la lógica específica si la ubicación de la emergencia es "Murcia".
      * <p>
-     * Ofrece al usuario la posibilidad de ver una lista de centros de salud locales
-     * cargados desde un archivo JSON.
+     * Si la ubicación incluye coordenadas (por ejemplo, las del GPS), muestra
+     * primero los centros de salud más cercanos. Después ofrece al usuario la
+     * posibilidad de ver la lista completa de centros de salud locales, que el
+     * {@link CentroSaludRepository} ya tiene cargada en memoria.
      * </p>
      *
      * @param location La ubicación de la emergencia.
      */
     private void handleMurciaSpecifics(String location) {
-        if (location != null && location.toLowerCase().contains("murcia")) {
+        if (location == null) {
+            return;
+        }
+        Coordenadas point = Coordenadas.parse(location);
+        boolean nearby = point != null && showNearestCenters(point);
+        if (nearby || location.toLowerCase().contains("murcia")) {
             System.out.print("\n¿Quieres ver todos los centros de salud de Murcia? (S/N): ");
             String verCentros = scanner.nextLine().trim();
             if (verCentros.equalsIgnoreCase("S")) {
-                // Carga los datos desde el archivo de recursos.
-                List<CentroSalud> centros = CentroSaludUtils.cargarCentros("/CentrosdeSaludMurcia.json");
-                if (centros != null && !centros.isEmpty()) {
+                // Los centros se leen de la instantánea en memoria, sin volver a cargar el JSON.
+                CentroSaludRepository.Snapshot centros = CentroSaludRepository.murcia().getSnapshot();
+                if (!centros.isEmpty()) {
                     System.out.println("\n=== CENTROS DE SALUD DE LA REGIÓN DE MURCIA ===");
-                    for (CentroSalud centro : centros) {
-                        System.out.printf("- %s | %s | Municipio: %s | Tel: %s%n",
-                            centro.getNombre(), centro.getDireccion(), centro.getMunicipio(), centro.getTelefono());
-                    }
+                    System.out.print(centros.getListado());
                     System.out.println("============================================\n");
                 } else {
                     System.out.println("No se encontraron centros de salud para mostrar.");
@@ -177,4 +246,25 @@ public class EmergencyManager {
             }
         }
     }
+
+    /**
+     * Muestra los centros de salud más cercanos a un punto, buscados en el
+     * índice espacial de la instantánea en memoria.
+     *
+     * @param point Las coordenadas de la emergencia.
+     * @return {@code true} si había algún centro a menos de {@value #NEAREST_MAX_KM} km.
+     */
+    private boolean showNearestCenters(Coordenadas point) {
+        List<CentroCercano> nearest = CentroSaludRepository.murcia().getSnapshot().cercanos(point, NEAREST_CENTERS);
+        nearest = nearest.stream().filter(centro -> centro.getDistanciaKm() <= NEAREST_MAX_KM).toList();
+        if (nearest.isEmpty()) {
+            return false;
+        }
+        System.out.println("\n=== CENTROS DE SALUD MÁS CERCANOS (" + point + ") ===");
+        for (CentroCercano centro : nearest) {
+            System.out.println(centro);
+        }
+        System.out.println("============================================");
+        return true;
+    }
 }
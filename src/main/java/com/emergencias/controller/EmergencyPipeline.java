@@ -0,0 +1,278 @@
+package com.emergencias.controller;
+
+import com.emergencias.alert.EmergencyLogger;
+import com.emergencias.model.EmergencyEvent;
+import com.emergencias.model.UserData;
+import com.emergencias.model.UserFeedback;
+import com.emergencias.services.AlertResult;
+import com.emergencias.services.IAlert;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <h1>Flujo por Etapas de una Emergencia</h1>
+ *
+ * <p>
+ * Divide el trabajo no interactivo de una emergencia en etapas
+ * ({@link PipelineStage}) unidas por colas acotadas, cada una con sus
+ * propios hilos:
+ * <ol>
+ *     <li><b>registro:</b> asigna el ID y añade la emergencia al historial;
+ *         la espera a que sea durable no retiene la etapa.</li>
+ *     <li><b>alerta:</b> envía la alerta a los servicios de emergencia,
+ *         primero las más urgentes de las que esperan en su cola
+ *         ({@link DispatchScheduler}).</li>
+ *     <li><b>aviso:</b> si la alerta llegó y hay a quién avisar, avisa a
+ *         los contactos.</li>
+ *     <li><b>feedback:</b> registra la valoración del usuario, aparte del
+ *         flujo de la alerta.</li>
+ * </ol>
+ * Las preguntas al usuario (centros de Murcia, valoración) no son etapas:
+ * las hace el hilo de cada sesión, al ritmo de la persona, sin ocupar los
+ * hilos de las etapas.
+ * </p>
+ *
+ * <p>
+ * Una etapa lenta, como el registro en disco o el feedback, no frena el
+ * envío de alertas mientras su cola tenga hueco, y cada etapa se
+ * dimensiona por separado ({@link StageSize}). {@link #report()} muestra la
+ * profundidad de cola y los tiempos de servicio de cada una.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class EmergencyPipeline implements AutoCloseable {
+    // --- TAMAÑOS POR DEFECTO ---
+    private static final StageSize DEFAULT_REGISTRATION = StageSize.of(2, 1024);
+    private static final StageSize DEFAULT_ALERT = StageSize.of(64, 1024);
+    private static final StageSize DEFAULT_CONTACTS = StageSize.of(64, 1024);
+    private static final StageSize DEFAULT_FEEDBACK = StageSize.of(1, 1024);
+
+    private final IAlert alertSender;
+    private final EmergencyLogger logger;
+    private final DispatchScheduler scheduler = new DispatchScheduler();
+    private final PipelineStage<Ticket> registration;
+    private final PipelineStage<Ticket> alert;
+    private final PipelineStage<Ticket> contacts;
+    private final PipelineStage<UserFeedback> feedback;
+
+    /**
+     * Dimensiones de una etapa: hilos y profundidad máxima de su cola.
+     */
+    public static final class StageSize {
+        private final int workers;
+        private final int capacity;
+
+        private StageSize(int workers, int capacity) {
+            this.workers = workers;
+            this.capacity = capacity;
+        }
+
+        /**
+         * @param workers  Número de hilos de la etapa.
+         * @param capacity Número máximo de trabajos en su cola.
+         * @return Las dimensiones.
+         */
+        public static StageSize of(int workers, int capacity) {
+            return new StageSize(workers, capacity);
+        }
+
+        @Override
+        public String toString() {
+            return workers + " hilos, cola de " + capacity;
+        }
+    }
+
+    /**
+     * Crea el flujo con los tamaños por defecto.
+     *
+     * @param alertSender El sistema de alertas.
+     * @param logger      El registro de emergencias.
+     */
+    public EmergencyPipeline(IAlert alertSender, EmergencyLogger logger) {
+        this(alertSender, logger, DEFAULT_REGISTRATION, DEFAULT_ALERT, DEFAULT_CONTACTS, DEFAULT_FEEDBACK);
+    }
+
+    /**
+     * @param alertSender      El sistema de alertas.
+     * @param logger           El registro de emergencias.
+     * @param registrationSize Dimensiones de la etapa de registro.
+     * @param alertSize        Dimensiones de la etapa de alerta.
+     * @param contactsSize     Dimensiones de la etapa de aviso a los contactos.
+     * @param feedbackSize     Dimensiones de la etapa de feedback.
+     */
+    public EmergencyPipeline(IAlert alertSender, EmergencyLogger logger, StageSize registrationSize,
+                             StageSize alertSize, StageSize contactsSize, StageSize feedbackSize) {
+        this.alertSender = alertSender;
+        this.logger = logger;
+        this.registration = new PipelineStage<>("registro", registrationSize.workers, registrationSize.capacity,
+            this::register);
+        this.alert = new PipelineStage<>("alerta", alertSize.workers, alertSize.capacity,
+            Comparator.comparing((Ticket ticket) -> ticket.turn), this::sendAlert);
+        this.contacts = new PipelineStage<>("aviso", contactsSize.workers, contactsSize.capacity,
+            this::notifyContacts);
+        this.feedback = new PipelineStage<>("feedback", feedbackSize.workers, feedbackSize.capacity,
+            this::logFeedback);
+    }
+
+    /**
+     * Arranca los hilos de todas las etapas.
+     *
+     * @return Este flujo.
+     */
+    public EmergencyPipeline start() {
+        for (PipelineStage<?> stage : stages()) {
+            stage.start();
+        }
+        return this;
+    }
+
+    /**
+     * Pone una emergencia en el flujo. Espera solo si la cola de registro
+     * está llena.
+     *
+     * @param event    La emergencia.
+     * @param userData Los datos de quien la reporta (para avisar a sus
+     *                 contactos), o {@code null} si no hay a quién avisar.
+     * @return El seguimiento de la emergencia por las etapas.
+     */
+    public Ticket submit(EmergencyEvent event, UserData userData) {
+        Ticket ticket = new Ticket(event, userData);
+        registration.submit(ticket);
+        return ticket;
+    }
+
+    /**
+     * Pone la valoración de un usuario en la etapa de feedback.
+     *
+     * @param userFeedback La valoración.
+     */
+    public void submitFeedback(UserFeedback userFeedback) {
+        feedback.submit(userFeedback);
+    }
+
+    /**
+     * @return El planificador que ordena la cola de la etapa de alerta (por
+     *         ejemplo, para registrar la prioridad de otros tipos de emergencia).
+     */
+    public DispatchScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return Las etapas, en orden.
+     */
+    public List<PipelineStage<?>> stages() {
+        return List.of(registration, alert, contacts, feedback);
+    }
+
+    /**
+     * @return Un resumen de cada etapa (hilos, cola y tiempos de servicio) y
+     *         de la espera por urgencia en la cola de alerta.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("=== ETAPAS DEL FLUJO DE EMERGENCIAS ===\n");
+        for (PipelineStage<?> stage : stages()) {
+            report.append("  ").append(stage).append('\n');
+        }
+        return report.append(scheduler.report()).toString();
+    }
+
+    /**
+     * Deja de aceptar emergencias y espera a que cada etapa, en orden,
+     * termine lo que tiene en cola.
+     */
+    @Override
+    public void close() {
+        for (PipelineStage<?> stage : stages()) {
+            stage.close();
+        }
+    }
+
+    // --- ETAPAS ---
+
+    private void register(Ticket ticket) {
+        try {
+            logger.logEmergencyAsync(ticket.event).whenComplete((id, error) -> {
+                if (error != null) {
+                    ticket.registration.completeExceptionally(error);
+                } else {
+                    ticket.registration.complete(id);
+                }
+            });
+        } catch (RuntimeException e) {
+            ticket.registration.completeExceptionally(e);
+        } finally {
+            // El ID ya está asignado: la alerta no espera a que el registro sea durable.
+            ticket.turn = scheduler.turnOf(ticket.event);
+            alert.submit(ticket);
+        }
+    }
+
+    private void sendAlert(Ticket ticket) {
+        scheduler.dispatched(ticket.turn);
+        AlertResult result;
+        try {
+            result = alertSender.sendAsync(ticket.event).join();
+        } catch (RuntimeException e) {
+            result = AlertResult.failed(alertSender.getAlertType(), e.getMessage(), Duration.ZERO);
+        }
+        ticket.alert.complete(result);
+        if (result.isSuccess() && ticket.userData != null) {
+            contacts.submit(ticket);
+        } else {
+            ticket.contacts.complete(null);
+        }
+    }
+
+    private void notifyContacts(Ticket ticket) {
+        try {
+            alertSender.notifyContactsAsync(ticket.userData, ticket.event).join();
+            ticket.contacts.complete(null);
+        } catch (RuntimeException e) {
+            ticket.contacts.completeExceptionally(e);
+        }
+    }
+
+    private void logFeedback(UserFeedback userFeedback) {
+        logger.logFeedback(userFeedback);
+    }
+
+    /**
+     * <h2>Seguimiento de una Emergencia por las Etapas</h2>
+     *
+     * <p>
+     * Futuros que se completan a medida que la emergencia pasa por cada etapa.
+     * </p>
+     */
+    public static final class Ticket {
+        private final EmergencyEvent event;
+        private final UserData userData;
+        private final CompletableFuture<String> registration = new CompletableFuture<>();
+        private final CompletableFuture<AlertResult> alert = new CompletableFuture<>();
+        private final CompletableFuture<Void> contacts = new CompletableFuture<>();
+        // Turno en la cola de alerta; se asigna al salir del registro.
+        private DispatchScheduler.Turn turn;
+
+        Ticket(EmergencyEvent event, UserData userData) {
+            this.event = event;
+            this.userData = userData;
+        }
+
+        public EmergencyEvent getEvent() { return event; }
+
+        /** @return El ID de la emergencia, cuando el registro es durable. */
+        public CompletableFuture<String> registration() { return registration; }
+
+        /** @return El resultado del envío de la alerta. */
+        public CompletableFuture<AlertResult> alert() { return alert; }
+
+        /** @return Se completa al terminar el aviso a los contactos (o al saltarlo si la alerta falló o no hay contactos). */
+        public CompletableFuture<Void> contacts() { return contacts; }
+    }
+}
@@ -0,0 +1,187 @@
+package com.emergencias.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Etapa del Flujo de Emergencias</h1>
+ *
+ * <p>
+ * Una etapa de un flujo por etapas (SEDA): una cola acotada de trabajos y un
+ * grupo propio de hilos que los atienden. Los hilos son virtuales, así que
+ * una etapa que espera por la red o por el disco puede tener cientos sin
+ * coste apreciable; el número de hilos limita cuántos trabajos de la etapa
+ * hay en curso a la vez. Cada etapa se dimensiona por
+ * separado (hilos y profundidad de cola), de modo que una etapa lenta solo
+ * retiene a las que le entregan trabajo, y solo cuando su cola se llena.
+ * </p>
+ *
+ * <p>
+ * La cola es por orden de llegada, o por el orden que se indique (por
+ * ejemplo, primero las emergencias más urgentes); en ambos casos es acotada.
+ * </p>
+ *
+ * <p>
+ * Mide la profundidad de su cola y el tiempo de servicio de cada trabajo
+ * ({@link LatencyHistogram}).
+ * </p>
+ *
+ * @param <T> Tipo de trabajo.
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class PipelineStage<T> implements AutoCloseable {
+    private static final long POLL_MILLIS = 200;
+
+    private final String name;
+    private final int workers;
+    private final int capacity;
+    private final BlockingQueue<T> queue;
+    // Huecos libres en la cola: la acota también cuando se ordena por prioridad.
+    private final Semaphore space;
+    private final Consumer<T> handler;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean closed;
+
+    // --- MÉTRICAS ---
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    /**
+     * @param name     Nombre de la etapa (para los hilos y el informe).
+     * @param workers  Número de hilos que atienden la etapa.
+     * @param capacity Número máximo de trabajos en cola.
+     * @param handler  Acción que atiende cada trabajo.
+     */
+    public PipelineStage(String name, int workers, int capacity, Consumer<T> handler) {
+        this(name, workers, capacity, null, handler);
+    }
+
+    /**
+     * @param name     Nombre de la etapa (para los hilos y el informe).
+     * @param workers  Número de hilos que atienden la etapa.
+     * @param capacity Número máximo de trabajos en cola.
+     * @param order    Orden en que se atienden los trabajos en cola, o
+     *                 {@code null} para atenderlos por orden de llegada.
+     * @param handler  Acción que atiende cada trabajo.
+     */
+    public PipelineStage(String name, int workers, int capacity, Comparator<? super T> order, Consumer<T> handler) {
+        if (workers < 1 || capacity < 1) {
+            throw new IllegalArgumentException("La etapa '" + name + "' necesita al menos un hilo y un hueco en cola.");
+        }
+        this.name = name;
+        this.workers = workers;
+        this.capacity = capacity;
+        this.queue = order == null ? new ArrayBlockingQueue<>(capacity) : new PriorityBlockingQueue<>(capacity, order);
+        this.space = new Semaphore(capacity);
+        this.handler = handler;
+    }
+
+    /**
+     * Arranca los hilos de la etapa. Llamarlo más de una vez no tiene efecto.
+     *
+     * @return Esta etapa.
+     */
+    public synchronized PipelineStage<T> start() {
+        if (threads.isEmpty()) {
+            for (int i = 0; i < workers; i++) {
+                threads.add(Thread.ofVirtual().name("etapa-" + name + "-" + i).start(this::work));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Encola un trabajo. Si la cola está llena, espera a que haya hueco: así
+     * la presión llega a la etapa anterior en lugar de acumularse sin límite.
+     *
+     * @param item El trabajo.
+     * @throws IllegalStateException si la etapa está cerrada o el hilo se interrumpe.
+     */
+    public void submit(T item) {
+        if (closed) {
+            throw new IllegalStateException("La etapa '" + name + "' está cerrada.");
+        }
+        try {
+            space.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al encolar en la etapa '" + name + "'.", e);
+        }
+        queue.add(item);
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    public String getName() { return name; }
+    public int getWorkers() { return workers; }
+    public int getCapacity() { return capacity; }
+
+    /** @return Número de trabajos que esperan en cola en este momento. */
+    public int getQueueDepth() { return queue.size(); }
+
+    public int getMaxQueueDepth() { return maxDepth.get(); }
+    public LatencyHistogram getServiceTimes() { return serviceTimes; }
+    public long getFailed() { return failed.sum(); }
+
+    /**
+     * Deja de aceptar trabajos y espera a que se atiendan los que quedan en cola.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Thread> running;
+        synchronized (this) {
+            running = new ArrayList<>(threads);
+        }
+        for (Thread thread : running) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-9s hilos=%d cola=%d/%d (máx. %d) fallos=%d servicio: %s",
+            name, workers, queue.size(), capacity, maxDepth.get(), failed.sum(), serviceTimes);
+    }
+
+    private void work() {
+        while (!closed || !queue.isEmpty()) {
+            T item;
+            try {
+                item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == null) {
+                continue;
+            }
+            space.release();
+            long start = System.nanoTime();
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                failed.increment();
+                System.err.println("❌ Error en la etapa '" + name + "': " + e.getMessage());
+            } finally {
+                serviceTimes.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.emergencias.controller;
+
+import com.emergencias.alert.EmergencyLogger;
+import com.emergencias.detector.EmergencyDetector;
+import com.emergencias.model.UserData;
+import com.emergencias.services.IAlert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Motor de Sesiones Concurrentes</h1>
+ *
+ * <p>
+ * Permite que un solo proceso atienda a muchas personas a la vez. Cada
+ * persona que reporta tiene su propia sesión, aislada de las demás: sus
+ * {@link UserData}, su fuente de entrada, su {@link EmergencyDetector} y su
+ * {@link EmergencyManager}, que se ejecuta en un hilo virtual propio. El
+ * registro de emergencias y el {@link EmergencyPipeline} (con el sistema de
+ * alertas) se comparten entre todas las sesiones, así que el número de
+ * hilos que registran, alertan y avisan no crece con el de sesiones.
+ * </p>
+ *
+ * <p>
+ * Una sesión bloqueada esperando la entrada de su usuario no ocupa ningún
+ * hilo de la plataforma, así que caben decenas de miles en una JVM. La
+ * memoria de cada sesión es acotada: sus objetos de estado, la pila de su
+ * hilo virtual y sus búferes de entrada, de tamaño fijo
+ * ({@value #INPUT_BUFFER_BYTES} bytes más el búfer de {@link Scanner}). La
+ * sesión termina cuando su usuario sale del sistema o se cierra su entrada.
+ * </p>
+ *
+ * <p>
+ * La salida por consola de todas las sesiones es compartida.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class SessionEngine implements AutoCloseable {
+    // Bytes de entrada que se leen de una vez (en lugar de los 8 KB de InputStreamReader).
+    private static final int INPUT_BUFFER_BYTES = 256;
+
+    private final EmergencyLogger logger;
+    private final EmergencyPipeline pipeline;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * @param alertSender El sistema de alertas compartido por todas las sesiones.
+     * @param logger      El registro de emergencias compartido por todas las sesiones.
+     */
+    public SessionEngine(IAlert alertSender, EmergencyLogger logger) {
+        this(logger, new EmergencyPipeline(alertSender, logger));
+    }
+
+    /**
+     * @param logger   El registro de emergencias compartido por todas las sesiones.
+     * @param pipeline El flujo por etapas compartido; el motor lo arranca y lo cierra.
+     */
+    public SessionEngine(EmergencyLogger logger, EmergencyPipeline pipeline) {
+        this.logger = logger;
+        this.pipeline = pipeline.start();
+    }
+
+    /**
+     * Abre una sesión para una persona y la ejecuta en su propio hilo virtual.
+     *
+     * @param name     Nombre de la sesión (para el hilo y los mensajes).
+     * @param input    La entrada de la persona (un socket, un archivo...). Se
+     *                 cierra al terminar la sesión.
+     * @param userData Los datos iniciales de la persona, propios de esta sesión.
+     * @return Un futuro que se completa cuando termina la sesión.
+     */
+    public CompletableFuture<Void> open(String name, InputStream input, UserData userData) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        active.incrementAndGet();
+        started.increment();
+        Thread.ofVirtual().name("sesion-" + name).start(() -> {
+            try (Scanner scanner = new Scanner(new SessionInput(input))) {
+                EmergencyDetector detector = new EmergencyDetector(userData, scanner);
+                new EmergencyManager(userData, scanner, detector, logger, pipeline).startSystem();
+                finished.increment();
+                done.complete(null);
+            } catch (RuntimeException e) {
+                failed.increment();
+                System.err.println("❌ Error en la sesión " + name + ": " + e.getMessage());
+                done.completeExceptionally(e);
+            } finally {
+                if (active.decrementAndGet() == 0) {
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Espera a que terminen todas las sesiones abiertas hasta el momento.
+     *
+     * @param timeout Tiempo máximo de espera.
+     * @return {@code true} si terminaron todas a tiempo.
+     * @throws InterruptedException si el hilo se interrumpe mientras espera.
+     */
+    public synchronized boolean awaitAll(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (active.get() > 0) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        return true;
+    }
+
+    /**
+     * Cierra el flujo compartido tras terminar lo que tiene pendiente. Debe
+     * llamarse cuando ya no quedan sesiones activas.
+     */
+    @Override
+    public void close() {
+        pipeline.close();
+    }
+
+    public EmergencyPipeline getPipeline() { return pipeline; }
+    public int getActiveSessions() { return active.get(); }
+    public long getStartedSessions() { return started.sum(); }
+    public long getFinishedSessions() { return finished.sum(); }
+    public long getFailedSessions() { return failed.sum(); }
+
+    @Override
+    public String toString() {
+        return "Sesiones: activas=" + active.get() + ", iniciadas=" + started.sum()
+            + ", terminadas=" + finished.sum() + ", con error=" + failed.sum();
+    }
+
+    /**
+     * Entrada de una sesión: decodifica UTF-8 con un búfer de bytes propio y
+     * pequeño, para que la memoria de cada sesión no dependa de los búferes
+     * por defecto de {@link java.io.InputStreamReader}.
+     */
+    private static final class SessionInput implements Readable, Closeable {
+        private final InputStream input;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(INPUT_BUFFER_BYTES).flip();
+        private boolean endOfInput;
+        private boolean flushed;
+
+        SessionInput(InputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read(CharBuffer target) throws IOException {
+            int start = target.position();
+            while (true) {
+                if (flushed) {
+                    return target.position() > start ? target.position() - start : -1;
+                }
+                decoder.decode(bytes, target, endOfInput);
+                if (endOfInput) {
+                    decoder.flush(target);
+                    flushed = true;
+                    continue;
+                }
+                if (target.position() > start || !target.hasRemaining()) {
+                    return target.position() - start;
+                }
+                // No hay caracteres completos: se leen más bytes.
+                bytes.compact();
+                int read = input.read(bytes.array(), bytes.position(), bytes.remaining());
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    bytes.position(bytes.position() + read);
+                }
+                bytes.flip();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.emergencias.model;
+
+/**
+ * <h1>Centro de Salud Cercano</h1>
+ *
+ * <p>
+ * Un resultado de la búsqueda de centros por proximidad: el centro y su
+ * distancia al punto buscado.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class CentroCercano {
+    private final CentroSalud centro;
+    private final double distanciaKm;
+
+    CentroCercano(CentroSalud centro, double distanciaKm) {
+        this.centro = centro;
+        this.distanciaKm = distanciaKm;
+    }
+
+    public CentroSalud getCentro() { return centro; }
+
+    /** @return La distancia en línea recta (sobre la superficie terrestre), en kilómetros. */
+    public double getDistanciaKm() { return distanciaKm; }
+
+    @Override
+    public String toString() {
+        return String.format("- %s | %s | Municipio: %s | Tel: %s | a %.1f km",
+            centro.getNombre(), centro.getDireccion(), centro.getMunicipio(), centro.getTelefono(), distanciaKm);
+    }
+}
@@ -1,7 +1,9 @@
 package com.emergencias.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
 
 /**
  * <h1>Entidad de Centro de Salud</h1>
@@ -77,6 +79,12 @@ public class CentroSalud {
     @JsonProperty("Foto 1")
     private String foto1;
 
+    // --- ATRIBUTOS CALCULADOS AL CARGAR ---
+
+    // Latitud y longitud ya normalizadas (vienen en grados o en UTM, y a veces intercambiadas).
+    @JsonIgnore
+    private Coordenadas coordenadas;
+
     // --- GETTERS ---
     // Se exponen solo los getters para los campos que son útiles en la aplicación.
     // Jackson utiliza estos métodos (o los campos directamente) para la serialización.
@@ -97,6 +105,43 @@ public class CentroSalud {
     public String getLongitud() { return longitud; }
     public String getFoto1() { return foto1; }
 
+    /** @return La ubicación en grados WGS84, o {@code null} si los datos no la incluyen o no son válidos. */
+    @JsonIgnore
+    public Coordenadas getCoordenadas() { return coordenadas; }
+
+    /**
+     * Crea una copia del centro en la que los textos que se repiten entre
+     * centros (municipios, nombres genéricos, webs...) comparten una única
+     * instancia, tomada del mapa indicado. La copia lleva además las
+     * coordenadas normalizadas ({@link Coordenadas#normalizar(String, String)}).
+     *
+     * @param textos Textos ya vistos, que se reutilizan y se amplían.
+     * @return La copia compacta.
+     */
+    CentroSalud compactar(Map<String, String> textos) {
+        CentroSalud copia = new CentroSalud();
+        copia.codigo = compartir(codigo, textos);
+        copia.nombre = compartir(nombre, textos);
+        copia.direccion = compartir(direccion, textos);
+        copia.cp = compartir(cp, textos);
+        copia.municipio = compartir(municipio, textos);
+        copia.pedania = compartir(pedania, textos);
+        copia.telefono = compartir(telefono, textos);
+        copia.fax = compartir(fax, textos);
+        copia.email = compartir(email, textos);
+        copia.urlReal = compartir(urlReal, textos);
+        copia.urlCorta = compartir(urlCorta, textos);
+        copia.latitud = compartir(latitud, textos);
+        copia.longitud = compartir(longitud, textos);
+        copia.foto1 = compartir(foto1, textos);
+        copia.coordenadas = Coordenadas.normalizar(latitud, longitud);
+        return copia;
+    }
+
+    private static String compartir(String texto, Map<String, String> textos) {
+        return texto == null ? null : textos.computeIfAbsent(texto, t -> t);
+    }
+
     /**
      * Devuelve una representación simple del centro de salud, útil para listas.
      *
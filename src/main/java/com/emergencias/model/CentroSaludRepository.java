@@ -0,0 +1,356 @@
+package com.emergencias.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * <h1>Repositorio de Centros de Salud</h1>
+ *
+ * <p>
+ * Carga los centros de salud una sola vez en una {@link Snapshot} inmutable
+ * y compacta (los textos repetidos se comparten y el listado para la consola
+ * se prepara de antemano). Consultar los centros es una simple lectura de
+ * memoria, sin bloqueos ni análisis de JSON, aunque lo hagan muchos hilos a
+ * la vez.
+ * </p>
+ *
+ * <p>
+ * Cada instantánea incluye un índice espacial ({@link IndiceCentros}), de
+ * modo que buscar los centros más cercanos a una emergencia
+ * ({@link Snapshot#cercanos(double, double, int)}) cuesta microsegundos.
+ * </p>
+ *
+ * <p>
+ * Si los datos vienen de un archivo externo ({@link #desdeArchivo(Path)}),
+ * un {@link WatchService} vigila su directorio: cuando el archivo cambia, se
+ * carga una nueva instantánea y se sustituye de una vez a la anterior. Si la
+ * nueva versión no es válida (por ejemplo, a medio escribir), se sigue usando
+ * la anterior.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class CentroSaludRepository implements AutoCloseable {
+    /** Recurso del classpath con los centros de salud de la Región de Murcia. */
+    public static final String RECURSO_MURCIA = "/CentrosdeSaludMurcia.json";
+    // Tiempo que se deja al editor para terminar de guardar antes de recargar.
+    private static final long ESPERA_ESCRITURA_MS = 200;
+
+    private static final ObjectReader CENTROS_READER = new ObjectMapper().readerFor(CentroSalud[].class);
+    private static CentroSaludRepository murcia;
+
+    private final String origen;
+    private final Path archivo;
+    private volatile Snapshot snapshot;
+    private WatchService vigilante;
+    private volatile boolean cerrado;
+
+    private CentroSaludRepository(String origen, Path archivo, Snapshot snapshot) {
+        this.origen = origen;
+        this.archivo = archivo;
+        this.snapshot = snapshot;
+    }
+
+    // --- CREACIÓN ---
+
+    /**
+     * Devuelve el repositorio compartido de los centros de salud de Murcia.
+     * Si no se ha indicado un archivo con {@link #usarArchivoMurcia(Path)}, se
+     * carga la primera vez que se pide, desde {@link #RECURSO_MURCIA}.
+     *
+     * @return El repositorio compartido.
+     */
+    public static synchronized CentroSaludRepository murcia() {
+        if (murcia == null) {
+            murcia = desdeRecurso(RECURSO_MURCIA);
+        }
+        return murcia;
+    }
+
+    /**
+     * Hace que el repositorio compartido de Murcia use un archivo externo,
+     * vigilado para recargarlo cuando cambie.
+     *
+     * @param archivo El archivo JSON de centros de salud.
+     * @return El nuevo repositorio compartido.
+     */
+    public static synchronized CentroSaludRepository usarArchivoMurcia(Path archivo) {
+        CentroSaludRepository anterior = murcia;
+        murcia = desdeArchivo(archivo);
+        if (anterior != null) {
+            anterior.close();
+        }
+        return murcia;
+    }
+
+    /**
+     * Carga los centros de un recurso del classpath (no se vigila).
+     *
+     * @param rutaRecurso La ruta del recurso, por ejemplo {@link #RECURSO_MURCIA}.
+     * @return El repositorio; vacío si el recurso no existe o no es válido.
+     */
+    public static CentroSaludRepository desdeRecurso(String rutaRecurso) {
+        Snapshot snapshot;
+        try (InputStream entrada = CentroSaludRepository.class.getResourceAsStream(rutaRecurso)) {
+            if (entrada == null) {
+                System.err.println("❌ Error: No se pudo encontrar el archivo de recursos: " + rutaRecurso);
+                snapshot = Snapshot.vacia(rutaRecurso);
+            } else {
+                snapshot = Snapshot.de(entrada.readAllBytes(), rutaRecurso, 1);
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico al leer o procesar el archivo JSON de centros de salud: " + e.getMessage());
+            snapshot = Snapshot.vacia(rutaRecurso);
+        }
+        return new CentroSaludRepository(rutaRecurso, null, snapshot);
+    }
+
+    /**
+     * Carga los centros de un archivo externo y lo vigila para recargarlo
+     * cuando cambie.
+     *
+     * @param archivo El archivo JSON de centros de salud.
+     * @return El repositorio.
+     * @throws RuntimeException si el archivo no se puede leer la primera vez.
+     */
+    public static CentroSaludRepository desdeArchivo(Path archivo) {
+        Path absoluto = archivo.toAbsolutePath();
+        Snapshot snapshot;
+        try {
+            snapshot = Snapshot.de(Files.readAllBytes(absoluto), absoluto.toString(), 1);
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo cargar el archivo de centros de salud: " + e.getMessage());
+            throw new RuntimeException("No se pudo cargar el archivo de centros de salud " + absoluto, e);
+        }
+        CentroSaludRepository repositorio = new CentroSaludRepository(absoluto.toString(), absoluto, snapshot);
+        repositorio.vigilar();
+        return repositorio;
+    }
+
+    // --- CONSULTA ---
+
+    /**
+     * @return La instantánea actual de los centros (lectura sin bloqueos).
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return Los centros de la instantánea actual (lista inmutable).
+     */
+    public List<CentroSalud> getCentros() {
+        return snapshot.getCentros();
+    }
+
+    /**
+     * Vuelve a leer el archivo externo y, si es válido y ha cambiado,
+     * sustituye la instantánea actual.
+     *
+     * @return {@code true} si se cargó una nueva instantánea.
+     */
+    public boolean recargar() {
+        if (archivo == null) {
+            return false;
+        }
+        try {
+            byte[] contenido = Files.readAllBytes(archivo);
+            Snapshot actual = snapshot;
+            if (contenido.length == actual.longitud && huella(contenido) == actual.huella) {
+                return false;
+            }
+            snapshot = Snapshot.de(contenido, origen, actual.version + 1);
+            System.out.println("🔁 Centros de salud recargados: " + snapshot);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Los errores de Jackson traen la posición en varias líneas: basta con la primera.
+            String motivo = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage().lines().findFirst().orElse("");
+            System.err.println("⚠️  Advertencia: No se pudo recargar " + origen + "; se mantienen los datos anteriores: "
+                + motivo);
+            return false;
+        }
+    }
+
+    /**
+     * Deja de vigilar el archivo. Las instantáneas ya entregadas siguen siendo válidas.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        WatchService servicio;
+        synchronized (this) {
+            servicio = vigilante;
+        }
+        if (servicio != null) {
+            try {
+                servicio.close();
+            } catch (IOException e) {
+                // El vigilante ya no se usa.
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return snapshot.toString();
+    }
+
+    // --- VIGILANCIA ---
+
+    private synchronized void vigilar() {
+        try {
+            vigilante = archivo.getFileSystem().newWatchService();
+            archivo.getParent().register(vigilante, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("⚠️  Advertencia: No se vigilarán los cambios de " + archivo + ": " + e.getMessage());
+            return;
+        }
+        WatchService servicio = vigilante;
+        Thread.ofPlatform().daemon().name("centros-salud-vigilante").start(() -> esperarCambios(servicio));
+    }
+
+    private void esperarCambios(WatchService servicio) {
+        while (!cerrado) {
+            try {
+                WatchKey clave = servicio.take();
+                boolean cambiado = esDelArchivo(clave);
+                if (cambiado) {
+                    // Se agrupan los avisos de un mismo guardado (truncar, escribir, cerrar...).
+                    Thread.sleep(ESPERA_ESCRITURA_MS);
+                    WatchKey pendiente;
+                    while ((pendiente = servicio.poll()) != null) {
+                        esDelArchivo(pendiente);
+                    }
+                    recargar();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private boolean esDelArchivo(WatchKey clave) {
+        boolean cambiado = false;
+        for (WatchEvent<?> evento : clave.pollEvents()) {
+            if (evento.kind() == StandardWatchEventKinds.OVERFLOW || archivo.getFileName().equals(evento.context())) {
+                cambiado = true;
+            }
+        }
+        clave.reset();
+        return cambiado;
+    }
+
+    private static long huella(byte[] contenido) {
+        CRC32C crc = new CRC32C();
+        crc.update(contenido);
+        return crc.getValue();
+    }
+
+    /**
+     * <h2>Instantánea Inmutable de los Centros de Salud</h2>
+     *
+     * <p>
+     * Los centros tal como estaban al cargarlos, con el listado para la
+     * consola y el índice por proximidad ya preparados. No cambia nunca: una
+     * recarga crea otra.
+     * </p>
+     */
+    public static final class Snapshot {
+        private final List<CentroSalud> centros;
+        private final String listado;
+        private final IndiceCentros indice;
+        private final String origen;
+        private final long version;
+        private final Instant cargadaEn;
+        // Para saber si el archivo ha cambiado sin guardar su contenido.
+        private final int longitud;
+        private final long huella;
+
+        private Snapshot(List<CentroSalud> centros, String origen, long version, byte[] contenido) {
+            this.centros = centros;
+            this.origen = origen;
+            this.version = version;
+            this.longitud = contenido.length;
+            this.huella = huella(contenido);
+            this.cargadaEn = Instant.now();
+            StringBuilder texto = new StringBuilder();
+            for (CentroSalud centro : centros) {
+                texto.append(String.format("- %s | %s | Municipio: %s | Tel: %s%n",
+                    centro.getNombre(), centro.getDireccion(), centro.getMunicipio(), centro.getTelefono()));
+            }
+            this.listado = texto.toString();
+            this.indice = new IndiceCentros(centros);
+        }
+
+        static Snapshot de(byte[] contenido, String origen, long version) throws IOException {
+            CentroSalud[] leidos = CENTROS_READER.readValue(contenido);
+            Map<String, String> textos = new HashMap<>();
+            List<CentroSalud> centros = new ArrayList<>(leidos.length);
+            for (CentroSalud centro : leidos) {
+                if (centro != null) {
+                    centros.add(centro.compactar(textos));
+                }
+            }
+            return new Snapshot(List.copyOf(centros), origen, version, contenido);
+        }
+
+        static Snapshot vacia(String origen) {
+            return new Snapshot(List.of(), origen, 0, new byte[0]);
+        }
+
+        /** @return Los centros (lista inmutable). */
+        public List<CentroSalud> getCentros() { return centros; }
+
+        /** @return Una línea por centro (nombre, dirección, municipio y teléfono), lista para mostrar. */
+        public String getListado() { return listado; }
+
+        /**
+         * @param latitud  Latitud del punto, en grados.
+         * @param longitud Longitud del punto, en grados.
+         * @param k        Número máximo de centros.
+         * @return Los {@code k} centros con coordenadas más cercanos al punto,
+         *         del más próximo al más lejano.
+         */
+        public List<CentroCercano> cercanos(double latitud, double longitud, int k) {
+            return indice.cercanos(latitud, longitud, k);
+        }
+
+        /**
+         * @param punto El punto.
+         * @param k     Número máximo de centros.
+         * @return Los {@code k} centros con coordenadas más cercanos al punto.
+         */
+        public List<CentroCercano> cercanos(Coordenadas punto, int k) {
+            return indice.cercanos(punto.getLatitud(), punto.getLongitud(), k);
+        }
+
+        public String getOrigen() { return origen; }
+        public long getVersion() { return version; }
+        public Instant getCargadaEn() { return cargadaEn; }
+        public boolean isEmpty() { return centros.isEmpty(); }
+
+        @Override
+        public String toString() {
+            return centros.size() + " centros (" + indice.size() + " con coordenadas) de " + origen
+                + " (versión " + version + ")";
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.emergencias.model;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>Coordenadas Geográficas</h1>
+ *
+ * <p>
+ * Una posición en grados decimales WGS84 (latitud positiva al norte,
+ * longitud positiva al este). Es inmutable.
+ * </p>
+ *
+ * <p>
+ * Los datos abiertos de centros de salud mezclan formatos:
+ * {@link #normalizar(String, String)} los convierte todos a esta forma al
+ * cargarlos, y {@link #parse(String)} reconoce las coordenadas que escribe
+ * el usuario o que devuelve el GPS (por ejemplo {@code "37.9922° N, 1.1307° W"}).
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class Coordenadas {
+    // --- PROYECCIÓN UTM DE LOS DATOS DE MURCIA (huso 30 norte, ETRS89 ≈ WGS84) ---
+    private static final int HUSO_UTM_MURCIA = 30;
+    private static final double SEMIEJE_MAYOR = 6378137.0;
+    private static final double ACHATAMIENTO = 1 / 298.257223563;
+    private static final double ESCALA_UTM = 0.9996;
+    private static final double FALSO_ESTE = 500000.0;
+    // Un valor mayor solo puede ser una coordenada UTM en metros.
+    private static final double MAXIMO_GRADOS = 180.0;
+
+    // Dos números con decimales, con hemisferio opcional (N/S, E/O/W).
+    private static final Pattern TEXTO_COORDENADAS = Pattern.compile(
+        "([+-]?\\d{1,3}\\.\\d+)\\s*°?\\s*([NnSs])?\\s*[,;\\s]\\s*([+-]?\\d{1,3}\\.\\d+)\\s*°?\\s*([EeOoWw])?");
+
+    private final double latitud;
+    private final double longitud;
+
+    private Coordenadas(double latitud, double longitud) {
+        this.latitud = latitud;
+        this.longitud = longitud;
+    }
+
+    /**
+     * @param latitud  Latitud en grados (-90 a 90).
+     * @param longitud Longitud en grados (-180 a 180).
+     * @return Las coordenadas.
+     * @throws IllegalArgumentException si están fuera de rango.
+     */
+    public static Coordenadas de(double latitud, double longitud) {
+        if (!enRango(latitud, longitud)) {
+            throw new IllegalArgumentException("Coordenadas fuera de rango: " + latitud + ", " + longitud);
+        }
+        return new Coordenadas(latitud, longitud);
+    }
+
+    /**
+     * Normaliza las coordenadas de un centro de salud tal como vienen en los
+     * datos abiertos de la Región de Murcia:
+     * <ul>
+     *     <li>En metros UTM (huso 30): la coordenada norte es la mayor de las
+     *         dos, esté en el campo que esté.</li>
+     *     <li>En grados, a veces intercambiadas. En España la latitud
+     *         (27° a 44°) siempre es mayor en valor absoluto que la longitud
+     *         (-19° a 5°), así que se ordenan por eso.</li>
+     * </ul>
+     *
+     * @param latitud  El texto del campo "Latitud".
+     * @param longitud El texto del campo "Longitud".
+     * @return Las coordenadas en WGS84, o {@code null} si faltan o no se entienden.
+     */
+    public static Coordenadas normalizar(String latitud, String longitud) {
+        double primero = numero(latitud);
+        double segundo = numero(longitud);
+        if (Double.isNaN(primero) || Double.isNaN(segundo)) {
+            return null;
+        }
+        if (Math.abs(primero) > MAXIMO_GRADOS && Math.abs(segundo) > MAXIMO_GRADOS) {
+            return desdeUtm(Math.max(primero, segundo), Math.min(primero, segundo), HUSO_UTM_MURCIA);
+        }
+        double lat = Math.abs(primero) >= Math.abs(segundo) ? primero : segundo;
+        double lon = lat == primero ? segundo : primero;
+        return enRango(lat, lon) ? new Coordenadas(lat, lon) : null;
+    }
+
+    /**
+     * Busca unas coordenadas en un texto, como {@code "37.9922° N, 1.1307° W"}
+     * o {@code "Gran Vía (37.98, -1.13)"}. Los números deben llevar
+     * decimales, para no confundir con ellas un número de portal.
+     *
+     * @param texto El texto (por ejemplo, la ubicación de una emergencia).
+     * @return Las coordenadas, o {@code null} si el texto no las contiene.
+     */
+    public static Coordenadas parse(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        Matcher m = TEXTO_COORDENADAS.matcher(texto);
+        while (m.find()) {
+            double lat = Double.parseDouble(m.group(1));
+            double lon = Double.parseDouble(m.group(3));
+            if (m.group(2) != null && m.group(2).equalsIgnoreCase("S")) {
+                lat = -Math.abs(lat);
+            }
+            if (m.group(4) != null && !m.group(4).equalsIgnoreCase("E")) {
+                lon = -Math.abs(lon);
+            }
+            if (enRango(lat, lon)) {
+                return new Coordenadas(lat, lon);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Convierte una coordenada UTM del hemisferio norte a grados
+     * (fórmulas de Snyder para la proyección transversa de Mercator inversa;
+     * error de centímetros dentro del huso).
+     *
+     * @param norte Coordenada norte en metros.
+     * @param este  Coordenada este en metros.
+     * @param huso  Huso UTM (1 a 60).
+     * @return Las coordenadas en WGS84, o {@code null} si no son válidas.
+     */
+    public static Coordenadas desdeUtm(double norte, double este, int huso) {
+        double e2 = ACHATAMIENTO * (2 - ACHATAMIENTO);
+        double ep2 = e2 / (1 - e2);
+        double raiz = Math.sqrt(1 - e2);
+        double e1 = (1 - raiz) / (1 + raiz);
+
+        double mu = norte / ESCALA_UTM
+            / (SEMIEJE_MAYOR * (1 - e2 / 4 - 3 * e2 * e2 / 64 - 5 * e2 * e2 * e2 / 256));
+        double phi = mu
+            + (3 * e1 / 2 - 27 * Math.pow(e1, 3) / 32) * Math.sin(2 * mu)
+            + (21 * e1 * e1 / 16 - 55 * Math.pow(e1, 4) / 32) * Math.sin(4 * mu)
+            + (151 * Math.pow(e1, 3) / 96) * Math.sin(6 * mu)
+            + (1097 * Math.pow(e1, 4) / 512) * Math.sin(8 * mu);
+
+        double seno = Math.sin(phi);
+        double coseno = Math.cos(phi);
+        double c = ep2 * coseno * coseno;
+        double t = Math.tan(phi) * Math.tan(phi);
+        double n = SEMIEJE_MAYOR / Math.sqrt(1 - e2 * seno * seno);
+        double r = SEMIEJE_MAYOR * (1 - e2) / Math.pow(1 - e2 * seno * seno, 1.5);
+        double d = (este - FALSO_ESTE) / (n * ESCALA_UTM);
+
+        double lat = phi - (n * Math.tan(phi) / r) * (d * d / 2
+            - (5 + 3 * t + 10 * c - 4 * c * c - 9 * ep2) * Math.pow(d, 4) / 24
+            + (61 + 90 * t + 298 * c + 45 * t * t - 252 * ep2 - 3 * c * c) * Math.pow(d, 6) / 720);
+        double lon = (d - (1 + 2 * t + c) * Math.pow(d, 3) / 6
+            + (5 - 2 * c + 28 * t - 3 * c * c + 8 * ep2 + 24 * t * t) * Math.pow(d, 5) / 120) / coseno;
+
+        double latitud = Math.toDegrees(lat);
+        double longitud = huso * 6 - 183 + Math.toDegrees(lon);
+        return enRango(latitud, longitud) ? new Coordenadas(latitud, longitud) : null;
+    }
+
+    public double getLatitud() { return latitud; }
+    public double getLongitud() { return longitud; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Coordenadas)) {
+            return false;
+        }
+        Coordenadas otras = (Coordenadas) o;
+        return Double.compare(latitud, otras.latitud) == 0 && Double.compare(longitud, otras.longitud) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(latitud) + Double.hashCode(longitud);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%.5f, %.5f", latitud, longitud);
+    }
+
+    private static boolean enRango(double latitud, double longitud) {
+        return Math.abs(latitud) <= 90 && Math.abs(longitud) <= 180;
+    }
+
+    private static double numero(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(texto.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
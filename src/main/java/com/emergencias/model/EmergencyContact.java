@@ -0,0 +1,118 @@
+package com.emergencias.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>Contacto de Emergencia</h1>
+ *
+ * <p>
+ * Persona a la que se avisa cuando el usuario reporta una emergencia. El
+ * campo de contacto de {@link UserData} es texto libre; {@link #parseAll}
+ * lo separa en contactos con nombre y teléfono.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class EmergencyContact {
+    // Separadores entre contactos: punto y coma, coma, barra vertical o salto de línea.
+    private static final Pattern SEPARATORS = Pattern.compile("[;,|\\r\\n]+");
+    // Teléfono: al menos 9 dígitos, con espacios o guiones y prefijo internacional opcional.
+    private static final Pattern PHONE = Pattern.compile("\\+?\\d[\\d\\s-]{7,}\\d");
+    private static final Pattern DECORATION = Pattern.compile("[()\\[\\]<>:]|(^\\s*-+)|(-+\\s*$)");
+
+    private final String name;
+    private final String phone;
+
+    /**
+     * @param name  Nombre del contacto (puede ser {@code null}).
+     * @param phone Teléfono sin espacios ni guiones (puede ser {@code null}).
+     */
+    public EmergencyContact(String name, String phone) {
+        this.name = name;
+        this.phone = phone;
+    }
+
+    /**
+     * Separa un texto con uno o varios contactos, por ejemplo
+     * {@code "Ana 600 111 222; Luis (611-222-333)"}. Un nombre seguido de un
+     * teléfono separado por coma ({@code "Ana, 600111222"}) es un solo
+     * contacto. Los contactos repetidos se descartan.
+     *
+     * @param text El texto del campo de contacto.
+     * @return Los contactos, en el orden en que aparecen (vacío si no hay ninguno).
+     */
+    public static List<EmergencyContact> parseAll(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<EmergencyContact> parsed = new ArrayList<>();
+        for (String part : SEPARATORS.split(text)) {
+            EmergencyContact contact = parse(part);
+            if (contact == null) {
+                continue;
+            }
+            int last = parsed.size() - 1;
+            if (contact.name == null && last >= 0 && parsed.get(last).phone == null) {
+                parsed.set(last, new EmergencyContact(parsed.get(last).name, contact.phone));
+            } else {
+                parsed.add(contact);
+            }
+        }
+        Map<String, EmergencyContact> unique = new LinkedHashMap<>();
+        for (EmergencyContact contact : parsed) {
+            unique.putIfAbsent(contact.key(), contact);
+        }
+        return List.copyOf(unique.values());
+    }
+
+    private static EmergencyContact parse(String part) {
+        String phone = null;
+        String rest = part;
+        Matcher matcher = PHONE.matcher(part);
+        if (matcher.find()) {
+            phone = matcher.group().replaceAll("[\\s-]", "");
+            rest = part.substring(0, matcher.start()) + " " + part.substring(matcher.end());
+        }
+        String name = DECORATION.matcher(rest).replaceAll(" ").trim().replaceAll("\\s+", " ");
+        if (name.isEmpty() && phone == null) {
+            return null;
+        }
+        return new EmergencyContact(name.isEmpty() ? null : name, phone);
+    }
+
+    public String getName() { return name; }
+    public String getPhone() { return phone; }
+
+    /**
+     * @return Clave que identifica al contacto: su teléfono o, si no tiene, su nombre.
+     */
+    public String key() {
+        return phone != null ? phone : name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EmergencyContact && key().equals(((EmergencyContact) other).key());
+    }
+
+    @Override
+    public int hashCode() {
+        return key().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (name == null) {
+            return phone;
+        }
+        return phone == null ? name : name + " (" + phone + ")";
+    }
+}
@@ -53,6 +53,20 @@ public class EmergencyEvent {
         this.timestamp = LocalDateTime.now();
     }
 
+    /**
+     * Constructor completo, usado para reconstruir un evento ya registrado
+     * (por ejemplo, al leerlo de un almacén binario).
+     */
+    public EmergencyEvent(String id, String emergencyType, String location, int severityLevel,
+                          String userData, LocalDateTime timestamp) {
+        this.id = id;
+        this.emergencyType = emergencyType;
+        this.location = location;
+        this.severityLevel = severityLevel;
+        this.userData = userData;
+        this.timestamp = timestamp;
+    }
+
     // --- GETTERS Y SETTERS ---
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -0,0 +1,176 @@
+package com.emergencias.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <h1>Índice Espacial de Centros de Salud</h1>
+ *
+ * <p>
+ * Árbol k-d implícito para encontrar los centros más cercanos a un punto
+ * sin recorrerlos todos. Cada centro se sitúa como un vector unitario en 3D
+ * (sobre una esfera del tamaño de la Tierra); la distancia en línea recta
+ * entre dos vectores crece igual que la distancia sobre la superficie, así
+ * que el orden de cercanía es exacto en cualquier lugar, sin las
+ * deformaciones de trabajar directamente con grados.
+ * </p>
+ *
+ * <p>
+ * El árbol no usa nodos: los centros se guardan en un array ordenado de modo
+ * que la mediana de cada tramo es la raíz de su subárbol, y las coordenadas
+ * en un array de {@code double} contiguo. Se construye una vez, con cada
+ * instantánea de datos, y es inmutable.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class IndiceCentros {
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+    private static final int DIMENSIONES = 3;
+
+    private final CentroSalud[] centros;
+    private final double[] puntos;
+
+    /**
+     * @param todos Los centros; se indexan los que tienen coordenadas.
+     */
+    IndiceCentros(List<CentroSalud> todos) {
+        List<Nodo> nodos = new ArrayList<>(todos.size());
+        for (CentroSalud centro : todos) {
+            Coordenadas coordenadas = centro.getCoordenadas();
+            if (coordenadas != null) {
+                nodos.add(new Nodo(centro, vector(coordenadas.getLatitud(), coordenadas.getLongitud())));
+            }
+        }
+        Nodo[] orden = nodos.toArray(new Nodo[0]);
+        construir(orden, 0, orden.length, 0);
+        this.centros = new CentroSalud[orden.length];
+        this.puntos = new double[orden.length * DIMENSIONES];
+        for (int i = 0; i < orden.length; i++) {
+            centros[i] = orden[i].centro;
+            System.arraycopy(orden[i].punto, 0, puntos, i * DIMENSIONES, DIMENSIONES);
+        }
+    }
+
+    /** @return Número de centros indexados (los que tienen coordenadas). */
+    int size() {
+        return centros.length;
+    }
+
+    /**
+     * @param latitud  Latitud del punto, en grados.
+     * @param longitud Longitud del punto, en grados.
+     * @param k        Número máximo de centros.
+     * @return Los {@code k} centros más cercanos, del más próximo al más lejano.
+     */
+    List<CentroCercano> cercanos(double latitud, double longitud, int k) {
+        if (k <= 0 || centros.length == 0) {
+            return List.of();
+        }
+        Candidatos mejores = new Candidatos(Math.min(k, centros.length));
+        buscar(vector(latitud, longitud), 0, centros.length, 0, mejores);
+        List<CentroCercano> resultado = new ArrayList<>(mejores.total);
+        for (int i = 0; i < mejores.total; i++) {
+            // De cuerda entre vectores unitarios a arco sobre la superficie.
+            double arco = 2 * Math.asin(Math.min(1, Math.sqrt(mejores.distancias[i]) / 2));
+            resultado.add(new CentroCercano(centros[mejores.indices[i]], arco * RADIO_TIERRA_KM));
+        }
+        return resultado;
+    }
+
+    // --- CONSTRUCCIÓN Y BÚSQUEDA ---
+
+    private static void construir(Nodo[] nodos, int desde, int hasta, int eje) {
+        if (hasta - desde <= 1) {
+            return;
+        }
+        Arrays.sort(nodos, desde, hasta, Comparator.comparingDouble(nodo -> nodo.punto[eje]));
+        int mitad = (desde + hasta) >>> 1;
+        int siguiente = (eje + 1) % DIMENSIONES;
+        construir(nodos, desde, mitad, siguiente);
+        construir(nodos, mitad + 1, hasta, siguiente);
+    }
+
+    private void buscar(double[] punto, int desde, int hasta, int eje, Candidatos mejores) {
+        if (desde >= hasta) {
+            return;
+        }
+        int mitad = (desde + hasta) >>> 1;
+        mejores.ofrecer(mitad, distancia2(punto, mitad));
+        double diferencia = punto[eje] - puntos[mitad * DIMENSIONES + eje];
+        int siguiente = (eje + 1) % DIMENSIONES;
+        // Primero el lado del punto; el otro solo si puede haber algo más cerca que el peor candidato.
+        if (diferencia < 0) {
+            buscar(punto, desde, mitad, siguiente, mejores);
+            if (diferencia * diferencia < mejores.peor()) {
+                buscar(punto, mitad + 1, hasta, siguiente, mejores);
+            }
+        } else {
+            buscar(punto, mitad + 1, hasta, siguiente, mejores);
+            if (diferencia * diferencia < mejores.peor()) {
+                buscar(punto, desde, mitad, siguiente, mejores);
+            }
+        }
+    }
+
+    private double distancia2(double[] punto, int indice) {
+        int base = indice * DIMENSIONES;
+        double dx = punto[0] - puntos[base];
+        double dy = punto[1] - puntos[base + 1];
+        double dz = punto[2] - puntos[base + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double[] vector(double latitud, double longitud) {
+        double lat = Math.toRadians(latitud);
+        double lon = Math.toRadians(longitud);
+        return new double[] {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static final class Nodo {
+        private final CentroSalud centro;
+        private final double[] punto;
+
+        private Nodo(CentroSalud centro, double[] punto) {
+            this.centro = centro;
+            this.punto = punto;
+        }
+    }
+
+    /**
+     * Los {@code k} mejores candidatos vistos, ordenados por distancia
+     * (inserción directa: {@code k} es pequeño).
+     */
+    private static final class Candidatos {
+        private final int[] indices;
+        private final double[] distancias;
+        private int total;
+
+        private Candidatos(int k) {
+            this.indices = new int[k];
+            this.distancias = new double[k];
+        }
+
+        private double peor() {
+            return total < indices.length ? Double.POSITIVE_INFINITY : distancias[total - 1];
+        }
+
+        private void ofrecer(int indice, double distancia) {
+            if (distancia >= peor()) {
+                return;
+            }
+            int i = total < indices.length ? total++ : total - 1;
+            while (i > 0 && distancias[i - 1] > distancia) {
+                indices[i] = indices[i - 1];
+                distancias[i] = distancias[i - 1];
+                i--;
+            }
+            indices[i] = indice;
+            distancias[i] = distancia;
+        }
+    }
+}
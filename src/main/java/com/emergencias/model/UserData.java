@@ -1,5 +1,6 @@
 package com.emergencias.model;
 
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -32,7 +33,7 @@ public class UserData {
      * @param fullName         Nombre completo del usuario.
      * @param phoneNumber      Número de teléfono principal.
      * @param medicalInfo      Información médica relevante (alergias, tipo de sangre, etc.).
-     * @param emergencyContact Nombre y teléfono del contacto de emergencia.
+     * @param emergencyContact Nombre y teléfono de los contactos de emergencia (separados por ';').
      */
     public UserData(String fullName, String phoneNumber, String medicalInfo, String emergencyContact) {
         this.fullName = fullName;
@@ -52,6 +53,13 @@ public class UserData {
     public String getEmergencyContact() { return emergencyContact; }
     public void setEmergencyContact(String emergencyContact) { this.emergencyContact = emergencyContact; }
 
+    /**
+     * @return Los contactos de emergencia, separados a partir del texto introducido.
+     */
+    public List<EmergencyContact> getEmergencyContacts() {
+        return EmergencyContact.parseAll(emergencyContact);
+    }
+
     /**
      * Recopila y valida los datos del usuario interactivamente a través de la consola.
      * <p>
@@ -87,8 +95,9 @@ public class UserData {
             this.medicalInfo = "No especificada";
         }
         
-        // 4. Obtener contacto de emergencia (obligatorio)
-        this.emergencyContact = promptForNonEmptyInput("Ingrese nombre y teléfono de contacto de emergencia: ", scanner);
+        // 4. Obtener contactos de emergencia (obligatorio, uno o varios)
+        this.emergencyContact = promptForNonEmptyInput(
+            "Ingrese nombre y teléfono de sus contactos de emergencia (separe varios con ';'): ", scanner);
         
         System.out.println("\n✅ ¡Gracias! Sus datos han sido registrados correctamente.");
         System.out.println("==========================================\n");
@@ -0,0 +1,426 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1>Escritor Asíncrono de Logs de Texto</h1>
+ *
+ * <p>
+ * Desacopla a quien escribe en un log (por ejemplo, {@code AlertSender} y
+ * {@code CallAlert}) de la escritura en disco. Los llamantes solo copian
+ * los bytes del mensaje en un hueco de un buffer circular acotado, sin
+ * cerrojos; un único hilo escritor por archivo lo vacía y escribe de una vez
+ * todos los mensajes acumulados en el {@link SegmentedTextLog} del archivo,
+ * que mantiene su canal abierto y se encarga de la rotación.
+ * </p>
+ *
+ * <p>
+ * Cada hueco conserva su array de bytes y el escritor reutiliza el suyo para
+ * el lote, así que, pasados los primeros mensajes, escribir en el log no
+ * reserva memoria si el llamante entrega los bytes ya codificados
+ * ({@link #append(ByteBuffer, int)}).
+ * </p>
+ *
+ * <p>
+ * Cada mensaje se escribe completo y seguido, por lo que los mensajes de
+ * distintos hilos nunca se entremezclan. Qué ocurre cuando el buffer se llena
+ * lo decide la {@link OverflowPolicy}.
+ * </p>
+ *
+ * <p>
+ * Hay una única instancia por archivo ({@link #open(Path, RotationPolicy)}),
+ * que quien escribe conserva en un campo. Al terminar la JVM se vacían los
+ * mensajes pendientes de todas ellas; a partir de entonces, y en cualquier
+ * escritor cerrado, cada mensaje se escribe directamente en el archivo, sea
+ * cual sea la política de desbordamiento.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class AsyncFileAppender implements AutoCloseable {
+    // --- VALORES POR DEFECTO ---
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final OverflowPolicy DEFAULT_OVERFLOW = OverflowPolicy.spill();
+    // Máximo de mensajes que se escriben en una sola llamada.
+    private static final int MAX_BATCH = 1024;
+    private static final int BATCH_BYTES = 64 * 1024;
+    // Tamaño mínimo del array de un hueco; los mayores que el máximo no se conservan.
+    private static final int MIN_SLOT_BYTES = 256;
+    private static final int MAX_RETAINED_SLOT_BYTES = 16 * 1024;
+    // Esperas del hilo escritor sin trabajo y de un llamante con el buffer lleno.
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final long FULL_PARK_NANOS = 50_000;
+
+    private static final Map<Path, AsyncFileAppender> OPEN_APPENDERS = new ConcurrentHashMap<>();
+    // Se activa al terminar la JVM: los escritores que se abran después nacen cerrados.
+    private static volatile boolean shuttingDown;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncFileAppender::closeAll, "appender-shutdown"));
+    }
+
+    private final SegmentedTextLog log;
+    private final OverflowPolicy overflow;
+
+    // --- BUFFER CIRCULAR (varios productores, un consumidor) ---
+    private final int capacity;
+    private final int mask;
+    private final byte[][] slots; // Cada hueco conserva su array para el siguiente mensaje.
+    private final int[] lengths;
+    private final AtomicLongArray published; // Secuencia + 1 del mensaje de cada hueco.
+    private final AtomicLong tail = new AtomicLong(); // Siguiente secuencia a reservar.
+    private volatile long head; // Siguiente secuencia a escribir (solo la cambia el escritor).
+    private final Queue<byte[]> spilled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong spilledBytes = new AtomicLong(); // Bytes en la cola auxiliar.
+    private ByteBuffer batch = ByteBuffer.allocate(BATCH_BYTES); // Solo lo usa el hilo escritor.
+
+    private final Thread writerThread;
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+
+    // --- ESTADÍSTICAS ---
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private AsyncFileAppender(SegmentedTextLog log, int capacity, OverflowPolicy overflow) {
+        this.log = log;
+        this.overflow = overflow;
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1; // Potencia de dos.
+        this.mask = this.capacity - 1;
+        this.slots = new byte[this.capacity][];
+        this.lengths = new int[this.capacity];
+        this.published = new AtomicLongArray(this.capacity);
+        this.writerThread = new Thread(this::runLoop, "appender-" + log.getPath().getFileName());
+        this.writerThread.setDaemon(true);
+    }
+
+    /**
+     * Devuelve el escritor compartido del archivo indicado, con la capacidad
+     * y la política de desbordamiento por defecto.
+     *
+     * @param path     Ruta del archivo activo.
+     * @param rotation Política de rotación del log.
+     * @return El escritor de ese archivo.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public static AsyncFileAppender open(Path path, RotationPolicy rotation) throws IOException {
+        return open(path, rotation, DEFAULT_CAPACITY, DEFAULT_OVERFLOW);
+    }
+
+    /**
+     * Devuelve el escritor compartido del archivo indicado, creándolo la
+     * primera vez con la configuración dada (después se ignora).
+     *
+     * @param path     Ruta del archivo activo.
+     * @param rotation Política de rotación del log.
+     * @param capacity Número de mensajes del buffer (se redondea a potencia de dos).
+     * @param overflow Qué hacer con el buffer lleno.
+     * @return El escritor de ese archivo.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public static AsyncFileAppender open(Path path, RotationPolicy rotation, int capacity,
+                                         OverflowPolicy overflow) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        AsyncFileAppender appender = OPEN_APPENDERS.get(key);
+        if (appender != null) {
+            return appender;
+        }
+        synchronized (OPEN_APPENDERS) {
+            if (shuttingDown) {
+                // Sin hilo escritor que vaciarlo: escribe cada mensaje directamente.
+                appender = new AsyncFileAppender(SegmentedTextLog.open(key, rotation), capacity, overflow);
+                appender.closed = true;
+                return appender;
+            }
+            appender = OPEN_APPENDERS.get(key);
+            if (appender == null) {
+                appender = new AsyncFileAppender(SegmentedTextLog.open(key, rotation), capacity, overflow);
+                appender.writerThread.start();
+                OPEN_APPENDERS.put(key, appender);
+            }
+            return appender;
+        }
+    }
+
+    /**
+     * Añade un mensaje que nunca se descarta.
+     *
+     * @param text El texto a añadir.
+     * @return {@code true} (el mensaje siempre se acepta).
+     */
+    public boolean append(String text) {
+        return append(text, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Añade un mensaje de texto al log (se codifica en UTF-8).
+     *
+     * @param text     El texto a añadir (se escribe tal cual).
+     * @param severity Gravedad del mensaje, usada por {@link OverflowPolicy#dropBelow(int)}.
+     * @return {@code false} si el mensaje se descartó por la política de desbordamiento.
+     */
+    public boolean append(String text, int severity) {
+        return append(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), severity);
+    }
+
+    /**
+     * Añade un mensaje ya codificado en UTF-8. Con espacio en el buffer solo
+     * cuesta reservar un hueco con CAS y copiar los bytes. Si el escritor
+     * está cerrado, el mensaje se escribe directamente.
+     *
+     * @param bytes    Los bytes del mensaje, desde su posición hasta su límite.
+     *                 Se copian antes de volver: el llamante puede reutilizarlos.
+     * @param severity Gravedad del mensaje, usada por {@link OverflowPolicy#dropBelow(int)}.
+     * @return {@code false} si el mensaje se descartó por la política de desbordamiento.
+     */
+    public boolean append(ByteBuffer bytes, int severity) {
+        if (closed) {
+            writeDirectly(bytes);
+            return true;
+        }
+        if (tryOffer(bytes)) {
+            return true;
+        }
+        if (overflow.getMode() == OverflowPolicy.Mode.SPILL && reserveSpill(bytes.remaining())) {
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.get(bytes.position(), copy);
+            spilled.add(copy);
+            spilledCount.increment();
+            // Si se cerró mientras tanto, el hilo escritor puede haber terminado ya.
+            if (closed && spilled.remove(copy)) {
+                spilledBytes.addAndGet(-copy.length);
+                writeDirectly(ByteBuffer.wrap(copy));
+            } else {
+                wakeWriter();
+            }
+            return true;
+        }
+        if (overflow.getMode() == OverflowPolicy.Mode.DROP_LOW_SEVERITY && severity < overflow.getMinSeverity()) {
+            dropped.increment();
+            return false;
+        }
+        while (!tryOffer(bytes)) {
+            if (closed) {
+                writeDirectly(bytes);
+                return true;
+            }
+            wakeWriter();
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Reserva sitio en la cola auxiliar. Si está llena, el mensaje sigue el
+     * camino de {@code block()}.
+     */
+    private boolean reserveSpill(int length) {
+        if (spilledBytes.addAndGet(length) <= overflow.getMaxSpillBytes()) {
+            return true;
+        }
+        spilledBytes.addAndGet(-length);
+        return false;
+    }
+
+    /**
+     * Espera a que se escriban todos los mensajes aceptados hasta ahora.
+     */
+    public void flush() {
+        long target = tail.get();
+        while (head < target || !spilled.isEmpty()) {
+            if (!writerThread.isAlive()) {
+                return;
+            }
+            wakeWriter();
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Deja de aceptar mensajes en el buffer, escribe los pendientes y
+     * detiene el hilo escritor. El log subyacente sigue abierto.
+     */
+    @Override
+    public void close() {
+        OPEN_APPENDERS.remove(log.getPath());
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getWritten() { return written.sum(); }
+    public long getDropped() { return dropped.sum(); }
+    public long getSpilled() { return spilledCount.sum(); }
+    public long getBatches() { return batches.sum(); }
+    public int getCapacity() { return capacity; }
+
+    private static void closeAll() {
+        synchronized (OPEN_APPENDERS) {
+            shuttingDown = true;
+        }
+        for (AsyncFileAppender appender : new ArrayList<>(OPEN_APPENDERS.values())) {
+            appender.close();
+        }
+    }
+
+    // --- BUFFER CIRCULAR ---
+
+    /**
+     * Reserva el siguiente hueco con CAS, copia el mensaje en su array y lo
+     * publica. No cambia la posición de {@code bytes}.
+     *
+     * @return {@code false} si el buffer está lleno o cerrado.
+     */
+    private boolean tryOffer(ByteBuffer bytes) {
+        while (!closed) {
+            long sequence = tail.get();
+            if (sequence - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                int slot = (int) (sequence & mask);
+                int length = bytes.remaining();
+                byte[] target = slots[slot];
+                if (target == null || target.length < length) {
+                    target = new byte[Math.max(length, MIN_SLOT_BYTES)];
+                    slots[slot] = target;
+                }
+                bytes.get(bytes.position(), target, 0, length);
+                lengths[slot] = length;
+                published.set(slot, sequence + 1); // Escritura volátil: publica los bytes.
+                wakeWriter();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) (sequence & mask)) == sequence + 1;
+    }
+
+    private void wakeWriter() {
+        if (writerIdle) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    // --- HILO ESCRITOR ---
+
+    private void runLoop() {
+        while (true) {
+            int count = drain();
+            if (count > 0) {
+                write(count);
+                continue;
+            }
+            // Cerrado y sin mensajes reservados pendientes de publicar: fin.
+            if (closed && tail.get() == head && spilled.isEmpty()) {
+                return;
+            }
+            writerIdle = true;
+            if (!isPublished(head) && spilled.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerIdle = false;
+        }
+    }
+
+    /**
+     * Copia al lote los mensajes publicados del buffer (en orden) y, después,
+     * los desbordados, hasta llenarlo.
+     *
+     * @return El número de mensajes del lote.
+     */
+    private int drain() {
+        long next = head;
+        int count = 0;
+        while (count < MAX_BATCH && isPublished(next)) {
+            int slot = (int) (next & mask);
+            if (!fits(lengths[slot], count)) {
+                break;
+            }
+            batch.put(slots[slot], 0, lengths[slot]);
+            if (slots[slot].length > MAX_RETAINED_SLOT_BYTES) {
+                slots[slot] = null;
+            }
+            next++;
+            count++;
+        }
+        head = next; // Escritura volátil: libera los huecos para los productores.
+
+        // Los desbordados ya no tienen hueco que esperar: si no caben, el lote crece.
+        byte[] bytes;
+        while (count < MAX_BATCH && (bytes = spilled.poll()) != null) {
+            spilledBytes.addAndGet(-bytes.length);
+            if (batch.remaining() < bytes.length) {
+                growBatch(bytes.length);
+            }
+            batch.put(bytes);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Comprueba si caben más bytes en el lote. Un mensaje mayor que el lote
+     * vacío lo hace crecer.
+     */
+    private boolean fits(int length, int count) {
+        if (batch.remaining() >= length) {
+            return true;
+        }
+        if (count > 0) {
+            return false;
+        }
+        growBatch(length);
+        return true;
+    }
+
+    private void growBatch(int length) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(batch.position() + length, batch.capacity() * 2));
+        batch = larger.put(batch.flip());
+    }
+
+    private void write(int count) {
+        try {
+            log.append(batch.flip());
+            written.add(count);
+            batches.increment();
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudieron escribir " + count + " mensajes en "
+                + log.getPath() + ": " + e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void writeDirectly(ByteBuffer bytes) {
+        try {
+            log.append(bytes);
+            written.increment();
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo escribir en " + log.getPath() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * <h1>Utilidades del Formato Binario</h1>
+ *
+ * <p>
+ * Escritor y lector de los primitivos que usan los codificadores binarios:
+ * enteros de longitud variable (varint, 7 bits por byte), enteros con signo
+ * en zigzag, cadenas UTF-8 con longitud y UUID en 16 bytes.
+ * </p>
+ *
+ * <p>
+ * Las cadenas admiten {@code null}: se escribe la longitud más uno y el
+ * valor {@code 0} indica nulo.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class BinaryRecords {
+
+    private BinaryRecords() {}
+
+    /**
+     * Escritor sobre un buffer que crece según se necesita.
+     */
+    static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        Writer writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+            return this;
+        }
+
+        Writer writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+            return this;
+        }
+
+        Writer writeZigZag(long value) {
+            return writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        Writer writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+            return this;
+        }
+
+        Writer writeUuid(UUID uuid) {
+            return writeLong(uuid.getMostSignificantBits()).writeLong(uuid.getLeastSignificantBits());
+        }
+
+        Writer writeString(String value) {
+            if (value == null) {
+                return writeVarLong(0);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Lector sobre una porción de un array de bytes.
+     */
+    static final class Reader {
+        private final byte[] data;
+        private final int end;
+        private int position;
+
+        Reader(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        int readByte() throws IOException {
+            if (position >= end) {
+                throw new IOException("Registro binario truncado.");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Entero de longitud variable no válido.");
+        }
+
+        int readVarInt() throws IOException {
+            long value = readVarLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Entero fuera de rango: " + value);
+            }
+            return (int) value;
+        }
+
+        long readZigZag() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        int remaining() {
+            return end - position;
+        }
+
+        UUID readUuid() throws IOException {
+            return new UUID(readLong(), readLong());
+        }
+
+        String readString() throws IOException {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            if (length > end - position) {
+                throw new IOException("Registro binario truncado.");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+
+    /**
+     * Intenta interpretar un texto como UUID canónico (36 caracteres).
+     *
+     * @return El UUID, o {@code null} si el texto no lo es (o no se reproduce igual).
+     */
+    static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null; // Solo si se reconstruye idéntico.
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.emergencias.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <h1>Archivo Comprimido por Bloques</h1>
+ *
+ * <p>
+ * Formato de archivo para segmentos sellados: los registros se agrupan en
+ * bloques de unos {@value #DEFAULT_BLOCK_SIZE} bytes que se comprimen de
+ * forma independiente con {@link Deflater}. Ningún registro se parte entre
+ * dos bloques, así que cualquier bloque se puede descomprimir por separado
+ * (acceso aleatorio) sin leer los anteriores.
+ * </p>
+ *
+ * <p>
+ * Estructura:
+ * <pre>
+ * [magic]
+ * [longitud original][longitud comprimida][datos]   (por cada bloque)
+ * [número de bloques][desplazamiento, primer registro, longitud original] (índice)
+ * [desplazamiento del índice][magic]
+ * </pre>
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class BlockCompressedFile {
+    static final int MAGIC = 0x454D5A31; // "EMZ1"
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final int TRAILER_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 20;
+    private static final int BLOCK_HEADER_SIZE = 8;
+    // Un flujo deflate no puede expandirse más de 1032:1.
+    private static final long MAX_DEFLATE_RATIO = 1032;
+
+    private BlockCompressedFile() {}
+
+    /**
+     * Fuente de registros a comprimir.
+     */
+    @FunctionalInterface
+    public interface RecordSource {
+        /**
+         * @return El siguiente registro, o {@code null} si no quedan más.
+         */
+        byte[] next() throws IOException;
+    }
+
+    /**
+     * Escribe los registros de la fuente en un archivo comprimido por bloques.
+     *
+     * @param target    Archivo de destino (se sobrescribe).
+     * @param source    Registros a escribir, en orden.
+     * @param blockSize Tamaño orientativo de cada bloque antes de comprimir.
+     * @return El tamaño del archivo resultante.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public static long write(Path target, RecordSource source, int blockSize) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize);
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        byte[] compressed = new byte[blockSize + 1024];
+        long offset = 4;
+        long recordNumber = 0;
+        long blockFirstRecord = 0;
+        int blocks = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            out.writeInt(MAGIC);
+            byte[] record;
+            while (true) {
+                record = source.next();
+                boolean flush = block.size() > 0
+                    && (record == null || block.size() + record.length > blockSize);
+                if (flush) {
+                    byte[] raw = block.toByteArray();
+                    deflater.reset();
+                    deflater.setInput(raw);
+                    deflater.finish();
+                    ByteArrayOutputStream data = new ByteArrayOutputStream(raw.length / 2);
+                    while (!deflater.finished()) {
+                        data.write(compressed, 0, deflater.deflate(compressed));
+                    }
+                    out.writeInt(raw.length);
+                    out.writeInt(data.size());
+                    data.writeTo(out);
+
+                    indexOut.writeLong(offset);
+                    indexOut.writeLong(blockFirstRecord);
+                    indexOut.writeInt(raw.length);
+                    offset += 8 + data.size();
+                    blocks++;
+                    block.reset();
+                    blockFirstRecord = recordNumber;
+                }
+                if (record == null) {
+                    break;
+                }
+                block.write(record);
+                recordNumber++;
+            }
+            out.writeInt(blocks);
+            index.writeTo(out);
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+        }
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.force(true);
+            return channel.size();
+        }
+    }
+
+    /**
+     * Lector de un archivo comprimido por bloques.
+     */
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final long[] offsets;
+        private final long[] firstRecords;
+
+        /**
+         * Abre el archivo y carga su índice de bloques.
+         *
+         * @param file El archivo comprimido.
+         * @throws IOException si el archivo no tiene el formato esperado.
+         */
+        public Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            ByteBuffer trailer = readFully(channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                channel.close();
+                throw new IOException("El archivo " + file + " no es un segmento comprimido válido.");
+            }
+            int blocks = indexOffset < 4 || indexOffset + 4 > channel.size() - TRAILER_SIZE
+                ? -1 : readFully(indexOffset, 4).getInt();
+            if (blocks < 0 || indexOffset + 4 + (long) blocks * INDEX_ENTRY_SIZE != channel.size() - TRAILER_SIZE) {
+                channel.close();
+                throw new IOException("El índice del segmento comprimido " + file + " está dañado.");
+            }
+            ByteBuffer index = readFully(indexOffset + 4, blocks * INDEX_ENTRY_SIZE);
+            this.offsets = new long[blocks];
+            this.firstRecords = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = index.getLong();
+                firstRecords[i] = index.getLong();
+                index.getInt(); // Longitud original (ya incluida en la cabecera del bloque).
+            }
+        }
+
+        public int blockCount() { return offsets.length; }
+        public long firstRecord(int block) { return firstRecords[block]; }
+
+        /**
+         * Devuelve el bloque que contiene el registro número {@code recordNumber}.
+         */
+        public int blockForRecord(long recordNumber) {
+            int low = 0;
+            int high = offsets.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (firstRecords[mid] <= recordNumber) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Descomprime un bloque completo.
+         *
+         * @param block Número de bloque.
+         * @return Los bytes originales del bloque.
+         * @throws IOException si ocurre un error de lectura o los datos están dañados.
+         */
+        public byte[] readBlock(int block) throws IOException {
+            if (offsets[block] < 4) {
+                throw new IOException("Bloque comprimido dañado: " + block);
+            }
+            ByteBuffer header = readFully(offsets[block], BLOCK_HEADER_SIZE);
+            int rawLength = header.getInt();
+            int compressedLength = header.getInt();
+            // Se comprueba la cabecera antes de reservar memoria con sus longitudes.
+            if (compressedLength < 0 || compressedLength > channel.size() - offsets[block] - BLOCK_HEADER_SIZE
+                    || rawLength < 0 || rawLength > compressedLength * MAX_DEFLATE_RATIO) {
+                throw new IOException("Bloque comprimido dañado: " + block);
+            }
+            ByteBuffer data = readFully(offsets[block] + BLOCK_HEADER_SIZE, compressedLength);
+
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data.array(), 0, compressedLength);
+                byte[] raw = new byte[rawLength];
+                int produced = 0;
+                while (produced < rawLength && !inflater.finished()) {
+                    int inflated = inflater.inflate(raw, produced, rawLength - produced);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Bloque comprimido dañado: " + block); // Truncado: no avanzaría nunca.
+                    }
+                    produced += inflated;
+                }
+                if (produced < rawLength) {
+                    throw new IOException("Bloque comprimido dañado: " + block);
+                }
+                return raw;
+            } catch (DataFormatException e) {
+                throw new IOException("Bloque comprimido dañado: " + block, e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Abre un flujo que descomprime los bloques uno a uno, a medida que se leen.
+         *
+         * @param fromBlock Primer bloque a leer.
+         * @return El flujo con el contenido original a partir de ese bloque.
+         */
+        public InputStream openStream(int fromBlock) {
+            return new InputStream() {
+                private int next = fromBlock;
+                private ByteArrayInputStream current = new ByteArrayInputStream(new byte[0]);
+
+                @Override
+                public int read() throws IOException {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    while (current.available() == 0) {
+                        if (next >= offsets.length) {
+                            return -1;
+                        }
+                        current = new ByteArrayInputStream(readBlock(next++));
+                    }
+                    return current.read(buffer, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    Reader.this.close();
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private ByteBuffer readFully(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Fin de archivo inesperado en el segmento comprimido.");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
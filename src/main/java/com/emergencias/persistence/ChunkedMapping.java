@@ -0,0 +1,104 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Archivo Mapeado por Trozos</h1>
+ *
+ * <p>
+ * Mapea en memoria un archivo de cualquier tamaño como una serie de trozos
+ * de {@value #CHUNK_BYTES} bytes, con desplazamientos {@code long}: un único
+ * {@link MappedByteBuffer} no puede pasar de 2 GB. El tamaño de los trozos es
+ * múltiplo de las entradas de los índices (16 y 24 bytes), así que ninguna
+ * queda partida entre dos.
+ * </p>
+ *
+ * <p>
+ * Solo el último trozo puede ser más corto; al crecer el archivo se vuelve
+ * a mapear. No es segura para hilos: la usa {@link HistoryIndex} bajo el
+ * cerrojo de {@link EmergencyHistory}.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class ChunkedMapping implements AutoCloseable {
+    static final long CHUNK_BYTES = 48L << 20;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long size;
+
+    private ChunkedMapping(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Abre (o crea) el archivo y mapea al menos {@code size} bytes.
+     *
+     * @param file Ruta del archivo.
+     * @param size Tamaño mínimo en bytes.
+     * @return El archivo mapeado.
+     * @throws IOException si no se puede abrir o mapear.
+     */
+    static ChunkedMapping open(Path file, long size) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ChunkedMapping mapping = new ChunkedMapping(channel);
+        try {
+            mapping.ensureSize(size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return mapping;
+    }
+
+    /** @return Los bytes mapeados. */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Amplía el mapeo (y el archivo) hasta al menos {@code bytes} bytes.
+     */
+    void ensureSize(long bytes) throws IOException {
+        if (bytes <= size) {
+            return;
+        }
+        int last = chunks.size() - 1;
+        if (last >= 0 && chunks.get(last).capacity() < CHUNK_BYTES) {
+            chunks.remove(last); // El último trozo estaba incompleto: se vuelve a mapear.
+        }
+        for (long start = chunks.size() * CHUNK_BYTES; start < bytes; start += CHUNK_BYTES) {
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(CHUNK_BYTES, bytes - start)));
+        }
+        size = bytes;
+    }
+
+    long getLong(long offset) {
+        return chunks.get((int) (offset / CHUNK_BYTES)).getLong((int) (offset % CHUNK_BYTES));
+    }
+
+    void putLong(long offset, long value) {
+        chunks.get((int) (offset / CHUNK_BYTES)).putLong((int) (offset % CHUNK_BYTES), value);
+    }
+
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.emergencias.persistence;
+
+/**
+ * <h1>Política de Durabilidad para Escrituras Agrupadas</h1>
+ *
+ * <p>
+ * Define cuándo el {@link GroupCommitWriter} fuerza los datos a disco
+ * ({@code FileChannel.force}) y, por tanto, cuándo se confirma a los
+ * llamantes que su registro es durable.
+ * </p>
+ *
+ * <ul>
+ *     <li><b>{@link #everyRecord()}:</b> cada registro es durable antes de confirmarse.
+ *         Los registros que llegan a la vez comparten un único {@code force()}.</li>
+ *     <li><b>{@link #everyMillis(long)}:</b> se fuerza a disco como mucho cada N milisegundos.</li>
+ *     <li><b>{@link #everyRecords(int)}:</b> se fuerza a disco cada N registros, o tras un
+ *         segundo sin actividad para no dejar registros pendientes indefinidamente.</li>
+ * </ul>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class DurabilityPolicy {
+
+    /**
+     * Modos de sincronización disponibles.
+     */
+    public enum Mode { EVERY_RECORD, INTERVAL, RECORD_COUNT }
+
+    // Tiempo máximo que un registro puede esperar su force() en modo RECORD_COUNT.
+    static final long IDLE_FORCE_MILLIS = 1000;
+
+    private final Mode mode;
+    private final long value;
+
+    private DurabilityPolicy(Mode mode, long value) {
+        this.mode = mode;
+        this.value = value;
+    }
+
+    /**
+     * Fuerza a disco tras cada escritura agrupada (máxima seguridad).
+     *
+     * @return La política correspondiente.
+     */
+    public static DurabilityPolicy everyRecord() {
+        return new DurabilityPolicy(Mode.EVERY_RECORD, 0);
+    }
+
+    /**
+     * Fuerza a disco como mucho cada {@code millis} milisegundos.
+     *
+     * @param millis Intervalo entre sincronizaciones (debe ser positivo).
+     * @return La política correspondiente.
+     */
+    public static DurabilityPolicy everyMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("El intervalo de sincronización debe ser positivo.");
+        }
+        return new DurabilityPolicy(Mode.INTERVAL, millis);
+    }
+
+    /**
+     * Fuerza a disco cada {@code records} registros escritos.
+     *
+     * @param records Número de registros entre sincronizaciones (debe ser positivo).
+     * @return La política correspondiente.
+     */
+    public static DurabilityPolicy everyRecords(int records) {
+        if (records <= 0) {
+            throw new IllegalArgumentException("El número de registros debe ser positivo.");
+        }
+        return new DurabilityPolicy(Mode.RECORD_COUNT, records);
+    }
+
+    public Mode getMode() { return mode; }
+    public long getValue() { return value; }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case INTERVAL: return "Sincronización cada " + value + " ms";
+            case RECORD_COUNT: return "Sincronización cada " + value + " registros";
+            default: return "Sincronización en cada registro";
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.emergencias.persistence;
+
+import com.emergencias.model.EmergencyEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <h1>Historial de Emergencias Consultable</h1>
+ *
+ * <p>
+ * Reúne el {@link MappedEventStore} binario y sus índices secundarios
+ * ({@link HistoryIndex}) detrás de una única fachada. Cada evento añadido se
+ * escribe en el almacén y se indexa en la misma operación, de modo que las
+ * consultas ven siempre el historial completo.
+ * </p>
+ *
+ * <p>
+ * Ejemplo: "todos los incendios en Murcia en la última hora":
+ * <pre>
+ * history.query()
+ *        .type("Incendio")
+ *        .location("Murcia")
+ *        .between(LocalDateTime.now().minusHours(1), LocalDateTime.now())
+ *        .list();
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * Las escrituras toman un cerrojo exclusivo breve; las consultas comparten un
+ * cerrojo de lectura y pueden ejecutarse en paralelo.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class EmergencyHistory implements AutoCloseable {
+    private final MappedEventStore store;
+    private final HistoryIndex index;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Abre (o crea) el historial en el directorio indicado. Los índices se
+     * guardan en el subdirectorio {@code index} y se ponen al día si es necesario.
+     *
+     * @param directory Directorio del almacén.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    public EmergencyHistory(Path directory) throws IOException {
+        this.store = new MappedEventStore(directory);
+        this.index = new HistoryIndex(directory.resolve("index"));
+        this.index.catchUp(store);
+    }
+
+    /**
+     * Añade un evento al almacén y a todos los índices.
+     *
+     * @param event El evento (con ID asignado).
+     * @return El número de registro asignado.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public long append(EmergencyEvent event) throws IOException {
+        lock.writeLock().lock();
+        try {
+            long recordNumber = store.append(event);
+            IOException[] failure = new IOException[1];
+            store.visit(recordNumber, record -> {
+                try {
+                    index.add(record);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+                return true;
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return recordNumber;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca un evento por su ID usando el índice hash.
+     *
+     * @param id El ID de la emergencia.
+     * @return El evento, o vacío si no existe o el ID no tiene formato válido.
+     */
+    public Optional<EmergencyEvent> findById(String id) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long recordNumber = index.findById(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return recordNumber < 0 ? Optional.empty() : Optional.of(store.get(recordNumber));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inicia una consulta sobre el historial.
+     *
+     * @return Una nueva consulta sin filtros.
+     */
+    public HistoryQuery query() {
+        return new HistoryQuery(this);
+    }
+
+    /**
+     * @return El número de eventos del historial.
+     */
+    public long size() {
+        return store.size();
+    }
+
+    public MappedEventStore getStore() { return store; }
+
+    // --- ACCESO PARA HistoryQuery ---
+
+    HistoryIndex index() { return index; }
+    ReentrantReadWriteLock lock() { return lock; }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            index.close();
+            store.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
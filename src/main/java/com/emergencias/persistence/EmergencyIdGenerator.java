@@ -0,0 +1,153 @@
+package com.emergencias.persistence;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>Generador de IDs de Emergencia Ordenados por Tiempo</h1>
+ *
+ * <p>
+ * Sustituye a {@link UUID#randomUUID()}, que pasa por {@link SecureRandom}
+ * (con contención entre hilos) y produce claves aleatorias que dispersan las
+ * escrituras en los índices. Los IDs generados son UUID de la versión 7, por
+ * lo que su forma de texto sigue siendo un UUID canónico compatible con el
+ * campo {@code id} y con los almacenes existentes.
+ * </p>
+ *
+ * <p>
+ * Estructura de los 128 bits:
+ * <pre>
+ * [milisegundos Unix: 48][versión 7: 4][secuencia: 12]
+ * [variante: 2][nodo: 16][aleatorio: 46]
+ * </pre>
+ * El reloj y la secuencia se guardan juntos en un único {@link AtomicLong}
+ * que se avanza con CAS, de modo que los IDs de un mismo generador son
+ * estrictamente crecientes y nunca se bloquea: si se agotan las 4096
+ * secuencias de un milisegundo, o si el reloj del sistema retrocede, el
+ * generador sigue avanzando sobre el milisegundo siguiente.
+ * </p>
+ *
+ * <p>
+ * Como el texto de un UUID tiene longitud fija y la marca de tiempo va al
+ * principio, los IDs ordenados como cadenas quedan ordenados por fecha y
+ * pueden usarse como claves de búsqueda por rango
+ * ({@link #firstIdAt(long)}, {@link #lastIdAt(long)}).
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class EmergencyIdGenerator {
+    // Propiedad del sistema para fijar el nodo (útil con varias instancias).
+    public static final String NODE_PROPERTY = "emergencias.nodeId";
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VERSION_BITS = 0x7000L;
+    private static final long VARIANT_BITS = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = (1L << 46) - 1;
+
+    private final long nodeBits;
+    // Milisegundo y secuencia del último ID: (millis << 12) | secuencia.
+    private final AtomicLong lastClock = new AtomicLong();
+
+    /**
+     * Crea un generador con el nodo de la propiedad {@value #NODE_PROPERTY}
+     * o, si no está definida o no es un número entre 0 y 65535, con un nodo
+     * aleatorio.
+     */
+    public EmergencyIdGenerator() {
+        this(defaultNode());
+    }
+
+    /**
+     * @param nodeId Identificador del nodo (0 a 65535).
+     * @throws IllegalArgumentException si el nodo está fuera de rango.
+     */
+    public EmergencyIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > 0xFFFF) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y 65535: " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << 46;
+    }
+
+    /**
+     * Genera un nuevo ID, mayor que todos los anteriores de este generador.
+     *
+     * @return El ID como UUID.
+     */
+    public UUID nextUuid() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = lastClock.get();
+            // Milisegundo nuevo: secuencia 0. Mismo milisegundo (o reloj atrasado): siguiente secuencia.
+            next = now > previous ? now : previous + 1;
+        } while (!lastClock.compareAndSet(previous, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        long msb = (millis << 16) | VERSION_BITS | sequence;
+        long lsb = VARIANT_BITS | nodeBits | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Genera un nuevo ID en su forma de texto.
+     *
+     * @return El ID como UUID canónico.
+     */
+    public String nextId() {
+        return nextUuid().toString();
+    }
+
+    /**
+     * Devuelve el milisegundo en el que se generó un ID.
+     *
+     * @param id El ID en forma de texto.
+     * @return Los milisegundos Unix del ID, o {@code -1} si no es un ID de este generador.
+     */
+    public static long timestampOf(String id) {
+        UUID uuid = BinaryRecords.parseUuid(id);
+        if (uuid == null || uuid.version() != 7) {
+            return -1;
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * @param epochMillis Milisegundos Unix.
+     * @return El menor ID posible de ese milisegundo, como cota inferior de un rango.
+     */
+    public static String firstIdAt(long epochMillis) {
+        return new UUID((epochMillis << 16) | VERSION_BITS, VARIANT_BITS).toString();
+    }
+
+    /**
+     * @param epochMillis Milisegundos Unix.
+     * @return El mayor ID posible de ese milisegundo, como cota superior de un rango.
+     */
+    public static String lastIdAt(long epochMillis) {
+        return new UUID((epochMillis << 16) | VERSION_BITS | 0xFFF, 0xBFFF_FFFF_FFFF_FFFFL).toString();
+    }
+
+    private static int defaultNode() {
+        String configured = System.getProperty(NODE_PROPERTY);
+        if (configured != null) {
+            try {
+                int node = Integer.parseInt(configured.trim());
+                if (node >= 0 && node <= 0xFFFF) {
+                    return node;
+                }
+            } catch (NumberFormatException e) {
+                // Se avisa igual que si está fuera de rango.
+            }
+            System.err.println("⚠️  Advertencia: Nodo no válido en " + NODE_PROPERTY + ": " + configured
+                + " (debe estar entre 0 y 65535); se usa uno aleatorio.");
+        }
+        return new SecureRandom().nextInt(0x10000); // Una sola vez por generador.
+    }
+}
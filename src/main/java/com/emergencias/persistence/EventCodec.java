@@ -0,0 +1,132 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+
+/**
+ * <h1>Codificador de Registros</h1>
+ *
+ * <p>
+ * Convierte los registros de un diario ({@link EventJournal}) en bytes y
+ * viceversa. Cada diario elige su codificador al crearse y guarda su
+ * identificador en la cabecera, de modo que siempre se puede leer con el
+ * codificador correcto.
+ * </p>
+ *
+ * <p>
+ * Implementaciones disponibles:
+ * <ul>
+ *     <li>{@link JsonEventCodec}: JSON compacto, para intercambio y compatibilidad.</li>
+ *     <li>{@link EmergencyEventCodec} y {@link UserFeedbackCodec}: formato binario
+ *     compacto, mucho más rápido y pequeño.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Las implementaciones deben ser seguras entre hilos: varios hilos pueden
+ * codificar registros a la vez.
+ * </p>
+ *
+ * @param <T> El tipo de registro.
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public interface EventCodec<T> extends AutoCloseable {
+
+    /**
+     * Formatos de almacenamiento que se pueden elegir para cada diario.
+     */
+    enum Format { JSON, BINARY }
+
+    // --- IDENTIFICADORES GUARDADOS EN LA CABECERA DEL DIARIO ---
+    int JSON_ID = 1;
+    int EMERGENCY_BINARY_ID = 2;
+    int FEEDBACK_BINARY_ID = 3;
+
+    /**
+     * @return El identificador del formato, guardado en la cabecera del diario.
+     */
+    int id();
+
+    /**
+     * Codifica un registro.
+     *
+     * @param record El registro.
+     * @return Los bytes del registro.
+     * @throws IOException si el registro no se puede codificar.
+     */
+    byte[] encode(T record) throws IOException;
+
+    /**
+     * Decodifica un registro.
+     *
+     * @param data   Buffer con el registro.
+     * @param offset Posición del registro dentro del buffer.
+     * @param length Longitud del registro.
+     * @return El registro decodificado.
+     * @throws IOException si los bytes no forman un registro válido.
+     */
+    T decode(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * Devuelve el codificador capaz de leer los registros con el identificador
+     * indicado.
+     *
+     * @param codecId Identificador guardado en la cabecera de un diario.
+     * @return Este codificador si el identificador es el suyo, o {@code null}.
+     */
+    default EventCodec<T> forId(int codecId) {
+        return codecId == id() ? this : null;
+    }
+
+    /**
+     * Libera los recursos del codificador (por ejemplo, su diccionario).
+     */
+    @Override
+    default void close() throws IOException {}
+
+    /**
+     * Combina dos codificadores: los registros nuevos se escriben con
+     * {@code primary}, pero los diarios escritos con {@code secondary} se
+     * siguen pudiendo leer. Sirve para volver de un formato a otro sin perder
+     * acceso a los segmentos ya archivados.
+     *
+     * @param primary   Codificador de escritura.
+     * @param secondary Codificador adicional de lectura.
+     * @param <T>       El tipo de registro.
+     * @return El codificador combinado; al cerrarlo se cierran los dos.
+     */
+    static <T> EventCodec<T> readingAlso(EventCodec<T> primary, EventCodec<T> secondary) {
+        return new EventCodec<>() {
+            @Override
+            public int id() {
+                return primary.id();
+            }
+
+            @Override
+            public byte[] encode(T record) throws IOException {
+                return primary.encode(record);
+            }
+
+            @Override
+            public T decode(byte[] data, int offset, int length) throws IOException {
+                return primary.decode(data, offset, length);
+            }
+
+            @Override
+            public EventCodec<T> forId(int codecId) {
+                EventCodec<T> codec = primary.forId(codecId);
+                return codec != null ? codec : secondary.forId(codecId);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    primary.close();
+                } finally {
+                    secondary.close();
+                }
+            }
+        };
+    }
+}
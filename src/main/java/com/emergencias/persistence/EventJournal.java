@@ -0,0 +1,700 @@
+package com.emergencias.persistence;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * <h1>Diario de Registros de Solo Anexado (Append-Only Journal)</h1>
+ *
+ * <p>
+ * Sustituye al antiguo esquema "leer todo el JSON, añadir un elemento y
+ * reescribir el archivo completo". Cada registro se serializa de forma
+ * independiente y se añade al final del archivo a través de un único
+ * {@link FileChannel} que permanece abierto, de modo que el coste de una
+ * escritura no depende del tamaño del historial.
+ * </p>
+ *
+ * <p>
+ * Las escrituras pasan por un {@link GroupCommitWriter}: los registros que
+ * llegan a la vez desde distintos hilos se escriben y sincronizan juntos,
+ * según la {@link DurabilityPolicy} elegida.
+ * </p>
+ *
+ * <p>
+ * Formato del archivo (versión 3):
+ * <ul>
+ *     <li><b>Cabecera (20 bytes):</b> número mágico {@code "EMJL"} (int), versión (int),
+ *     identificador aleatorio del diario (long) e identificador del
+ *     {@link EventCodec} de los registros (int).</li>
+ *     <li><b>Registros:</b> longitud del contenido (int), CRC32C de la longitud y el
+ *     contenido (int) y el objeto codificado.</li>
+ * </ul>
+ * Los diarios de versiones anteriores (siempre JSON) o escritos con otro
+ * codificador se convierten al abrirlos. Los segmentos ya archivados no se
+ * tocan: cada uno se lee con el codificador que indica su cabecera.
+ * </p>
+ *
+ * <p>
+ * Tras cada sincronización a disco se guarda un {@link JournalCheckpoint} con
+ * la posición durable, el número de registros y su rango de marcas de tiempo.
+ * Al abrir el diario solo se verifican los registros posteriores a ese punto, y
+ * se recorta el final si quedó incompleto o dañado por una caída, de modo que
+ * el tiempo de recuperación depende de lo que faltaba por sincronizar y no
+ * del tamaño del historial.
+ * </p>
+ *
+ * <p>
+ * El lector entiende también el formato antiguo (un único array JSON), de
+ * forma que el historial previo sigue siendo accesible sin migraciones.
+ * </p>
+ *
+ * @param <T> El tipo de registro almacenado (ej. {@code EmergencyEvent}).
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class EventJournal<T> implements AutoCloseable {
+    // --- FORMATO DEL ARCHIVO ---
+    static final int MAGIC = 0x454D4A4C; // "EMJL"
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 20;
+    static final int V2_HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 8;
+    static final int V1_HEADER_SIZE = 8;
+    static final int V1_FRAME_HEADER_SIZE = 4;
+    // Límite de cordura: una longitud mayor indica un registro dañado.
+    static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private final Path path;
+    private final Path legacyPath;
+    private final EventCodec<T> codec;
+    private final JsonEventCodec<T> jsonCodec;
+    private final JournalCheckpoint checkpoint;
+    private final ToLongFunction<T> timestampOf;
+    // Contenido hasta la posición durable: al abrir y, después, solo desde el hilo escritor.
+    private final JournalCheckpoint.Summary durable;
+    private final JournalCheckpoint.Summary opened;
+    private final long journalId;
+    private final FileChannel channel;
+    private final GroupCommitWriter commitWriter;
+    private final AtomicLong logicalSize;
+
+    /**
+     * Abre (o crea) un diario en la ruta indicada y recupera su final si la
+     * ejecución anterior terminó de forma abrupta.
+     *
+     * @param path       Ruta del archivo del diario.
+     * @param legacyPath Ruta del antiguo archivo con un array JSON (puede ser {@code null}).
+     * @param type       Clase de los registros almacenados.
+     * @param mapper     {@link ObjectMapper} configurado (módulos de fechas, etc.).
+     * @param policy     Política de durabilidad de las escrituras.
+     * @throws IOException si no se puede abrir el archivo o su cabecera no es válida.
+     */
+    public EventJournal(Path path, Path legacyPath, Class<T> type, ObjectMapper mapper,
+                        DurabilityPolicy policy) throws IOException {
+        this(path, legacyPath, type, mapper, new JsonEventCodec<>(type, mapper), policy);
+    }
+
+    /**
+     * Abre (o crea) un diario cuyos registros se codifican con el
+     * {@link EventCodec} indicado.
+     * <p>
+     * El codificador no se cierra con el diario: pertenece a quien lo crea y
+     * puede compartirse entre varios diarios del mismo almacén.
+     * </p>
+     *
+     * @param path       Ruta del archivo del diario.
+     * @param legacyPath Ruta del antiguo archivo con un array JSON (puede ser {@code null}).
+     * @param type       Clase de los registros almacenados.
+     * @param mapper     {@link ObjectMapper} para el archivo antiguo y los diarios JSON.
+     * @param codec      Codificador de los registros nuevos.
+     * @param policy     Política de durabilidad de las escrituras.
+     * @throws IOException si no se puede abrir el archivo o su cabecera no es válida.
+     */
+    public EventJournal(Path path, Path legacyPath, Class<T> type, ObjectMapper mapper,
+                        EventCodec<T> codec, DurabilityPolicy policy) throws IOException {
+        this(path, legacyPath, type, mapper, codec, policy, null);
+    }
+
+    /**
+     * Abre (o crea) un diario que, además, guarda en su punto de control el
+     * rango de marcas de tiempo de sus registros (ver {@link #openedSummary()}).
+     *
+     * @param timestampOf Marca de tiempo de un registro en milisegundos, o
+     *                    {@link Long#MIN_VALUE} si no tiene (puede ser {@code null}).
+     */
+    EventJournal(Path path, Path legacyPath, Class<T> type, ObjectMapper mapper,
+                 EventCodec<T> codec, DurabilityPolicy policy, ToLongFunction<T> timestampOf) throws IOException {
+        this.path = path;
+        this.legacyPath = legacyPath;
+        this.codec = codec;
+        this.jsonCodec = codec instanceof JsonEventCodec<T> json ? json : new JsonEventCodec<>(type, mapper);
+        this.checkpoint = new JournalCheckpoint(path.resolveSibling(path.getFileName() + ".ckpt"));
+        this.timestampOf = timestampOf;
+
+        if (!Files.exists(path)) {
+            this.journalId = create(path, List.of());
+            this.durable = new JournalCheckpoint.Summary(HEADER_SIZE);
+        } else if (hasTornHeader(path)) {
+            // Cabecera cortada al crearlo: no puede tener registros, así que se crea de cero.
+            System.err.println("⚠️  Advertencia: La cabecera de " + path + " estaba incompleta; se vuelve a crear.");
+            this.journalId = create(path, List.of());
+            this.durable = new JournalCheckpoint.Summary(HEADER_SIZE);
+        } else if (needsMigration()) {
+            this.durable = new JournalCheckpoint.Summary(HEADER_SIZE);
+            this.journalId = migrate(durable);
+        } else {
+            this.journalId = readJournalId();
+            this.durable = recover();
+        }
+        checkpoint.write(journalId, durable);
+        this.opened = durable.copy();
+
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.logicalSize = new AtomicLong(channel.size());
+        this.commitWriter = new GroupCommitWriter(channel, policy, path.getFileName().toString(),
+            (durableOffset, stamps, count) -> {
+                for (int i = 0; i < count; i++) {
+                    durable.add(stamps[i]);
+                }
+                durable.setOffset(durableOffset);
+                checkpoint.write(journalId, durable);
+            });
+    }
+
+    /**
+     * Añade un registro al final del diario.
+     * <p>
+     * Solo se escribe el nuevo registro: el resto del archivo no se lee ni se
+     * modifica. El método no bloquea; el futuro devuelto se completa cuando el
+     * registro es durable según la política del diario.
+     * </p>
+     *
+     * @param record El registro a añadir.
+     * @return Un futuro con la posición del registro en el archivo.
+     */
+    public CompletableFuture<Long> append(T record) {
+        byte[] payload;
+        try {
+            payload = codec.encode(record);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long stamp = timestampOf == null ? Long.MIN_VALUE : timestampOf.applyAsLong(record);
+        logicalSize.addAndGet(FRAME_HEADER_SIZE + payload.length);
+        return commitWriter.append(stamp, frameHeader(payload), ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * Lee todos los registros: primero los del archivo antiguo (si existe) y
+     * después los del diario, en orden de escritura.
+     * <p>
+     * Un registro final incompleto (escritura interrumpida) se ignora.
+     * </p>
+     *
+     * @return La lista de registros.
+     * @throws IOException si ocurre un error de lectura.
+     */
+    public List<T> readAll() throws IOException {
+        try (Stream<T> records = stream()) {
+            return records.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Recorre todos los registros (archivo antiguo y diario) sin cargarlos en
+     * memoria: cada registro se decodifica cuando el flujo lo pide.
+     * <p>
+     * El flujo mantiene los archivos abiertos hasta que se cierra, por lo que
+     * debe usarse con try-with-resources.
+     * </p>
+     *
+     * @return Un flujo perezoso con los registros, en orden de escritura.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    public Stream<T> stream() throws IOException {
+        Stream<T> legacy = streamLegacy();
+        try {
+            return Stream.concat(legacy, streamJournal());
+        } catch (IOException | RuntimeException e) {
+            legacy.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lee solo los registros de este diario, sin el archivo antiguo.
+     */
+    List<T> readJournal() throws IOException {
+        try (Stream<T> records = streamJournal()) {
+            return records.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Recorre solo los registros de este diario. El archivo se abre en el
+     * momento de la llamada.
+     */
+    Stream<T> streamJournal() throws IOException {
+        return streamFrames(Files.newInputStream(path));
+    }
+
+    /**
+     * Recorre de forma perezosa los registros de un flujo con el contenido de
+     * un diario (con o sin cabecera, de cualquier versión), hasta el final o
+     * hasta el primer registro incompleto o dañado. Los registros se
+     * decodifican con el codificador que indica la cabecera. Al cerrar el
+     * resultado se cierra el flujo de entrada.
+     *
+     * @param input Flujo con el diario.
+     * @return Un flujo con los registros decodificados.
+     * @throws IOException si no se puede leer la cabecera.
+     */
+    Stream<T> streamFrames(InputStream input) throws IOException {
+        FrameInput frames;
+        EventCodec<T> frameCodec;
+        try {
+            frames = new FrameInput(input);
+            frameCodec = codecFor(frames.codecId());
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+        long[] decoded = {0};
+        return RecordStreams.of(() -> {
+            byte[] frame = frames.nextFrame();
+            if (frame == null) {
+                if (frames.isCorrupt()) {
+                    System.err.println("⚠️  Advertencia: Registro dañado en " + path
+                        + " tras " + decoded[0] + " registros; se ignora el resto.");
+                }
+                return null;
+            }
+            decoded[0]++;
+            int offset = frames.payloadOffset();
+            return frameCodec.decode(frame, offset, frame.length - offset);
+        }, frames);
+    }
+
+    /**
+     * Devuelve el tamaño del diario en bytes, incluidos los registros
+     * aceptados que todavía no se han escrito.
+     *
+     * @return El tamaño lógico del archivo.
+     */
+    public long size() {
+        return logicalSize.get();
+    }
+
+    /**
+     * @return {@code true} si el diario contiene algún registro (aunque esté pendiente de escribir).
+     */
+    public boolean hasRecords() {
+        return logicalSize.get() > HEADER_SIZE;
+    }
+
+    public Path getPath() { return path; }
+
+    /**
+     * @return El contenido del diario al abrirlo (registros y rango de marcas
+     *         de tiempo), obtenido del punto de control y de los registros
+     *         posteriores a él.
+     */
+    JournalCheckpoint.Summary openedSummary() {
+        return opened.copy();
+    }
+
+    /**
+     * Sincroniza las escrituras pendientes y cierra el canal del diario.
+     *
+     * @throws IOException si ocurre un error al cerrar.
+     */
+    @Override
+    public void close() throws IOException {
+        commitWriter.close();
+        channel.close();
+        checkpoint.close();
+    }
+
+    /**
+     * Recorre el archivo antiguo, que contiene un único array JSON con todos
+     * los registros, decodificando los elementos uno a uno con un
+     * {@link MappingIterator} (sin cargar el array completo).
+     * <p>
+     * Si el archivo quedó cortado o dañado (por ejemplo, por una caída durante
+     * su reescritura), se conservan los registros anteriores al daño en lugar
+     * de fallar por completo.
+     * </p>
+     */
+    Stream<T> streamLegacy() throws IOException {
+        if (legacyPath == null || !Files.exists(legacyPath) || Files.size(legacyPath) == 0) {
+            return Stream.empty();
+        }
+        MappingIterator<T> iterator = jsonCodec.reader().readValues(Files.newInputStream(legacyPath));
+        long[] decoded = {0};
+        return RecordStreams.of(() -> {
+            try {
+                if (!iterator.hasNextValue()) {
+                    return null;
+                }
+                T record = iterator.nextValue();
+                decoded[0]++;
+                return record;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️  Advertencia: El archivo " + legacyPath + " está dañado tras "
+                    + decoded[0] + " registros; se ignora el resto.");
+                return null;
+            }
+        }, iterator);
+    }
+
+    // --- RECUPERACIÓN ---
+
+    /**
+     * Verifica los registros escritos después del último punto de control,
+     * los añade a su resumen y recorta el archivo tras el último registro
+     * válido.
+     *
+     * @return El contenido del diario hasta el final del último registro válido.
+     */
+    private JournalCheckpoint.Summary recover() throws IOException {
+        long size = Files.size(path);
+        JournalCheckpoint.Summary summary = checkpoint.read(journalId);
+        if (summary == null || summary.offset() < HEADER_SIZE || summary.offset() > size) {
+            // Sin punto de control válido: se revisa todo el diario.
+            summary = new JournalCheckpoint.Summary(HEADER_SIZE);
+        }
+
+        long start = summary.offset();
+        long end;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            in.position(start);
+            try (FrameInput frames = new FrameInput(Channels.newInputStream(in), VERSION)) {
+                byte[] frame;
+                while ((frame = frames.nextFrame()) != null) {
+                    summary.add(frameTimestamp(codec, frame, frames.payloadOffset()));
+                }
+                end = start + frames.validBytes();
+            }
+        }
+        summary.setOffset(end);
+
+        if (end < size) {
+            try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                out.truncate(end);
+                out.force(true);
+            }
+            System.err.println("⚠️  Advertencia: Se han descartado " + (size - end)
+                + " bytes de un registro incompleto al final de " + path + ".");
+        }
+        return summary;
+    }
+
+    /**
+     * Marca de tiempo de un registro ya leído. Solo se decodifica si el
+     * diario guarda el rango de marcas de tiempo.
+     */
+    private long frameTimestamp(EventCodec<T> frameCodec, byte[] frame, int offset) throws IOException {
+        if (timestampOf == null) {
+            return Long.MIN_VALUE;
+        }
+        return timestampOf.applyAsLong(frameCodec.decode(frame, offset, frame.length - offset));
+    }
+
+    /**
+     * Devuelve el codificador de los registros de un archivo a partir del
+     * identificador de su cabecera.
+     *
+     * @throws IOException si el archivo usa un formato que este diario no conoce.
+     */
+    private EventCodec<T> codecFor(int codecId) throws IOException {
+        EventCodec<T> found = codec.forId(codecId);
+        if (found != null) {
+            return found;
+        }
+        if (codecId == EventCodec.JSON_ID) {
+            return jsonCodec;
+        }
+        throw new IOException("Formato de registros desconocido en " + path + ": " + codecId);
+    }
+
+    /**
+     * @return {@code true} si el archivo es más corto que la cabecera de su
+     *         versión (o que la parte común a todas), es decir, si se cortó
+     *         al crearlo.
+     */
+    private static boolean hasTornHeader(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size < V1_HEADER_SIZE) {
+            return true;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != MAGIC) {
+                return false;
+            }
+            int version = in.readInt();
+            return version >= 1 && version <= VERSION && size < FrameInput.headerSize(version);
+        }
+    }
+
+    /**
+     * Lee el identificador de la cabecera de un diario de la versión actual.
+     */
+    private long readJournalId() throws IOException {
+        try (FrameInput frames = new FrameInput(Files.newInputStream(path))) {
+            return frames.journalId();
+        }
+    }
+
+    /**
+     * @return {@code true} si el diario es de una versión anterior o usa otro codificador.
+     * @throws IOException si el archivo no es un diario válido.
+     */
+    private boolean needsMigration() throws IOException {
+        try (FrameInput frames = new FrameInput(Files.newInputStream(path))) {
+            if (frames.header() == null) {
+                throw new IOException("El archivo " + path + " no es un diario de emergencias válido.");
+            }
+            return frames.version() != VERSION || frames.codecId() != codec.id();
+        }
+    }
+
+    /**
+     * Reescribe el diario en la versión actual y con el codificador actual
+     * (por ejemplo, de la versión 1 sin CRC, o de JSON a binario). Solo ocurre
+     * una vez por archivo; un registro final incompleto se descarta.
+     *
+     * @param summary Recibe el contenido del diario reescrito.
+     * @return El identificador del nuevo diario.
+     */
+    private long migrate(JournalCheckpoint.Summary summary) throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        try (FrameInput frames = new FrameInput(Files.newInputStream(path))) {
+            boolean sameCodec = frames.codecId() == codec.id();
+            EventCodec<T> source = codecFor(frames.codecId());
+            int offset = frames.payloadOffset();
+            byte[] frame;
+            while ((frame = frames.nextFrame()) != null) {
+                if (sameCodec) {
+                    payloads.add(Arrays.copyOfRange(frame, offset, frame.length));
+                    summary.add(frameTimestamp(source, frame, offset));
+                } else {
+                    T record = source.decode(frame, offset, frame.length - offset);
+                    payloads.add(codec.encode(record));
+                    summary.add(timestampOf == null ? Long.MIN_VALUE : timestampOf.applyAsLong(record));
+                }
+            }
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long id = create(temp, payloads);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        summary.setOffset(Files.size(path));
+        return id;
+    }
+
+    /**
+     * Crea un diario nuevo (cabecera con un identificador aleatorio y, si se
+     * indican, registros iniciales) y lo sincroniza a disco.
+     *
+     * @return El identificador del diario.
+     */
+    private long create(Path target, List<byte[]> payloads) throws IOException {
+        long id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putLong(id).putInt(codec.id()).flip());
+            for (byte[] payload : payloads) {
+                writeFully(out, frameHeader(payload));
+                writeFully(out, ByteBuffer.wrap(payload));
+            }
+            out.force(true);
+        }
+        return id;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Cabecera de un registro: longitud y CRC32C de la longitud y el contenido.
+     */
+    private static ByteBuffer frameHeader(byte[] payload) {
+        return ByteBuffer.allocate(FRAME_HEADER_SIZE)
+            .putInt(payload.length)
+            .putInt(checksum(payload, 0, payload.length))
+            .flip();
+    }
+
+    static int checksum(byte[] payload, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(length >>> 24);
+        crc.update(length >>> 16);
+        crc.update(length >>> 8);
+        crc.update(length);
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * <h2>Lector de Registros</h2>
+     *
+     * <p>
+     * Recorre los registros de un diario tal y como están escritos
+     * (cabecera de registro incluida), verificando su CRC desde la versión 2.
+     * Se detiene en el primer registro incompleto o dañado e informa de
+     * cuántos bytes válidos ha leído. Lo usan la lectura, la recuperación y
+     * el archivador de segmentos.
+     * </p>
+     */
+    static final class FrameInput implements AutoCloseable {
+        private final DataInputStream in;
+        private final int version;
+        private final byte[] header;
+        private final long journalId;
+        private final int codecId;
+        private long validBytes;
+        private boolean corrupt;
+
+        /**
+         * Abre un flujo que empieza por la cabecera del diario. Si no hay
+         * cabecera, se asume la versión 1 en JSON (segmentos archivados antiguos).
+         */
+        FrameInput(InputStream input) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(input));
+            in.mark(HEADER_SIZE);
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException e) {
+                magic = 0;
+            }
+            if (magic != MAGIC) {
+                in.reset();
+                this.version = 1;
+                this.header = null;
+                this.journalId = -1;
+                this.codecId = EventCodec.JSON_ID;
+                return;
+            }
+            int fileVersion = in.readInt();
+            if (fileVersion < 1 || fileVersion > VERSION) {
+                throw new IOException("Versión de diario no soportada: " + fileVersion);
+            }
+            this.version = fileVersion;
+            this.header = new byte[headerSize(fileVersion)];
+            ByteBuffer.wrap(header).putInt(MAGIC).putInt(fileVersion);
+            in.readFully(header, V1_HEADER_SIZE, header.length - V1_HEADER_SIZE);
+            ByteBuffer fields = ByteBuffer.wrap(header, V1_HEADER_SIZE, header.length - V1_HEADER_SIZE);
+            this.journalId = fileVersion >= 2 ? fields.getLong() : -1;
+            this.codecId = fileVersion >= 3 ? fields.getInt() : EventCodec.JSON_ID;
+            this.validBytes = header.length;
+        }
+
+        /**
+         * Abre un flujo ya situado tras la cabecera de un diario de la versión indicada.
+         */
+        FrameInput(InputStream input, int version) {
+            this.in = new DataInputStream(new BufferedInputStream(input));
+            this.version = version;
+            this.header = null;
+            this.journalId = -1;
+            this.codecId = EventCodec.JSON_ID;
+        }
+
+        private static int headerSize(int version) {
+            return switch (version) {
+                case 1 -> V1_HEADER_SIZE;
+                case 2 -> V2_HEADER_SIZE;
+                default -> HEADER_SIZE;
+            };
+        }
+
+        /**
+         * @return El siguiente registro completo y válido, o {@code null} al
+         *         llegar al final o a un registro incompleto o dañado.
+         */
+        byte[] nextFrame() throws IOException {
+            if (corrupt) {
+                return null;
+            }
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return null; // Fin del diario (o longitud cortada).
+            }
+            if (length < 0 || length > MAX_RECORD_SIZE) {
+                corrupt = true;
+                return null;
+            }
+            int frameHeaderSize = payloadOffset();
+            byte[] frame = new byte[frameHeaderSize + length];
+            ByteBuffer.wrap(frame).putInt(length);
+            try {
+                in.readFully(frame, Integer.BYTES, frame.length - Integer.BYTES);
+            } catch (EOFException e) {
+                return null; // Registro final truncado.
+            }
+            if (version >= 2 && ByteBuffer.wrap(frame).getInt(Integer.BYTES)
+                    != checksum(frame, frameHeaderSize, length)) {
+                corrupt = true;
+                return null;
+            }
+            validBytes += frame.length;
+            return frame;
+        }
+
+        /** @return La posición del contenido dentro de cada registro. */
+        int payloadOffset() { return version >= 2 ? FRAME_HEADER_SIZE : V1_FRAME_HEADER_SIZE; }
+
+        /** @return La versión del formato del diario. */
+        int version() { return version; }
+
+        /** @return El identificador del diario, o {@code -1} si la cabecera no lo incluye. */
+        long journalId() { return journalId; }
+
+        /** @return El identificador del codificador de los registros (JSON hasta la versión 2). */
+        int codecId() { return codecId; }
+
+        /** @return La cabecera del diario tal y como se leyó, o {@code null} si no había. */
+        byte[] header() { return header; }
+
+        /** @return Los bytes leídos hasta el final del último registro válido. */
+        long validBytes() { return validBytes; }
+
+        /** @return {@code true} si la lectura se detuvo por un CRC o una longitud no válidos. */
+        boolean isCorrupt() { return corrupt; }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Escritor con Confirmación Agrupada (Group Commit)</h1>
+ *
+ * <p>
+ * Recoge las escrituras concurrentes de muchos llamantes y las vuelca al
+ * archivo desde un único hilo escritor: todas las que se acumulan mientras
+ * el disco está ocupado se escriben con una sola llamada a
+ * {@code FileChannel.write} y se hacen durables con un solo {@code force()}.
+ * </p>
+ *
+ * <p>
+ * Cada llamante recibe un {@link CompletableFuture} que se completa, con la
+ * posición del registro en el archivo, cuando su registro es durable según la
+ * {@link DurabilityPolicy} configurada. Si la escritura falla, el futuro se
+ * completa con la excepción.
+ * </p>
+ *
+ * <p>
+ * Si un lote falla a medias, el archivo se recorta hasta donde empezaba el
+ * lote, para que ningún registro confirmado quede detrás de uno incompleto.
+ * Si ni siquiera se puede recortar, el escritor deja de aceptar registros.
+ * Al detenerse, los registros que quedan en cola fallan: ningún futuro se
+ * queda sin completar.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class GroupCommitWriter implements AutoCloseable {
+    // Máximo de registros que se escriben en una sola llamada.
+    private static final int MAX_BATCH = 1024;
+    // Intervalo de espera del hilo escritor cuando la política no impone otro.
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    private final FileChannel channel;
+    private final DurabilityPolicy policy;
+    private final DurableListener onDurable;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    // Protege 'closed' frente a los llamantes: nada se encola tras la marca de cierre.
+    private final Object lock = new Object();
+    private volatile boolean closed = false;
+
+    // --- ESTADO PROPIO DEL HILO ESCRITOR ---
+    private final List<PendingWrite> awaitingForce = new ArrayList<>();
+    // Marcas de lo escrito y aún no confirmado (aunque un force() falle, los bytes siguen en el archivo).
+    private long[] stamps = new long[64];
+    private int stampCount;
+    private long position;
+    private long lastForceNanos = System.nanoTime();
+    // Error que dejó el archivo en un estado que no se pudo reparar.
+    private IOException broken;
+
+    /**
+     * Escritura pendiente: los buffers de un registro y el futuro de su llamante.
+     */
+    private static final class PendingWrite {
+        final long stamp;
+        final ByteBuffer[] buffers;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        long offset;
+
+        PendingWrite(long stamp, ByteBuffer[] buffers) {
+            this.stamp = stamp;
+            this.buffers = buffers;
+        }
+    }
+
+    // Marca que indica al hilo escritor que debe terminar.
+    private static final PendingWrite CLOSE_MARKER = new PendingWrite(Long.MIN_VALUE, new ByteBuffer[0]);
+
+    /**
+     * Aviso de durabilidad, desde el hilo escritor tras cada {@code force()}.
+     */
+    public interface DurableListener {
+        /**
+         * @param position Posición hasta la que el archivo es durable.
+         * @param stamps   Marcas de los registros que acaban de hacerse durables, en orden de escritura.
+         * @param count    Número de marcas válidas en {@code stamps}.
+         */
+        void onDurable(long position, long[] stamps, int count);
+    }
+
+    /**
+     * Crea el escritor y arranca su hilo.
+     *
+     * @param channel Canal abierto en modo escritura; las escrituras se añaden al final.
+     * @param policy  Política de durabilidad.
+     * @param name    Nombre descriptivo, usado para el hilo escritor.
+     * @throws IOException si no se puede consultar el tamaño del canal.
+     */
+    public GroupCommitWriter(FileChannel channel, DurabilityPolicy policy, String name) throws IOException {
+        this(channel, policy, name, null);
+    }
+
+    /**
+     * Crea el escritor con un aviso de durabilidad.
+     *
+     * @param channel   Canal abierto en modo escritura; las escrituras se añaden al final.
+     * @param policy    Política de durabilidad.
+     * @param name      Nombre descriptivo, usado para el hilo escritor.
+     * @param onDurable Se llama desde el hilo escritor tras cada {@code force()} con
+     *                  la posición hasta la que el archivo es durable y las marcas
+     *                  de los registros confirmados (puede ser {@code null}).
+     * @throws IOException si no se puede consultar el tamaño del canal.
+     */
+    public GroupCommitWriter(FileChannel channel, DurabilityPolicy policy, String name,
+                             DurableListener onDurable) throws IOException {
+        this.channel = channel;
+        this.policy = policy;
+        this.onDurable = onDurable;
+        this.position = channel.size();
+        this.writerThread = new Thread(this::runLoop, "group-commit-" + name);
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Encola un registro para su escritura.
+     *
+     * @param buffers Los buffers que forman el registro (se escriben consecutivamente).
+     * @return Un futuro que se completa con la posición del registro cuando es durable.
+     */
+    public CompletableFuture<Long> append(ByteBuffer... buffers) {
+        return append(Long.MIN_VALUE, buffers);
+    }
+
+    /**
+     * Encola un registro con una marca (por ejemplo, su marca de tiempo) que
+     * se entrega al aviso de durabilidad cuando el registro es durable.
+     *
+     * @param stamp   Marca del registro.
+     * @param buffers Los buffers que forman el registro (se escriben consecutivamente).
+     * @return Un futuro que se completa con la posición del registro cuando es durable.
+     */
+    public CompletableFuture<Long> append(long stamp, ByteBuffer... buffers) {
+        PendingWrite write = new PendingWrite(stamp, buffers);
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("El escritor está cerrado."));
+            }
+            queue.add(write);
+        }
+        return write.future;
+    }
+
+    public DurabilityPolicy getPolicy() { return policy; }
+
+    /**
+     * Escribe y sincroniza todo lo pendiente y detiene el hilo escritor.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE_MARKER);
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: espera registros, los escribe por lotes y
+     * fuerza a disco según la política.
+     */
+    private void runLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(pollTimeoutMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    running = !batch.remove(CLOSE_MARKER);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                forceIfDue(first == null || !running);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+        synchronized (lock) {
+            closed = true;
+        }
+        forceIfDue(true);
+        // Lo que no llegó a escribirse (por una interrupción) falla en lugar de quedar pendiente.
+        IOException stopped = new IOException("El escritor se ha detenido antes de escribir el registro.");
+        for (PendingWrite write : queue) {
+            write.future.completeExceptionally(stopped);
+        }
+        queue.clear();
+    }
+
+    /**
+     * Escribe un lote de registros con una única escritura "gather".
+     */
+    private void writeBatch(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (broken != null) {
+            batch.forEach(write -> write.future.completeExceptionally(broken));
+            return;
+        }
+        long batchStart = position;
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            write.offset = position;
+            for (ByteBuffer buffer : write.buffers) {
+                position += buffer.remaining();
+                buffers.add(buffer);
+            }
+        }
+        ByteBuffer[] gather = buffers.toArray(new ByteBuffer[0]);
+        try {
+            int index = 0;
+            while (index < gather.length) {
+                channel.write(gather, index, gather.length - index);
+                while (index < gather.length && !gather[index].hasRemaining()) {
+                    index++;
+                }
+            }
+            awaitingForce.addAll(batch);
+            for (PendingWrite write : batch) {
+                if (stampCount == stamps.length) {
+                    stamps = Arrays.copyOf(stamps, stampCount * 2);
+                }
+                stamps[stampCount++] = write.stamp;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Error en la escritura agrupada: " + e.getMessage());
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            discardFrom(batchStart, e);
+        }
+    }
+
+    /**
+     * Quita del archivo lo que un lote fallido llegó a escribir, para que los
+     * lotes siguientes no queden detrás de un registro incompleto.
+     */
+    private void discardFrom(long batchStart, IOException cause) {
+        try {
+            channel.truncate(batchStart);
+            channel.position(batchStart);
+            position = batchStart;
+        } catch (IOException e) {
+            System.err.println("❌ Error crítico: No se pudo recortar el lote fallido; el escritor deja de aceptar registros: "
+                + e.getMessage());
+            cause.addSuppressed(e);
+            broken = cause;
+        }
+    }
+
+    /**
+     * Fuerza a disco los registros pendientes si la política lo exige y
+     * completa sus futuros.
+     *
+     * @param idle {@code true} si el escritor está ocioso o cerrándose.
+     */
+    private void forceIfDue(boolean idle) {
+        if (awaitingForce.isEmpty()) {
+            return;
+        }
+        boolean due;
+        switch (policy.getMode()) {
+            case INTERVAL:
+                due = System.nanoTime() - lastForceNanos >= TimeUnit.MILLISECONDS.toNanos(policy.getValue());
+                break;
+            case RECORD_COUNT:
+                due = idle || awaitingForce.size() >= policy.getValue();
+                break;
+            default:
+                due = true;
+        }
+        if (!due && !closed) {
+            return;
+        }
+
+        try {
+            channel.force(false);
+            if (onDurable != null) {
+                onDurable.onDurable(position, stamps, stampCount);
+            }
+            stampCount = 0;
+            awaitingForce.forEach(write -> write.future.complete(write.offset));
+        } catch (IOException e) {
+            System.err.println("❌ Error al sincronizar el archivo con el disco: " + e.getMessage());
+            awaitingForce.forEach(write -> write.future.completeExceptionally(e));
+        }
+        awaitingForce.clear();
+        lastForceNanos = System.nanoTime();
+    }
+
+    /**
+     * Calcula cuánto puede esperar el hilo escritor antes de revisar la política.
+     */
+    private long pollTimeoutMillis() {
+        if (awaitingForce.isEmpty()) {
+            return IDLE_POLL_MILLIS;
+        }
+        switch (policy.getMode()) {
+            case INTERVAL:
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastForceNanos);
+                return Math.max(1, policy.getValue() - elapsed);
+            case RECORD_COUNT:
+                return DurabilityPolicy.IDLE_FORCE_MILLIS;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * <h1>Índices Secundarios Persistentes del Historial</h1>
+ *
+ * <p>
+ * Mantiene, sobre los números de registro de un {@link MappedEventStore},
+ * los índices que permiten responder consultas sin recorrer todo el historial:
+ * </p>
+ *
+ * <ul>
+ *     <li><b>Índice hash por ID</b> ({@code ids.idx}): tabla de direccionamiento
+ *         abierto mapeada en memoria por trozos ({@link ChunkedMapping}).</li>
+ *     <li><b>Índice por marca de tiempo</b> ({@code timestamps.idx}): pares
+ *         (milisegundos, registro) de solo anexado. El principio del archivo
+ *         está ordenado, para búsquedas binarias por rango; los pares que
+ *         llegan fuera de orden se quedan al final, se mantienen ordenados
+ *         en memoria y se mezclan con el resto cuando se acumulan
+ *         {@value #MAX_TAIL}.</li>
+ *     <li><b>Listas de apariciones</b> ({@link PostingsStore}): por código de tipo y
+ *         por término normalizado de la ubicación (ej. "murcia"). Se vuelcan
+ *         periódicamente en rondas en disco y se leen al consultarlas.</li>
+ * </ul>
+ *
+ * <p>
+ * Todos los índices se actualizan en cada {@link #add} y se guardan en disco;
+ * al abrir solo se relee lo escrito tras el último punto de control de las
+ * listas. Si el índice quedó por detrás del almacén (por ejemplo, tras una
+ * caída), {@link #catchUp} indexa los registros que faltan.
+ * </p>
+ *
+ * <p>
+ * Esta clase no es segura para hilos por sí sola: {@link EmergencyHistory}
+ * coordina el acceso con un cerrojo de lectura/escritura.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+class HistoryIndex implements AutoCloseable {
+    // --- FORMATO ---
+    private static final int META_MAGIC = 0x454D4958; // "EMIX"
+    private static final int META_SIZE = 40;
+    private static final int META_INDEXED = 8;
+    private static final int META_POSTINGS_LENGTH = 16;
+    private static final int META_ID_CAPACITY = 24;
+    private static final int META_SORTED = 32;
+    private static final int META_VERSION = 2;
+    // Valor de META_SORTED mientras se mezcla: si la mezcla no termina, el índice temporal se reconstruye.
+    private static final long MERGING = -1;
+    private static final int ID_SLOT_SIZE = 24;
+    private static final int TS_ENTRY_SIZE = 16;
+    private static final long INITIAL_ID_CAPACITY = 1 << 16;
+    private static final long INITIAL_TS_CAPACITY = 1 << 16;
+    // Pares fuera de orden que se acumulan antes de mezclarlos con la parte ordenada.
+    private static final int MAX_TAIL = 1024;
+
+    // Palabras que no aportan nada a la búsqueda por ubicación.
+    private static final Set<String> STOP_WORDS = Set.of("de", "del", "la", "las", "el", "los", "y", "en");
+
+    private final Path directory;
+    private final MappedByteBuffer meta;
+
+    // Índice por ID.
+    private ChunkedMapping ids;
+    private long idCapacity;
+
+    // Índice por marca de tiempo: parte ordenada en disco y cola fuera de orden (ordenada en memoria).
+    private final ChunkedMapping timestamps;
+    private long tsCapacity;
+    private long sorted;
+    private final long[] tailMillis = new long[MAX_TAIL];
+    private final long[] tailRecords = new long[MAX_TAIL];
+    private int tailSize;
+    private boolean rebuildTimestamps;
+
+    // Listas de apariciones.
+    private final PostingsStore postings;
+    private final Path termsFile;
+    private final Map<String, Integer> termIds = new HashMap<>();
+
+    private long indexed;
+
+    /**
+     * Lista creciente de enteros, sin objetos por elemento.
+     */
+    static final class IntList {
+        private int[] data = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int size() { return size; }
+        int get(int index) { return data[index]; }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(data, 0, size, value) >= 0;
+        }
+    }
+
+    /**
+     * Abre (o crea) los índices en el directorio indicado.
+     *
+     * @param directory Directorio de los índices.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    HistoryIndex(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.termsFile = directory.resolve("terms.dict");
+
+        try (FileChannel metaChannel = FileChannel.open(directory.resolve("index.meta"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean isNew = metaChannel.size() == 0;
+            this.meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+            if (isNew) {
+                meta.putInt(0, META_MAGIC).putInt(4, META_VERSION).putLong(META_INDEXED, 0)
+                    .putLong(META_POSTINGS_LENGTH, 0).putLong(META_ID_CAPACITY, INITIAL_ID_CAPACITY)
+                    .putLong(META_SORTED, 0);
+            } else if (meta.getInt(0) != META_MAGIC) {
+                throw new IOException("El directorio " + directory + " no contiene índices válidos.");
+            } else if (meta.getInt(4) < META_VERSION) {
+                // En la versión 1 el índice temporal estaba ordenado entero.
+                meta.putLong(META_SORTED, meta.getLong(META_INDEXED)).putInt(4, META_VERSION);
+            }
+        }
+        this.indexed = meta.getLong(META_INDEXED);
+
+        this.idCapacity = meta.getLong(META_ID_CAPACITY);
+        this.ids = ChunkedMapping.open(directory.resolve("ids.idx"), idCapacity * ID_SLOT_SIZE);
+
+        Path timestampsFile = directory.resolve("timestamps.idx");
+        long existing = Files.exists(timestampsFile) ? Files.size(timestampsFile) : 0;
+        this.tsCapacity = Math.max(INITIAL_TS_CAPACITY, existing / TS_ENTRY_SIZE);
+        this.timestamps = ChunkedMapping.open(timestampsFile, tsCapacity * TS_ENTRY_SIZE);
+        loadTimestampTail();
+
+        if (Files.exists(termsFile)) {
+            for (String term : Files.readAllLines(termsFile, StandardCharsets.UTF_8)) {
+                termIds.put(term, termIds.size());
+            }
+        }
+        this.postings = new PostingsStore(directory, meta.getLong(META_POSTINGS_LENGTH));
+    }
+
+    /**
+     * Indexa los registros del almacén que aún no están indexados.
+     *
+     * @param store El almacén de eventos.
+     * @throws IOException si ocurre un error al escribir los índices.
+     */
+    void catchUp(MappedEventStore store) throws IOException {
+        long total = store.size();
+        if (indexed > total) {
+            throw new IOException("Los índices están por delante del almacén; bórrelos para reconstruirlos.");
+        }
+        if (indexed == total && !rebuildTimestamps) {
+            return;
+        }
+
+        // Una caída pudo interrumpir una mezcla del índice temporal: se reconstruye entero.
+        ensureTimestampCapacity(total);
+        sorted = 0;
+        tailSize = 0;
+        store.scan(record -> {
+            appendTimestamp(record.timestampMillis(), record.recordNumber());
+            return true;
+        });
+        rebuildTimestamps = false;
+        publish();
+
+        // Las apariciones y los IDs solo faltan para los registros no confirmados.
+        try {
+            store.scan(indexed, total, record -> {
+                try {
+                    addPostingsAndId(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                indexed++;
+                publish();
+                checkpointIfNeeded();
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Añade un registro recién escrito en el almacén a todos los índices.
+     *
+     * @param record Vista del registro (debe ser el siguiente a indexar).
+     * @throws IOException si ocurre un error al escribir los índices.
+     */
+    void add(MappedEventStore.RecordView record) throws IOException {
+        ensureTimestampCapacity(indexed + 1);
+        appendTimestamp(record.timestampMillis(), record.recordNumber());
+        addPostingsAndId(record);
+        indexed++;
+        publish();
+        checkpointIfNeeded();
+    }
+
+    // --- CONSULTAS ---
+
+    /**
+     * Busca el número de registro de un ID.
+     *
+     * @return El número de registro, o -1 si no existe.
+     */
+    long findById(long msb, long lsb) {
+        long mask = idCapacity - 1;
+        for (long slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            long base = slot * ID_SLOT_SIZE;
+            long recordPlusOne = ids.getLong(base + 16);
+            if (recordPlusOne == 0) {
+                return -1;
+            }
+            if (ids.getLong(base) == msb && ids.getLong(base + 8) == lsb) {
+                return recordPlusOne - 1;
+            }
+        }
+    }
+
+    /**
+     * @return El número de registros con marca de tiempo en {@code [fromMillis, toMillis]}.
+     */
+    long countBetween(long fromMillis, long toMillis) {
+        return lowerBound(toMillis, true) - lowerBound(fromMillis, false)
+            + tailBound(toMillis, true) - tailBound(fromMillis, false);
+    }
+
+    /**
+     * Recorre por orden de marca de tiempo los registros del rango
+     * {@code [fromMillis, toMillis]}, mezclando la parte ordenada y la cola.
+     *
+     * @param newestFirst {@code true} para empezar por el más reciente.
+     * @param visitor     Recibe cada número de registro; devuelve {@code false} para parar.
+     */
+    void visitBetween(long fromMillis, long toMillis, boolean newestFirst, LongPredicate visitor) {
+        long sortedStart = lowerBound(fromMillis, false);
+        long sortedEnd = lowerBound(toMillis, true);
+        int tailStart = tailBound(fromMillis, false);
+        int tailEnd = tailBound(toMillis, true);
+        if (newestFirst) {
+            long i = sortedEnd - 1;
+            int j = tailEnd - 1;
+            while (i >= sortedStart || j >= tailStart) {
+                boolean fromSorted = j < tailStart || (i >= sortedStart && timestampAt(i) > tailMillis[j]);
+                if (!visitor.test(fromSorted ? recordAt(i--) : tailRecords[j--])) {
+                    return;
+                }
+            }
+        } else {
+            long i = sortedStart;
+            int j = tailStart;
+            while (i < sortedEnd || j < tailEnd) {
+                boolean fromSorted = j >= tailEnd || (i < sortedEnd && timestampAt(i) <= tailMillis[j]);
+                if (!visitor.test(fromSorted ? recordAt(i++) : tailRecords[j++])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    long size() { return indexed; }
+
+    /** Lista de apariciones de un código de tipo (nunca nula). */
+    IntList postingsForType(int typeCode) {
+        try {
+            IntList list = postings.forType(typeCode);
+            return list == null ? new IntList() : list;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer las apariciones del tipo " + typeCode + ".", e);
+        }
+    }
+
+    /** Lista de apariciones de un término ya normalizado, o {@code null} si no existe. */
+    IntList postingsForTerm(String term) {
+        Integer id = termIds.get(term);
+        try {
+            return id == null ? null : postings.forTerm(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer las apariciones de \"" + term + "\".", e);
+        }
+    }
+
+    /**
+     * Normaliza una ubicación en términos de búsqueda: minúsculas, sin
+     * acentos, separada por cualquier carácter no alfanumérico y sin
+     * palabras vacías.
+     *
+     * @param location La ubicación en texto libre.
+     * @return Los términos, sin repetir y en orden de aparición.
+     */
+    static Set<String> terms(String location) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (location == null) {
+            return terms;
+        }
+        String plain = Normalizer.normalize(location.toLowerCase(), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "");
+        for (String token : plain.split("[^\\p{Alnum}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ids.force();
+        timestamps.force();
+        checkpoint();
+        postings.close();
+        timestamps.close();
+        ids.close();
+    }
+
+    // --- ESCRITURA DE LOS ÍNDICES ---
+
+    private void publish() {
+        meta.putLong(META_POSTINGS_LENGTH, postingsLength());
+        meta.putLong(META_SORTED, sorted);
+        meta.putLong(META_INDEXED, indexed);
+    }
+
+    /**
+     * Vuelca las apariciones pendientes en disco. Antes se confirma el
+     * registro de apariciones, para que el punto de control nunca cubra
+     * apariciones que el índice pueda descartar al abrir.
+     */
+    private void checkpoint() throws IOException {
+        postings.force();
+        meta.force();
+        postings.checkpoint(meta.getLong(META_POSTINGS_LENGTH));
+    }
+
+    private void checkpointIfNeeded() {
+        if (postings.needsCheckpoint()) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private long postingsLength() {
+        try {
+            return postings.length();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al consultar el registro de apariciones.", e);
+        }
+    }
+
+    private void addPostingsAndId(MappedEventStore.RecordView record) throws IOException {
+        int recordNumber = Math.toIntExact(record.recordNumber());
+        List<Integer> locationTermIds = new ArrayList<>();
+        for (String term : terms(record.location())) {
+            locationTermIds.add(termId(term));
+        }
+        postings.add(record.typeCode(), locationTermIds, recordNumber);
+
+        insertId(record.idMostSignificantBits(), record.idLeastSignificantBits(), record.recordNumber());
+    }
+
+    // --- ÍNDICE TEMPORAL ---
+
+    /**
+     * Añade un par (marca de tiempo, registro) al final del archivo. Si no
+     * es anterior al último, amplía la parte ordenada; si lo es, pasa a la
+     * cola, que se mezcla con la parte ordenada al llenarse.
+     */
+    private void appendTimestamp(long millis, long recordNumber) {
+        putEntry(sorted + tailSize, millis, recordNumber);
+        if (tailSize == 0 && (sorted == 0 || timestampAt(sorted - 1) <= millis)) {
+            sorted++;
+            return;
+        }
+        addToTail(millis, recordNumber);
+        if (tailSize == MAX_TAIL) {
+            mergeTail();
+        }
+    }
+
+    /**
+     * Inserta un par en la cola en memoria, manteniéndola ordenada (a igual
+     * marca de tiempo, por orden de llegada).
+     */
+    private void addToTail(long millis, long recordNumber) {
+        int position = tailBound(millis, true);
+        System.arraycopy(tailMillis, position, tailMillis, position + 1, tailSize - position);
+        System.arraycopy(tailRecords, position, tailRecords, position + 1, tailSize - position);
+        tailMillis[position] = millis;
+        tailRecords[position] = recordNumber;
+        tailSize++;
+    }
+
+    /**
+     * Mezcla la cola con la parte ordenada, de atrás hacia delante y sobre el
+     * propio archivo: solo se mueven los pares ordenados posteriores al más
+     * antiguo de la cola.
+     */
+    private void mergeTail() {
+        meta.putLong(META_SORTED, MERGING);
+        long i = sorted - 1;
+        int j = tailSize - 1;
+        for (long k = sorted + tailSize - 1; j >= 0; k--) {
+            if (i >= 0 && timestampAt(i) > tailMillis[j]) {
+                putEntry(k, timestampAt(i), recordAt(i));
+                i--;
+            } else {
+                putEntry(k, tailMillis[j], tailRecords[j]);
+                j--;
+            }
+        }
+        sorted += tailSize;
+        tailSize = 0;
+        meta.putLong(META_SORTED, sorted);
+    }
+
+    /**
+     * Recupera la cola al abrir: los pares escritos tras la parte ordenada.
+     */
+    private void loadTimestampTail() {
+        long confirmedSorted = meta.getLong(META_SORTED);
+        if (confirmedSorted < 0 || confirmedSorted > indexed || indexed - confirmedSorted > MAX_TAIL) {
+            rebuildTimestamps = true; // Mezcla interrumpida: catchUp lo reconstruye.
+            return;
+        }
+        sorted = confirmedSorted;
+        for (long position = sorted; position < indexed; position++) {
+            addToTail(timestampAt(position), recordAt(position));
+        }
+        if (tailSize == MAX_TAIL) {
+            mergeTail();
+        }
+    }
+
+    /**
+     * Posición en la parte ordenada del primer par con marca de tiempo
+     * {@code >= millis} (o {@code > millis} si {@code after}).
+     */
+    private long lowerBound(long millis, boolean after) {
+        long low = 0;
+        long high = sorted;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            long at = timestampAt(mid);
+            if (at < millis || (after && at == millis)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Como {@link #lowerBound}, en la cola en memoria. */
+    private int tailBound(long millis, boolean after) {
+        int low = 0;
+        int high = tailSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tailMillis[mid] < millis || (after && tailMillis[mid] == millis)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long timestampAt(long position) { return timestamps.getLong(position * TS_ENTRY_SIZE); }
+    private long recordAt(long position) { return timestamps.getLong(position * TS_ENTRY_SIZE + 8); }
+
+    private void putEntry(long position, long millis, long recordNumber) {
+        long base = position * TS_ENTRY_SIZE;
+        timestamps.putLong(base, millis);
+        timestamps.putLong(base + 8, recordNumber);
+    }
+
+    private void ensureTimestampCapacity(long entries) throws IOException {
+        if (entries <= tsCapacity) {
+            return;
+        }
+        while (tsCapacity < entries) {
+            tsCapacity *= 2;
+        }
+        timestamps.ensureSize(tsCapacity * TS_ENTRY_SIZE);
+    }
+
+    private void insertId(long msb, long lsb, long recordNumber) throws IOException {
+        if ((indexed + 1) * 2 > idCapacity) {
+            growIds();
+        }
+        putId(ids, idCapacity, msb, lsb, recordNumber);
+    }
+
+    private static void putId(ChunkedMapping table, long capacity, long msb, long lsb, long recordNumber) {
+        long mask = capacity - 1;
+        for (long slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            long base = slot * ID_SLOT_SIZE;
+            long existing = table.getLong(base + 16);
+            if (existing == 0 || (table.getLong(base) == msb && table.getLong(base + 8) == lsb)) {
+                table.putLong(base, msb);
+                table.putLong(base + 8, lsb);
+                table.putLong(base + 16, recordNumber + 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Duplica la tabla de IDs: se reconstruye en un archivo temporal y se
+     * sustituye de forma atómica.
+     */
+    private void growIds() throws IOException {
+        long newCapacity = idCapacity * 2;
+        Path target = directory.resolve("ids.idx");
+        Path temp = directory.resolve("ids.idx.tmp");
+        Files.deleteIfExists(temp);
+        ChunkedMapping grown = ChunkedMapping.open(temp, newCapacity * ID_SLOT_SIZE);
+        for (long slot = 0; slot < idCapacity; slot++) {
+            long base = slot * ID_SLOT_SIZE;
+            long recordPlusOne = ids.getLong(base + 16);
+            if (recordPlusOne != 0) {
+                putId(grown, newCapacity, ids.getLong(base), ids.getLong(base + 8), recordPlusOne - 1);
+            }
+        }
+        grown.force();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ids.close();
+        ids = grown;
+        idCapacity = newCapacity;
+        meta.putLong(META_ID_CAPACITY, newCapacity);
+    }
+
+    private int termId(String term) throws IOException {
+        Integer id = termIds.get(term);
+        if (id == null) {
+            id = termIds.size();
+            Files.writeString(termsFile, term + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            termIds.put(term, id);
+        }
+        return id;
+    }
+
+    private static long hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h & Long.MAX_VALUE;
+    }
+}
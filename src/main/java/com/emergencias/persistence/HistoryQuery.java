@@ -0,0 +1,237 @@
+package com.emergencias.persistence;
+
+import com.emergencias.model.EmergencyEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * <h1>Consulta sobre el Historial de Emergencias</h1>
+ *
+ * <p>
+ * Constructor fluido de consultas: se encadenan los filtros deseados y se
+ * ejecuta con {@link #list()} o {@link #count()}. Todos los filtros se
+ * combinan con "Y".
+ * </p>
+ *
+ * <p>
+ * Para ejecutar la consulta se elige como punto de partida el índice más
+ * selectivo (lista de apariciones del tipo, de un término de la ubicación o
+ * rango del índice temporal) y el resto de filtros se comprueban directamente
+ * sobre los registros binarios, sin crear objetos. Solo los resultados se
+ * convierten en {@link EmergencyEvent}.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class HistoryQuery {
+    private final EmergencyHistory history;
+
+    // --- FILTROS ---
+    private String emergencyType;
+    private Set<String> locationTerms = Set.of();
+    private int minSeverity = Integer.MIN_VALUE;
+    private int maxSeverity = Integer.MAX_VALUE;
+    private long fromMillis = Long.MIN_VALUE;
+    private long toMillis = Long.MAX_VALUE;
+    private boolean timeFiltered = false;
+    private int limit = Integer.MAX_VALUE;
+
+    HistoryQuery(EmergencyHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Filtra por tipo de emergencia (coincidencia exacta, ej. "Incendio").
+     */
+    public HistoryQuery type(String emergencyType) {
+        this.emergencyType = emergencyType;
+        return this;
+    }
+
+    /**
+     * Filtra por ubicación: el evento debe contener todos los términos del
+     * texto indicado (sin distinguir mayúsculas ni acentos). Por ejemplo,
+     * {@code "Murcia"} coincide con "Plaza Belluga, Murcia".
+     */
+    public HistoryQuery location(String location) {
+        this.locationTerms = HistoryIndex.terms(location);
+        return this;
+    }
+
+    /**
+     * Filtra por nivel de gravedad dentro del rango {@code [min, max]}.
+     */
+    public HistoryQuery severityBetween(int min, int max) {
+        this.minSeverity = min;
+        this.maxSeverity = max;
+        return this;
+    }
+
+    /**
+     * Filtra por marca de tiempo dentro del rango {@code [from, to]}.
+     */
+    public HistoryQuery between(LocalDateTime from, LocalDateTime to) {
+        this.fromMillis = MappedEventStore.toEpochMillis(from);
+        this.toMillis = MappedEventStore.toEpochMillis(to);
+        this.timeFiltered = true;
+        return this;
+    }
+
+    /**
+     * Limita el número máximo de resultados: {@link #list()} devuelve los
+     * {@code limit} eventos más recientes que cumplen los filtros.
+     */
+    public HistoryQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Ejecuta la consulta y devuelve los eventos encontrados, ordenados por
+     * marca de tiempo. Con {@link #limit(int)}, solo los más recientes.
+     *
+     * @return La lista de eventos que cumplen todos los filtros.
+     */
+    public List<EmergencyEvent> list() {
+        List<EmergencyEvent> results = new ArrayList<>();
+        if (limit == Integer.MAX_VALUE) {
+            execute(false, record -> results.add(record.toEvent()));
+            results.sort(Comparator.comparing(EmergencyEvent::getTimestamp,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+            return results;
+        }
+
+        // Los candidatos no llegan por orden de tiempo: se conservan los más recientes en un montículo.
+        PriorityQueue<Match> latest = new PriorityQueue<>(Comparator.comparingLong((Match m) -> m.millis));
+        execute(true, record -> {
+            long millis = record.timestampMillis();
+            if (latest.size() < limit) {
+                latest.add(new Match(millis, record.toEvent()));
+            } else if (millis > latest.peek().millis) {
+                latest.poll();
+                latest.add(new Match(millis, record.toEvent()));
+            }
+            return true;
+        });
+        while (!latest.isEmpty()) {
+            results.add(latest.poll().event);
+        }
+        return results;
+    }
+
+    /**
+     * Cuenta los eventos que cumplen los filtros, sin construir ningún objeto.
+     *
+     * @return El número de coincidencias (limitado por {@link #limit(int)}).
+     */
+    public long count() {
+        long[] matches = {0};
+        execute(false, record -> ++matches[0] < limit);
+        return matches[0];
+    }
+
+    /**
+     * Elige el índice de partida y aplica el resto de filtros a cada candidato.
+     *
+     * @param newestFirst Si el índice temporal es el de partida, recorrerlo
+     *                    del más reciente al más antiguo y parar al llegar a
+     *                    {@code limit} coincidencias.
+     */
+    private void execute(boolean newestFirst, MappedEventStore.RecordVisitor onMatch) {
+        if (limit <= 0) {
+            return;
+        }
+        HistoryIndex index = history.index();
+        MappedEventStore store = history.getStore();
+
+        history.lock().readLock().lock();
+        try {
+            // 1. Resolución de los filtros a estructuras del índice.
+            int typeCode = -1;
+            HistoryIndex.IntList typePostings = null;
+            if (emergencyType != null) {
+                typeCode = store.findTypeCode(emergencyType);
+                if (typeCode < 0) {
+                    return; // Tipo nunca registrado: no hay resultados.
+                }
+                typePostings = index.postingsForType(typeCode);
+            }
+            List<HistoryIndex.IntList> termPostings = new ArrayList<>();
+            for (String term : locationTerms) {
+                HistoryIndex.IntList postings = index.postingsForTerm(term);
+                if (postings == null) {
+                    return; // Término desconocido: no hay resultados.
+                }
+                termPostings.add(postings);
+            }
+            long timeMatches = timeFiltered ? index.countBetween(fromMillis, toMillis) : 0;
+
+            // 2. Elección del índice más selectivo como punto de partida.
+            HistoryIndex.IntList driver = typePostings;
+            for (HistoryIndex.IntList postings : termPostings) {
+                if (driver == null || postings.size() < driver.size()) {
+                    driver = postings;
+                }
+            }
+            boolean driveByTime = timeFiltered && (driver == null || timeMatches < driver.size());
+
+            // 3. Recorrido de candidatos aplicando los filtros restantes.
+            final int code = typeCode;
+            final HistoryIndex.IntList drivingList = driveByTime ? null : driver;
+            // Del más reciente al más antiguo, las primeras coincidencias ya son las buscadas.
+            int[] found = {0};
+            MappedEventStore.RecordVisitor emit = driveByTime && newestFirst
+                ? record -> onMatch.visit(record) && ++found[0] < limit
+                : onMatch;
+            MappedEventStore.RecordVisitor filter = record -> {
+                boolean matches = (code < 0 || record.typeCode() == code)
+                    && record.severity() >= minSeverity && record.severity() <= maxSeverity
+                    && record.timestampMillis() >= fromMillis && record.timestampMillis() <= toMillis;
+                int recordNumber = (int) record.recordNumber();
+                for (int i = 0; matches && i < termPostings.size(); i++) {
+                    HistoryIndex.IntList postings = termPostings.get(i);
+                    matches = postings == drivingList || postings.contains(recordNumber);
+                }
+                return !matches || emit.visit(record); // Si no coincide, se sigue buscando.
+            };
+
+            boolean[] stop = {false};
+            MappedEventStore.RecordVisitor guarded = record -> {
+                stop[0] = !filter.visit(record);
+                return !stop[0];
+            };
+            if (driveByTime) {
+                index.visitBetween(fromMillis, toMillis, newestFirst, recordNumber -> {
+                    store.visit(recordNumber, guarded);
+                    return !stop[0];
+                });
+            } else if (drivingList != null) {
+                for (int i = 0; i < drivingList.size() && !stop[0]; i++) {
+                    store.visit(drivingList.get(i), guarded);
+                }
+            } else {
+                store.scan(filter);
+            }
+        } finally {
+            history.lock().readLock().unlock();
+        }
+    }
+
+    /** Un resultado de {@link #list()} con su marca de tiempo, para el montículo. */
+    private static final class Match {
+        private final long millis;
+        private final EmergencyEvent event;
+
+        private Match(long millis, EmergencyEvent event) {
+            this.millis = millis;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * <h1>Punto de Control de un Diario</h1>
+ *
+ * <p>
+ * Guarda la posición hasta la que un {@link EventJournal} es durable y un
+ * resumen de lo que hay antes de ella (número de registros y rango de marcas
+ * de tiempo): se actualiza después de cada {@code force()}, de modo que todos
+ * los registros anteriores a esa posición están completos y verificados en
+ * disco. Al arrancar, la recuperación solo tiene que revisar y decodificar lo
+ * escrito después, y {@link SegmentedJournal} no necesita releer el archivo
+ * activo para conocer su contenido.
+ * </p>
+ *
+ * <p>
+ * El punto de control es solo una pista y no se sincroniza: si se pierde o
+ * queda desfasado, la posición guardada nunca es mayor que la durable, y si
+ * no pertenece al diario actual (identificador distinto) o está dañado, se
+ * ignora y se revisa el diario completo.
+ * </p>
+ *
+ * <p>
+ * Formato (48 bytes): número mágico {@code "EMCP"}, identificador del diario
+ * (long), posición (long), registros (long), primera y última marca de
+ * tiempo en milisegundos (long) y CRC32C de los campos anteriores (int). Un
+ * punto de control del formato anterior (24 bytes) se ignora.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class JournalCheckpoint implements AutoCloseable {
+    private static final int MAGIC = 0x454D4350; // "EMCP"
+    private static final int SIZE = 48;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+
+    /**
+     * Contenido de un diario hasta una posición: número de registros y rango
+     * de sus marcas de tiempo ({@link Long#MIN_VALUE} si un registro no tiene).
+     */
+    static final class Summary {
+        private long offset;
+        private long records;
+        private long firstTimestamp = Long.MAX_VALUE;
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        Summary(long offset) {
+            this.offset = offset;
+        }
+
+        /** Añade un registro (la posición se actualiza aparte). */
+        void add(long timestamp) {
+            records++;
+            if (timestamp != Long.MIN_VALUE) {
+                firstTimestamp = Math.min(firstTimestamp, timestamp);
+                lastTimestamp = Math.max(lastTimestamp, timestamp);
+            }
+        }
+
+        Summary copy() {
+            Summary copy = new Summary(offset);
+            copy.records = records;
+            copy.firstTimestamp = firstTimestamp;
+            copy.lastTimestamp = lastTimestamp;
+            return copy;
+        }
+
+        long offset() { return offset; }
+        void setOffset(long offset) { this.offset = offset; }
+        long records() { return records; }
+        /** @return La primera marca de tiempo, o {@link Long#MAX_VALUE} si no hay ninguna. */
+        long firstTimestamp() { return firstTimestamp; }
+        /** @return La última marca de tiempo, o {@link Long#MIN_VALUE} si no hay ninguna. */
+        long lastTimestamp() { return lastTimestamp; }
+    }
+
+    /**
+     * Abre (o crea) el archivo del punto de control.
+     *
+     * @param path Ruta del archivo (ej. {@code emergency_history.journal.ckpt}).
+     * @throws IOException si no se puede abrir.
+     */
+    JournalCheckpoint(Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Lee el punto de control guardado para el diario indicado.
+     *
+     * @param journalId Identificador del diario (de su cabecera).
+     * @return La posición durable y el resumen de lo anterior, o {@code null}
+     *         si no hay un punto de control válido para ese diario.
+     * @throws IOException si ocurre un error de lectura.
+     */
+    synchronized Summary read(long journalId) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != MAGIC || buffer.getLong() != journalId) {
+            return null;
+        }
+        Summary summary = new Summary(buffer.getLong());
+        summary.records = buffer.getLong();
+        summary.firstTimestamp = buffer.getLong();
+        summary.lastTimestamp = buffer.getLong();
+        if (buffer.getInt() != checksum(buffer, SIZE - Integer.BYTES) || summary.records < 0) {
+            return null;
+        }
+        return summary;
+    }
+
+    /**
+     * Guarda la posición durable del diario y el resumen de lo anterior (sin
+     * forzarlos a disco).
+     *
+     * @param journalId Identificador del diario.
+     * @param summary   Posición hasta la que el diario es durable y su contenido.
+     */
+    synchronized void write(long journalId, Summary summary) {
+        buffer.clear();
+        buffer.putInt(MAGIC).putLong(journalId).putLong(summary.offset).putLong(summary.records)
+            .putLong(summary.firstTimestamp).putLong(summary.lastTimestamp);
+        buffer.putInt(checksum(buffer, buffer.position()));
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        } catch (IOException e) {
+            // No es crítico: en el próximo arranque se revisará más parte del diario.
+            System.err.println("⚠️  Advertencia: No se pudo actualizar el punto de control: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static int checksum(ByteBuffer fields, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(fields.array(), 0, length);
+        return (int) crc.getValue();
+    }
+}
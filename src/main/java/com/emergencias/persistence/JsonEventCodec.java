@@ -0,0 +1,58 @@
+package com.emergencias.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+
+/**
+ * <h1>Codificador JSON</h1>
+ *
+ * <p>
+ * Codifica los registros como JSON compacto con Jackson. El
+ * {@link ObjectReader} y el {@link ObjectWriter} se construyen una sola vez
+ * (son inmutables y seguros entre hilos), en lugar de resolver el tipo en
+ * cada llamada a {@code ObjectMapper}.
+ * </p>
+ *
+ * @param <T> El tipo de registro.
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class JsonEventCodec<T> implements EventCodec<T> {
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    /**
+     * @param type   Clase de los registros.
+     * @param mapper {@link ObjectMapper} configurado (módulos de fechas, etc.).
+     */
+    public JsonEventCodec(Class<T> type, ObjectMapper mapper) {
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+    }
+
+    @Override
+    public int id() {
+        return JSON_ID;
+    }
+
+    @Override
+    public byte[] encode(T record) throws IOException {
+        return writer.writeValueAsBytes(record);
+    }
+
+    @Override
+    public T decode(byte[] data, int offset, int length) throws IOException {
+        return reader.readValue(data, offset, length);
+    }
+
+    /**
+     * @return El lector de Jackson, usado también para los archivos JSON antiguos.
+     */
+    ObjectReader reader() {
+        return reader;
+    }
+}
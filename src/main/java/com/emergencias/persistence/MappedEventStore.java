@@ -0,0 +1,419 @@
+package com.emergencias.persistence;
+
+import com.emergencias.model.EmergencyEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <h1>Almacén Binario de Eventos Mapeado en Memoria</h1>
+ *
+ * <p>
+ * Guarda el historial de emergencias en registros binarios de ancho fijo
+ * dentro de segmentos mapeados en memoria ({@link MappedByteBuffer}). Al ser
+ * de ancho fijo, el registro número {@code n} está siempre en la misma
+ * posición, por lo que el acceso aleatorio es O(1) y no requiere parsear nada.
+ * </p>
+ *
+ * <p>
+ * Estructura en disco (dentro del directorio del almacén):
+ * <ul>
+ *     <li>{@code store.meta}: cabecera con el número de registros confirmados.</li>
+ *     <li>{@code events-NNNNN.seg}: segmentos de {@value #RECORDS_PER_SEGMENT} registros
+ *         de {@value #RECORD_SIZE} bytes.</li>
+ *     <li>{@code strings.heap}: montículo de cadenas (ubicación y datos de usuario) en UTF-8.</li>
+ *     <li>{@code types.dict}: diccionario de tipos de emergencia (una línea por código).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Disposición de cada registro: ID (16 bytes), marca de tiempo en milisegundos
+ * (8), código de tipo (2), gravedad (1), reservado (1), longitud de la ubicación
+ * (4), desplazamiento de la ubicación (8), desplazamiento de los datos de usuario
+ * (8), longitud de los datos de usuario (4) y relleno hasta 64 bytes.
+ * </p>
+ *
+ * <p>
+ * Las marcas de tiempo son {@link LocalDateTime} sin zona horaria; se
+ * convierten a milisegundos tratándolas como UTC, lo que es reversible y
+ * mantiene el orden. Un evento sin marca de tiempo se guarda con
+ * {@link #NO_TIMESTAMP}, que queda antes que cualquier otra.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class MappedEventStore implements AutoCloseable {
+    // --- FORMATO ---
+    static final int RECORD_SIZE = 64;
+    static final int RECORDS_PER_SEGMENT = 65_536;
+    private static final long SEGMENT_BYTES = (long) RECORD_SIZE * RECORDS_PER_SEGMENT;
+    private static final int META_MAGIC = 0x454D5354; // "EMST"
+    private static final int META_SIZE = 16;
+    /** Marca de tiempo de los registros sin ella (la misma que usa {@link SegmentedJournal}). */
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // --- DESPLAZAMIENTOS DENTRO DE UN REGISTRO ---
+    private static final int OFF_ID_MSB = 0;
+    private static final int OFF_ID_LSB = 8;
+    private static final int OFF_TIMESTAMP = 16;
+    private static final int OFF_TYPE = 24;
+    private static final int OFF_SEVERITY = 26;
+    private static final int OFF_LOCATION_LEN = 28;
+    private static final int OFF_LOCATION = 32;
+    private static final int OFF_USER = 40;
+    private static final int OFF_USER_LEN = 48;
+
+    private final Path directory;
+    private final MappedByteBuffer meta;
+    private final FileChannel heapChannel;
+    private final Path typesFile;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+
+    // Diccionario de tipos: código -> nombre y nombre -> código.
+    private final List<String> typeNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+
+    private volatile long count;
+    private long heapSize;
+
+    /**
+     * Acceso de solo lectura a un registro sin crear un {@link EmergencyEvent}.
+     * <p>
+     * La misma instancia se reutiliza durante un recorrido: no debe guardarse
+     * fuera de la llamada al {@link RecordVisitor}.
+     * </p>
+     */
+    public final class RecordView {
+        private ByteBuffer segment;
+        private int base;
+        private long recordNumber;
+
+        private void moveTo(long recordNumber) {
+            this.recordNumber = recordNumber;
+            this.segment = segments.get((int) (recordNumber / RECORDS_PER_SEGMENT));
+            this.base = (int) (recordNumber % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        }
+
+        public long recordNumber() { return recordNumber; }
+        public long idMostSignificantBits() { return segment.getLong(base + OFF_ID_MSB); }
+        public long idLeastSignificantBits() { return segment.getLong(base + OFF_ID_LSB); }
+        public long timestampMillis() { return segment.getLong(base + OFF_TIMESTAMP); }
+        public int typeCode() { return segment.getShort(base + OFF_TYPE); }
+        public int severity() { return segment.get(base + OFF_SEVERITY); }
+
+        /** Nombre del tipo, resuelto en el diccionario (no crea cadenas nuevas). */
+        public String emergencyType() { return typeNames.get(typeCode()); }
+
+        /** Ubicación, leída del montículo de cadenas (crea una cadena). */
+        public String location() {
+            return readString(segment.getLong(base + OFF_LOCATION), segment.getInt(base + OFF_LOCATION_LEN));
+        }
+
+        /** Reconstruye el evento completo. */
+        public EmergencyEvent toEvent() {
+            return new EmergencyEvent(
+                new UUID(idMostSignificantBits(), idLeastSignificantBits()).toString(),
+                emergencyType(),
+                location(),
+                severity(),
+                readString(segment.getLong(base + OFF_USER), segment.getInt(base + OFF_USER_LEN)),
+                timestampMillis() == NO_TIMESTAMP ? null : fromEpochMillis(timestampMillis()));
+        }
+    }
+
+    /**
+     * Función que se aplica a cada registro durante un recorrido.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param record Vista del registro actual.
+         * @return {@code true} para continuar el recorrido, {@code false} para detenerlo.
+         */
+        boolean visit(RecordView record);
+    }
+
+    /**
+     * Abre (o crea) el almacén en el directorio indicado.
+     *
+     * @param directory Directorio del almacén.
+     * @throws IOException si no se pueden abrir o mapear los archivos.
+     */
+    public MappedEventStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.typesFile = directory.resolve("types.dict");
+
+        try (FileChannel metaChannel = FileChannel.open(directory.resolve("store.meta"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean isNew = metaChannel.size() == 0;
+            this.meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+            if (isNew) {
+                meta.putInt(0, META_MAGIC).putInt(4, 1).putLong(8, 0);
+            } else if (meta.getInt(0) != META_MAGIC) {
+                throw new IOException("El directorio " + directory + " no contiene un almacén de eventos válido.");
+            }
+        }
+
+        this.heapChannel = FileChannel.open(directory.resolve("strings.heap"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.heapSize = heapChannel.size();
+
+        if (Files.exists(typesFile)) {
+            for (String name : Files.readAllLines(typesFile, StandardCharsets.UTF_8)) {
+                typeCodes.put(name, typeNames.size());
+                typeNames.add(name);
+            }
+        }
+
+        long stored = meta.getLong(8);
+        for (long n = 0; n < stored; n += RECORDS_PER_SEGMENT) {
+            mapSegment(segments.size());
+        }
+        this.count = stored;
+        discardIncompleteTail();
+    }
+
+    /**
+     * Añade un evento al almacén.
+     *
+     * @param event El evento a guardar (debe tener un ID con formato UUID).
+     * @return El número de registro asignado.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public synchronized long append(EmergencyEvent event) throws IOException {
+        UUID id = UUID.fromString(event.getId());
+        long recordNumber = count;
+        int segmentIndex = (int) (recordNumber / RECORDS_PER_SEGMENT);
+        if (segmentIndex == segments.size()) {
+            mapSegment(segmentIndex);
+        }
+
+        byte[] location = utf8(event.getLocation());
+        byte[] user = utf8(event.getUserData());
+        long locationOffset = appendString(location);
+        long userOffset = appendString(user);
+
+        ByteBuffer segment = segments.get(segmentIndex);
+        int base = (int) (recordNumber % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        segment.putLong(base + OFF_ID_MSB, id.getMostSignificantBits());
+        segment.putLong(base + OFF_ID_LSB, id.getLeastSignificantBits());
+        segment.putLong(base + OFF_TIMESTAMP,
+            event.getTimestamp() == null ? NO_TIMESTAMP : toEpochMillis(event.getTimestamp()));
+        segment.putShort(base + OFF_TYPE, (short) typeCode(event.getEmergencyType()));
+        segment.put(base + OFF_SEVERITY, (byte) event.getSeverityLevel());
+        segment.putInt(base + OFF_LOCATION_LEN, location.length);
+        segment.putLong(base + OFF_LOCATION, locationOffset);
+        segment.putLong(base + OFF_USER, userOffset);
+        segment.putInt(base + OFF_USER_LEN, user.length);
+
+        // El contador se publica al final: los lectores nunca ven un registro a medias.
+        meta.putLong(8, recordNumber + 1);
+        count = recordNumber + 1;
+        return recordNumber;
+    }
+
+    /**
+     * Devuelve el evento con el número de registro indicado, en tiempo O(1).
+     *
+     * @param recordNumber Número de registro (de 0 a {@code size() - 1}).
+     * @return El evento reconstruido.
+     */
+    public EmergencyEvent get(long recordNumber) {
+        checkRecordNumber(recordNumber);
+        RecordView view = new RecordView();
+        view.moveTo(recordNumber);
+        return view.toEvent();
+    }
+
+    /**
+     * Recorre todos los registros sin crear objetos por fila.
+     *
+     * @param visitor Función aplicada a cada registro.
+     */
+    public void scan(RecordVisitor visitor) {
+        scan(0, count, visitor);
+    }
+
+    /**
+     * Recorre los registros del rango {@code [from, to)} sin crear objetos por fila.
+     *
+     * @param from    Primer registro (incluido).
+     * @param to      Último registro (excluido); se limita al tamaño actual.
+     * @param visitor Función aplicada a cada registro.
+     */
+    public void scan(long from, long to, RecordVisitor visitor) {
+        long end = Math.min(to, count);
+        RecordView view = new RecordView();
+        for (long n = Math.max(0, from); n < end; n++) {
+            view.moveTo(n);
+            if (!visitor.visit(view)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Visita un único registro sin crear un {@link EmergencyEvent}.
+     *
+     * @param recordNumber Número de registro.
+     * @param visitor      Función aplicada al registro.
+     */
+    public void visit(long recordNumber, RecordVisitor visitor) {
+        checkRecordNumber(recordNumber);
+        RecordView view = new RecordView();
+        view.moveTo(recordNumber);
+        visitor.visit(view);
+    }
+
+    /**
+     * Devuelve todos los eventos del almacén (útil para exportaciones pequeñas).
+     *
+     * @return La lista de eventos en orden de registro.
+     */
+    public List<EmergencyEvent> readAll() {
+        List<EmergencyEvent> events = new ArrayList<>();
+        scan(record -> events.add(record.toEvent()));
+        return events;
+    }
+
+    /**
+     * @return El número de registros confirmados.
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Devuelve el código de diccionario de un tipo, o -1 si no existe.
+     *
+     * @param emergencyType Nombre del tipo.
+     * @return El código, o -1.
+     */
+    public int findTypeCode(String emergencyType) {
+        synchronized (this) {
+            return typeCodes.getOrDefault(emergencyType, -1);
+        }
+    }
+
+    public Path getDirectory() { return directory; }
+
+    /**
+     * Fuerza a disco los segmentos, el montículo y la cabecera.
+     *
+     * @throws IOException si ocurre un error al sincronizar.
+     */
+    public synchronized void flush() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        heapChannel.force(false);
+        meta.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        heapChannel.close();
+    }
+
+    // --- CONVERSIÓN DE MARCAS DE TIEMPO ---
+
+    static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    // --- MÉTODOS AUXILIARES ---
+
+    private void mapSegment(int index) throws IOException {
+        Path file = directory.resolve(String.format("events-%05d.seg", index));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES));
+        }
+    }
+
+    private long appendString(byte[] bytes) throws IOException {
+        long offset = heapSize;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            heapChannel.write(buffer, offset + buffer.position());
+        }
+        heapSize += bytes.length;
+        return offset;
+    }
+
+    private String readString(long offset, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (heapChannel.read(buffer, offset + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el montículo de cadenas del almacén.", e);
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private int typeCode(String emergencyType) throws IOException {
+        String name = emergencyType == null ? "" : emergencyType;
+        Integer code = typeCodes.get(name);
+        if (code == null) {
+            code = typeNames.size();
+            Files.writeString(typesFile, name + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            typeNames.add(name);
+            typeCodes.put(name, code);
+        }
+        return code;
+    }
+
+    /**
+     * Tras una caída, el último registro puede apuntar a cadenas que no llegaron
+     * al montículo: se descartan los registros finales inconsistentes.
+     */
+    private void discardIncompleteTail() {
+        RecordView view = new RecordView();
+        while (count > 0) {
+            view.moveTo(count - 1);
+            long userEnd = view.segment.getLong(view.base + OFF_USER) + view.segment.getInt(view.base + OFF_USER_LEN);
+            if (userEnd <= heapSize && view.typeCode() < typeNames.size()) {
+                return;
+            }
+            count--;
+            meta.putLong(8, count);
+        }
+    }
+
+    private void checkRecordNumber(long recordNumber) {
+        if (recordNumber < 0 || recordNumber >= count) {
+            throw new IndexOutOfBoundsException("Número de registro fuera de rango: " + recordNumber);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package com.emergencias.persistence;
+
+/**
+ * <h1>Política de Desbordamiento del Escritor Asíncrono</h1>
+ *
+ * <p>
+ * Define qué hace un {@link AsyncFileAppender} cuando su buffer circular
+ * está lleno porque el disco no da abasto.
+ * </p>
+ *
+ * <ul>
+ *     <li><b>{@link #block()}:</b> el llamante espera a que haya hueco. No se pierde nada,
+ *         pero el llamante se frena al ritmo del disco.</li>
+ *     <li><b>{@link #dropBelow(int)}:</b> se descartan los mensajes con gravedad menor que
+ *         la indicada; los demás esperan como en {@code block()}.</li>
+ *     <li><b>{@link #spill()}:</b> los mensajes que no caben pasan a una cola auxiliar que
+ *         el escritor vacía después. No se bloquea ni se pierde nada, a cambio de memoria y
+ *         de que esos mensajes pueden escribirse algo más tarde que otros posteriores. La
+ *         cola tiene un límite en bytes ({@value #DEFAULT_SPILL_BYTES} por defecto, o el de
+ *         {@link #spill(long)}); con ella llena, el llamante espera como en
+ *         {@code block()}.</li>
+ * </ul>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class OverflowPolicy {
+
+    /**
+     * Comportamientos disponibles con el buffer lleno.
+     */
+    public enum Mode { BLOCK, DROP_LOW_SEVERITY, SPILL }
+
+    /** Límite por defecto de la cola auxiliar de {@link #spill()}. */
+    public static final long DEFAULT_SPILL_BYTES = 8L * 1024 * 1024;
+
+    private final Mode mode;
+    private final int minSeverity;
+    private final long maxSpillBytes;
+
+    private OverflowPolicy(Mode mode, int minSeverity, long maxSpillBytes) {
+        this.mode = mode;
+        this.minSeverity = minSeverity;
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
+    /**
+     * @return La política que hace esperar al llamante.
+     */
+    public static OverflowPolicy block() {
+        return new OverflowPolicy(Mode.BLOCK, 0, 0);
+    }
+
+    /**
+     * @param minSeverity Gravedad mínima de los mensajes que se conservan con el buffer lleno.
+     * @return La política que descarta los mensajes leves.
+     */
+    public static OverflowPolicy dropBelow(int minSeverity) {
+        return new OverflowPolicy(Mode.DROP_LOW_SEVERITY, minSeverity, 0);
+    }
+
+    /**
+     * @return La política que desborda a una cola auxiliar de hasta {@value #DEFAULT_SPILL_BYTES} bytes.
+     */
+    public static OverflowPolicy spill() {
+        return spill(DEFAULT_SPILL_BYTES);
+    }
+
+    /**
+     * @param maxBytes Bytes que puede acumular la cola auxiliar antes de que el llamante espere.
+     * @return La política que desborda a una cola auxiliar limitada.
+     * @throws IllegalArgumentException si el límite no es positivo.
+     */
+    public static OverflowPolicy spill(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("El límite de la cola auxiliar debe ser positivo: " + maxBytes);
+        }
+        return new OverflowPolicy(Mode.SPILL, 0, maxBytes);
+    }
+
+    public Mode getMode() { return mode; }
+    public int getMinSeverity() { return minSeverity; }
+    public long getMaxSpillBytes() { return maxSpillBytes; }
+
+    @Override
+    public String toString() {
+        return switch (mode) {
+            case DROP_LOW_SEVERITY -> mode + " (< " + minSeverity + ")";
+            case SPILL -> mode + " (<= " + maxSpillBytes + " bytes)";
+            default -> mode.toString();
+        };
+    }
+}
@@ -0,0 +1,525 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h1>Listas de Apariciones en Disco</h1>
+ *
+ * <p>
+ * Guarda las listas de apariciones de {@link HistoryIndex} (registros por
+ * código de tipo y por término de la ubicación) sin tener que releerlas
+ * enteras al abrir:
+ * </p>
+ *
+ * <ul>
+ *     <li>Cada aparición nueva se añade al registro secuencial
+ *         ({@code postings.log}) y a una lista pendiente en memoria.</li>
+ *     <li>Cada {@value #CHECKPOINT_POSTINGS} apariciones, y al cerrar, las
+ *         pendientes se vuelcan en una ronda inmutable
+ *         ({@code postings-NNNNNN.run}): un directorio (tipo, clave, número,
+ *         último registro, desplazamiento) seguido de las listas. El
+ *         manifiesto ({@code postings.runs}) enumera las rondas y hasta dónde
+ *         cubren el registro.</li>
+ *     <li>Cuando la última ronda es al menos la mitad de grande que la
+ *         anterior, se funden en una, así que las rondas crecen de forma
+ *         geométrica: hay pocas y cada aparición se copia pocas veces.</li>
+ * </ul>
+ *
+ * <p>
+ * Al abrir solo se leen los directorios de las rondas y la parte del
+ * registro posterior al último punto de control. Una lista se lee de disco
+ * la primera vez que una consulta la necesita.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class PostingsStore implements AutoCloseable {
+    static final byte KIND_TYPE = 0;
+    static final byte KIND_TERM = 1;
+    static final int CHECKPOINT_POSTINGS = 1 << 20;
+
+    private static final int POSTING_SIZE = 9;
+    private static final int RUN_MAGIC = 0x454D5052; // "EMPR"
+    private static final int MANIFEST_MAGIC = 0x454D504D; // "EMPM"
+    private static final int RUN_HEADER_SIZE = 8;
+    private static final int DIRECTORY_ENTRY_SIZE = 21;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final Path manifestFile;
+    private final FileChannel log;
+    private final Map<Integer, PostingList> byType = new HashMap<>();
+    private final Map<Integer, PostingList> byTerm = new HashMap<>();
+    private final List<Run> runs = new ArrayList<>();
+    private long covered; // Bytes del registro que ya están en las rondas.
+    private long nextRun;
+    private int pending;
+
+    /**
+     * Lista de apariciones de una clave: sus trozos en las rondas (del más
+     * antiguo al más reciente) y las apariciones pendientes.
+     */
+    private static final class PostingList {
+        private final List<Part> parts = new ArrayList<>();
+        private HistoryIndex.IntList pendingRecords = new HistoryIndex.IntList();
+        private volatile HistoryIndex.IntList loaded; // Rondas + pendientes, al consultarla.
+        private int last = -1;
+    }
+
+    private static final class Part {
+        private final Run run;
+        private final long offset;
+        private final int count;
+
+        private Part(Run run, long offset, int count) {
+            this.run = run;
+            this.offset = offset;
+            this.count = count;
+        }
+    }
+
+    private static final class Run {
+        private final long number;
+        private final Path file;
+        private final FileChannel channel;
+        private long postings;
+
+        private Run(long number, Path file) throws IOException {
+            this.number = number;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        }
+    }
+
+    /**
+     * Abre las listas del directorio indicado.
+     *
+     * @param directory Directorio de los índices.
+     * @param confirmed Bytes confirmados del registro; lo posterior se descarta.
+     * @throws IOException si no se pueden leer o están dañadas.
+     */
+    PostingsStore(Path directory, long confirmed) throws IOException {
+        this.directory = directory;
+        this.manifestFile = directory.resolve("postings.runs");
+        readManifest();
+        if (covered > confirmed) {
+            throw new IOException("Las listas de apariciones de " + directory
+                + " están por delante del índice; bórrelas para reconstruirlas.");
+        }
+        deleteStrayRuns();
+        this.log = FileChannel.open(directory.resolve("postings.log"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (log.size() > confirmed) {
+            log.truncate(confirmed); // Escrituras no confirmadas.
+        }
+        replay(covered, confirmed);
+    }
+
+    /**
+     * Añade las apariciones de un registro.
+     *
+     * @param typeCode     Código del tipo de emergencia.
+     * @param termIds      Identificadores de los términos de la ubicación.
+     * @param recordNumber Número de registro.
+     * @throws IOException si no se puede escribir el registro.
+     */
+    void add(int typeCode, List<Integer> termIds, int recordNumber) throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate(POSTING_SIZE * (1 + termIds.size()));
+        entries.put(KIND_TYPE).putInt(typeCode).putInt(recordNumber);
+        for (int termId : termIds) {
+            entries.put(KIND_TERM).putInt(termId).putInt(recordNumber);
+        }
+        entries.flip();
+        long position = log.size();
+        while (entries.hasRemaining()) {
+            position += log.write(entries, position);
+        }
+        addPending(KIND_TYPE, typeCode, recordNumber);
+        for (int termId : termIds) {
+            addPending(KIND_TERM, termId, recordNumber);
+        }
+    }
+
+    /**
+     * @return La lista de un código de tipo, o {@code null} si no tiene apariciones.
+     */
+    HistoryIndex.IntList forType(int typeCode) throws IOException {
+        return load(byType.get(typeCode));
+    }
+
+    /**
+     * @return La lista de un término, o {@code null} si no tiene apariciones.
+     */
+    HistoryIndex.IntList forTerm(int termId) throws IOException {
+        return load(byTerm.get(termId));
+    }
+
+    /** @return Longitud actual del registro. */
+    long length() throws IOException {
+        return log.size();
+    }
+
+    /** @return {@code true} si hay suficientes apariciones pendientes para un punto de control. */
+    boolean needsCheckpoint() {
+        return pending >= CHECKPOINT_POSTINGS;
+    }
+
+    void force() throws IOException {
+        log.force(false);
+    }
+
+    /**
+     * Vuelca las apariciones pendientes en una ronda nueva.
+     *
+     * @param confirmed Longitud del registro ya confirmada y durable: la ronda la cubre.
+     * @throws IOException si no se puede escribir.
+     */
+    void checkpoint(long confirmed) throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        List<Integer> kinds = new ArrayList<>();
+        List<Integer> keys = new ArrayList<>();
+        List<PostingList> lists = new ArrayList<>();
+        collect(KIND_TYPE, byType, kinds, keys, lists, list -> list.pendingRecords.size() > 0);
+        collect(KIND_TERM, byTerm, kinds, keys, lists, list -> list.pendingRecords.size() > 0);
+
+        long number = nextRun++;
+        long[] offsets = new long[lists.size()];
+        Run run = writeRun(number, kinds, keys, lists, offsets, (list, out) -> {
+            HistoryIndex.IntList records = list.pendingRecords;
+            ByteBuffer buffer = ByteBuffer.allocate(records.size() * 4);
+            for (int i = 0; i < records.size(); i++) {
+                buffer.putInt(records.get(i));
+            }
+            writeFully(out, buffer.flip());
+        }, list -> list.pendingRecords.size());
+
+        runs.add(run);
+        covered = confirmed;
+        writeManifest();
+        for (int i = 0; i < lists.size(); i++) {
+            PostingList list = lists.get(i);
+            list.parts.add(new Part(run, offsets[i], list.pendingRecords.size()));
+            list.pendingRecords = new HistoryIndex.IntList();
+        }
+        pending = 0;
+
+        while (runs.size() > 1 && runs.get(runs.size() - 1).postings * 2 >= runs.get(runs.size() - 2).postings) {
+            mergeLastRuns();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+        for (Run run : runs) {
+            run.channel.close();
+        }
+    }
+
+    // --- LECTURA ---
+
+    private HistoryIndex.IntList load(PostingList list) throws IOException {
+        if (list == null) {
+            return null;
+        }
+        HistoryIndex.IntList loaded = list.loaded;
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (list) { // Varias consultas pueden pedir la misma lista a la vez.
+            if (list.loaded == null) {
+                loaded = new HistoryIndex.IntList();
+                ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                for (Part part : list.parts) {
+                    long position = part.offset;
+                    long end = part.offset + (long) part.count * 4;
+                    while (position < end) {
+                        buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                        int read = part.run.channel.read(buffer, position);
+                        if (read <= 0) {
+                            throw new IOException("Ronda de apariciones incompleta: " + part.run.file);
+                        }
+                        position += read;
+                        buffer.flip();
+                        while (buffer.remaining() >= 4) {
+                            loaded.add(buffer.getInt());
+                        }
+                        position -= buffer.remaining(); // Un entero partido se vuelve a leer.
+                    }
+                }
+                for (int i = 0; i < list.pendingRecords.size(); i++) {
+                    loaded.add(list.pendingRecords.get(i));
+                }
+                list.loaded = loaded;
+            }
+            return list.loaded;
+        }
+    }
+
+    private void addPending(byte kind, int key, int recordNumber) {
+        PostingList list = (kind == KIND_TYPE ? byType : byTerm).computeIfAbsent(key, k -> new PostingList());
+        if (recordNumber <= list.last) {
+            return; // Ya estaba (por ejemplo, reindexado tras una caída).
+        }
+        list.pendingRecords.add(recordNumber);
+        HistoryIndex.IntList loaded = list.loaded;
+        if (loaded != null) {
+            loaded.add(recordNumber);
+        }
+        list.last = recordNumber;
+        pending++;
+    }
+
+    /**
+     * Relee el registro desde el último punto de control.
+     */
+    private void replay(long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(POSTING_SIZE * 4096);
+        long position = from;
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            int read = log.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.remaining() >= POSTING_SIZE) {
+                addPending(buffer.get(), buffer.getInt(), buffer.getInt());
+                position += POSTING_SIZE;
+            }
+        }
+    }
+
+    // --- RONDAS Y MANIFIESTO ---
+
+    private interface ListWriter {
+        void write(PostingList list, FileChannel out) throws IOException;
+    }
+
+    private interface ListSize {
+        int of(PostingList list);
+    }
+
+    private interface ListFilter {
+        boolean accept(PostingList list);
+    }
+
+    private static void collect(byte kind, Map<Integer, PostingList> source, List<Integer> kinds,
+                                List<Integer> keys, List<PostingList> lists, ListFilter filter) {
+        for (Map.Entry<Integer, PostingList> entry : source.entrySet()) {
+            if (filter.accept(entry.getValue())) {
+                kinds.add((int) kind);
+                keys.add(entry.getKey());
+                lists.add(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Escribe una ronda en un archivo temporal y la renombra de forma atómica.
+     *
+     * @param offsets Recibe el desplazamiento de cada lista dentro de la ronda.
+     */
+    private Run writeRun(long number, List<Integer> kinds, List<Integer> keys, List<PostingList> lists,
+                         long[] offsets, ListWriter writer, ListSize sizes) throws IOException {
+        Path target = runFile(number);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        ByteBuffer header = ByteBuffer.allocate(RUN_HEADER_SIZE + DIRECTORY_ENTRY_SIZE * lists.size());
+        header.putInt(RUN_MAGIC).putInt(lists.size());
+        long offset = header.capacity();
+        long postings = 0;
+        for (int i = 0; i < lists.size(); i++) {
+            int count = sizes.of(lists.get(i));
+            offsets[i] = offset;
+            header.put(kinds.get(i).byteValue()).putInt(keys.get(i)).putInt(count)
+                .putInt(lists.get(i).last).putLong(offset);
+            offset += (long) count * 4;
+            postings += count;
+        }
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, header.flip());
+            for (PostingList list : lists) {
+                writer.write(list, out);
+            }
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Run run = new Run(number, target);
+        run.postings = postings;
+        return run;
+    }
+
+    /**
+     * Funde las dos últimas rondas en una. Sus trozos son los últimos de
+     * cada lista, así que el orden de los registros se mantiene.
+     */
+    private void mergeLastRuns() throws IOException {
+        Run older = runs.get(runs.size() - 2);
+        Run newer = runs.get(runs.size() - 1);
+        List<Integer> kinds = new ArrayList<>();
+        List<Integer> keys = new ArrayList<>();
+        List<PostingList> lists = new ArrayList<>();
+        ListFilter inMerged = list -> !list.parts.isEmpty() && isMerged(list.parts.get(list.parts.size() - 1), older, newer);
+        collect(KIND_TYPE, byType, kinds, keys, lists, inMerged);
+        collect(KIND_TERM, byTerm, kinds, keys, lists, inMerged);
+
+        long[] offsets = new long[lists.size()];
+        Run merged = writeRun(nextRun++, kinds, keys, lists, offsets, (list, out) -> {
+            for (Part part : list.parts) {
+                if (isMerged(part, older, newer)) {
+                    long position = part.offset;
+                    long end = part.offset + (long) part.count * 4;
+                    while (position < end) {
+                        position += part.run.channel.transferTo(position, end - position, out);
+                    }
+                }
+            }
+        }, list -> mergedCount(list, older, newer));
+
+        for (int i = 0; i < lists.size(); i++) {
+            PostingList list = lists.get(i);
+            int count = mergedCount(list, older, newer);
+            list.parts.removeIf(part -> isMerged(part, older, newer));
+            list.parts.add(new Part(merged, offsets[i], count));
+        }
+        runs.remove(runs.size() - 1);
+        runs.set(runs.size() - 1, merged);
+        writeManifest();
+        for (Run run : new Run[] {older, newer}) {
+            run.channel.close();
+            Files.deleteIfExists(run.file);
+        }
+    }
+
+    private static boolean isMerged(Part part, Run older, Run newer) {
+        return part.run == older || part.run == newer;
+    }
+
+    private static int mergedCount(PostingList list, Run older, Run newer) {
+        int count = 0;
+        for (Part part : list.parts) {
+            if (isMerged(part, older, newer)) {
+                count += part.count;
+            }
+        }
+        return count;
+    }
+
+    private void readManifest() throws IOException {
+        if (!Files.exists(manifestFile)) {
+            return;
+        }
+        ByteBuffer manifest = ByteBuffer.wrap(Files.readAllBytes(manifestFile));
+        if (manifest.remaining() < 24 || manifest.getInt() != MANIFEST_MAGIC) {
+            throw new IOException("Manifiesto de apariciones dañado: " + manifestFile);
+        }
+        covered = manifest.getLong();
+        nextRun = manifest.getLong();
+        int count = manifest.getInt();
+        for (int i = 0; i < count; i++) {
+            long number = manifest.getLong();
+            Run run = new Run(number, runFile(number));
+            runs.add(run);
+            readDirectory(run);
+        }
+    }
+
+    /**
+     * Lee el directorio de una ronda y añade sus trozos a las listas.
+     */
+    private void readDirectory(Run run) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RUN_HEADER_SIZE);
+        readFully(run, header, 0);
+        if (header.getInt() != RUN_MAGIC) {
+            throw new IOException("Ronda de apariciones dañada: " + run.file);
+        }
+        int keys = header.getInt();
+        if (keys < 0 || (long) keys * DIRECTORY_ENTRY_SIZE > run.channel.size() - RUN_HEADER_SIZE) {
+            throw new IOException("Ronda de apariciones dañada: " + run.file);
+        }
+        ByteBuffer entries = ByteBuffer.allocate(keys * DIRECTORY_ENTRY_SIZE);
+        readFully(run, entries, RUN_HEADER_SIZE);
+        for (int i = 0; i < keys; i++) {
+            byte kind = entries.get();
+            int key = entries.getInt();
+            int postings = entries.getInt();
+            int last = entries.getInt();
+            long offset = entries.getLong();
+            if (postings < 0 || offset < 0 || offset + (long) postings * 4 > run.channel.size()) {
+                throw new IOException("Ronda de apariciones dañada: " + run.file);
+            }
+            PostingList list = (kind == KIND_TYPE ? byType : byTerm).computeIfAbsent(key, k -> new PostingList());
+            list.parts.add(new Part(run, offset, postings));
+            list.last = Math.max(list.last, last);
+            run.postings += postings;
+        }
+    }
+
+    private static void readFully(Run run, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = run.channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Ronda de apariciones incompleta: " + run.file);
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private void writeManifest() throws IOException {
+        ByteBuffer manifest = ByteBuffer.allocate(24 + 8 * runs.size());
+        manifest.putInt(MANIFEST_MAGIC).putLong(covered).putLong(nextRun).putInt(runs.size());
+        for (Run run : runs) {
+            manifest.putLong(run.number);
+        }
+        Path temp = directory.resolve("postings.runs.tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, manifest.flip());
+            out.force(true);
+        }
+        Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteStrayRuns() throws IOException {
+        Set<Path> live = new HashSet<>();
+        for (Run run : runs) {
+            live.add(run.file.getFileName());
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "postings-*.run*")) {
+            for (Path file : files) {
+                if (!live.contains(file.getFileName())) {
+                    Files.deleteIfExists(file); // De un punto de control o una fusión interrumpidos.
+                }
+            }
+        }
+    }
+
+    private Path runFile(long number) {
+        return directory.resolve(String.format("postings-%06d.run", number));
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <h1>Flujos Perezosos de Registros</h1>
+ *
+ * <p>
+ * Convierte un lector de registros "de uno en uno" en un {@link Stream} que
+ * solo decodifica cada registro cuando se le pide. La memoria usada no
+ * depende del tamaño del archivo, y el recurso subyacente se cierra al
+ * cerrar el flujo (se recomienda usar try-with-resources).
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class RecordStreams {
+
+    private RecordStreams() {}
+
+    /**
+     * Fuente de registros que puede fallar con {@link IOException}.
+     *
+     * @param <E> Tipo de registro.
+     */
+    @FunctionalInterface
+    interface RecordReader<E> {
+        /**
+         * @return El siguiente registro, o {@code null} si no quedan más.
+         */
+        E next() throws IOException;
+    }
+
+    /**
+     * Crea un flujo ordenado y perezoso sobre una fuente de registros.
+     *
+     * @param reader   La fuente de registros.
+     * @param resource Recurso a cerrar junto con el flujo.
+     * @return El flujo de registros.
+     */
+    static <E> Stream<E> of(RecordReader<E> reader, AutoCloseable resource) {
+        Iterator<E> iterator = new Iterator<>() {
+            private E pending;
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null && !finished) {
+                    try {
+                        pending = reader.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    finished = pending == null;
+                }
+                return pending != null;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E record = pending;
+                pending = null;
+                return record;
+            }
+        };
+        Spliterator<E> spliterator = Spliterators.spliteratorUnknownSize(
+            iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * <h1>Política de Rotación de Segmentos</h1>
+ *
+ * <p>
+ * Decide cuándo el archivo activo de un log se cierra ("sella") y se archiva
+ * para empezar uno nuevo: al cambiar de periodo (cada hora o cada día) o al
+ * superar un tamaño máximo, lo que ocurra antes.
+ * </p>
+ *
+ * <p>
+ * Los instantes se expresan en milisegundos de la hora local tratada como UTC
+ * (igual que en {@link MappedEventStore}), de modo que los periodos coinciden
+ * con las horas y los días del reloj local.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class RotationPolicy {
+
+    /**
+     * Periodos de rotación disponibles.
+     */
+    public enum Period { HOURLY, DAILY }
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    private static final DateTimeFormatter HOURLY_LABEL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HH");
+    private static final DateTimeFormatter DAILY_LABEL = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Period period;
+    private final long maxBytes;
+
+    private RotationPolicy(Period period, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo del segmento debe ser positivo.");
+        }
+        this.period = period;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Rota cada hora o al alcanzar {@code maxBytes}.
+     */
+    public static RotationPolicy hourly(long maxBytes) {
+        return new RotationPolicy(Period.HOURLY, maxBytes);
+    }
+
+    /**
+     * Rota cada día o al alcanzar {@code maxBytes}.
+     */
+    public static RotationPolicy daily(long maxBytes) {
+        return new RotationPolicy(Period.DAILY, maxBytes);
+    }
+
+    /**
+     * Devuelve el inicio del periodo al que pertenece un instante.
+     *
+     * @param millis Instante en milisegundos (hora local tratada como UTC).
+     * @return El inicio del periodo, en la misma escala.
+     */
+    public long bucketStart(long millis) {
+        long length = period == Period.HOURLY ? HOUR_MILLIS : DAY_MILLIS;
+        return Math.floorDiv(millis, length) * length;
+    }
+
+    /**
+     * Indica si el segmento activo debe rotarse.
+     *
+     * @param activeBucket Inicio del periodo del segmento activo.
+     * @param now          Instante actual.
+     * @param activeBytes  Tamaño actual del segmento activo.
+     * @return {@code true} si ha cambiado el periodo o se ha superado el tamaño máximo.
+     */
+    public boolean shouldRotate(long activeBucket, long now, long activeBytes) {
+        return bucketStart(now) != activeBucket || activeBytes >= maxBytes;
+    }
+
+    /**
+     * Etiqueta legible de un periodo, usada en el nombre de los segmentos
+     * (ej. {@code 20261018T09} o {@code 20261018}).
+     */
+    public String label(long bucketStart) {
+        LocalDateTime start = MappedEventStore.fromEpochMillis(bucketStart);
+        return (period == Period.HOURLY ? HOURLY_LABEL : DAILY_LABEL).format(start);
+    }
+
+    /**
+     * @return El instante actual en la escala usada por la política.
+     */
+    static long now() {
+        return MappedEventStore.toEpochMillis(LocalDateTime.now());
+    }
+
+    /**
+     * @return La fecha de última modificación de un archivo, en la escala usada por la política.
+     */
+    static long lastModified(Path file) throws IOException {
+        LocalDateTime modified = LocalDateTime.ofInstant(
+            Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+        return MappedEventStore.toEpochMillis(modified);
+    }
+
+    public Period getPeriod() { return period; }
+    public long getMaxBytes() { return maxBytes; }
+}
@@ -0,0 +1,224 @@
+package com.emergencias.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h1>Archivador de Segmentos</h1>
+ *
+ * <p>
+ * Gestiona los segmentos sellados de un log rotado: los mueve al directorio
+ * {@code archive/}, los registra en el {@link SegmentManifest} y los comprime
+ * en segundo plano con {@link BlockCompressedFile}. Una vez comprimido, el
+ * segmento original se borra.
+ * </p>
+ *
+ * <p>
+ * La compresión se hace en un único hilo compartido por todos los logs, para
+ * no competir con las escrituras. Si el programa se cierra antes de terminar,
+ * las compresiones pendientes se retoman al volver a abrir el log.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class SegmentArchiver {
+
+    /**
+     * Tipo de contenido del log, que determina cómo se separan los registros
+     * al comprimir (ningún registro se parte entre dos bloques).
+     */
+    enum Content {
+        /** Diario binario ({@link EventJournal}): cabecera y registros con longitud. */
+        JOURNAL,
+        /** Texto plano: un registro por línea. */
+        TEXT
+    }
+
+    static final String ARCHIVE_DIR = "archive";
+    static final String COMPRESSED_SUFFIX = ".z";
+
+    private static final ExecutorService COMPRESSOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "segment-compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path archiveDir;
+    private final String baseName;
+    private final String extension;
+    private final Content content;
+    private final SegmentManifest manifest;
+
+    /**
+     * Crea el archivador del log activo indicado.
+     *
+     * @param activeFile Archivo activo del log (ej. {@code logs/call_alerts.log}).
+     * @param content    Tipo de contenido del log.
+     * @throws IOException si no se puede crear el directorio o leer el manifiesto.
+     */
+    SegmentArchiver(Path activeFile, Content content) throws IOException {
+        String fileName = activeFile.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        this.baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        this.extension = dot > 0 ? fileName.substring(dot) : "";
+        this.content = content;
+
+        Path parent = activeFile.toAbsolutePath().getParent();
+        this.archiveDir = parent.resolve(ARCHIVE_DIR);
+        Files.createDirectories(archiveDir);
+        this.manifest = new SegmentManifest(archiveDir.resolve(baseName + ".manifest.json"));
+
+        resumePendingCompressions();
+    }
+
+    /**
+     * Sella el archivo activo: lo mueve al archivo histórico, lo añade al
+     * manifiesto y programa su compresión.
+     *
+     * @param activeFile     Archivo activo (ya cerrado por el escritor).
+     * @param label          Etiqueta del periodo (ej. {@code 20261018}).
+     * @param firstTimestamp Marca de tiempo del primer registro.
+     * @param lastTimestamp  Marca de tiempo del último registro.
+     * @param records        Número de registros del segmento.
+     * @return La entrada añadida al manifiesto.
+     * @throws IOException si no se puede mover el archivo o guardar el manifiesto.
+     */
+    SegmentManifest.Segment seal(Path activeFile, String label, long firstTimestamp, long lastTimestamp,
+                                 long records) throws IOException {
+        String name = baseName + "-" + label;
+        for (int suffix = 1; manifest.contains(name); suffix++) {
+            name = baseName + "-" + label + "-" + suffix;
+        }
+        String file = name + extension;
+        Files.move(activeFile, archiveDir.resolve(file), StandardCopyOption.ATOMIC_MOVE);
+
+        SegmentManifest.Segment segment = new SegmentManifest.Segment(
+            name, file, firstTimestamp, lastTimestamp, records, Files.size(archiveDir.resolve(file)));
+        manifest.add(segment);
+        scheduleCompression(segment);
+        return segment;
+    }
+
+    /**
+     * Abre un segmento sellado y devuelve su contenido tal y como se escribió.
+     * <p>
+     * Se lee el archivo original si todavía existe y, si no, su versión
+     * comprimida, de modo que la lectura no depende de cuándo termine la
+     * compresión.
+     * </p>
+     *
+     * @param segment El segmento a leer.
+     * @return Un flujo con el contenido del segmento.
+     * @throws IOException si no se puede abrir ninguno de los dos archivos.
+     */
+    InputStream open(SegmentManifest.Segment segment) throws IOException {
+        Path plain = archiveDir.resolve(segment.getName() + extension);
+        try {
+            return Files.newInputStream(plain);
+        } catch (NoSuchFileException e) {
+            Path packed = archiveDir.resolve(segment.getName() + extension + COMPRESSED_SUFFIX);
+            return new BlockCompressedFile.Reader(packed).openStream(0);
+        }
+    }
+
+    SegmentManifest manifest() { return manifest; }
+    Path archiveDir() { return archiveDir; }
+
+    /**
+     * Programa la compresión de un segmento en el hilo compartido.
+     *
+     * @return El futuro de la tarea (útil para esperar a que termine).
+     */
+    Future<?> scheduleCompression(SegmentManifest.Segment segment) {
+        return COMPRESSOR.submit(() -> {
+            try {
+                compress(segment);
+            } catch (IOException e) {
+                System.err.println("⚠️  Advertencia: No se pudo comprimir el segmento "
+                    + segment.getName() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Comprime un segmento: escribe el archivo {@code .z} en un temporal, lo
+     * renombra de forma atómica, actualiza el manifiesto y borra el original.
+     */
+    private void compress(SegmentManifest.Segment segment) throws IOException {
+        Path plain = archiveDir.resolve(segment.getName() + extension);
+        if (!Files.exists(plain)) {
+            return;
+        }
+        String packedName = segment.getName() + extension + COMPRESSED_SUFFIX;
+        Path packed = archiveDir.resolve(packedName);
+        Path temp = archiveDir.resolve(packedName + ".tmp");
+
+        long bytes;
+        try (InputStream in = open(segment)) {
+            BlockCompressedFile.RecordSource source = content == Content.JOURNAL
+                ? journalRecords(in) : lineRecords(in);
+            bytes = BlockCompressedFile.write(temp, source, BlockCompressedFile.DEFAULT_BLOCK_SIZE);
+        }
+        Files.move(temp, packed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        manifest.markCompressed(segment.getName(), packedName, bytes);
+        Files.delete(plain);
+    }
+
+    /**
+     * Retoma la compresión de los segmentos que quedaron sin comprimir.
+     */
+    private void resumePendingCompressions() {
+        for (SegmentManifest.Segment segment : manifest.segments()) {
+            if (!segment.isCompressed()) {
+                scheduleCompression(segment);
+            }
+        }
+    }
+
+    /**
+     * Separa un diario en su cabecera y sus registros completos, verificando
+     * el CRC de cada uno. Un registro final incompleto o dañado se descarta.
+     */
+    private static BlockCompressedFile.RecordSource journalRecords(InputStream input) throws IOException {
+        EventJournal.FrameInput frames = new EventJournal.FrameInput(input);
+        byte[][] header = {frames.header()};
+        return () -> {
+            if (header[0] != null) {
+                byte[] first = header[0];
+                header[0] = null;
+                return first;
+            }
+            return frames.nextFrame();
+        };
+    }
+
+    /**
+     * Separa un archivo de texto en líneas (incluido el salto de línea).
+     */
+    private static BlockCompressedFile.RecordSource lineRecords(InputStream input) {
+        BufferedInputStream in = new BufferedInputStream(input);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        return () -> {
+            line.reset();
+            int b;
+            while ((b = in.read()) >= 0) {
+                line.write(b);
+                if (b == '\n') {
+                    break;
+                }
+            }
+            return line.size() == 0 ? null : line.toByteArray();
+        };
+    }
+}
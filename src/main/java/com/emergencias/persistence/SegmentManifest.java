@@ -0,0 +1,164 @@
+package com.emergencias.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>Manifiesto de Segmentos Archivados</h1>
+ *
+ * <p>
+ * Lista, en orden cronológico, los segmentos sellados de un log junto con el
+ * rango de marcas de tiempo que contienen. Los lectores lo consultan para
+ * saltarse segmentos completos que no se solapan con el rango pedido, sin
+ * abrirlos ni descomprimirlos.
+ * </p>
+ *
+ * <p>
+ * Se guarda como JSON legible ({@code <nombre>.manifest.json}) y se reescribe
+ * de forma atómica (archivo temporal + renombrado) en cada cambio.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class SegmentManifest {
+
+    /**
+     * Entrada del manifiesto: un segmento sellado.
+     * <p>
+     * POJO serializado por Jackson.
+     * </p>
+     */
+    public static class Segment {
+        private String name;
+        private String file;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private long records;
+        private boolean compressed;
+        private long bytes;
+
+        /**
+         * Constructor sin argumentos, requerido por Jackson.
+         */
+        public Segment() {}
+
+        public Segment(String name, String file, long firstTimestamp, long lastTimestamp, long records, long bytes) {
+            this.name = name;
+            this.file = file;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+            this.records = records;
+            this.bytes = bytes;
+        }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public long getFirstTimestamp() { return firstTimestamp; }
+        public void setFirstTimestamp(long firstTimestamp) { this.firstTimestamp = firstTimestamp; }
+        public long getLastTimestamp() { return lastTimestamp; }
+        public void setLastTimestamp(long lastTimestamp) { this.lastTimestamp = lastTimestamp; }
+        public long getRecords() { return records; }
+        public void setRecords(long records) { this.records = records; }
+        public boolean isCompressed() { return compressed; }
+        public void setCompressed(boolean compressed) { this.compressed = compressed; }
+        public long getBytes() { return bytes; }
+        public void setBytes(long bytes) { this.bytes = bytes; }
+
+        /**
+         * Indica si el segmento puede contener registros del rango {@code [from, to]}.
+         */
+        public boolean overlaps(long from, long to) {
+            return records > 0 && firstTimestamp <= to && lastTimestamp >= from;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Path path;
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * Carga el manifiesto de la ruta indicada (o crea uno vacío si no existe).
+     *
+     * @param path Ruta del archivo del manifiesto.
+     * @throws IOException si el archivo existe pero no se puede leer.
+     */
+    public SegmentManifest(Path path) throws IOException {
+        this.path = path;
+        if (Files.exists(path) && Files.size(path) > 0) {
+            segments.addAll(Arrays.asList(MAPPER.readValue(path.toFile(), Segment[].class)));
+        }
+    }
+
+    /**
+     * @return Una copia de la lista de segmentos, en orden cronológico.
+     */
+    public synchronized List<Segment> segments() {
+        return new ArrayList<>(segments);
+    }
+
+    /**
+     * Devuelve los segmentos que pueden contener registros del rango indicado.
+     *
+     * @param from Inicio del rango (incluido).
+     * @param to   Fin del rango (incluido).
+     * @return Los segmentos que se solapan con el rango.
+     */
+    public synchronized List<Segment> segmentsBetween(long from, long to) {
+        List<Segment> matching = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.overlaps(from, to)) {
+                matching.add(segment);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Indica si ya existe un segmento con ese nombre.
+     */
+    public synchronized boolean contains(String name) {
+        return segments.stream().anyMatch(segment -> segment.getName().equals(name));
+    }
+
+    /**
+     * Añade un segmento y guarda el manifiesto.
+     */
+    public synchronized void add(Segment segment) throws IOException {
+        segments.add(segment);
+        save();
+    }
+
+    /**
+     * Marca un segmento como comprimido, apuntando a su nuevo archivo, y
+     * guarda el manifiesto.
+     */
+    public synchronized void markCompressed(String name, String file, long bytes) throws IOException {
+        for (Segment segment : segments) {
+            if (segment.getName().equals(name)) {
+                segment.setFile(file);
+                segment.setCompressed(true);
+                segment.setBytes(bytes);
+            }
+        }
+        save();
+    }
+
+    private void save() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        MAPPER.writeValue(temp.toFile(), segments);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
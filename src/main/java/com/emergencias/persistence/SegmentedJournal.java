@@ -0,0 +1,487 @@
+package com.emergencias.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <h1>Diario Segmentado por Tiempo y Tamaño</h1>
+ *
+ * <p>
+ * Envuelve un {@link EventJournal} para que el archivo activo no crezca sin
+ * límite: cuando cambia el periodo (hora o día) o se supera el tamaño máximo
+ * de la {@link RotationPolicy}, el archivo activo se sella, se mueve a
+ * {@code archive/} y se empieza uno nuevo con el mismo nombre. Los segmentos
+ * sellados se comprimen en segundo plano.
+ * </p>
+ *
+ * <p>
+ * Las lecturas por rango de fechas ({@link #read(LocalDateTime, LocalDateTime)})
+ * consultan el {@link SegmentManifest} y solo abren los segmentos cuyo rango
+ * de marcas de tiempo se solapa con el pedido. Ese rango se lleva al día con
+ * cada registro añadido, de modo que sellar un segmento no obliga a releerlo.
+ * </p>
+ *
+ * <p>
+ * Si el sellado falla (por ejemplo, sin espacio en {@code archive/}), se
+ * avisa y se sigue escribiendo en el mismo archivo; se reintenta más tarde.
+ * </p>
+ *
+ * @param <T> El tipo de registro almacenado.
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class SegmentedJournal<T> implements AutoCloseable {
+    // Tras un sellado fallido, no se vuelve a intentar hasta pasado este tiempo.
+    private static final long SEAL_RETRY_MILLIS = 60_000;
+
+    private final Path path;
+    private final Path legacyPath;
+    private final Class<T> type;
+    private final ObjectMapper mapper;
+    private final EventCodec<T> codec;
+    private final DurabilityPolicy durability;
+    private final RotationPolicy rotation;
+    private final Function<T, LocalDateTime> timestampOf;
+    private final SegmentArchiver archiver;
+
+    // El cerrojo de escritura solo se toma para rotar el archivo activo.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private EventJournal<T> active;
+    private long activeBucket;
+    private volatile long nextSealAttempt;
+
+    // --- CONTENIDO DEL ARCHIVO ACTIVO (para sellarlo sin releerlo) ---
+    private final AtomicLong firstTimestamp = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastTimestamp = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong records = new AtomicLong();
+
+    // --- ARCHIVO ANTIGUO (no cambia: su número de registros se cuenta una sola vez) ---
+    private long legacyRecords = -1;
+    private long legacySize;
+    private long legacyModified;
+
+    /**
+     * Abre (o crea) un diario segmentado.
+     *
+     * @param path        Ruta del archivo activo.
+     * @param legacyPath  Ruta del antiguo archivo con un array JSON (puede ser {@code null}).
+     * @param type        Clase de los registros almacenados.
+     * @param mapper      {@link ObjectMapper} configurado.
+     * @param durability  Política de durabilidad de las escrituras.
+     * @param rotation    Política de rotación de segmentos.
+     * @param timestampOf Función que devuelve la marca de tiempo de un registro.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    public SegmentedJournal(Path path, Path legacyPath, Class<T> type, ObjectMapper mapper,
+                            DurabilityPolicy durability, RotationPolicy rotation,
+                            Function<T, LocalDateTime> timestampOf) throws IOException {
+        this(path, legacyPath, type, mapper, new JsonEventCodec<>(type, mapper), durability, rotation, timestampOf);
+    }
+
+    /**
+     * Abre (o crea) un diario segmentado cuyos registros nuevos se codifican
+     * con el {@link EventCodec} indicado. Los segmentos ya archivados se leen
+     * con el codificador que indica su cabecera.
+     *
+     * @param path        Ruta del archivo activo.
+     * @param legacyPath  Ruta del antiguo archivo con un array JSON (puede ser {@code null}).
+     * @param type        Clase de los registros almacenados.
+     * @param mapper      {@link ObjectMapper} para el archivo antiguo y los segmentos JSON.
+     * @param codec       Codificador de los registros (no se cierra con el diario).
+     * @param durability  Política de durabilidad de las escrituras.
+     * @param rotation    Política de rotación de segmentos.
+     * @param timestampOf Función que devuelve la marca de tiempo de un registro.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    public SegmentedJournal(Path path, Path legacyPath, Class<T> type, ObjectMapper mapper,
+                            EventCodec<T> codec, DurabilityPolicy durability, RotationPolicy rotation,
+                            Function<T, LocalDateTime> timestampOf) throws IOException {
+        this.path = path;
+        this.legacyPath = legacyPath;
+        this.type = type;
+        this.mapper = mapper;
+        this.codec = codec;
+        this.durability = durability;
+        this.rotation = rotation;
+        this.timestampOf = timestampOf;
+        this.archiver = new SegmentArchiver(path, SegmentArchiver.Content.JOURNAL);
+
+        // El periodo del archivo existente es el de su última modificación.
+        long modified = Files.exists(path) ? RotationPolicy.lastModified(path) : RotationPolicy.now();
+        this.activeBucket = rotation.bucketStart(modified);
+        this.active = openActive();
+        loadTracking();
+    }
+
+    /**
+     * Añade un registro, rotando antes el archivo activo si corresponde.
+     *
+     * @param record El registro a añadir.
+     * @return Un futuro que se completa cuando el registro es durable.
+     */
+    public CompletableFuture<Long> append(T record) {
+        lock.readLock().lock();
+        try {
+            if (!rotationDue(RotationPolicy.now())) {
+                return appendActive(record);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            rotate();
+        } catch (IOException e) {
+            System.err.println("❌ Error al rotar el diario " + path + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        lock.readLock().lock();
+        try {
+            return appendActive(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Añade el registro al archivo activo y amplía su rango de marcas de
+     * tiempo. Se llama con el cerrojo de lectura tomado.
+     */
+    private CompletableFuture<Long> appendActive(T record) {
+        CompletableFuture<Long> written = active.append(record);
+        track(record);
+        return written;
+    }
+
+    private void track(T record) {
+        long timestamp = timestampMillis(record);
+        if (timestamp != Long.MIN_VALUE) {
+            firstTimestamp.accumulateAndGet(timestamp, Math::min);
+            lastTimestamp.accumulateAndGet(timestamp, Math::max);
+        }
+        records.incrementAndGet();
+    }
+
+    /**
+     * Lee todos los registros: archivo antiguo, segmentos sellados (en orden)
+     * y archivo activo.
+     *
+     * @return La lista de registros.
+     * @throws IOException si ocurre un error de lectura.
+     */
+    public List<T> readAll() throws IOException {
+        try (Stream<T> records = stream()) {
+            return records.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lee los registros con marca de tiempo dentro del rango {@code [from, to]}.
+     * <p>
+     * Los segmentos sellados que no se solapan con el rango no se abren.
+     * </p>
+     *
+     * @param from Inicio del rango (incluido).
+     * @param to   Fin del rango (incluido).
+     * @return Los registros del rango, en orden de escritura.
+     * @throws IOException si ocurre un error de lectura.
+     */
+    public List<T> read(LocalDateTime from, LocalDateTime to) throws IOException {
+        try (Stream<T> records = stream(from, to)) {
+            return records.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Recorre todos los registros sin cargarlos en memoria. Los segmentos
+     * archivados se abren (y descomprimen por bloques) a medida que el flujo
+     * llega a ellos.
+     * <p>
+     * El flujo debe cerrarse (try-with-resources) para liberar los archivos.
+     * </p>
+     *
+     * @return Un flujo perezoso con los registros, en orden de escritura.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    public Stream<T> stream() throws IOException {
+        return streamSegments(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Recorre los registros con marca de tiempo dentro del rango
+     * {@code [from, to]}, sin abrir los segmentos que no se solapan con él.
+     *
+     * @param from Inicio del rango (incluido).
+     * @param to   Fin del rango (incluido).
+     * @return Un flujo perezoso con los registros del rango.
+     * @throws IOException si no se pueden abrir los archivos.
+     */
+    public Stream<T> stream(LocalDateTime from, LocalDateTime to) throws IOException {
+        long fromMillis = MappedEventStore.toEpochMillis(from);
+        long toMillis = MappedEventStore.toEpochMillis(to);
+        return streamSegments(fromMillis, toMillis)
+            .filter(record -> {
+                long timestamp = timestampMillis(record);
+                return timestamp >= fromMillis && timestamp <= toMillis;
+            });
+    }
+
+    /**
+     * @return Los segmentos sellados, en orden cronológico.
+     */
+    public List<SegmentManifest.Segment> segments() {
+        return archiver.manifest().segments();
+    }
+
+    /**
+     * Cuenta los registros sin decodificar los segmentos sellados: su número
+     * está en el manifiesto, y el del archivo activo se lleva al escribir.
+     * El archivo antiguo solo se recorre la primera vez (o si cambia): su
+     * número de registros se guarda junto a él, en {@code <nombre>.count}.
+     *
+     * @return El número de registros del diario.
+     * @throws IOException si no se puede leer el archivo antiguo.
+     */
+    public long count() throws IOException {
+        lock.readLock().lock();
+        try {
+            long total = records.get();
+            for (SegmentManifest.Segment segment : archiver.manifest().segments()) {
+                total += segment.getRecords();
+            }
+            return total + legacyCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return El tamaño del archivo activo en bytes.
+     */
+    public long activeSize() {
+        lock.readLock().lock();
+        try {
+            return active.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            active.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sella el archivo activo (si tiene registros) y abre uno nuevo. El rango
+     * de marcas de tiempo ya se conoce, así que el cerrojo de escritura solo
+     * se retiene para cerrar, mover y reabrir el archivo.
+     */
+    private void rotate() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long now = RotationPolicy.now();
+            if (!rotationDue(now)) {
+                return; // Otro hilo ya ha rotado.
+            }
+            if (active.hasRecords()) {
+                active.close();
+                long first = firstTimestamp.get();
+                long last = lastTimestamp.get();
+                if (first > last) {
+                    first = last = activeBucket; // Registros sin marca de tiempo.
+                }
+                try {
+                    archiver.seal(path, rotation.label(activeBucket), first, last, records.get());
+                    resetTracking();
+                } catch (IOException e) {
+                    System.err.println("⚠️  Advertencia: No se pudo archivar " + path
+                        + "; se sigue escribiendo en el mismo archivo: " + e.getMessage());
+                    nextSealAttempt = now + SEAL_RETRY_MILLIS;
+                    if (!Files.exists(path)) {
+                        resetTracking(); // El archivo llegó a moverse: se empieza uno nuevo.
+                    }
+                }
+                active = openActive();
+            }
+            activeBucket = rotation.bucketStart(now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Número de registros del archivo antiguo. Se identifica por su tamaño y
+     * fecha de modificación: si no coinciden con los guardados, se recuenta.
+     */
+    private synchronized long legacyCount() throws IOException {
+        if (legacyPath == null || !Files.exists(legacyPath)) {
+            return 0;
+        }
+        long size = Files.size(legacyPath);
+        long modified = Files.getLastModifiedTime(legacyPath).toMillis();
+        if (legacyRecords >= 0 && size == legacySize && modified == legacyModified) {
+            return legacyRecords;
+        }
+        legacySize = size;
+        legacyModified = modified;
+
+        Path cache = legacyPath.resolveSibling(legacyPath.getFileName() + ".count");
+        try {
+            String[] stored = Files.exists(cache) ? Files.readString(cache).trim().split(" ") : new String[0];
+            if (stored.length == 3 && Long.parseLong(stored[0]) == size && Long.parseLong(stored[1]) == modified) {
+                legacyRecords = Long.parseLong(stored[2]);
+                return legacyRecords;
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Se recuenta.
+        }
+
+        try (Stream<T> legacy = active.streamLegacy()) {
+            legacyRecords = legacy.count();
+        }
+        try {
+            Path temp = cache.resolveSibling(cache.getFileName() + ".tmp");
+            Files.writeString(temp, size + " " + modified + " " + legacyRecords + "\n");
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // No es crítico: en el próximo arranque se volverá a contar.
+            System.err.println("⚠️  Advertencia: No se pudo guardar el recuento de " + legacyPath + ": " + e.getMessage());
+        }
+        return legacyRecords;
+    }
+
+    private boolean rotationDue(long now) {
+        return now >= nextSealAttempt && rotation.shouldRotate(activeBucket, now, active.size());
+    }
+
+    private EventJournal<T> openActive() throws IOException {
+        return new EventJournal<>(path, legacyPath, type, mapper, codec, durability, this::timestampMillis);
+    }
+
+    private void resetTracking() {
+        firstTimestamp.set(Long.MAX_VALUE);
+        lastTimestamp.set(Long.MIN_VALUE);
+        records.set(0);
+    }
+
+    /**
+     * Toma, al abrir, el contenido del archivo activo que quedó de la
+     * ejecución anterior: lo guarda su punto de control, así que solo se
+     * decodifican los registros escritos después del último.
+     */
+    private void loadTracking() {
+        JournalCheckpoint.Summary summary = active.openedSummary();
+        firstTimestamp.set(summary.firstTimestamp());
+        lastTimestamp.set(summary.lastTimestamp());
+        records.set(summary.records());
+    }
+
+    /**
+     * Marca de tiempo de un registro en milisegundos, o {@link Long#MIN_VALUE} si no tiene.
+     */
+    private long timestampMillis(T record) {
+        LocalDateTime timestamp = timestampOf.apply(record);
+        return timestamp == null ? Long.MIN_VALUE : MappedEventStore.toEpochMillis(timestamp);
+    }
+
+    /**
+     * Une el archivo antiguo, los segmentos que se solapan con el rango y el
+     * archivo activo en un único flujo. La lista de segmentos y el archivo
+     * activo se toman a la vez (bajo el cerrojo), para que una rotación
+     * posterior no cambie lo que se lee; los segmentos se abren cuando el
+     * flujo llega a ellos.
+     */
+    private Stream<T> streamSegments(long fromMillis, long toMillis) throws IOException {
+        lock.readLock().lock();
+        try {
+            List<SegmentManifest.Segment> segments = archiver.manifest().segmentsBetween(fromMillis, toMillis);
+            EventJournal<T> journal = active;
+            Stream<T> legacy = journal.streamLegacy();
+            Stream<T> current;
+            try {
+                current = journal.streamJournal();
+            } catch (IOException | RuntimeException e) {
+                legacy.close();
+                throw e;
+            }
+            return Stream.concat(Stream.concat(legacy, streamSealed(journal, segments)), current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre los segmentos sellados uno detrás de otro, abriendo cada uno
+     * solo cuando se termina el anterior.
+     * <p>
+     * No se usa {@code flatMap}: en recorridos que pueden cortarse antes de
+     * tiempo (como {@code findFirst}) decodificaría cada segmento completo
+     * en memoria.
+     * </p>
+     */
+    private Stream<T> streamSealed(EventJournal<T> journal, List<SegmentManifest.Segment> segments) {
+        SealedReader reader = new SealedReader(journal, segments.iterator());
+        return RecordStreams.of(reader, reader);
+    }
+
+    /**
+     * Lector de los segmentos sellados, de uno en uno.
+     */
+    private final class SealedReader implements RecordStreams.RecordReader<T>, AutoCloseable {
+        private final EventJournal<T> journal;
+        private final Iterator<SegmentManifest.Segment> pending;
+        private Stream<T> segment;
+        private Iterator<T> records;
+
+        SealedReader(EventJournal<T> journal, Iterator<SegmentManifest.Segment> pending) {
+            this.journal = journal;
+            this.pending = pending;
+        }
+
+        @Override
+        public T next() throws IOException {
+            while (true) {
+                if (records != null && records.hasNext()) {
+                    return records.next();
+                }
+                close();
+                if (!pending.hasNext()) {
+                    return null;
+                }
+                segment = journal.streamFrames(archiver.open(pending.next()));
+                records = segment.iterator();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (segment != null) {
+                segment.close();
+                segment = null;
+                records = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>Log de Texto Segmentado</h1>
+ *
+ * <p>
+ * Log de texto plano (como {@code emergency_alerts.log}) que se rota por
+ * tiempo y tamaño según una {@link RotationPolicy}. Los segmentos sellados se
+ * mueven a {@code archive/}, se registran en un {@link SegmentManifest} y se
+ * comprimen por bloques en segundo plano.
+ * </p>
+ *
+ * <p>
+ * Hay una única instancia por archivo ({@link #open(Path, RotationPolicy)}),
+ * compartida por todos los que escriben en él; las escrituras están
+ * sincronizadas y usan un {@link FileChannel} que permanece abierto.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class SegmentedTextLog implements AutoCloseable {
+    private static final Map<Path, SegmentedTextLog> OPEN_LOGS = new ConcurrentHashMap<>();
+    // Tras un sellado fallido, no se vuelve a intentar hasta pasado este tiempo.
+    private static final long SEAL_RETRY_MILLIS = 60_000;
+
+    private final Path path;
+    private final RotationPolicy rotation;
+    private final SegmentArchiver archiver;
+
+    private FileChannel channel;
+    private long activeBucket;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long lines;
+    private long nextSealAttempt;
+
+    private SegmentedTextLog(Path path, RotationPolicy rotation) throws IOException {
+        this.path = path;
+        this.rotation = rotation;
+        this.archiver = new SegmentArchiver(path, SegmentArchiver.Content.TEXT);
+        openActive();
+    }
+
+    /**
+     * Devuelve el log compartido del archivo indicado, abriéndolo la primera vez.
+     *
+     * @param path     Ruta del archivo activo.
+     * @param rotation Política de rotación (solo se usa al abrirlo por primera vez).
+     * @return El log de ese archivo.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public static SegmentedTextLog open(Path path, RotationPolicy rotation) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        SegmentedTextLog log = OPEN_LOGS.get(key);
+        if (log != null) {
+            return log;
+        }
+        synchronized (OPEN_LOGS) {
+            log = OPEN_LOGS.get(key);
+            if (log == null) {
+                log = new SegmentedTextLog(key, rotation);
+                OPEN_LOGS.put(key, log);
+            }
+            return log;
+        }
+    }
+
+    /**
+     * Añade texto al final del log, rotando antes el archivo si corresponde.
+     *
+     * @param text El texto a añadir (se escribe tal cual, en UTF-8).
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public void append(String text) throws IOException {
+        append(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Añade texto ya codificado en UTF-8 al final del log, rotando antes el
+     * archivo si corresponde.
+     *
+     * @param bytes Los bytes a añadir, desde su posición hasta su límite (se consumen).
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public synchronized void append(ByteBuffer bytes) throws IOException {
+        long now = RotationPolicy.now();
+        if (now >= nextSealAttempt && rotation.shouldRotate(activeBucket, now, channel.size())) {
+            rotate(now);
+        }
+        long newLines = countLines(bytes);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        if (lines == 0) {
+            firstTimestamp = now;
+        }
+        lastTimestamp = now;
+        lines += newLines;
+    }
+
+    /**
+     * @return Los segmentos sellados, en orden cronológico.
+     */
+    public List<SegmentManifest.Segment> segments() {
+        return archiver.manifest().segments();
+    }
+
+    /**
+     * Abre un segmento sellado (comprimido o no) para leer su texto.
+     *
+     * @param segment El segmento a leer.
+     * @return Un flujo con el contenido original del segmento.
+     * @throws IOException si no se puede abrir.
+     */
+    public InputStream openSegment(SegmentManifest.Segment segment) throws IOException {
+        return archiver.open(segment);
+    }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        OPEN_LOGS.remove(path);
+        channel.close();
+    }
+
+    /**
+     * Sella el archivo activo (si tiene contenido) y abre uno nuevo. Si el
+     * sellado falla, se avisa y se sigue escribiendo en el mismo archivo: no
+     * se pierde ninguna línea y se reintenta más tarde.
+     */
+    private void rotate(long now) throws IOException {
+        if (channel.size() > 0) {
+            channel.force(false);
+            channel.close();
+            try {
+                archiver.seal(path, rotation.label(activeBucket), firstTimestamp, lastTimestamp, lines);
+            } catch (IOException e) {
+                System.err.println("⚠️  Advertencia: No se pudo archivar " + path
+                    + "; se sigue escribiendo en el mismo archivo: " + e.getMessage());
+                nextSealAttempt = now + SEAL_RETRY_MILLIS;
+            }
+            openActive();
+        }
+        activeBucket = rotation.bucketStart(now);
+    }
+
+    /**
+     * Abre el archivo activo y recupera su estado (periodo, líneas y rango
+     * de tiempo aproximado a partir de la fecha de modificación).
+     */
+    private void openActive() throws IOException {
+        boolean existing = Files.exists(path) && Files.size(path) > 0;
+        long now = RotationPolicy.now();
+        long modified = existing ? RotationPolicy.lastModified(path) : now;
+
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.activeBucket = rotation.bucketStart(modified);
+        this.firstTimestamp = existing ? activeBucket : now;
+        this.lastTimestamp = modified;
+        this.lines = existing ? countLines(Files.readAllBytes(path)) : 0;
+    }
+
+    private static long countLines(byte[] bytes) {
+        return countLines(ByteBuffer.wrap(bytes));
+    }
+
+    private static long countLines(ByteBuffer bytes) {
+        long count = 0;
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            if (bytes.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
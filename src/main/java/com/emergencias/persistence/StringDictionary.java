@@ -0,0 +1,163 @@
+package com.emergencias.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>Diccionario de Cadenas Persistente</h1>
+ *
+ * <p>
+ * Asigna un código numérico estable a cada cadena distinta (por ejemplo,
+ * los tipos de emergencia), para que los registros binarios guarden un
+ * varint de uno o dos bytes en lugar del texto completo. Es para campos con
+ * pocos valores distintos: cada cadena nueva cuesta una sincronización a
+ * disco y queda en memoria mientras esté abierto. El código {@code 0}
+ * representa {@code null}.
+ * </p>
+ *
+ * <p>
+ * Las cadenas nuevas se añaden al final del archivo ({@code [longitud varint][UTF-8]})
+ * y se sincronizan a disco antes de devolver su código, de modo que un
+ * registro nunca es durable antes que las entradas del diccionario que usa.
+ * Al abrirlo, una entrada final incompleta se descarta.
+ * </p>
+ *
+ * <p>
+ * Las búsquedas no bloquean; solo el alta de cadenas nuevas está sincronizada.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+final class StringDictionary implements AutoCloseable {
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private volatile int size = 1; // El código 0 está reservado para null.
+
+    /**
+     * Abre (o crea) el diccionario.
+     *
+     * @param path Ruta del archivo.
+     * @throws IOException si no se puede leer o abrir.
+     */
+    StringDictionary(Path path) throws IOException {
+        this.path = path;
+        long valid = load();
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > valid) {
+            channel.truncate(valid); // Entrada final incompleta.
+        }
+        channel.position(valid);
+    }
+
+    /**
+     * Devuelve el código de una cadena, dándola de alta si es nueva.
+     *
+     * @param value La cadena (puede ser {@code null}).
+     * @return Su código.
+     * @throws IOException si no se puede guardar una cadena nueva.
+     */
+    int codeOf(String value) throws IOException {
+        if (value == null) {
+            return 0;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Devuelve la cadena de un código.
+     *
+     * @param code El código.
+     * @return La cadena, o {@code null} para el código 0.
+     * @throws IOException si el código no existe en el diccionario.
+     */
+    String valueOf(int code) throws IOException {
+        if (code == 0) {
+            return null;
+        }
+        int known = size; // Se lee antes que el array: si el código es visible, su valor también.
+        String[] current = values;
+        if (code < 0 || code >= known) {
+            throw new IOException("Código de diccionario desconocido en " + path + ": " + code);
+        }
+        return current[code];
+    }
+
+    /**
+     * @return El número de cadenas del diccionario.
+     */
+    int size() {
+        return size - 1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private synchronized int add(String value) throws IOException {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] entry = new BinaryRecords.Writer(value.length() + 8).writeString(value).toByteArray();
+        ByteBuffer buffer = ByteBuffer.wrap(entry);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        return register(value);
+    }
+
+    private int register(String value) {
+        int code = size;
+        String[] current = values;
+        if (code >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = value;
+        values = current;
+        size = code + 1;
+        codes.put(value, code);
+        return code;
+    }
+
+    /**
+     * Carga las entradas del archivo.
+     *
+     * @return Los bytes ocupados por las entradas completas.
+     */
+    private long load() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] data = Files.readAllBytes(path);
+        BinaryRecords.Reader reader = new BinaryRecords.Reader(data, 0, data.length);
+        long valid = 0;
+        while (valid < data.length) {
+            String value;
+            try {
+                value = reader.readString();
+            } catch (IOException e) {
+                break; // Entrada incompleta al final.
+            }
+            if (value == null) {
+                break;
+            }
+            register(value);
+            valid = data.length - reader.remaining();
+        }
+        return valid;
+    }
+}
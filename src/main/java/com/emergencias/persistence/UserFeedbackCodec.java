@@ -0,0 +1,74 @@
+package com.emergencias.persistence;
+
+import com.emergencias.model.UserFeedback;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * <h1>Codificador Binario de Feedback</h1>
+ *
+ * <p>
+ * Formato compacto para {@link UserFeedback}:
+ * <pre>
+ * [versión del formato: byte][indicadores: byte]
+ * [ID de la emergencia: UUID de 16 bytes, o cadena si no es un UUID]
+ * [puntuación: zigzag varint][comentarios: cadena]
+ * [marca de tiempo: segundos zigzag varint, si el indicador lo señala]
+ * </pre>
+ * Los comentarios son texto libre, por lo que no se codifican con diccionario.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class UserFeedbackCodec implements EventCodec<UserFeedback> {
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLAG_UUID_ID = 1;
+    private static final int FLAG_TIMESTAMP = 2;
+
+    @Override
+    public int id() {
+        return FEEDBACK_BINARY_ID;
+    }
+
+    @Override
+    public byte[] encode(UserFeedback feedback) throws IOException {
+        UUID uuid = BinaryRecords.parseUuid(feedback.getEmergencyId());
+        LocalDateTime time = feedback.getFeedbackTime();
+        int flags = (uuid != null ? FLAG_UUID_ID : 0) | (time != null ? FLAG_TIMESTAMP : 0);
+
+        BinaryRecords.Writer out = new BinaryRecords.Writer(48);
+        out.writeByte(FORMAT_VERSION).writeByte(flags);
+        if (uuid != null) {
+            out.writeUuid(uuid);
+        } else {
+            out.writeString(feedback.getEmergencyId());
+        }
+        out.writeZigZag(feedback.getSatisfactionRating()).writeString(feedback.getComments());
+        if (time != null) {
+            out.writeZigZag(time.toEpochSecond(ZoneOffset.UTC));
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public UserFeedback decode(byte[] data, int offset, int length) throws IOException {
+        BinaryRecords.Reader in = new BinaryRecords.Reader(data, offset, length);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versión de registro binario no soportada: " + version);
+        }
+        int flags = in.readByte();
+        UserFeedback feedback = new UserFeedback();
+        feedback.setEmergencyId((flags & FLAG_UUID_ID) != 0 ? in.readUuid().toString() : in.readString());
+        feedback.setSatisfactionRating((int) in.readZigZag());
+        feedback.setComments(in.readString());
+        feedback.setFeedbackTime((flags & FLAG_TIMESTAMP) != 0
+            ? LocalDateTime.ofEpochSecond(in.readZigZag(), 0, ZoneOffset.UTC) : null);
+        return feedback;
+    }
+}
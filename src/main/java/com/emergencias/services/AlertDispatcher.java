@@ -0,0 +1,140 @@
+package com.emergencias.services;
+
+import com.emergencias.model.EmergencyEvent;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>Despachador de Alertas en Hilos Virtuales</h1>
+ *
+ * <p>
+ * Ejecuta cada envío en su propio hilo virtual, de modo que las
+ * implementaciones de {@link IAlert} pueden seguir escribiéndose de forma
+ * secuencial (con esperas bloqueantes como {@code Thread.sleep} o E/S) sin
+ * ocupar un hilo de plataforma: miles de alertas en curso no necesitan miles
+ * de hilos del sistema operativo.
+ * </p>
+ *
+ * <p>
+ * Los futuros devueltos admiten cancelación real: {@code cancel(true)}
+ * interrumpe el hilo virtual que está haciendo el envío, en lugar de dejarlo
+ * terminar en segundo plano. Si un envío se interrumpe por otro motivo, su
+ * resultado es {@link AlertResult.Status#CANCELLED}.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class AlertDispatcher {
+    private static final AlertDispatcher SHARED = new AlertDispatcher();
+
+    // Un hilo virtual por tarea; los hilos virtuales no impiden que termine la JVM.
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("alerta-", 0).factory());
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private AlertDispatcher() {}
+
+    /**
+     * @return El despachador compartido por todos los canales de alerta.
+     */
+    public static AlertDispatcher shared() {
+        return SHARED;
+    }
+
+    /**
+     * Envía una alerta en un hilo virtual mediante el método bloqueante
+     * {@link IAlert#send}, midiendo su duración.
+     *
+     * @param alert Canal de alerta.
+     * @param event Evento a comunicar.
+     * @return Un futuro con el resultado; nunca se completa con excepción.
+     */
+    public CompletableFuture<AlertResult> dispatch(IAlert alert, EmergencyEvent event) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            try {
+                boolean sent = alert.send(event);
+                Duration latency = Duration.ofNanos(System.nanoTime() - start);
+                if (Thread.currentThread().isInterrupted()) {
+                    return AlertResult.cancelled(alert.getAlertType(), latency);
+                }
+                return sent ? AlertResult.sent(alert.getAlertType(), latency)
+                    : AlertResult.failed(alert.getAlertType(), "El canal no pudo entregar la alerta.", latency);
+            } catch (RuntimeException e) {
+                return AlertResult.failed(alert.getAlertType(), e.getMessage(),
+                    Duration.ofNanos(System.nanoTime() - start));
+            }
+        });
+    }
+
+    /**
+     * Ejecuta una tarea cualquiera en un hilo virtual.
+     *
+     * @param task La tarea.
+     * @param <T>  Tipo del resultado.
+     * @return Un futuro con el resultado; {@code cancel(true)} interrumpe la tarea.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        InterruptibleFuture<T> future = new InterruptibleFuture<>();
+        inFlight.incrementAndGet();
+        future.task = executor.submit(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        if (future.isCancelled()) {
+            future.task.cancel(true); // Cancelado antes de guardar la tarea.
+        }
+        return future;
+    }
+
+    /**
+     * Ejecuta una acción sin resultado en un hilo virtual.
+     *
+     * @param action La acción.
+     * @return Un futuro que se completa al terminar la acción.
+     */
+    public CompletableFuture<Void> run(Runnable action) {
+        return submit(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return El número de tareas que se están ejecutando en este momento.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Futuro cuya cancelación interrumpe la tarea que lo completa
+     * ({@link CompletableFuture#cancel} por sí solo no lo hace).
+     */
+    private static final class InterruptibleFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> running = task;
+            if (cancelled && running != null) {
+                running.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.emergencias.services;
+
+import java.time.Duration;
+
+/**
+ * <h1>Resultado del Envío de una Alerta</h1>
+ *
+ * <p>
+ * Describe cómo terminó un envío asíncrono ({@link IAlert#sendAsync}): si la
+ * alerta llegó, si falló (y por qué), si se canceló o si agotó su plazo,
+ * junto con el canal utilizado y el tiempo que tardó.
+ * </p>
+ *
+ * <p>
+ * Es inmutable, por lo que puede compartirse entre hilos sin sincronización.
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class AlertResult {
+
+    /**
+     * Estado final de un envío.
+     */
+    public enum Status {
+        /** La alerta se entregó. */
+        SENT,
+        /** El canal no pudo entregar la alerta. */
+        FAILED,
+        /** El envío se canceló o interrumpió antes de terminar. */
+        CANCELLED,
+        /** El envío no terminó dentro del plazo del canal. */
+        TIMED_OUT,
+        /** La alerta se agrupó con la de un incidente ya comunicado. */
+        COALESCED,
+        /** El canal estaba saturado y no admitió el envío. */
+        THROTTLED
+    }
+
+    private final Status status;
+    private final String alertType;
+    private final String detail;
+    private final Duration latency;
+
+    private AlertResult(Status status, String alertType, String detail, Duration latency) {
+        this.status = status;
+        this.alertType = alertType;
+        this.detail = detail;
+        this.latency = latency;
+    }
+
+    /**
+     * @param alertType Canal que entregó la alerta.
+     * @param latency   Tiempo que tardó el envío.
+     * @return Un resultado de éxito.
+     */
+    public static AlertResult sent(String alertType, Duration latency) {
+        return new AlertResult(Status.SENT, alertType, null, latency);
+    }
+
+    /**
+     * @param alertType Canal que intentó el envío.
+     * @param detail    Motivo del fallo.
+     * @param latency   Tiempo transcurrido hasta el fallo.
+     * @return Un resultado de fallo.
+     */
+    public static AlertResult failed(String alertType, String detail, Duration latency) {
+        return new AlertResult(Status.FAILED, alertType, detail, latency);
+    }
+
+    /**
+     * @param alertType Canal cuyo envío se canceló.
+     * @param latency   Tiempo transcurrido hasta la cancelación.
+     * @return Un resultado de cancelación.
+     */
+    public static AlertResult cancelled(String alertType, Duration latency) {
+        return new AlertResult(Status.CANCELLED, alertType, "Envío cancelado.", latency);
+    }
+
+    /**
+     * @param alertType Canal que no respondió a tiempo.
+     * @param latency   Plazo agotado.
+     * @return Un resultado de plazo agotado.
+     */
+    public static AlertResult timedOut(String alertType, Duration latency) {
+        return new AlertResult(Status.TIMED_OUT, alertType,
+            "Sin respuesta en " + latency.toMillis() + " ms.", latency);
+    }
+
+    /**
+     * @param alertType Canal que comunicó el incidente.
+     * @param detail    Incidente al que se agregó la alerta.
+     * @param latency   Tiempo hasta que el incidente quedó comunicado.
+     * @return Un resultado de alerta agrupada.
+     */
+    public static AlertResult coalesced(String alertType, String detail, Duration latency) {
+        return new AlertResult(Status.COALESCED, alertType, detail, latency);
+    }
+
+    /**
+     * @param alertType Canal saturado.
+     * @param detail    Motivo del rechazo.
+     * @param latency   Tiempo transcurrido hasta el rechazo.
+     * @return Un resultado de envío limitado por el ritmo del canal.
+     */
+    public static AlertResult throttled(String alertType, String detail, Duration latency) {
+        return new AlertResult(Status.THROTTLED, alertType, detail, latency);
+    }
+
+    /** @return {@code true} si la alerta se entregó o ya estaba comunicada en su incidente. */
+    public boolean isSuccess() { return status == Status.SENT || status == Status.COALESCED; }
+
+    public Status getStatus() { return status; }
+    public String getAlertType() { return alertType; }
+    /** @return El motivo del fallo o la cancelación (o el incidente, si se agrupó), o {@code null} si se envió. */
+    public String getDetail() { return detail; }
+    public Duration getLatency() { return latency; }
+
+    @Override
+    public String toString() {
+        return alertType + ": " + status + " en " + latency.toMillis() + " ms"
+            + (detail != null ? " (" + detail + ")" : "");
+    }
+}
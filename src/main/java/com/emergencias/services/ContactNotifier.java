@@ -0,0 +1,184 @@
+package com.emergencias.services;
+
+import com.emergencias.model.EmergencyContact;
+import com.emergencias.model.EmergencyEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Aviso en Paralelo a los Contactos de Emergencia</h1>
+ *
+ * <p>
+ * Avisa a todos los contactos de una emergencia a la vez, cada uno en su
+ * propio hilo virtual del {@link AlertDispatcher}: avisar a diez familiares
+ * tarda lo que tarde el más lento, no la suma de todos.
+ * </p>
+ *
+ * <ul>
+ *     <li><b>Plazo global:</b> el aviso termina como mucho al cumplirse el plazo;
+ *         los contactos que aún no han respondido figuran como
+ *         {@link AlertResult.Status#TIMED_OUT}.</li>
+ *     <li><b>Resultados por contacto:</b> un {@link ContactResult} por cada uno.</li>
+ *     <li><b>Agrupación:</b> si llegan varias emergencias para la misma persona
+ *         mientras se le está entregando un aviso, se le envían todas juntas en
+ *         la siguiente entrega, en lugar de un mensaje por emergencia.</li>
+ * </ul>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class ContactNotifier {
+
+    /**
+     * Medio por el que se entrega un aviso (mensaje, llamada...).
+     */
+    @FunctionalInterface
+    public interface Channel {
+        /**
+         * Entrega a un contacto el aviso de una o varias emergencias. Puede
+         * bloquear: se ejecuta en un hilo virtual.
+         *
+         * @param contact El contacto.
+         * @param events  Las emergencias que se le comunican (al menos una).
+         * @throws Exception si la entrega falla.
+         */
+        void deliver(EmergencyContact contact, List<EmergencyEvent> events) throws Exception;
+    }
+
+    private final String channelName;
+    private final Channel channel;
+    private final Duration deadline;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * @param channelName Nombre del medio (para los resultados).
+     * @param channel     Medio de entrega.
+     * @param deadline    Plazo máximo de cada aviso a todos los contactos.
+     */
+    public ContactNotifier(String channelName, Channel channel, Duration deadline) {
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("El plazo de aviso debe ser positivo.");
+        }
+        this.channelName = channelName;
+        this.channel = channel;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Avisa a todos los contactos de una emergencia en paralelo, sin
+     * bloquear al llamante.
+     *
+     * @param contacts Los contactos a avisar.
+     * @param event    La emergencia.
+     * @return Un futuro con un resultado por contacto, en el mismo orden; se
+     *         completa como mucho al cumplirse el plazo y nunca con excepción.
+     */
+    public CompletableFuture<List<ContactResult>> notifyAll(List<EmergencyContact> contacts, EmergencyEvent event) {
+        long start = System.nanoTime();
+        List<CompletableFuture<ContactResult>> results = new ArrayList<>(contacts.size());
+        for (EmergencyContact contact : contacts) {
+            CompletableFuture<ContactResult> result = submit(contact, event, start);
+            results.add(result.completeOnTimeout(
+                new ContactResult(contact, AlertResult.timedOut(channelName, deadline), 1),
+                deadline.toNanos(), TimeUnit.NANOSECONDS));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Deja la emergencia en el buzón del contacto y arranca la entrega si no
+     * hay ninguna en curso.
+     */
+    private CompletableFuture<ContactResult> submit(EmergencyContact contact, EmergencyEvent event, long start) {
+        Pending pending = new Pending(event, start);
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(contact.key(), key -> new Mailbox(contact));
+            boolean startDelivery;
+            synchronized (mailbox) {
+                if (mailbox.retired) {
+                    continue; // El buzón acaba de vaciarse y salir del mapa: se crea otro.
+                }
+                mailbox.queued.add(pending);
+                startDelivery = !mailbox.delivering;
+                mailbox.delivering = true;
+            }
+            if (startDelivery) {
+                AlertDispatcher.shared().run(() -> drain(mailbox));
+            }
+            return pending.future;
+        }
+    }
+
+    /**
+     * Entrega al contacto todo lo acumulado en su buzón, en tandas, hasta
+     * vaciarlo.
+     */
+    private void drain(Mailbox mailbox) {
+        while (true) {
+            List<Pending> batch;
+            synchronized (mailbox) {
+                if (mailbox.queued.isEmpty()) {
+                    mailbox.delivering = false;
+                    mailbox.retired = true;
+                    mailboxes.remove(mailbox.contact.key(), mailbox);
+                    return;
+                }
+                batch = mailbox.queued;
+                mailbox.queued = new ArrayList<>();
+            }
+            List<EmergencyEvent> events = batch.stream().map(pending -> pending.event).toList();
+            String failure = null;
+            try {
+                channel.deliver(mailbox.contact, events);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = "Aviso interrumpido.";
+            } catch (Exception e) {
+                failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+            long now = System.nanoTime();
+            for (Pending pending : batch) {
+                Duration latency = Duration.ofNanos(now - pending.startNanos);
+                AlertResult result = failure == null ? AlertResult.sent(channelName, latency)
+                    : AlertResult.failed(channelName, failure, latency);
+                pending.future.complete(new ContactResult(mailbox.contact, result, batch.size()));
+            }
+        }
+    }
+
+    /**
+     * Avisos pendientes de un contacto.
+     */
+    private static final class Mailbox {
+        private final EmergencyContact contact;
+        private List<Pending> queued = new ArrayList<>();
+        private boolean delivering;
+        private boolean retired;
+
+        Mailbox(EmergencyContact contact) {
+            this.contact = contact;
+        }
+    }
+
+    /**
+     * Emergencia que espera su entrega a un contacto.
+     */
+    private static final class Pending {
+        private final EmergencyEvent event;
+        private final long startNanos;
+        private final CompletableFuture<ContactResult> future = new CompletableFuture<>();
+
+        Pending(EmergencyEvent event, long startNanos) {
+            this.event = event;
+            this.startNanos = startNanos;
+        }
+    }
+}
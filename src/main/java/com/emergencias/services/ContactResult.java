@@ -0,0 +1,43 @@
+package com.emergencias.services;
+
+import com.emergencias.model.EmergencyContact;
+
+/**
+ * <h1>Resultado del Aviso a un Contacto</h1>
+ *
+ * <p>
+ * Resultado inmutable del aviso a un contacto de emergencia: el
+ * {@link AlertResult} de la entrega y el número de emergencias que viajaron
+ * juntas en ella (cuando varias emergencias avisan a la vez a la misma
+ * persona, se le envían en un único mensaje).
+ * </p>
+ *
+ * @author Davgaltol
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class ContactResult {
+    private final EmergencyContact contact;
+    private final AlertResult result;
+    private final int batchSize;
+
+    ContactResult(EmergencyContact contact, AlertResult result, int batchSize) {
+        this.contact = contact;
+        this.result = result;
+        this.batchSize = batchSize;
+    }
+
+    /** @return {@code true} si el aviso se entregó. */
+    public boolean isSuccess() { return result.isSuccess(); }
+
+    public EmergencyContact getContact() { return contact; }
+    public AlertResult getResult() { return result; }
+    public int getBatchSize() { return batchSize; }
+
+    @Override
+    public String toString() {
+        return contact + ": " + result.getStatus() + " en " + result.getLatency().toMillis() + " ms"
+            + (batchSize > 1 ? " (" + batchSize + " emergencias en un mensaje)" : "")
+            + (result.getDetail() != null ? " (" + result.getDetail() + ")" : "");
+    }
+}
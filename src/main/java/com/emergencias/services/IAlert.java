@@ -3,6 +3,8 @@ package com.emergencias.services;
 import com.emergencias.model.EmergencyEvent;
 import com.emergencias.model.UserData;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * <h1>Contrato para Sistemas de Alerta (Interfaz)</h1>
  *
@@ -24,6 +26,13 @@ import com.emergencias.model.UserData;
  * su código, simplemente recibiendo una implementación diferente.
  * </p>
  *
+ * <p>
+ * Además de los métodos bloqueantes, la interfaz ofrece variantes asíncronas
+ * ({@link #sendAsync}, {@link #notifyContactsAsync}) que se ejecutan en hilos
+ * virtuales mediante el {@link AlertDispatcher}, de modo que quien las llama
+ * no queda bloqueado mientras dura la comunicación.
+ * </p>
+ *
  * @author MirceaMihaiBontoi (Documentado por Davgaltol)
  * @version 1.1
  * @since 2023-10-27
@@ -37,6 +46,21 @@ public interface IAlert {
      * @return {@code true} si la alerta se envió con éxito, {@code false} en caso contrario.
      */
     boolean send(EmergencyEvent event);
+
+    /**
+     * Envía la alerta principal sin bloquear al llamante.
+     * <p>
+     * Por defecto ejecuta {@link #send} en un hilo virtual del
+     * {@link AlertDispatcher}. Cancelar el futuro con {@code cancel(true)}
+     * interrumpe el envío.
+     * </p>
+     *
+     * @param event El evento de emergencia que contiene todos los detalles.
+     * @return Un futuro con el {@link AlertResult} del envío.
+     */
+    default CompletableFuture<AlertResult> sendAsync(EmergencyEvent event) {
+        return AlertDispatcher.shared().dispatch(this, event);
+    }
     
     /**
      * Notifica a los contactos personales de emergencia del usuario.
@@ -45,6 +69,17 @@ public interface IAlert {
      * @param event    El evento de emergencia con los detalles a notificar.
      */
     void notifyContacts(UserData userData, EmergencyEvent event);
+
+    /**
+     * Notifica a los contactos personales sin bloquear al llamante.
+     *
+     * @param userData Los datos del usuario, que contienen la información del contacto.
+     * @param event    El evento de emergencia con los detalles a notificar.
+     * @return Un futuro que se completa cuando termina la notificación.
+     */
+    default CompletableFuture<Void> notifyContactsAsync(UserData userData, EmergencyEvent event) {
+        return AlertDispatcher.shared().run(() -> notifyContacts(userData, event));
+    }
     
     /**
      * Devuelve una descripción del tipo de sistema de alerta.